@@ -0,0 +1,134 @@
+package com.frauddetection.fraudservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with the stored baseline and fails the build when throughput drops,
+ * average time rises, or normalized allocation ({@code gc.alloc.rate.norm}) grows beyond tolerance.
+ *
+ * <p>Arguments: {@code <result.json> <baseline.json> <update> [latencyTolerance] [allocationTolerance]}.
+ * With {@code update=true} the result replaces the baseline instead of being checked; otherwise a missing baseline
+ * fails the build, since there is nothing to compare against.
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOCATION_SLACK_BYTES = 16.0;
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultPath = Path.of(args[0]);
+        Path baselinePath = Path.of(args[1]);
+        boolean update = Boolean.parseBoolean(args[2]);
+        double latencyTolerance = args.length > 3 ? Double.parseDouble(args[3]) : 0.20;
+        double allocationTolerance = args.length > 4 ? Double.parseDouble(args[4]) : 0.10;
+
+        if (update) {
+            Files.createDirectories(baselinePath.toAbsolutePath().getParent());
+            Files.copy(resultPath, baselinePath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("jmh_baseline_updated path=" + baselinePath);
+            return;
+        }
+        if (!Files.exists(baselinePath)) {
+            // Without a baseline nothing was checked, which must not pass as "no regression".
+            System.out.println("jmh_baseline_missing path=" + baselinePath
+                    + " (record one with -Djmh.baseline.update=true)");
+            System.exit(1);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(baselinePath.toFile()));
+        Map<String, JsonNode> current = index(objectMapper.readTree(resultPath.toFile()));
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.printf("%-90s new benchmark, no baseline%n", entry.getKey());
+                continue;
+            }
+            compareScore(entry.getKey(), expected, entry.getValue(), latencyTolerance, regressions);
+            compareAllocation(entry.getKey(), expected, entry.getValue(), allocationTolerance, regressions);
+        }
+
+        if (!regressions.isEmpty()) {
+            regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+            System.exit(1);
+        }
+        System.out.println("jmh_baseline_ok benchmarks=" + current.size());
+    }
+
+    private static void compareScore(
+            String key,
+            JsonNode expected,
+            JsonNode actual,
+            double tolerance,
+            List<String> regressions
+    ) {
+        double baselineScore = expected.path("primaryMetric").path("score").asDouble();
+        double currentScore = actual.path("primaryMetric").path("score").asDouble();
+        String unit = actual.path("primaryMetric").path("scoreUnit").asText();
+        boolean higherIsBetter = "thrpt".equals(actual.path("mode").asText());
+
+        double change = baselineScore == 0.0 ? 0.0 : (currentScore - baselineScore) / baselineScore;
+        System.out.printf("%-90s %12.3f -> %12.3f %-10s (%+.1f%%)%n", key, baselineScore, currentScore, unit, change * 100);
+
+        boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+        if (regressed) {
+            regressions.add(String.format("%s score %.3f -> %.3f %s", key, baselineScore, currentScore, unit));
+        }
+    }
+
+    private static void compareAllocation(
+            String key,
+            JsonNode expected,
+            JsonNode actual,
+            double tolerance,
+            List<String> regressions
+    ) {
+        JsonNode baselineAllocation = expected.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+        JsonNode currentAllocation = actual.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+        if (baselineAllocation.isMissingNode() || currentAllocation.isMissingNode()) {
+            return;
+        }
+
+        double limit = baselineAllocation.asDouble() * (1.0 + tolerance) + ALLOCATION_SLACK_BYTES;
+        if (currentAllocation.asDouble() > limit) {
+            regressions.add(String.format(
+                    "%s allocation %.1f -> %.1f B/op",
+                    key,
+                    baselineAllocation.asDouble(),
+                    currentAllocation.asDouble()
+            ));
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            String key = result.path("benchmark").asText() + ":" + result.path("mode").asText()
+                    + (params.isEmpty() ? "" : params.toString());
+            indexed.put(key, result);
+        }
+        return indexed;
+    }
+}
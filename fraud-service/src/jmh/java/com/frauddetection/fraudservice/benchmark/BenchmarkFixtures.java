@@ -0,0 +1,66 @@
+package com.frauddetection.fraudservice.benchmark;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.model.TransactionStatus;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic event mix shared by the benchmarks so results are comparable run to run. A
+ * benchmark cycles through the arrays to keep branch prediction honest.
+ */
+final class BenchmarkFixtures {
+
+    static final int SIZE = 1024;
+
+    private static final String[] MERCHANTS = {
+            "merchant-1", "grocer-22", "crypto-exchange-9", "casino-royal", "giftcard-hub", "bookstore"
+    };
+    private static final String[] LOCATIONS = {
+            "Austin, US", "New York, USA", "Moscow, RU", "Paris, FR", "Lagos", "Jakarta, ID", ""
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static TransactionCreatedEvent[] transactions() {
+        Random random = new Random(42);
+        TransactionCreatedEvent[] transactions = new TransactionCreatedEvent[SIZE];
+        for (int index = 0; index < SIZE; index++) {
+            transactions[index] = new TransactionCreatedEvent(
+                    UUID.randomUUID(),
+                    "txn-" + index,
+                    "user-" + random.nextInt(64),
+                    BigDecimal.valueOf(random.nextInt(1_500_000), 2),
+                    "USD",
+                    MERCHANTS[random.nextInt(MERCHANTS.length)],
+                    LOCATIONS[random.nextInt(LOCATIONS.length)],
+                    "device-" + random.nextInt(8),
+                    TransactionStatus.RECEIVED,
+                    Instant.parse("2026-01-01T00:00:00Z").plusSeconds(index)
+            );
+        }
+        return transactions;
+    }
+
+    static FeatureContext[] featureContexts() {
+        Random random = new Random(7);
+        FeatureContext[] featureContexts = new FeatureContext[SIZE];
+        for (int index = 0; index < SIZE; index++) {
+            featureContexts[index] = new FeatureContext(random.nextInt(10), random.nextInt(16), random.nextInt(600));
+        }
+        return featureContexts;
+    }
+
+    static BigDecimal[] scores() {
+        Random random = new Random(11);
+        BigDecimal[] scores = new BigDecimal[SIZE];
+        for (int index = 0; index < SIZE; index++) {
+            scores[index] = BigDecimal.valueOf(random.nextInt(10_001), 4);
+        }
+        return scores;
+    }
+}
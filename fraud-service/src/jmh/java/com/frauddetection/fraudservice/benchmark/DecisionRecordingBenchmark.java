@@ -0,0 +1,79 @@
+package com.frauddetection.fraudservice.benchmark;
+
+import com.frauddetection.fraudservice.event.FraudDecisionEvent;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.mapper.FraudDecisionMapper;
+import com.frauddetection.fraudservice.model.DecisionType;
+import com.frauddetection.fraudservice.model.FraudDecision;
+import com.frauddetection.fraudservice.service.ModelQualityMonitoringService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecisionRecordingBenchmark {
+
+    private FraudDecisionMapper mapper;
+    private ModelQualityMonitoringService modelQualityMonitoringService;
+    private TransactionCreatedEvent[] transactions;
+    private BigDecimal[] scores;
+    private FraudDecision decision;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        mapper = new FraudDecisionMapper();
+        modelQualityMonitoringService = new ModelQualityMonitoringService(
+                new SimpleMeterRegistry(), 200, 400, 0.40, 0.60, 0.12, 0.45
+        );
+        transactions = BenchmarkFixtures.transactions();
+        scores = BenchmarkFixtures.scores();
+        decision = mapper.toEntity(
+                transactions[0],
+                new BigDecimal("0.4520"),
+                DecisionType.REVIEW,
+                new BigDecimal("0.3100"),
+                new BigDecimal("0.5450")
+        );
+        decision.setId(UUID.randomUUID());
+        decision.setCreatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Benchmark
+    public FraudDecision mapToEntity() {
+        int index = next();
+        return mapper.toEntity(transactions[index], scores[index], DecisionType.APPROVED, scores[index], scores[index]);
+    }
+
+    @Benchmark
+    public FraudDecisionEvent mapToEvent() {
+        return mapper.toEvent(decision);
+    }
+
+    @Benchmark
+    public void recordMlScore() {
+        modelQualityMonitoringService.recordMlScore(scores[next()]);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (BenchmarkFixtures.SIZE - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,80 @@
+package com.frauddetection.fraudservice.benchmark;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.Rule;
+import com.frauddetection.fraudservice.engine.RuleCompiler;
+import com.frauddetection.fraudservice.engine.RuleSetDefinition;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.rule.HighAmountRule;
+import com.frauddetection.fraudservice.rule.RapidTransactionRule;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hand-written rules against the same rules compiled from definitions, one rule per invocation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleDslBenchmark {
+
+    @Param({"high_amount", "rapid_transactions"})
+    public String rule;
+
+    private Rule handWritten;
+    private Rule compiled;
+    private TransactionCreatedEvent[] transactions;
+    private FeatureContext[] featureContexts;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        if (rule.equals("high_amount")) {
+            handWritten = new HighAmountRule();
+            compiled = RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("high_amount", 0.40, List.of(
+                    new RuleSetDefinition.Case("amount > 5000", "min(1, (amount - 5000) / 5000)")
+            ), null));
+        } else {
+            handWritten = new RapidTransactionRule();
+            compiled = RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("rapid_transactions", 0.20, List.of(
+                    new RuleSetDefinition.Case("transactions_per_minute >= 6 or transactions_per_five_minutes >= 12", "1"),
+                    new RuleSetDefinition.Case("transactions_per_minute >= 4 or transactions_per_five_minutes >= 8", "0.80"),
+                    new RuleSetDefinition.Case("transactions_per_minute >= 3 or transactions_per_five_minutes >= 6", "0.55"),
+                    new RuleSetDefinition.Case("seconds_since_last_transaction <= 5", "0.45")
+            ), null));
+        }
+        transactions = BenchmarkFixtures.transactions();
+        featureContexts = BenchmarkFixtures.featureContexts();
+    }
+
+    @Benchmark
+    public double handWritten() {
+        int index = next();
+        return handWritten.evaluate(transactions[index], featureContexts[index]);
+    }
+
+    @Benchmark
+    public double compiled() {
+        int index = next();
+        return compiled.evaluate(transactions[index], featureContexts[index]);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (BenchmarkFixtures.SIZE - 1);
+        return cursor;
+    }
+}
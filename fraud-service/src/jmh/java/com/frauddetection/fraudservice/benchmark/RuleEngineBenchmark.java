@@ -0,0 +1,80 @@
+package com.frauddetection.fraudservice.benchmark;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.Rule;
+import com.frauddetection.fraudservice.engine.RuleEngine;
+import com.frauddetection.fraudservice.engine.RuleEvaluationResult;
+import com.frauddetection.fraudservice.engine.RuleScores;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.rule.ForeignLocationRule;
+import com.frauddetection.fraudservice.rule.HighAmountRule;
+import com.frauddetection.fraudservice.rule.RapidTransactionRule;
+import com.frauddetection.fraudservice.rule.SuspiciousMerchantRule;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleEngineBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int ruleCount;
+
+    private RuleEngine ruleEngine;
+    private RuleScores ruleScores;
+    private TransactionCreatedEvent[] transactions;
+    private FeatureContext[] featureContexts;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        List<Rule> templates = List.of(
+                new HighAmountRule(),
+                new ForeignLocationRule(),
+                new SuspiciousMerchantRule(),
+                new RapidTransactionRule()
+        );
+        List<Rule> rules = new ArrayList<>(ruleCount);
+        for (int index = 0; index < ruleCount; index++) {
+            rules.add(templates.get(index % templates.size()));
+        }
+
+        ruleEngine = new RuleEngine(rules);
+        ruleScores = new RuleScores();
+        transactions = BenchmarkFixtures.transactions();
+        featureContexts = BenchmarkFixtures.featureContexts();
+    }
+
+    @Benchmark
+    public RuleEvaluationResult evaluate() {
+        int index = next();
+        return ruleEngine.evaluate(transactions[index], featureContexts[index]);
+    }
+
+    @Benchmark
+    public double evaluateInto() {
+        int index = next();
+        return ruleEngine.evaluateInto(transactions[index], featureContexts[index], ruleScores);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (BenchmarkFixtures.SIZE - 1);
+        return cursor;
+    }
+}
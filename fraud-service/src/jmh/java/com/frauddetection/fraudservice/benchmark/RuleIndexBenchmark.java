@@ -0,0 +1,109 @@
+package com.frauddetection.fraudservice.benchmark;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.Rule;
+import com.frauddetection.fraudservice.engine.RuleCompiler;
+import com.frauddetection.fraudservice.engine.RuleScores;
+import com.frauddetection.fraudservice.engine.RuleSet;
+import com.frauddetection.fraudservice.engine.RuleSetDefinition;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Large sets of merchant-, currency- and amount-specific defined rules, evaluated through the guard index and by
+ * scanning every rule (the same rules with their guards hidden).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleIndexBenchmark {
+
+    private static final String[] MERCHANT_PREFIXES = {"merchant-", "grocer-", "crypto-", "casino-", "giftcard-", "book"};
+
+    @Param({"16", "256", "1024"})
+    public int ruleCount;
+
+    private RuleSet indexed;
+    private RuleSet scanned;
+    private RuleScores ruleScores;
+    private TransactionCreatedEvent[] transactions;
+    private FeatureContext[] featureContexts;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        List<RuleSetDefinition.RuleDefinition> definitions = new ArrayList<>(ruleCount);
+        for (int index = 0; index < ruleCount; index++) {
+            String when = switch (index % 3) {
+                case 0 -> "starts_with(merchant_id, '" + MERCHANT_PREFIXES[index % MERCHANT_PREFIXES.length] + (index / 3)
+                        + "') and amount > 100";
+                case 1 -> "currency == 'C" + index + "' and transactions_per_minute >= 3";
+                default -> "amount >= " + (index * 20) + " and amount < " + (index * 20 + 150);
+            };
+            definitions.add(new RuleSetDefinition.RuleDefinition("rule_" + index, 0.1,
+                    List.of(new RuleSetDefinition.Case(when, "0.5")), null));
+        }
+        List<Rule> rules = RuleCompiler.compile(new RuleSetDefinition("bench", definitions));
+        List<Rule> unguarded = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            unguarded.add(new Unguarded(rule));
+        }
+
+        indexed = new RuleSet("indexed", rules);
+        scanned = new RuleSet("scanned", unguarded);
+        ruleScores = new RuleScores();
+        transactions = BenchmarkFixtures.transactions();
+        featureContexts = BenchmarkFixtures.featureContexts();
+    }
+
+    @Benchmark
+    public double indexed() {
+        int index = next();
+        return indexed.evaluateInto(transactions[index], featureContexts[index], ruleScores);
+    }
+
+    @Benchmark
+    public double scanned() {
+        int index = next();
+        return scanned.evaluateInto(transactions[index], featureContexts[index], ruleScores);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (BenchmarkFixtures.SIZE - 1);
+        return cursor;
+    }
+
+    private record Unguarded(Rule rule) implements Rule {
+
+        @Override
+        public String name() {
+            return rule.name();
+        }
+
+        @Override
+        public double weight() {
+            return rule.weight();
+        }
+
+        @Override
+        public double evaluate(TransactionCreatedEvent transaction, FeatureContext featureContext) {
+            return rule.evaluate(transaction, featureContext);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.frauddetection.fraudservice.benchmark;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.RuleEngine;
+import com.frauddetection.fraudservice.engine.ScoreUnits;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.model.DecisionType;
+import com.frauddetection.fraudservice.rule.ForeignLocationRule;
+import com.frauddetection.fraudservice.rule.HighAmountRule;
+import com.frauddetection.fraudservice.rule.RapidTransactionRule;
+import com.frauddetection.fraudservice.rule.SuspiciousMerchantRule;
+import com.frauddetection.fraudservice.service.DecisionEngine;
+import com.frauddetection.fraudservice.service.MlFeatureEngineeringService;
+import com.frauddetection.fraudservice.service.MlPredictionRequest;
+import com.frauddetection.fraudservice.service.PrimitiveScoringService;
+import com.frauddetection.fraudservice.service.RiskAggregationService;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoringBenchmark {
+
+    private MlFeatureEngineeringService mlFeatureEngineeringService;
+    private RiskAggregationService riskAggregationService;
+    private DecisionEngine decisionEngine;
+    private PrimitiveScoringService primitiveScoringService;
+    private TransactionCreatedEvent[] transactions;
+    private FeatureContext[] featureContexts;
+    private BigDecimal[] ruleScores;
+    private BigDecimal[] mlScores;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        ForeignLocationRule foreignLocationRule = new ForeignLocationRule();
+        SuspiciousMerchantRule suspiciousMerchantRule = new SuspiciousMerchantRule();
+        RuleEngine ruleEngine = new RuleEngine(List.of(
+                new HighAmountRule(),
+                foreignLocationRule,
+                suspiciousMerchantRule,
+                new RapidTransactionRule()
+        ));
+
+        mlFeatureEngineeringService = new MlFeatureEngineeringService(foreignLocationRule, suspiciousMerchantRule);
+        riskAggregationService = new RiskAggregationService();
+        decisionEngine = new DecisionEngine();
+        primitiveScoringService = new PrimitiveScoringService(ruleEngine, mlFeatureEngineeringService, "primitive");
+        transactions = BenchmarkFixtures.transactions();
+        featureContexts = BenchmarkFixtures.featureContexts();
+        ruleScores = BenchmarkFixtures.scores();
+        mlScores = BenchmarkFixtures.scores();
+        Collections.reverse(Arrays.asList(mlScores));
+    }
+
+    @Benchmark
+    public MlPredictionRequest buildMlRequest() {
+        int index = next();
+        return mlFeatureEngineeringService.buildRequest(transactions[index], featureContexts[index]);
+    }
+
+    @Benchmark
+    public BigDecimal aggregateRisk() {
+        int index = next();
+        return riskAggregationService.aggregate(ruleScores[index], mlScores[index]);
+    }
+
+    @Benchmark
+    public DecisionType decide() {
+        int index = next();
+        return decisionEngine.decide(riskAggregationService.aggregate(ruleScores[index], mlScores[index]));
+    }
+
+    /**
+     * Rules, aggregation and decision on the fixed-point path; this is the scoring core that should
+     * allocate close to nothing per event.
+     */
+    @Benchmark
+    public DecisionType primitiveScoringCore() {
+        int index = next();
+        long ruleUnits = primitiveScoringService.scoreRules(transactions[index], featureContexts[index]);
+        long riskUnits = primitiveScoringService.aggregate(ruleUnits, ScoreUnits.toUnits(mlScores[index]));
+        return primitiveScoringService.decide(riskUnits);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (BenchmarkFixtures.SIZE - 1);
+        return cursor;
+    }
+}
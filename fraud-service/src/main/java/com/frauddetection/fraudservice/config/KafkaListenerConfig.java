@@ -1,13 +1,21 @@
 package com.frauddetection.fraudservice.config;
 
 import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.util.Collection;
+import java.util.List;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.converter.ConversionException;
 import org.springframework.messaging.converter.MessageConversionException;
@@ -49,12 +57,54 @@ public class KafkaListenerConfig {
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> kafkaListenerContainerFactory(
             ConsumerFactory<String, TransactionCreatedEvent> consumerFactory,
-            CommonErrorHandler kafkaErrorHandler
+            CommonErrorHandler kafkaErrorHandler,
+            ObjectProvider<ConsumerAwareRebalanceListener> rebalanceListeners,
+            @Value("${app.kafka.consumer-mode:record}") String consumerMode,
+            @Value("${app.kafka.consumer-concurrency:1}") int concurrency
     ) {
         ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
         factory.setCommonErrorHandler(kafkaErrorHandler);
+        factory.setBatchListener("batch".equalsIgnoreCase(consumerMode));
+        factory.setConcurrency(Math.max(1, concurrency));
+
+        if ("parallel".equalsIgnoreCase(consumerMode)) {
+            // Workers acknowledge out of order; the container only commits up to the lowest unacked offset.
+            ContainerProperties containerProperties = factory.getContainerProperties();
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            containerProperties.setAsyncAcks(true);
+        }
+
+        List<ConsumerAwareRebalanceListener> listeners = rebalanceListeners.orderedStream().toList();
+        if (!listeners.isEmpty()) {
+            factory.getContainerProperties().setConsumerRebalanceListener(new CompositeRebalanceListener(listeners));
+        }
         return factory;
     }
+
+    // Several components react to rebalances: parallel lanes drain, the local velocity store hands off users.
+    private record CompositeRebalanceListener(List<ConsumerAwareRebalanceListener> delegates)
+            implements ConsumerAwareRebalanceListener {
+
+        @Override
+        public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            delegates.forEach(delegate -> delegate.onPartitionsRevokedBeforeCommit(consumer, partitions));
+        }
+
+        @Override
+        public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            delegates.forEach(delegate -> delegate.onPartitionsRevokedAfterCommit(consumer, partitions));
+        }
+
+        @Override
+        public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            delegates.forEach(delegate -> delegate.onPartitionsLost(consumer, partitions));
+        }
+
+        @Override
+        public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            delegates.forEach(delegate -> delegate.onPartitionsAssigned(consumer, partitions));
+        }
+    }
 }
@@ -10,8 +10,11 @@ import org.springframework.kafka.config.TopicBuilder;
 public class KafkaTopicConfig {
 
     @Bean
-    public NewTopic transactionsTopic(@Value("${app.kafka.transactions-topic}") String topicName) {
-        return TopicBuilder.name(topicName).partitions(3).replicas(1).build();
+    public NewTopic transactionsTopic(
+            @Value("${app.kafka.transactions-topic}") String topicName,
+            @Value("${app.kafka.transactions-partitions:3}") int partitions
+    ) {
+        return TopicBuilder.name(topicName).partitions(partitions).replicas(1).build();
     }
 
     @Bean
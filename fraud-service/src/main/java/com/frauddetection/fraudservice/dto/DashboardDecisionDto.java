@@ -15,6 +15,7 @@ public record DashboardDecisionDto(
         DecisionType decision,
         BigDecimal ruleScore,
         BigDecimal mlScore,
+        boolean mlSkipped,
         Instant createdAt
 ) {
 }
@@ -3,6 +3,19 @@ package com.frauddetection.fraudservice.engine;
 public record FeatureContext(
         int transactionsPerMinute,
         int transactionsPerFiveMinutes,
-        long secondsSinceLastTransaction
+        long secondsSinceLastTransaction,
+        FeatureVector features
 ) {
+
+    public FeatureContext {
+        features = features == null ? FeatureVector.EMPTY : features;
+    }
+
+    public FeatureContext(int transactionsPerMinute, int transactionsPerFiveMinutes, long secondsSinceLastTransaction) {
+        this(transactionsPerMinute, transactionsPerFiveMinutes, secondsSinceLastTransaction, FeatureVector.EMPTY);
+    }
+
+    public double feature(String name) {
+        return features.get(name);
+    }
 }
@@ -0,0 +1,74 @@
+package com.frauddetection.fraudservice.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named numeric features computed for one event, e.g. {@code merchant_1h.count} or {@code user_24h.avg}.
+ */
+public record FeatureVector(Map<String, Double> values) {
+
+    public static final FeatureVector EMPTY = new FeatureVector(Map.of());
+
+    public FeatureVector {
+        values = values == null ? Map.of() : Map.copyOf(values);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public double get(String name) {
+        return get(name, 0.0);
+    }
+
+    public double get(String name, double defaultValue) {
+        Double value = values.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    public Set<String> names() {
+        return values.keySet();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Combines two vectors; on a name clash the value from {@code other} wins.
+     */
+    public FeatureVector merge(FeatureVector other) {
+        if (other == null || other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        Map<String, Double> merged = new LinkedHashMap<>(values);
+        merged.putAll(other.values());
+        return new FeatureVector(merged);
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Double> values = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder put(String name, double value) {
+            values.put(name, value);
+            return this;
+        }
+
+        public FeatureVector build() {
+            return values.isEmpty() ? EMPTY : new FeatureVector(values);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.frauddetection.fraudservice.engine;
 
 import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.util.Set;
 
 public interface Rule {
 
@@ -9,4 +10,20 @@ public interface Rule {
     double weight();
 
     double evaluate(TransactionCreatedEvent transaction, FeatureContext featureContext);
+
+    /**
+     * Condition an event must meet for this rule to score above zero; {@link RuleSet} does not evaluate the rule
+     * for other events.
+     */
+    default RuleGuard guard() {
+        return RuleGuard.ALWAYS;
+    }
+
+    /**
+     * Names of the {@link FeatureContext#features() optional features} the rule reads. Velocity counters are
+     * always resolved; other features are only guaranteed to be present when a rule declares them.
+     */
+    default Set<String> requiredFeatures() {
+        return Set.of();
+    }
 }
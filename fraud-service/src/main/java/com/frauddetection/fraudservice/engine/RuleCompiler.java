@@ -0,0 +1,510 @@
+package com.frauddetection.fraudservice.engine;
+
+import com.frauddetection.fraudservice.engine.RuleExpression.And;
+import com.frauddetection.fraudservice.engine.RuleExpression.Binary;
+import com.frauddetection.fraudservice.engine.RuleExpression.BooleanLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.Comparison;
+import com.frauddetection.fraudservice.engine.RuleExpression.FeatureRead;
+import com.frauddetection.fraudservice.engine.RuleExpression.Field;
+import com.frauddetection.fraudservice.engine.RuleExpression.FieldRead;
+import com.frauddetection.fraudservice.engine.RuleExpression.HasFeature;
+import com.frauddetection.fraudservice.engine.RuleExpression.Not;
+import com.frauddetection.fraudservice.engine.RuleExpression.NumberLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.Or;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextEquality;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextMatch;
+import com.frauddetection.fraudservice.engine.RuleExpression.Type;
+import com.frauddetection.fraudservice.engine.RuleExpression.Unary;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+/**
+ * Compiles {@link RuleSetDefinition rule definitions} into {@link Rule} implementations.
+ *
+ * <p>Each rule becomes a hidden class whose {@code evaluate} method is the rule's cases written out as bytecode:
+ * the first case whose condition holds gives the score, otherwise the fallback score (0 when absent) applies.
+ * Fields are read through the event and context accessors; each context counter a rule reads is loaded once
+ * into a local on entry, so a cascade of cases compares locals, integer counters are compared without widening,
+ * and conditions short-circuit, so once the JIT has inlined the method a defined rule costs about the same as
+ * a hand-written one. Hidden classes are not referenced by their class loader and are unloaded with the rule set
+ * that used them. Each rule also carries a {@link RuleGuard} derived from its cases, which lets {@link RuleSet}
+ * skip it for events no case can match, and declares the features its expressions read, so that only those are
+ * resolved before it runs.
+ */
+public final class RuleCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(void.class, String.class, double.class, RuleGuard.class, Set.class);
+
+    private static final String CLASS_NAME = "com/frauddetection/fraudservice/engine/GeneratedRule";
+    private static final String COMPILER = "com/frauddetection/fraudservice/engine/RuleCompiler";
+    private static final String RULE = "com/frauddetection/fraudservice/engine/Rule";
+    private static final String GUARD = "Lcom/frauddetection/fraudservice/engine/RuleGuard;";
+    private static final String SET = "Ljava/util/Set;";
+    private static final String TRANSACTION = "com/frauddetection/fraudservice/event/TransactionCreatedEvent";
+    private static final String CONTEXT = "com/frauddetection/fraudservice/engine/FeatureContext";
+    private static final String FEATURES = "com/frauddetection/fraudservice/engine/FeatureVector";
+    private static final String EVALUATE = "(L" + TRANSACTION + ";L" + CONTEXT + ";)D";
+
+    private static final int TRANSACTION_SLOT = 1;
+    private static final int CONTEXT_SLOT = 2;
+    private static final int FIRST_FIELD_SLOT = 3;
+
+    private RuleCompiler() {
+    }
+
+    /**
+     * Compiles every rule of {@code definition}; throws {@link IllegalArgumentException} naming the rule at fault.
+     */
+    public static List<Rule> compile(RuleSetDefinition definition) {
+        List<Rule> rules = new ArrayList<>(definition.rules().size());
+        Set<String> names = new HashSet<>();
+        for (RuleSetDefinition.RuleDefinition rule : definition.rules()) {
+            if (rule == null || rule.name() == null || rule.name().isBlank()) {
+                throw new IllegalArgumentException("rule without a name");
+            }
+            if (!names.add(rule.name())) {
+                throw new IllegalArgumentException("duplicate rule " + rule.name());
+            }
+            try {
+                rules.add(compile(rule));
+            } catch (IllegalArgumentException exception) {
+                throw new IllegalArgumentException("rule " + rule.name() + ": " + exception.getMessage(), exception);
+            }
+        }
+        return rules;
+    }
+
+    public static Rule compile(RuleSetDefinition.RuleDefinition definition) {
+        if (!(definition.weight() >= 0.0) || Double.isInfinite(definition.weight())) {
+            throw new IllegalArgumentException("weight must be a non-negative number");
+        }
+        List<RuleExpression> conditions = new ArrayList<>(definition.cases().size());
+        List<RuleExpression> scores = new ArrayList<>(definition.cases().size());
+        for (RuleSetDefinition.Case ruleCase : definition.cases()) {
+            conditions.add(RuleExpressionParser.parse(ruleCase.when(), Type.BOOLEAN));
+            scores.add(RuleExpressionParser.parse(ruleCase.score(), Type.NUMBER));
+        }
+        RuleExpression otherwise = definition.otherwise() == null || definition.otherwise().isBlank()
+                ? new NumberLiteral(0.0)
+                : RuleExpressionParser.parse(definition.otherwise(), Type.NUMBER);
+
+        byte[] bytecode = generate(conditions, scores, otherwise);
+        try {
+            MethodHandles.Lookup rule = LOOKUP.defineHiddenClass(bytecode, true);
+            MethodHandle constructor = rule.findConstructor(rule.lookupClass(), CONSTRUCTOR);
+            return (Rule) constructor.invoke(definition.name(), definition.weight(), RuleGuard.derive(conditions, otherwise),
+                    requiredFeatures(conditions, scores, otherwise));
+        } catch (Throwable exception) {
+            throw new IllegalStateException("could not define rule " + definition.name(), exception);
+        }
+    }
+
+    private static Set<String> requiredFeatures(
+            List<RuleExpression> conditions,
+            List<RuleExpression> scores,
+            RuleExpression otherwise
+    ) {
+        Set<String> features = new HashSet<>();
+        conditions.forEach(expression -> collectFeatures(expression, features));
+        scores.forEach(expression -> collectFeatures(expression, features));
+        collectFeatures(otherwise, features);
+        return Set.copyOf(features);
+    }
+
+    private static void collectFeatures(RuleExpression expression, Set<String> features) {
+        visit(expression, node -> {
+            if (node instanceof FeatureRead feature) {
+                features.add(feature.name());
+            } else if (node instanceof HasFeature has) {
+                features.add(has.name());
+            }
+        });
+    }
+
+    private static void visit(RuleExpression expression, Consumer<RuleExpression> visitor) {
+        visitor.accept(expression);
+        if (expression instanceof Binary binary) {
+            visit(binary.left(), visitor);
+            visit(binary.right(), visitor);
+        } else if (expression instanceof Unary unary) {
+            visit(unary.operand(), visitor);
+        } else if (expression instanceof Comparison comparison) {
+            visit(comparison.left(), visitor);
+            visit(comparison.right(), visitor);
+        } else if (expression instanceof And and) {
+            visit(and.left(), visitor);
+            visit(and.right(), visitor);
+        } else if (expression instanceof Or or) {
+            visit(or.left(), visitor);
+            visit(or.right(), visitor);
+        } else if (expression instanceof Not not) {
+            visit(not.operand(), visitor);
+        }
+    }
+
+    /**
+     * Loads every context field the rule reads into a local and returns the slot of each field by ordinal, -1 for
+     * fields the rule does not read.
+     */
+    private static int[] loadContextFields(MethodVisitor method, List<RuleExpression> expressions) {
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        expressions.forEach(expression -> visit(expression, node -> {
+            if (node instanceof FieldRead read && !read.field().onTransaction) {
+                fields.add(read.field());
+            }
+        }));
+        int[] slots = new int[Field.values().length];
+        Arrays.fill(slots, -1);
+        int slot = FIRST_FIELD_SLOT;
+        for (Field field : fields) {
+            method.visitVarInsn(Opcodes.ALOAD, CONTEXT_SLOT);
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, CONTEXT, field.accessor, field.descriptor, false);
+            boolean wide = field.descriptor.equals("()J");
+            method.visitVarInsn(wide ? Opcodes.LSTORE : Opcodes.ISTORE, slot);
+            slots[field.ordinal()] = slot;
+            slot += wide ? 2 : 1;
+        }
+        return slots;
+    }
+
+    private static byte[] generate(List<RuleExpression> conditions, List<RuleExpression> scores, RuleExpression otherwise) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String first, String second) {
+                // Only Object-typed values ever meet at a branch target.
+                return "java/lang/Object";
+            }
+        };
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null,
+                "java/lang/Object", new String[] {RULE});
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "name", "Ljava/lang/String;", null, null).visitEnd();
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "weight", "D", null, null).visitEnd();
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "guard", GUARD, null, null).visitEnd();
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "requiredFeatures", SET, null, null).visitEnd();
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(Ljava/lang/String;D" + GUARD + SET + ")V",
+                null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 1);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "name", "Ljava/lang/String;");
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.DLOAD, 2);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "weight", "D");
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 4);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "guard", GUARD);
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 5);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "requiredFeatures", SET);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor name = writer.visitMethod(Opcodes.ACC_PUBLIC, "name", "()Ljava/lang/String;", null, null);
+        name.visitCode();
+        name.visitVarInsn(Opcodes.ALOAD, 0);
+        name.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "name", "Ljava/lang/String;");
+        name.visitInsn(Opcodes.ARETURN);
+        name.visitMaxs(0, 0);
+        name.visitEnd();
+
+        MethodVisitor weight = writer.visitMethod(Opcodes.ACC_PUBLIC, "weight", "()D", null, null);
+        weight.visitCode();
+        weight.visitVarInsn(Opcodes.ALOAD, 0);
+        weight.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "weight", "D");
+        weight.visitInsn(Opcodes.DRETURN);
+        weight.visitMaxs(0, 0);
+        weight.visitEnd();
+
+        MethodVisitor guard = writer.visitMethod(Opcodes.ACC_PUBLIC, "guard", "()" + GUARD, null, null);
+        guard.visitCode();
+        guard.visitVarInsn(Opcodes.ALOAD, 0);
+        guard.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "guard", GUARD);
+        guard.visitInsn(Opcodes.ARETURN);
+        guard.visitMaxs(0, 0);
+        guard.visitEnd();
+
+        MethodVisitor requiredFeatures = writer.visitMethod(Opcodes.ACC_PUBLIC, "requiredFeatures", "()" + SET, null, null);
+        requiredFeatures.visitCode();
+        requiredFeatures.visitVarInsn(Opcodes.ALOAD, 0);
+        requiredFeatures.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "requiredFeatures", SET);
+        requiredFeatures.visitInsn(Opcodes.ARETURN);
+        requiredFeatures.visitMaxs(0, 0);
+        requiredFeatures.visitEnd();
+
+        MethodVisitor evaluate = writer.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", EVALUATE, null, null);
+        evaluate.visitCode();
+        List<RuleExpression> expressions = new ArrayList<>(conditions);
+        expressions.addAll(scores);
+        expressions.add(otherwise);
+        int[] fieldSlots = loadContextFields(evaluate, expressions);
+        boolean exhaustive = false;
+        for (int index = 0; index < conditions.size() && !exhaustive; index++) {
+            RuleExpression condition = conditions.get(index);
+            if (condition instanceof BooleanLiteral literal && !literal.value()) {
+                continue;
+            }
+            exhaustive = condition instanceof BooleanLiteral;
+            Label nextCase = new Label();
+            emitJump(evaluate, fieldSlots, condition, false, nextCase);
+            emitNumber(evaluate, fieldSlots, scores.get(index));
+            evaluate.visitInsn(Opcodes.DRETURN);
+            if (!exhaustive) {
+                evaluate.visitLabel(nextCase);
+            }
+        }
+        if (!exhaustive) {
+            emitNumber(evaluate, fieldSlots, otherwise);
+            evaluate.visitInsn(Opcodes.DRETURN);
+        }
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Emits code that jumps to {@code target} when {@code condition} evaluates to {@code jumpIf} and falls through
+     * otherwise.
+     */
+    private static void emitJump(MethodVisitor method, int[] fieldSlots, RuleExpression condition, boolean jumpIf, Label target) {
+        if (condition instanceof BooleanLiteral literal) {
+            if (literal.value() == jumpIf) {
+                method.visitJumpInsn(Opcodes.GOTO, target);
+            }
+        } else if (condition instanceof Not not) {
+            emitJump(method, fieldSlots, not.operand(), !jumpIf, target);
+        } else if (condition instanceof And and) {
+            if (jumpIf) {
+                Label skip = new Label();
+                emitJump(method, fieldSlots, and.left(), false, skip);
+                emitJump(method, fieldSlots, and.right(), true, target);
+                method.visitLabel(skip);
+            } else {
+                emitJump(method, fieldSlots, and.left(), false, target);
+                emitJump(method, fieldSlots, and.right(), false, target);
+            }
+        } else if (condition instanceof Or or) {
+            if (jumpIf) {
+                emitJump(method, fieldSlots, or.left(), true, target);
+                emitJump(method, fieldSlots, or.right(), true, target);
+            } else {
+                Label skip = new Label();
+                emitJump(method, fieldSlots, or.left(), true, skip);
+                emitJump(method, fieldSlots, or.right(), false, target);
+                method.visitLabel(skip);
+            }
+        } else if (condition instanceof HasFeature has) {
+            emitFeatures(method);
+            method.visitLdcInsn(has.name());
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, FEATURES, "has", "(Ljava/lang/String;)Z", false);
+            method.visitJumpInsn(jumpIf ? Opcodes.IFNE : Opcodes.IFEQ, target);
+        } else if (condition instanceof TextMatch match) {
+            emitText(method, match.text());
+            method.visitLdcInsn(match.part());
+            String helper = match.function().equals("contains") ? "contains" : "startsWith";
+            method.visitMethodInsn(Opcodes.INVOKESTATIC, COMPILER, helper, "(Ljava/lang/String;Ljava/lang/String;)Z", false);
+            method.visitJumpInsn(jumpIf ? Opcodes.IFNE : Opcodes.IFEQ, target);
+        } else if (condition instanceof TextEquality equality) {
+            if (equality.left() instanceof TextLiteral literal) {
+                method.visitLdcInsn(literal.value());
+                emitText(method, equality.right());
+                method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+            } else {
+                emitText(method, equality.left());
+                emitText(method, equality.right());
+                method.visitMethodInsn(Opcodes.INVOKESTATIC, COMPILER, "textEquals", "(Ljava/lang/String;Ljava/lang/String;)Z", false);
+            }
+            method.visitJumpInsn(equality.equal() == jumpIf ? Opcodes.IFNE : Opcodes.IFEQ, target);
+        } else if (condition instanceof Comparison comparison) {
+            emitComparison(method, fieldSlots, comparison, jumpIf, target);
+        } else {
+            throw new IllegalStateException("not a condition: " + condition);
+        }
+    }
+
+    private static void emitComparison(MethodVisitor method, int[] fieldSlots, Comparison comparison, boolean jumpIf, Label target) {
+        String operator = comparison.operator();
+        RuleExpression left = comparison.left();
+        RuleExpression right = comparison.right();
+        if (left instanceof NumberLiteral && right instanceof FieldRead) {
+            operator = mirror(operator);
+            left = comparison.right();
+            right = comparison.left();
+        }
+        String tested = jumpIf ? operator : negate(operator);
+
+        if (left instanceof FieldRead read && right instanceof NumberLiteral literal && !read.field().onTransaction) {
+            double value = literal.value();
+            if (read.field().descriptor.equals("()I") && value == Math.rint(value)
+                    && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                emitContextField(method, fieldSlots, read.field());
+                method.visitLdcInsn((int) value);
+                method.visitJumpInsn(integerJump(tested), target);
+                return;
+            }
+            if (read.field().descriptor.equals("()J") && value == Math.rint(value) && Math.abs(value) < 0x1p62) {
+                emitContextField(method, fieldSlots, read.field());
+                method.visitLdcInsn((long) value);
+                method.visitInsn(Opcodes.LCMP);
+                method.visitJumpInsn(zeroJump(tested), target);
+                return;
+            }
+        }
+
+        emitNumber(method, fieldSlots, left);
+        emitNumber(method, fieldSlots, right);
+        // DCMPG makes NaN compare greater and DCMPL less, so that NaN never satisfies the comparison.
+        method.visitInsn(operator.equals("<") || operator.equals("<=") ? Opcodes.DCMPG : Opcodes.DCMPL);
+        method.visitJumpInsn(zeroJump(tested), target);
+    }
+
+    private static void emitNumber(MethodVisitor method, int[] fieldSlots, RuleExpression expression) {
+        if (expression instanceof NumberLiteral literal) {
+            if (Double.doubleToRawLongBits(literal.value()) == 0L) {
+                method.visitInsn(Opcodes.DCONST_0);
+            } else if (literal.value() == 1.0) {
+                method.visitInsn(Opcodes.DCONST_1);
+            } else {
+                method.visitLdcInsn(literal.value());
+            }
+        } else if (expression instanceof FieldRead read) {
+            if (read.field() == Field.AMOUNT) {
+                method.visitVarInsn(Opcodes.ALOAD, TRANSACTION_SLOT);
+                method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, TRANSACTION, "amount", read.field().descriptor, false);
+                method.visitMethodInsn(Opcodes.INVOKESTATIC, COMPILER, "amount", "(Ljava/math/BigDecimal;)D", false);
+            } else {
+                emitContextField(method, fieldSlots, read.field());
+                method.visitInsn(read.field().descriptor.equals("()J") ? Opcodes.L2D : Opcodes.I2D);
+            }
+        } else if (expression instanceof FeatureRead feature) {
+            emitFeatures(method);
+            method.visitLdcInsn(feature.name());
+            if (feature.defaultValue() == null) {
+                method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, FEATURES, "get", "(Ljava/lang/String;)D", false);
+            } else {
+                method.visitLdcInsn(feature.defaultValue());
+                method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, FEATURES, "get", "(Ljava/lang/String;D)D", false);
+            }
+        } else if (expression instanceof Binary binary) {
+            emitNumber(method, fieldSlots, binary.left());
+            emitNumber(method, fieldSlots, binary.right());
+            switch (binary.operator()) {
+                case "+" -> method.visitInsn(Opcodes.DADD);
+                case "-" -> method.visitInsn(Opcodes.DSUB);
+                case "*" -> method.visitInsn(Opcodes.DMUL);
+                case "/" -> method.visitInsn(Opcodes.DDIV);
+                default -> method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Math", binary.operator(), "(DD)D", false);
+            }
+        } else if (expression instanceof Unary unary) {
+            emitNumber(method, fieldSlots, unary.operand());
+            if (unary.operator().equals("-")) {
+                method.visitInsn(Opcodes.DNEG);
+            } else {
+                method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Math", "abs", "(D)D", false);
+            }
+        } else {
+            throw new IllegalStateException("not a number: " + expression);
+        }
+    }
+
+    private static void emitText(MethodVisitor method, RuleExpression expression) {
+        if (expression instanceof TextLiteral literal) {
+            method.visitLdcInsn(literal.value());
+        } else if (expression instanceof FieldRead read && read.field().onTransaction) {
+            method.visitVarInsn(Opcodes.ALOAD, TRANSACTION_SLOT);
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, TRANSACTION, read.field().accessor, read.field().descriptor, false);
+        } else {
+            throw new IllegalStateException("not a string: " + expression);
+        }
+    }
+
+    private static void emitContextField(MethodVisitor method, int[] fieldSlots, Field field) {
+        method.visitVarInsn(field.descriptor.equals("()J") ? Opcodes.LLOAD : Opcodes.ILOAD, fieldSlots[field.ordinal()]);
+    }
+
+    private static void emitFeatures(MethodVisitor method) {
+        method.visitVarInsn(Opcodes.ALOAD, CONTEXT_SLOT);
+        method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, CONTEXT, "features", "()L" + FEATURES + ";", false);
+    }
+
+    private static String mirror(String operator) {
+        return switch (operator) {
+            case "<" -> ">";
+            case "<=" -> ">=";
+            case ">" -> "<";
+            case ">=" -> "<=";
+            default -> operator;
+        };
+    }
+
+    private static String negate(String operator) {
+        return switch (operator) {
+            case "<" -> ">=";
+            case "<=" -> ">";
+            case ">" -> "<=";
+            case ">=" -> "<";
+            case "==" -> "!=";
+            default -> "==";
+        };
+    }
+
+    private static int zeroJump(String operator) {
+        return switch (operator) {
+            case "<" -> Opcodes.IFLT;
+            case "<=" -> Opcodes.IFLE;
+            case ">" -> Opcodes.IFGT;
+            case ">=" -> Opcodes.IFGE;
+            case "==" -> Opcodes.IFEQ;
+            default -> Opcodes.IFNE;
+        };
+    }
+
+    private static int integerJump(String operator) {
+        return switch (operator) {
+            case "<" -> Opcodes.IF_ICMPLT;
+            case "<=" -> Opcodes.IF_ICMPLE;
+            case ">" -> Opcodes.IF_ICMPGT;
+            case ">=" -> Opcodes.IF_ICMPGE;
+            case "==" -> Opcodes.IF_ICMPEQ;
+            default -> Opcodes.IF_ICMPNE;
+        };
+    }
+
+    // Called from generated rules.
+
+    static double amount(BigDecimal amount) {
+        return amount == null ? 0.0 : amount.doubleValue();
+    }
+
+    static boolean textEquals(String left, String right) {
+        return left != null && left.equals(right);
+    }
+
+    static boolean contains(String text, String part) {
+        return text != null && text.contains(part);
+    }
+
+    static boolean startsWith(String text, String prefix) {
+        return text != null && text.startsWith(prefix);
+    }
+}
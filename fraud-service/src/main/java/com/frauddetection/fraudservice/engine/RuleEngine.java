@@ -1,52 +1,79 @@
 package com.frauddetection.fraudservice.engine;
 
 import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.springframework.stereotype.Service;
 
+/**
+ * Scores transactions with the current {@link RuleSet}. It starts with the rule beans; {@link #install} replaces
+ * it with one where defined rules override beans of the same name and further rules are appended. The swap is a
+ * single volatile write, so consumers keep scoring while a new rule set is installed.
+ */
 @Service
 public class RuleEngine {
 
-    private final List<Rule> rules;
+    private final List<Rule> builtInRules;
+    private volatile RuleSet ruleSet;
 
     public RuleEngine(List<Rule> rules) {
-        this.rules = rules;
+        this.builtInRules = List.copyOf(rules);
+        this.ruleSet = new RuleSet(RuleSet.BUILT_IN_VERSION, builtInRules);
     }
 
     public RuleEvaluationResult evaluate(TransactionCreatedEvent transaction, FeatureContext featureContext) {
-        if (rules.isEmpty()) {
-            return new RuleEvaluationResult(0.0, Map.of());
+        RuleSet current = ruleSet;
+        if (current.size() == 0) {
+            return new RuleEvaluationResult(0.0, Map.of(), current.version());
         }
 
-        double weightedSum = 0.0;
-        double totalWeight = 0.0;
-        Map<String, Double> individualScores = new LinkedHashMap<>();
+        RuleScores ruleScores = new RuleScores();
+        double normalizedScore = current.evaluateInto(transaction, featureContext, ruleScores);
+        return current.describe(normalizedScore, ruleScores);
+    }
 
-        for (Rule rule : rules) {
-            double score = normalize(rule.evaluate(transaction, featureContext));
-            double weight = Math.max(0.0, rule.weight());
-            individualScores.put(rule.name(), round(score));
+    /**
+     * Allocation-free evaluation with the current rule set; see {@link RuleSet#evaluateInto}. Callers that also
+     * describe the scores should hold one {@link #ruleSet()} for both calls.
+     */
+    public double evaluateInto(TransactionCreatedEvent transaction, FeatureContext featureContext, RuleScores ruleScores) {
+        return ruleSet.evaluateInto(transaction, featureContext, ruleScores);
+    }
 
-            weightedSum += score * weight;
-            totalWeight += weight;
-        }
+    public RuleEvaluationResult describe(double normalizedScore, RuleScores ruleScores) {
+        return ruleSet.describe(normalizedScore, ruleScores);
+    }
 
-        double normalizedScore = totalWeight == 0.0 ? 0.0 : weightedSum / totalWeight;
-        return new RuleEvaluationResult(round(normalizedScore), individualScores);
+    public RuleSet ruleSet() {
+        return ruleSet;
     }
 
-    private double normalize(double value) {
-        if (Double.isNaN(value) || Double.isInfinite(value)) {
-            return 0.0;
+    /**
+     * Installs {@code definedRules} over the rule beans under {@code version} and returns the new rule set.
+     */
+    public RuleSet install(String version, List<Rule> definedRules) {
+        Map<String, Rule> overrides = new LinkedHashMap<>();
+        definedRules.forEach(rule -> overrides.put(rule.name(), rule));
+
+        List<Rule> rules = new ArrayList<>(builtInRules.size() + definedRules.size());
+        for (Rule rule : builtInRules) {
+            Rule override = overrides.remove(rule.name());
+            rules.add(override == null ? rule : override);
         }
-        return Math.max(0.0, Math.min(1.0, value));
+        rules.addAll(overrides.values());
+
+        RuleSet installed = new RuleSet(version, rules);
+        ruleSet = installed;
+        return installed;
+    }
+
+    public int ruleCount() {
+        return ruleSet.size();
     }
 
-    private double round(double value) {
-        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP).doubleValue();
+    public int ordinalOf(String ruleName) {
+        return ruleSet.ordinalOf(ruleName);
     }
 }
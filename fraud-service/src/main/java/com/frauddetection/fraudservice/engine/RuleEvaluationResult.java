@@ -4,6 +4,11 @@ import java.util.Map;
 
 public record RuleEvaluationResult(
         double normalizedScore,
-        Map<String, Double> individualRuleScores
+        Map<String, Double> individualRuleScores,
+        String ruleSetVersion
 ) {
+
+    public RuleEvaluationResult(double normalizedScore, Map<String, Double> individualRuleScores) {
+        this(normalizedScore, individualRuleScores, RuleSet.BUILT_IN_VERSION);
+    }
 }
@@ -0,0 +1,181 @@
+package com.frauddetection.fraudservice.engine;
+
+/**
+ * Typed syntax tree of a rule expression, produced by {@link RuleExpressionParser} and turned into bytecode by
+ * {@link RuleCompiler}. Literal-only sub-expressions are already folded into literals.
+ */
+sealed interface RuleExpression {
+
+    enum Type {
+        NUMBER,
+        BOOLEAN,
+        TEXT
+    }
+
+    /**
+     * Event and context values an expression can read, with the accessor that reads them.
+     */
+    enum Field {
+        AMOUNT("amount", Type.NUMBER, true, "amount", "()Ljava/math/BigDecimal;"),
+        TRANSACTIONS_PER_MINUTE("transactions_per_minute", Type.NUMBER, false, "transactionsPerMinute", "()I"),
+        TRANSACTIONS_PER_FIVE_MINUTES("transactions_per_five_minutes", Type.NUMBER, false, "transactionsPerFiveMinutes", "()I"),
+        SECONDS_SINCE_LAST_TRANSACTION("seconds_since_last_transaction", Type.NUMBER, false, "secondsSinceLastTransaction", "()J"),
+        USER_ID("user_id", Type.TEXT, true, "userId", "()Ljava/lang/String;"),
+        MERCHANT_ID("merchant_id", Type.TEXT, true, "merchantId", "()Ljava/lang/String;"),
+        LOCATION("location", Type.TEXT, true, "location", "()Ljava/lang/String;"),
+        CURRENCY("currency", Type.TEXT, true, "currency", "()Ljava/lang/String;"),
+        DEVICE_ID("device_id", Type.TEXT, true, "deviceId", "()Ljava/lang/String;");
+
+        final String expressionName;
+        final Type type;
+        final boolean onTransaction;
+        final String accessor;
+        final String descriptor;
+
+        Field(String expressionName, Type type, boolean onTransaction, String accessor, String descriptor) {
+            this.expressionName = expressionName;
+            this.type = type;
+            this.onTransaction = onTransaction;
+            this.accessor = accessor;
+            this.descriptor = descriptor;
+        }
+
+        static Field named(String name) {
+            for (Field field : values()) {
+                if (field.expressionName.equals(name)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    Type type();
+
+    record NumberLiteral(double value) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.NUMBER;
+        }
+    }
+
+    record BooleanLiteral(boolean value) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    record TextLiteral(String value) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.TEXT;
+        }
+    }
+
+    record FieldRead(Field field) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return field.type;
+        }
+    }
+
+    /**
+     * {@code feature('name')} or {@code feature('name', default)}; a null default reads missing features as 0.
+     */
+    record FeatureRead(String name, Double defaultValue) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.NUMBER;
+        }
+    }
+
+    record HasFeature(String name) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    /**
+     * {@code + - * /}, {@code min} and {@code max}.
+     */
+    record Binary(String operator, RuleExpression left, RuleExpression right) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.NUMBER;
+        }
+    }
+
+    /**
+     * Unary minus and {@code abs}.
+     */
+    record Unary(String operator, RuleExpression operand) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.NUMBER;
+        }
+    }
+
+    record Comparison(String operator, RuleExpression left, RuleExpression right) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    /**
+     * {@code ==} or {@code !=} between strings; a missing string equals nothing.
+     */
+    record TextEquality(boolean equal, RuleExpression left, RuleExpression right) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    /**
+     * {@code contains} or {@code starts_with} on a string field.
+     */
+    record TextMatch(String function, RuleExpression text, String part) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    record And(RuleExpression left, RuleExpression right) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    record Or(RuleExpression left, RuleExpression right) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    record Not(RuleExpression operand) implements RuleExpression {
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+}
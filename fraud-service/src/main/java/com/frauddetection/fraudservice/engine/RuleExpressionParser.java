@@ -0,0 +1,434 @@
+package com.frauddetection.fraudservice.engine;
+
+import com.frauddetection.fraudservice.engine.RuleExpression.And;
+import com.frauddetection.fraudservice.engine.RuleExpression.Binary;
+import com.frauddetection.fraudservice.engine.RuleExpression.BooleanLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.Comparison;
+import com.frauddetection.fraudservice.engine.RuleExpression.FeatureRead;
+import com.frauddetection.fraudservice.engine.RuleExpression.Field;
+import com.frauddetection.fraudservice.engine.RuleExpression.FieldRead;
+import com.frauddetection.fraudservice.engine.RuleExpression.HasFeature;
+import com.frauddetection.fraudservice.engine.RuleExpression.Not;
+import com.frauddetection.fraudservice.engine.RuleExpression.NumberLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.Or;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextEquality;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextMatch;
+import com.frauddetection.fraudservice.engine.RuleExpression.Type;
+import com.frauddetection.fraudservice.engine.RuleExpression.Unary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses and type-checks rule expressions into a {@link RuleExpression} tree, folding sub-expressions made only
+ * of literals.
+ *
+ * <p>The language has numbers, booleans and strings:
+ * <ul>
+ *   <li>numeric fields {@code amount}, {@code transactions_per_minute}, {@code transactions_per_five_minutes} and
+ *       {@code seconds_since_last_transaction}; string fields {@code user_id}, {@code merchant_id},
+ *       {@code location}, {@code currency} and {@code device_id}</li>
+ *   <li>{@code feature('name')} and {@code feature('name', default)} read the feature vector;
+ *       {@code has_feature('name')} tests for one</li>
+ *   <li>{@code + - * /}, {@code min(a, b)}, {@code max(a, b)} and {@code abs(a)} on numbers</li>
+ *   <li>{@code < <= > >= == !=} on numbers, {@code == !=} on strings, and {@code contains(text, 'part')} and
+ *       {@code starts_with(text, 'prefix')}</li>
+ *   <li>{@code and}/{@code &&}, {@code or}/{@code ||} and {@code not}/{@code !} on conditions</li>
+ * </ul>
+ * String literals use single quotes; a missing amount reads as 0 and a missing string equals nothing.
+ */
+final class RuleExpressionParser {
+
+    private final String source;
+    private final List<Token> tokens;
+    private int position;
+
+    private RuleExpressionParser(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    /**
+     * Parses {@code source} and checks that it has the {@code expected} type.
+     */
+    static RuleExpression parse(String source, Type expected) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("empty expression");
+        }
+        RuleExpressionParser parser = new RuleExpressionParser(source);
+        RuleExpression expression = parser.parseOr();
+        if (parser.peek().type() != TokenType.END) {
+            throw parser.error("unexpected '" + parser.peek().text() + "'", parser.peek());
+        }
+        return parser.require(expression, expected, 0);
+    }
+
+    private RuleExpression parseOr() {
+        RuleExpression left = parseAnd();
+        while (peekOperator("or") || peekOperator("||")) {
+            Token operator = next();
+            RuleExpression first = require(left, Type.BOOLEAN, operator.offset());
+            RuleExpression second = require(parseAnd(), Type.BOOLEAN, operator.offset());
+            if (first instanceof BooleanLiteral literal) {
+                left = literal.value() ? literal : second;
+            } else if (second instanceof BooleanLiteral literal && !literal.value()) {
+                left = first;
+            } else {
+                left = new Or(first, second);
+            }
+        }
+        return left;
+    }
+
+    private RuleExpression parseAnd() {
+        RuleExpression left = parseNot();
+        while (peekOperator("and") || peekOperator("&&")) {
+            Token operator = next();
+            RuleExpression first = require(left, Type.BOOLEAN, operator.offset());
+            RuleExpression second = require(parseNot(), Type.BOOLEAN, operator.offset());
+            if (first instanceof BooleanLiteral literal) {
+                left = literal.value() ? second : literal;
+            } else if (second instanceof BooleanLiteral literal && literal.value()) {
+                left = first;
+            } else {
+                left = new And(first, second);
+            }
+        }
+        return left;
+    }
+
+    private RuleExpression parseNot() {
+        if (peekOperator("not") || peekOperator("!")) {
+            Token operator = next();
+            RuleExpression operand = require(parseNot(), Type.BOOLEAN, operator.offset());
+            if (operand instanceof BooleanLiteral literal) {
+                return new BooleanLiteral(!literal.value());
+            }
+            return operand instanceof Not not ? not.operand() : new Not(operand);
+        }
+        return parseComparison();
+    }
+
+    private RuleExpression parseComparison() {
+        RuleExpression left = parseAdditive();
+        Token operator = peek();
+        if (operator.type() != TokenType.OPERATOR || !isComparison(operator.text())) {
+            return left;
+        }
+        next();
+        RuleExpression right = parseAdditive();
+
+        if (left.type() == Type.TEXT || right.type() == Type.TEXT) {
+            if (left.type() != Type.TEXT || right.type() != Type.TEXT) {
+                throw error("cannot compare a string with a number", operator);
+            }
+            if (!operator.text().equals("==") && !operator.text().equals("!=")) {
+                throw error("strings only support == and !=", operator);
+            }
+            boolean equal = operator.text().equals("==");
+            if (left instanceof TextLiteral first && right instanceof TextLiteral second) {
+                return new BooleanLiteral(first.value().equals(second.value()) == equal);
+            }
+            // The literal goes first, so the compiler can call equals on it.
+            return left instanceof TextLiteral
+                    ? new TextEquality(equal, left, right)
+                    : new TextEquality(equal, right, left);
+        }
+
+        RuleExpression first = require(left, Type.NUMBER, operator.offset());
+        RuleExpression second = require(right, Type.NUMBER, operator.offset());
+        if (first instanceof NumberLiteral a && second instanceof NumberLiteral b) {
+            return new BooleanLiteral(compare(operator.text(), a.value(), b.value()));
+        }
+        return new Comparison(operator.text(), first, second);
+    }
+
+    private RuleExpression parseAdditive() {
+        RuleExpression left = parseMultiplicative();
+        while (peekOperator("+") || peekOperator("-")) {
+            Token operator = next();
+            left = binary(operator.text(), left, parseMultiplicative(), operator.offset());
+        }
+        return left;
+    }
+
+    private RuleExpression parseMultiplicative() {
+        RuleExpression left = parseUnary();
+        while (peekOperator("*") || peekOperator("/")) {
+            Token operator = next();
+            left = binary(operator.text(), left, parseUnary(), operator.offset());
+        }
+        return left;
+    }
+
+    private RuleExpression binary(String operator, RuleExpression left, RuleExpression right, int offset) {
+        RuleExpression first = require(left, Type.NUMBER, offset);
+        RuleExpression second = require(right, Type.NUMBER, offset);
+        if (first instanceof NumberLiteral a && second instanceof NumberLiteral b) {
+            return new NumberLiteral(apply(operator, a.value(), b.value()));
+        }
+        return new Binary(operator, first, second);
+    }
+
+    private RuleExpression unary(String operator, RuleExpression operand, int offset) {
+        RuleExpression checked = require(operand, Type.NUMBER, offset);
+        if (checked instanceof NumberLiteral literal) {
+            return new NumberLiteral(operator.equals("-") ? -literal.value() : Math.abs(literal.value()));
+        }
+        return new Unary(operator, checked);
+    }
+
+    private RuleExpression parseUnary() {
+        if (peekOperator("-")) {
+            Token operator = next();
+            return unary("-", parseUnary(), operator.offset());
+        }
+        return parsePrimary();
+    }
+
+    private RuleExpression parsePrimary() {
+        Token token = next();
+        switch (token.type()) {
+            case NUMBER:
+                return new NumberLiteral(Double.parseDouble(token.text()));
+            case STRING:
+                return new TextLiteral(token.text());
+            case IDENTIFIER:
+                if (peekOperator("(")) {
+                    return parseCall(token);
+                }
+                return field(token);
+            case OPERATOR:
+                if (token.text().equals("(")) {
+                    RuleExpression inner = parseOr();
+                    expect(")");
+                    return inner;
+                }
+                throw error("unexpected '" + token.text() + "'", token);
+            default:
+                throw error("unexpected end of expression", token);
+        }
+    }
+
+    private RuleExpression field(Token token) {
+        if (token.text().equals("true") || token.text().equals("false")) {
+            return new BooleanLiteral(token.text().equals("true"));
+        }
+        Field field = Field.named(token.text());
+        if (field == null) {
+            throw error("unknown field '" + token.text() + "'", token);
+        }
+        return new FieldRead(field);
+    }
+
+    private RuleExpression parseCall(Token function) {
+        expect("(");
+        List<RuleExpression> arguments = new ArrayList<>();
+        if (!peekOperator(")")) {
+            arguments.add(parseOr());
+            while (peekOperator(",")) {
+                next();
+                arguments.add(parseOr());
+            }
+        }
+        expect(")");
+
+        int offset = function.offset();
+        switch (function.text()) {
+            case "min", "max" -> {
+                requireArguments(function, arguments, 2);
+                return binary(function.text(), arguments.get(0), arguments.get(1), offset);
+            }
+            case "abs" -> {
+                requireArguments(function, arguments, 1);
+                return unary("abs", arguments.get(0), offset);
+            }
+            case "feature" -> {
+                if (arguments.isEmpty() || arguments.size() > 2) {
+                    throw error("feature() takes a name and an optional default", function);
+                }
+                String name = literalText(arguments.get(0), function);
+                if (arguments.size() == 1) {
+                    return new FeatureRead(name, null);
+                }
+                if (!(arguments.get(1) instanceof NumberLiteral defaultValue)) {
+                    throw error("feature() default must be a number", function);
+                }
+                return new FeatureRead(name, defaultValue.value());
+            }
+            case "has_feature" -> {
+                requireArguments(function, arguments, 1);
+                return new HasFeature(literalText(arguments.get(0), function));
+            }
+            case "contains", "starts_with" -> {
+                requireArguments(function, arguments, 2);
+                if (!(arguments.get(0) instanceof FieldRead read) || read.type() != Type.TEXT) {
+                    throw error(function.text() + "() needs a string field", function);
+                }
+                return new TextMatch(function.text(), read, literalText(arguments.get(1), function));
+            }
+            default -> throw error("unknown function '" + function.text() + "'", function);
+        }
+    }
+
+    private void requireArguments(Token function, List<RuleExpression> arguments, int count) {
+        if (arguments.size() != count) {
+            throw error(function.text() + "() takes " + count + " argument" + (count == 1 ? "" : "s"), function);
+        }
+    }
+
+    private String literalText(RuleExpression expression, Token function) {
+        if (!(expression instanceof TextLiteral literal)) {
+            throw error(function.text() + "() needs a quoted string", function);
+        }
+        return literal.value();
+    }
+
+    private RuleExpression require(RuleExpression expression, Type expected, int offset) {
+        if (expression.type() != expected) {
+            throw error(expected == Type.BOOLEAN ? "expected a condition"
+                    : expected == Type.NUMBER ? "expected a number" : "expected a string", offset);
+        }
+        return expression;
+    }
+
+    private static boolean isComparison(String operator) {
+        return switch (operator) {
+            case "<", "<=", ">", ">=", "==", "!=" -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean compare(String operator, double left, double right) {
+        return switch (operator) {
+            case "<" -> left < right;
+            case "<=" -> left <= right;
+            case ">" -> left > right;
+            case ">=" -> left >= right;
+            case "==" -> left == right;
+            default -> left != right;
+        };
+    }
+
+    private static double apply(String operator, double left, double right) {
+        return switch (operator) {
+            case "+" -> left + right;
+            case "-" -> left - right;
+            case "*" -> left * right;
+            case "min" -> Math.min(left, right);
+            case "max" -> Math.max(left, right);
+            default -> left / right;
+        };
+    }
+
+    private boolean peekOperator(String text) {
+        Token token = peek();
+        return (token.type() == TokenType.OPERATOR || token.type() == TokenType.IDENTIFIER) && token.text().equals(text);
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token next() {
+        Token token = tokens.get(position);
+        if (token.type() != TokenType.END) {
+            position++;
+        }
+        return token;
+    }
+
+    private void expect(String text) {
+        Token token = next();
+        if (token.type() != TokenType.OPERATOR || !token.text().equals(text)) {
+            throw error("expected '" + text + "'", token);
+        }
+    }
+
+    private IllegalArgumentException error(String message, Token token) {
+        return error(message, token.offset());
+    }
+
+    private IllegalArgumentException error(String message, int offset) {
+        return new IllegalArgumentException(message + " at position " + (offset + 1) + " in: " + source);
+    }
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int index = 0;
+        while (index < source.length()) {
+            char character = source.charAt(index);
+            if (Character.isWhitespace(character)) {
+                index++;
+            } else if (Character.isDigit(character) || (character == '.' && index + 1 < source.length()
+                    && Character.isDigit(source.charAt(index + 1)))) {
+                int start = index;
+                while (index < source.length() && (Character.isDigit(source.charAt(index)) || source.charAt(index) == '.'
+                        || source.charAt(index) == '_')) {
+                    index++;
+                }
+                String number = source.substring(start, index).replace("_", "");
+                try {
+                    Double.parseDouble(number);
+                } catch (NumberFormatException exception) {
+                    throw new IllegalArgumentException("invalid number at position " + (start + 1) + " in: " + source);
+                }
+                tokens.add(new Token(TokenType.NUMBER, number, start));
+            } else if (Character.isLetter(character) || character == '_') {
+                int start = index;
+                while (index < source.length() && (Character.isLetterOrDigit(source.charAt(index))
+                        || source.charAt(index) == '_')) {
+                    index++;
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER, source.substring(start, index).toLowerCase(Locale.ROOT), start));
+            } else if (character == '\'') {
+                int start = index;
+                StringBuilder text = new StringBuilder();
+                index++;
+                while (true) {
+                    if (index >= source.length()) {
+                        throw new IllegalArgumentException("unterminated string at position " + (start + 1) + " in: " + source);
+                    }
+                    if (source.charAt(index) == '\'') {
+                        if (index + 1 < source.length() && source.charAt(index + 1) == '\'') {
+                            text.append('\'');
+                            index += 2;
+                            continue;
+                        }
+                        index++;
+                        break;
+                    }
+                    text.append(source.charAt(index++));
+                }
+                tokens.add(new Token(TokenType.STRING, text.toString(), start));
+            } else {
+                String pair = index + 1 < source.length() ? source.substring(index, index + 2) : "";
+                if (pair.equals("<=") || pair.equals(">=") || pair.equals("==") || pair.equals("!=")
+                        || pair.equals("&&") || pair.equals("||")) {
+                    tokens.add(new Token(TokenType.OPERATOR, pair, index));
+                    index += 2;
+                } else if ("()<>+-*/,!".indexOf(character) >= 0) {
+                    tokens.add(new Token(TokenType.OPERATOR, String.valueOf(character), index));
+                    index++;
+                } else {
+                    throw new IllegalArgumentException("unexpected '" + character + "' at position " + (index + 1)
+                            + " in: " + source);
+                }
+            }
+        }
+        tokens.add(new Token(TokenType.END, "", source.length()));
+        return tokens;
+    }
+
+    private enum TokenType {
+        NUMBER,
+        STRING,
+        IDENTIFIER,
+        OPERATOR,
+        END
+    }
+
+    private record Token(TokenType type, String text, int offset) {
+    }
+}
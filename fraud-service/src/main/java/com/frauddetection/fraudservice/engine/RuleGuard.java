@@ -0,0 +1,253 @@
+package com.frauddetection.fraudservice.engine;
+
+import com.frauddetection.fraudservice.engine.RuleExpression.And;
+import com.frauddetection.fraudservice.engine.RuleExpression.BooleanLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.Comparison;
+import com.frauddetection.fraudservice.engine.RuleExpression.Field;
+import com.frauddetection.fraudservice.engine.RuleExpression.FieldRead;
+import com.frauddetection.fraudservice.engine.RuleExpression.NumberLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.Or;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextEquality;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextLiteral;
+import com.frauddetection.fraudservice.engine.RuleExpression.TextMatch;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precondition on one transaction field that must hold for a rule to score above zero, so that {@link RuleSet}
+ * can skip the rule for events that fail it. A string field guard holds when the value equals one of
+ * {@link #values()} or starts with one of {@link #prefixes()}; an amount guard holds when the amount lies in one
+ * of {@link #ranges()}. {@link #ALWAYS} holds for every event.
+ */
+public final class RuleGuard {
+
+    public static final RuleGuard ALWAYS = new RuleGuard(null, Set.of(), Set.of(), List.of());
+
+    private final Field field;
+    private final Set<String> values;
+    private final Set<String> prefixes;
+    private final List<Range> ranges;
+
+    private RuleGuard(Field field, Set<String> values, Set<String> prefixes, List<Range> ranges) {
+        this.field = field;
+        this.values = values;
+        this.prefixes = prefixes;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Guard on a string field such as {@code currency} or {@code merchant_id}.
+     */
+    public static RuleGuard text(String field, Set<String> values, Set<String> prefixes) {
+        Field resolved = Field.named(field);
+        if (resolved == null || resolved.type != RuleExpression.Type.TEXT) {
+            throw new IllegalArgumentException("not a string field: " + field);
+        }
+        return new RuleGuard(resolved, Set.copyOf(values), Set.copyOf(prefixes), List.of());
+    }
+
+    public static RuleGuard amount(List<Range> ranges) {
+        return new RuleGuard(Field.AMOUNT, Set.of(), Set.of(), List.copyOf(ranges));
+    }
+
+    public boolean always() {
+        return field == null;
+    }
+
+    /**
+     * Expression name of the guarded field, or null for {@link #ALWAYS}.
+     */
+    public String field() {
+        return field == null ? null : field.expressionName;
+    }
+
+    public Set<String> values() {
+        return values;
+    }
+
+    public Set<String> prefixes() {
+        return prefixes;
+    }
+
+    public List<Range> ranges() {
+        return ranges;
+    }
+
+    Field resolvedField() {
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        if (always()) {
+            return "RuleGuard[always]";
+        }
+        return field == Field.AMOUNT
+                ? "RuleGuard[amount in " + ranges + "]"
+                : "RuleGuard[" + field.expressionName + " in " + values + " or starts with " + prefixes + "]";
+    }
+
+    /**
+     * Interval of amounts; use infinite bounds for open-ended ranges.
+     */
+    public record Range(double lower, boolean lowerInclusive, double upper, boolean upperInclusive) {
+
+        public boolean contains(double value) {
+            return (lowerInclusive ? value >= lower : value > lower) && (upperInclusive ? value <= upper : value < upper);
+        }
+
+        Range intersect(Range other) {
+            double newLower = Math.max(lower, other.lower);
+            boolean newLowerInclusive = lower == other.lower ? lowerInclusive && other.lowerInclusive
+                    : lower > other.lower ? lowerInclusive : other.lowerInclusive;
+            double newUpper = Math.min(upper, other.upper);
+            boolean newUpperInclusive = upper == other.upper ? upperInclusive && other.upperInclusive
+                    : upper < other.upper ? upperInclusive : other.upperInclusive;
+            boolean empty = newLower > newUpper || newLower == newUpper && !(newLowerInclusive && newUpperInclusive);
+            return empty ? null : new Range(newLower, newLowerInclusive, newUpper, newUpperInclusive);
+        }
+    }
+
+    /**
+     * Derives the guard of a compiled rule from its cases. The rule can only score above zero if a case holds
+     * (or the fallback score is positive), so the guard is the disjunction of per-case conditions on one field
+     * that every case implies; when no field is constrained by all cases, the rule is not guarded.
+     */
+    static RuleGuard derive(List<RuleExpression> conditions, RuleExpression otherwise) {
+        if (!(otherwise instanceof NumberLiteral fallback) || fallback.value() > 0.0) {
+            return ALWAYS;
+        }
+        Map<Field, RuleGuard> implied = null;
+        for (RuleExpression condition : conditions) {
+            if (condition instanceof BooleanLiteral literal && !literal.value()) {
+                continue;
+            }
+            Map<Field, RuleGuard> caseGuards = implied(condition);
+            implied = implied == null ? caseGuards : union(implied, caseGuards);
+        }
+        if (implied == null) {
+            // No case can hold, so the rule never scores; an empty guard keeps it out of every index entry.
+            return amount(List.of());
+        }
+        RuleGuard best = ALWAYS;
+        for (RuleGuard guard : implied.values()) {
+            if (best.always() || guard.selectivity() < best.selectivity()) {
+                best = guard;
+            }
+        }
+        return best;
+    }
+
+    // Lower is cheaper to look up and usually more selective: exact values, then prefixes, then amount ranges.
+    private int selectivity() {
+        if (field == Field.AMOUNT) {
+            return 2;
+        }
+        return prefixes.isEmpty() ? 0 : 1;
+    }
+
+    private static Map<Field, RuleGuard> implied(RuleExpression condition) {
+        Map<Field, RuleGuard> guards = new EnumMap<>(Field.class);
+        if (condition instanceof And and) {
+            guards.putAll(implied(and.left()));
+            implied(and.right()).forEach((field, guard) -> guards.merge(field, guard, RuleGuard::intersect));
+        } else if (condition instanceof Or or) {
+            return union(implied(or.left()), implied(or.right()));
+        } else if (condition instanceof TextEquality equality && equality.equal()
+                && equality.left() instanceof TextLiteral literal && equality.right() instanceof FieldRead read) {
+            guards.put(read.field(), new RuleGuard(read.field(), Set.of(literal.value()), Set.of(), List.of()));
+        } else if (condition instanceof TextMatch match && match.function().equals("starts_with")
+                && match.text() instanceof FieldRead read) {
+            guards.put(read.field(), new RuleGuard(read.field(), Set.of(), Set.of(match.part()), List.of()));
+        } else if (condition instanceof Comparison comparison) {
+            Range range = amountRange(comparison);
+            if (range != null) {
+                guards.put(Field.AMOUNT, amount(List.of(range)));
+            }
+        }
+        return guards;
+    }
+
+    private static Range amountRange(Comparison comparison) {
+        String operator = comparison.operator();
+        double bound;
+        if (comparison.left() instanceof FieldRead read && read.field() == Field.AMOUNT
+                && comparison.right() instanceof NumberLiteral literal) {
+            bound = literal.value();
+        } else if (comparison.right() instanceof FieldRead read && read.field() == Field.AMOUNT
+                && comparison.left() instanceof NumberLiteral literal) {
+            bound = literal.value();
+            operator = switch (operator) {
+                case "<" -> ">";
+                case "<=" -> ">=";
+                case ">" -> "<";
+                case ">=" -> "<=";
+                default -> operator;
+            };
+        } else {
+            return null;
+        }
+        if (Double.isNaN(bound)) {
+            return null;
+        }
+        double infinity = Double.POSITIVE_INFINITY;
+        return switch (operator) {
+            case "<" -> new Range(-infinity, false, bound, false);
+            case "<=" -> new Range(-infinity, false, bound, true);
+            case ">" -> new Range(bound, false, infinity, false);
+            case ">=" -> new Range(bound, true, infinity, false);
+            case "==" -> new Range(bound, true, bound, true);
+            default -> null;
+        };
+    }
+
+    private static Map<Field, RuleGuard> union(Map<Field, RuleGuard> left, Map<Field, RuleGuard> right) {
+        Map<Field, RuleGuard> guards = new EnumMap<>(Field.class);
+        left.forEach((field, guard) -> {
+            RuleGuard other = right.get(field);
+            if (other != null) {
+                guards.put(field, guard.union(other));
+            }
+        });
+        return guards;
+    }
+
+    private RuleGuard union(RuleGuard other) {
+        if (field == Field.AMOUNT) {
+            List<Range> merged = new ArrayList<>(ranges);
+            merged.addAll(other.ranges);
+            return amount(merged);
+        }
+        Set<String> mergedValues = new LinkedHashSet<>(values);
+        mergedValues.addAll(other.values);
+        Set<String> mergedPrefixes = new LinkedHashSet<>(prefixes);
+        mergedPrefixes.addAll(other.prefixes);
+        return new RuleGuard(field, Set.copyOf(mergedValues), Set.copyOf(mergedPrefixes), List.of());
+    }
+
+    private RuleGuard intersect(RuleGuard other) {
+        if (field == Field.AMOUNT) {
+            List<Range> intersection = new ArrayList<>();
+            for (Range range : ranges) {
+                for (Range otherRange : other.ranges) {
+                    Range overlap = range.intersect(otherRange);
+                    if (overlap != null) {
+                        intersection.add(overlap);
+                    }
+                }
+            }
+            return amount(intersection);
+        }
+        if (prefixes.isEmpty() && other.prefixes.isEmpty()) {
+            Set<String> common = new LinkedHashSet<>(values);
+            common.retainAll(other.values);
+            return new RuleGuard(field, Set.copyOf(common), Set.of(), List.of());
+        }
+        // Either side alone is still implied by the conjunction.
+        return other.selectivity() < selectivity() ? other : this;
+    }
+}
@@ -0,0 +1,271 @@
+package com.frauddetection.fraudservice.engine;
+
+import com.frauddetection.fraudservice.engine.RuleExpression.Field;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Evaluates the rules of a {@link RuleSet} whose {@link RuleGuard} an event can meet. Unguarded rules are always
+ * evaluated; rules guarded on a string field sit in a character trie of that field's values and prefixes, and
+ * rules guarded on the amount sit in an interval index. A lookup walks one trie path per indexed field and does
+ * one binary search on the amount, so its cost follows the number of candidate rules rather than the rule count.
+ * Skipped rules cannot score above zero, so they are left at zero in {@link RuleScores}.
+ */
+final class RuleIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Rule[] rules;
+    private final int[] unguarded;
+    private final TextIndex[] textIndexes;
+    private final AmountIndex amountIndex;
+
+    RuleIndex(Rule[] rules) {
+        this.rules = rules;
+        List<Integer> unguardedRules = new ArrayList<>();
+        Map<Field, TextIndex> textIndexesByField = new EnumMap<>(Field.class);
+        List<Integer> amountRules = new ArrayList<>();
+        List<RuleGuard> amountGuards = new ArrayList<>();
+
+        for (int ordinal = 0; ordinal < rules.length; ordinal++) {
+            RuleGuard guard = rules[ordinal].guard();
+            if (guard == null || guard.always()) {
+                unguardedRules.add(ordinal);
+            } else if (guard.resolvedField() == Field.AMOUNT) {
+                amountRules.add(ordinal);
+                amountGuards.add(guard);
+            } else {
+                textIndexesByField.computeIfAbsent(guard.resolvedField(), TextIndex::new).add(ordinal, guard);
+            }
+        }
+
+        this.unguarded = toArray(unguardedRules);
+        this.textIndexes = textIndexesByField.values().toArray(TextIndex[]::new);
+        for (TextIndex index : textIndexes) {
+            index.freeze();
+        }
+        this.amountIndex = amountRules.isEmpty() ? null : new AmountIndex(amountRules, amountGuards);
+    }
+
+    /**
+     * Writes the bounded score of every candidate rule into {@code scores}, which must have been started for this
+     * rule count.
+     */
+    void evaluateInto(TransactionCreatedEvent transaction, FeatureContext featureContext, RuleScores scores) {
+        evaluate(unguarded, transaction, featureContext, scores);
+        for (TextIndex index : textIndexes) {
+            String value = index.read(transaction);
+            if (value == null) {
+                // A missing string equals nothing and starts with nothing.
+                continue;
+            }
+            Node node = index.root;
+            evaluate(node.prefixOrdinals, transaction, featureContext, scores);
+            for (int position = 0; position < value.length(); position++) {
+                node = node.child(value.charAt(position));
+                if (node == null) {
+                    break;
+                }
+                evaluate(node.prefixOrdinals, transaction, featureContext, scores);
+            }
+            if (node != null) {
+                evaluate(node.exactOrdinals, transaction, featureContext, scores);
+            }
+        }
+        if (amountIndex != null) {
+            evaluate(amountIndex.candidates(transaction.amount()), transaction, featureContext, scores);
+        }
+    }
+
+    int guardedCount() {
+        return rules.length - unguarded.length;
+    }
+
+    private void evaluate(int[] ordinals, TransactionCreatedEvent transaction, FeatureContext featureContext, RuleScores scores) {
+        for (int ordinal : ordinals) {
+            // A rule can sit under several trie nodes on one path, e.g. for two of its prefixes.
+            if (scores.visit(ordinal)) {
+                scores.record(ordinal, normalize(rules[ordinal].evaluate(transaction, featureContext)));
+            }
+        }
+    }
+
+    private static double normalize(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return 0.0;
+        }
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+
+    private static int[] toArray(List<Integer> ordinals) {
+        return ordinals.isEmpty() ? NONE : ordinals.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static final class TextIndex {
+
+        private final Field field;
+        private final Node root = new Node();
+
+        TextIndex(Field field) {
+            this.field = field;
+        }
+
+        void add(int ordinal, RuleGuard guard) {
+            for (String value : guard.values()) {
+                root.descend(value).exactRules.add(ordinal);
+            }
+            for (String prefix : guard.prefixes()) {
+                root.descend(prefix).prefixRules.add(ordinal);
+            }
+        }
+
+        void freeze() {
+            root.freeze();
+        }
+
+        String read(TransactionCreatedEvent transaction) {
+            return switch (field) {
+                case USER_ID -> transaction.userId();
+                case MERCHANT_ID -> transaction.merchantId();
+                case LOCATION -> transaction.location();
+                case CURRENCY -> transaction.currency();
+                case DEVICE_ID -> transaction.deviceId();
+                default -> throw new IllegalStateException("not a string field: " + field);
+            };
+        }
+    }
+
+    private static final class Node {
+
+        // Build-time state, dropped by freeze().
+        private TreeMap<Character, Node> next = new TreeMap<>();
+        private List<Integer> exactRules = new ArrayList<>();
+        private List<Integer> prefixRules = new ArrayList<>();
+
+        private char[] keys;
+        private Node[] children;
+        private int[] exactOrdinals;
+        private int[] prefixOrdinals;
+
+        Node descend(String text) {
+            Node node = this;
+            for (int index = 0; index < text.length(); index++) {
+                node = node.next.computeIfAbsent(text.charAt(index), key -> new Node());
+            }
+            return node;
+        }
+
+        void freeze() {
+            keys = new char[next.size()];
+            children = new Node[next.size()];
+            int index = 0;
+            for (Map.Entry<Character, Node> entry : next.entrySet()) {
+                keys[index] = entry.getKey();
+                children[index] = entry.getValue();
+                children[index].freeze();
+                index++;
+            }
+            exactOrdinals = toArray(exactRules);
+            prefixOrdinals = toArray(prefixRules);
+            next = null;
+            exactRules = null;
+            prefixRules = null;
+        }
+
+        Node child(char key) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char candidate = keys[middle];
+                if (candidate < key) {
+                    low = middle + 1;
+                } else if (candidate > key) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Splits the amount axis at every range bound. Slot {@code 2i + 1} is the bound {@code points[i]} itself and
+     * slot {@code 2i} the open interval just below it, so each slot is either inside or outside every range and
+     * holds the rules whose ranges cover it.
+     */
+    private static final class AmountIndex {
+
+        private final double[] points;
+        private final int[][] slots;
+
+        AmountIndex(List<Integer> ordinals, List<RuleGuard> guards) {
+            TreeSet<Double> bounds = new TreeSet<>();
+            for (RuleGuard guard : guards) {
+                for (RuleGuard.Range range : guard.ranges()) {
+                    addBound(bounds, range.lower());
+                    addBound(bounds, range.upper());
+                }
+            }
+            this.points = bounds.stream().mapToDouble(Double::doubleValue).toArray();
+            this.slots = new int[points.length * 2 + 1][];
+            for (int slot = 0; slot < slots.length; slot++) {
+                double sample = sample(slot);
+                List<Integer> covering = new ArrayList<>();
+                for (int index = 0; index < guards.size(); index++) {
+                    if (!Double.isNaN(sample) && covers(guards.get(index), sample)) {
+                        covering.add(ordinals.get(index));
+                    }
+                }
+                slots[slot] = toArray(covering);
+            }
+        }
+
+        int[] candidates(BigDecimal amount) {
+            // Compiled rules read a missing amount as 0 and compare the double value, and so does the index.
+            double value = amount == null ? 0.0 : amount.doubleValue();
+            int found = Arrays.binarySearch(points, value == 0.0 ? 0.0 : value);
+            return slots[found >= 0 ? found * 2 + 1 : (-found - 1) * 2];
+        }
+
+        private static void addBound(TreeSet<Double> bounds, double bound) {
+            if (!Double.isInfinite(bound) && !Double.isNaN(bound)) {
+                // -0.0 and 0.0 compare equal in rule expressions, so keep a single zero bound.
+                bounds.add(bound == 0.0 ? 0.0 : bound);
+            }
+        }
+
+        // A value inside the slot, or NaN when the open interval between two adjacent doubles is empty.
+        private double sample(int slot) {
+            if (points.length == 0) {
+                return 0.0;
+            }
+            if (slot % 2 == 1) {
+                return points[slot / 2];
+            }
+            int above = slot / 2;
+            if (above == points.length) {
+                return Math.nextUp(points[above - 1]);
+            }
+            double candidate = Math.nextDown(points[above]);
+            return above > 0 && candidate <= points[above - 1] ? Double.NaN : candidate;
+        }
+
+        private static boolean covers(RuleGuard guard, double value) {
+            for (RuleGuard.Range range : guard.ranges()) {
+                if (range.contains(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.frauddetection.fraudservice.engine;
+
+import java.util.Arrays;
+
+/**
+ * Reusable per-rule scores of one evaluation, indexed by rule ordinal. Only rules that scored above zero are
+ * written, and only those are cleared before the next evaluation, so neither step touches rules the event did not
+ * match. Instances are not thread-safe; keep one per thread.
+ */
+public final class RuleScores {
+
+    private double[] scores = new double[0];
+    private int[] matched = new int[0];
+    private int matchedCount;
+    private int[] visitedAt = new int[0];
+    private int evaluation;
+
+    public double get(int ordinal) {
+        return ordinal >= 0 && ordinal < scores.length ? scores[ordinal] : 0.0;
+    }
+
+    void begin(int ruleCount) {
+        for (int index = 0; index < matchedCount; index++) {
+            scores[matched[index]] = 0.0;
+        }
+        matchedCount = 0;
+        if (scores.length < ruleCount) {
+            scores = new double[ruleCount];
+            matched = new int[ruleCount];
+            visitedAt = new int[ruleCount];
+        }
+        if (++evaluation == 0) {
+            Arrays.fill(visitedAt, 0);
+            evaluation = 1;
+        }
+    }
+
+    /**
+     * Marks {@code ordinal} as evaluated and returns false if it already was, for rules reached through more than
+     * one index entry.
+     */
+    boolean visit(int ordinal) {
+        if (visitedAt[ordinal] == evaluation) {
+            return false;
+        }
+        visitedAt[ordinal] = evaluation;
+        return true;
+    }
+
+    void record(int ordinal, double score) {
+        if (score != 0.0) {
+            scores[ordinal] = score;
+            matched[matchedCount++] = ordinal;
+        }
+    }
+
+    /**
+     * Sum of score times weight in ordinal order, which equals the sum over every rule because unmatched rules
+     * add exact zeros.
+     */
+    double weightedSum(double[] weights) {
+        Arrays.sort(matched, 0, matchedCount);
+        double weightedSum = 0.0;
+        for (int index = 0; index < matchedCount; index++) {
+            int ordinal = matched[index];
+            weightedSum += scores[ordinal] * weights[ordinal];
+        }
+        return weightedSum;
+    }
+}
@@ -0,0 +1,102 @@
+package com.frauddetection.fraudservice.engine;
+
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, versioned list of rules. {@link RuleEngine} swaps whole rule sets, so a caller that holds one sees a
+ * consistent set of rules, ordinals and version for as long as it keeps it. Rules are looked up through a
+ * {@link RuleIndex} on their guards, so an event only evaluates the rules it can match.
+ */
+public final class RuleSet {
+
+    public static final String BUILT_IN_VERSION = "builtin";
+
+    private final String version;
+    private final Rule[] rules;
+    private final double[] weights;
+    private final String[] names;
+    private final double totalWeight;
+    private final RuleIndex index;
+    private final Set<String> requiredFeatures;
+
+    public RuleSet(String version, List<Rule> rules) {
+        this.version = version;
+        this.rules = rules.toArray(Rule[]::new);
+        this.weights = new double[this.rules.length];
+        this.names = new String[this.rules.length];
+        double weightSum = 0.0;
+        Set<String> features = new HashSet<>();
+        for (int ordinal = 0; ordinal < this.rules.length; ordinal++) {
+            weights[ordinal] = Math.max(0.0, this.rules[ordinal].weight());
+            names[ordinal] = this.rules[ordinal].name();
+            weightSum += weights[ordinal];
+            features.addAll(this.rules[ordinal].requiredFeatures());
+        }
+        this.totalWeight = weightSum;
+        this.index = new RuleIndex(this.rules);
+        this.requiredFeatures = Set.copyOf(features);
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Number of rules with a guard, which are only evaluated for events that can meet it.
+     */
+    public int guardedRuleCount() {
+        return index.guardedCount();
+    }
+
+    /**
+     * Features that some rule reads, which must be resolved before the rule set scores an event.
+     */
+    public Set<String> requiredFeatures() {
+        return requiredFeatures;
+    }
+
+    public List<Rule> rules() {
+        return List.of(rules);
+    }
+
+    public int ordinalOf(String ruleName) {
+        for (int ordinal = 0; ordinal < names.length; ordinal++) {
+            if (names[ordinal].equals(ruleName)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Allocation-free evaluation: writes each rule's bounded score into {@code ruleScores} at the
+     * rule's ordinal and returns the unrounded weighted score. Rules whose guard the event fails are
+     * not evaluated and score zero; the result is the same as evaluating every rule.
+     */
+    public double evaluateInto(TransactionCreatedEvent transaction, FeatureContext featureContext, RuleScores ruleScores) {
+        ruleScores.begin(rules.length);
+        index.evaluateInto(transaction, featureContext, ruleScores);
+        return totalWeight == 0.0 ? 0.0 : ruleScores.weightedSum(weights) / totalWeight;
+    }
+
+    public RuleEvaluationResult describe(double normalizedScore, RuleScores ruleScores) {
+        Map<String, Double> individualScores = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < rules.length; ordinal++) {
+            individualScores.put(names[ordinal], round(ruleScores.get(ordinal)));
+        }
+        return new RuleEvaluationResult(round(normalizedScore), individualScores, version);
+    }
+
+    private double round(double value) {
+        return ScoreUnits.toDouble(ScoreUnits.toUnits(value));
+    }
+}
@@ -0,0 +1,26 @@
+package com.frauddetection.fraudservice.engine;
+
+import java.util.List;
+
+/**
+ * Rule set as written in a rule definition file, before {@link RuleCompiler#compile} turns it into rules.
+ *
+ * <p>Each rule scores the first case whose {@code when} condition holds, or {@code otherwise} (0 when absent) if
+ * none does. Conditions and scores are expressions; see {@link RuleExpressionParser} for the language.
+ */
+public record RuleSetDefinition(String version, List<RuleDefinition> rules) {
+
+    public RuleSetDefinition {
+        rules = rules == null ? List.of() : List.copyOf(rules);
+    }
+
+    public record RuleDefinition(String name, double weight, List<Case> cases, String otherwise) {
+
+        public RuleDefinition {
+            cases = cases == null ? List.of() : List.copyOf(cases);
+        }
+    }
+
+    public record Case(String when, String score) {
+    }
+}
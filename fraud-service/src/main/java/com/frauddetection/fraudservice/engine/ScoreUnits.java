@@ -0,0 +1,60 @@
+package com.frauddetection.fraudservice.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for scores kept as {@code long} ten-thousandths, matching the 4-decimal
+ * {@code HALF_UP} scale used everywhere a score becomes a {@link BigDecimal}.
+ */
+public final class ScoreUnits {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000L;
+
+    private static final double TIE_TOLERANCE = 1e-6;
+
+    private ScoreUnits() {
+    }
+
+    /**
+     * Same result as {@code BigDecimal.valueOf(value).setScale(4, HALF_UP)}, without allocating
+     * unless the value sits so close to a rounding tie that binary error could flip it.
+     */
+    public static long toUnits(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return 0L;
+        }
+
+        double scaled = value * ONE;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (value < 0.0 || Math.abs(fraction - 0.5) < TIE_TOLERANCE || Math.abs(scaled) >= Long.MAX_VALUE) {
+            return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+        return (long) floor + (fraction > 0.5 ? 1L : 0L);
+    }
+
+    public static long toUnits(BigDecimal value) {
+        if (value == null) {
+            return 0L;
+        }
+        if (value.scale() == SCALE) {
+            // Scale-4 values round-trip exactly through double, which avoids unscaledValue()'s BigInteger.
+            return toUnits(value.doubleValue());
+        }
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    public static long clamp(long units) {
+        return Math.max(0L, Math.min(ONE, units));
+    }
+
+    public static double toDouble(long units) {
+        return (double) units / ONE;
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+}
@@ -0,0 +1,256 @@
+package com.frauddetection.fraudservice.event;
+
+import com.frauddetection.fraudservice.service.MlInferenceClient;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pauses the transactions listener while the pipeline is overloaded and resumes it once every
+ * signal has dropped below {@code resume-ratio} of its threshold. Pausing stops fetching on all
+ * assigned partitions while the consumer keeps polling, so the group does not rebalance.
+ */
+@Component
+public class ConsumerBackpressureController {
+
+    public static final String LISTENER_ID = "fraud-transactions";
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerBackpressureController.class);
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MlInferenceClient mlInferenceClient;
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long checkIntervalMillis;
+    private final int maxInFlight;
+    private final double maxMlLatencyMillis;
+    private final double maxDbPoolUtilization;
+    private final boolean pauseOnCircuitOpen;
+    private final double resumeRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger paused = new AtomicInteger();
+
+    private ScheduledExecutorService scheduler;
+    private long lastMlCount;
+    private double lastMlTotalMillis;
+    private double recentMlLatencyMillis;
+
+    @Autowired
+    public ConsumerBackpressureController(
+            KafkaListenerEndpointRegistry listenerRegistry,
+            MlInferenceClient mlInferenceClient,
+            ObjectProvider<DataSource> dataSourceProvider,
+            MeterRegistry meterRegistry,
+            @Value("${app.kafka.backpressure.enabled:false}") boolean enabled,
+            @Value("${app.kafka.backpressure.check-interval-ms:200}") long checkIntervalMillis,
+            @Value("${app.kafka.backpressure.max-in-flight:0}") int maxInFlight,
+            @Value("${app.kafka.backpressure.max-ml-latency-ms:400}") double maxMlLatencyMillis,
+            @Value("${app.kafka.backpressure.max-db-pool-utilization:0.9}") double maxDbPoolUtilization,
+            @Value("${app.kafka.backpressure.pause-on-circuit-open:false}") boolean pauseOnCircuitOpen,
+            @Value("${app.kafka.backpressure.resume-ratio:0.7}") double resumeRatio,
+            @Value("${app.kafka.consumer-mode:record}") String consumerMode,
+            @Value("${app.kafka.consumer-concurrency:1}") int concurrency,
+            @Value("${app.kafka.parallel.max-in-flight:256}") int parallelMaxInFlight,
+            @Value("${spring.kafka.consumer.max-poll-records:500}") int maxPollRecords
+    ) {
+        this(
+                listenerRegistry,
+                mlInferenceClient,
+                dataSourceProvider,
+                meterRegistry,
+                enabled,
+                checkIntervalMillis,
+                maxInFlight > 0
+                        ? maxInFlight
+                        : defaultMaxInFlight(consumerMode, concurrency, parallelMaxInFlight, maxPollRecords),
+                maxMlLatencyMillis,
+                maxDbPoolUtilization,
+                pauseOnCircuitOpen,
+                resumeRatio
+        );
+    }
+
+    ConsumerBackpressureController(
+            KafkaListenerEndpointRegistry listenerRegistry,
+            MlInferenceClient mlInferenceClient,
+            ObjectProvider<DataSource> dataSourceProvider,
+            MeterRegistry meterRegistry,
+            boolean enabled,
+            long checkIntervalMillis,
+            int maxInFlight,
+            double maxMlLatencyMillis,
+            double maxDbPoolUtilization,
+            boolean pauseOnCircuitOpen,
+            double resumeRatio
+    ) {
+        this.listenerRegistry = listenerRegistry;
+        this.mlInferenceClient = mlInferenceClient;
+        this.dataSourceProvider = dataSourceProvider;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.checkIntervalMillis = Math.max(10L, checkIntervalMillis);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxMlLatencyMillis = Math.max(1.0, maxMlLatencyMillis);
+        this.maxDbPoolUtilization = Math.max(0.0, Math.min(1.0, maxDbPoolUtilization));
+        this.pauseOnCircuitOpen = pauseOnCircuitOpen;
+        this.resumeRatio = Math.max(0.0, Math.min(1.0, resumeRatio));
+
+        meterRegistry.gauge("fraud.pipeline.in_flight", inFlight);
+        meterRegistry.gauge("fraud.kafka.consumer.paused", paused);
+    }
+
+    /**
+     * In-flight limit used when none is configured: 80% of the most events the active consumer mode can have
+     * outstanding, so the limit is reachable before the mode's own bound stops the consumer. In {@code record} mode
+     * each listener thread holds one event, so in-flight depth never builds up and the limit is disabled; the other
+     * signals still apply.
+     */
+    static int defaultMaxInFlight(String consumerMode, int concurrency, int parallelMaxInFlight, int maxPollRecords) {
+        if ("parallel".equalsIgnoreCase(consumerMode)) {
+            // One dispatcher is shared by every listener container.
+            return Math.max(1, (int) (Math.max(1, parallelMaxInFlight) * 0.8));
+        }
+        if ("batch".equalsIgnoreCase(consumerMode)) {
+            return Math.max(1, (int) ((long) Math.max(1, concurrency) * Math.max(1, maxPollRecords) * 0.8));
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    int maxInFlight() {
+        return maxInFlight;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fraud-backpressure");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::evaluateSafely, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void begin(int events) {
+        inFlight.addAndGet(events);
+    }
+
+    public void end(int events) {
+        inFlight.addAndGet(-events);
+    }
+
+    public boolean isPaused() {
+        return paused.get() == 1;
+    }
+
+    void evaluate() {
+        sampleMlLatency();
+
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+
+        if (!isPaused()) {
+            String reason = overloadReason(1.0);
+            if (reason != null) {
+                container.pause();
+                paused.set(1);
+                meterRegistry.counter("fraud.kafka.consumer.pauses.total", "reason", reason).increment();
+                log.warn(
+                        "kafka_consumer_paused reason={} inFlight={} mlLatencyMs={} dbPoolUtilization={}",
+                        reason,
+                        inFlight.get(),
+                        recentMlLatencyMillis,
+                        dbPoolUtilization()
+                );
+            }
+        } else if (overloadReason(resumeRatio) == null) {
+            container.resume();
+            paused.set(0);
+            log.info("kafka_consumer_resumed inFlight={} mlLatencyMs={}", inFlight.get(), recentMlLatencyMillis);
+        }
+    }
+
+    private void evaluateSafely() {
+        try {
+            evaluate();
+        } catch (RuntimeException exception) {
+            log.warn("kafka_backpressure_check_failed reason={}", exception.getMessage());
+        }
+    }
+
+    private String overloadReason(double thresholdScale) {
+        if (inFlight.get() >= maxInFlight * thresholdScale) {
+            return "in_flight";
+        }
+        if (recentMlLatencyMillis >= maxMlLatencyMillis * thresholdScale) {
+            return "ml_latency";
+        }
+        if (pauseOnCircuitOpen && mlInferenceClient.isCircuitOpen()) {
+            return "ml_circuit_open";
+        }
+        if (maxDbPoolUtilization > 0.0 && dbPoolUtilization() >= maxDbPoolUtilization * thresholdScale) {
+            return "db_pool";
+        }
+        return null;
+    }
+
+    private void sampleMlLatency() {
+        Timer timer = meterRegistry.find(MlInferenceClient.INFERENCE_LATENCY_METRIC).timer();
+        if (timer == null) {
+            return;
+        }
+
+        long count = timer.count();
+        double totalMillis = timer.totalTime(TimeUnit.MILLISECONDS);
+        if (count > lastMlCount) {
+            recentMlLatencyMillis = (totalMillis - lastMlTotalMillis) / (count - lastMlCount);
+        } else {
+            // No calls finished in the last interval; let the signal decay instead of sticking.
+            recentMlLatencyMillis = recentMlLatencyMillis / 2;
+        }
+        lastMlCount = count;
+        lastMlTotalMillis = totalMillis;
+    }
+
+    private double dbPoolUtilization() {
+        if (!(dataSourceProvider.getIfAvailable() instanceof HikariDataSource hikariDataSource)) {
+            return 0.0;
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return 0.0;
+        }
+        if (pool.getThreadsAwaitingConnection() > 0) {
+            return 1.0;
+        }
+        return (double) pool.getActiveConnections() / Math.max(1, hikariDataSource.getMaximumPoolSize());
+    }
+}
@@ -17,6 +17,26 @@ public record FraudDecisionEvent(
         String currency,
         String merchantId,
         String location,
-        Instant createdAt
+        Instant createdAt,
+        String ruleSetVersion,
+        boolean mlSkipped
 ) {
+
+    public FraudDecisionEvent(
+            UUID id,
+            String transactionId,
+            String userId,
+            BigDecimal riskScore,
+            DecisionType decision,
+            BigDecimal ruleScore,
+            BigDecimal mlScore,
+            BigDecimal amount,
+            String currency,
+            String merchantId,
+            String location,
+            Instant createdAt
+    ) {
+        this(id, transactionId, userId, riskScore, decision, ruleScore, mlScore, amount, currency, merchantId, location,
+                createdAt, null, false);
+    }
 }
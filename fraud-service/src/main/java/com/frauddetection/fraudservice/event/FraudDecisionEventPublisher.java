@@ -1,5 +1,6 @@
 package com.frauddetection.fraudservice.event;
 
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -41,4 +42,9 @@ public class FraudDecisionEventPublisher {
                     );
                 });
     }
+
+    public void publishAll(List<FraudDecisionEvent> events) {
+        // Sends are asynchronous; the producer coalesces them into record batches (see linger.ms).
+        events.forEach(this::publish);
+    }
 }
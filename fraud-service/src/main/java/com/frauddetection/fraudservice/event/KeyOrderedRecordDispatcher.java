@@ -0,0 +1,93 @@
+package com.frauddetection.fraudservice.event;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.kafka.consumer-mode", havingValue = "parallel")
+public class KeyOrderedRecordDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedRecordDispatcher.class);
+
+    private final List<ExecutorService> lanes;
+    private final int maxInFlight;
+    private final Semaphore inFlightPermits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public KeyOrderedRecordDispatcher(
+            @Value("${app.kafka.parallel.lanes:16}") int laneCount,
+            @Value("${app.kafka.parallel.max-in-flight:256}") int maxInFlight
+    ) {
+        int safeLaneCount = Math.max(1, laneCount);
+        this.lanes = new ArrayList<>(safeLaneCount);
+        for (int lane = 0; lane < safeLaneCount; lane++) {
+            String threadName = "fraud-lane-" + lane;
+            lanes.add(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlightPermits = new Semaphore(this.maxInFlight);
+    }
+
+    public void dispatch(String orderingKey, Runnable task) throws InterruptedException {
+        // Blocks the polling thread once maxInFlight records are outstanding.
+        inFlightPermits.acquire();
+        inFlight.incrementAndGet();
+        try {
+            lanes.get(laneFor(orderingKey)).execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                    inFlightPermits.release();
+                }
+            });
+        } catch (RuntimeException exception) {
+            inFlight.decrementAndGet();
+            inFlightPermits.release();
+            throw exception;
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        if (!inFlightPermits.tryAcquire(maxInFlight, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("parallel_dispatcher_drain_timed_out inFlight={}", inFlight.get());
+            return false;
+        }
+        inFlightPermits.release(maxInFlight);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lanes.forEach(ExecutorService::shutdown);
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    private int laneFor(String orderingKey) {
+        return orderingKey == null ? 0 : Math.floorMod(orderingKey.hashCode(), lanes.size());
+    }
+}
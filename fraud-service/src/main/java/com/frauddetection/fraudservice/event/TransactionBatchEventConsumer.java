@@ -0,0 +1,74 @@
+package com.frauddetection.fraudservice.event;
+
+import com.frauddetection.fraudservice.service.FeatureStateSnapshotService;
+import com.frauddetection.fraudservice.service.FraudProcessingService;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.kafka.consumer-mode", havingValue = "batch")
+public class TransactionBatchEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionBatchEventConsumer.class);
+
+    private final FraudProcessingService fraudProcessingService;
+    private final ConsumerBackpressureController backpressureController;
+    private final FeatureStateSnapshotService snapshotService;
+
+    public TransactionBatchEventConsumer(
+            FraudProcessingService fraudProcessingService,
+            ConsumerBackpressureController backpressureController,
+            FeatureStateSnapshotService snapshotService
+    ) {
+        this.fraudProcessingService = fraudProcessingService;
+        this.backpressureController = backpressureController;
+        this.snapshotService = snapshotService;
+    }
+
+    @KafkaListener(
+            id = ConsumerBackpressureController.LISTENER_ID,
+            idIsGroup = false,
+            topics = "${app.kafka.transactions-topic}"
+    )
+    public void consume(
+            List<TransactionCreatedEvent> events,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
+            @Header(KafkaHeaders.OFFSET) List<Long> offsets
+    ) {
+        List<TransactionCreatedEvent> validEvents = new ArrayList<>(events.size());
+        int nullPayloads = 0;
+        for (int index = 0; index < events.size(); index++) {
+            TransactionCreatedEvent event = events.get(index);
+            if (event == null) {
+                nullPayloads++;
+            } else if (!snapshotService.absorbReplay(partitions.get(index), offsets.get(index), event)) {
+                validEvents.add(event);
+            }
+        }
+
+        if (nullPayloads > 0) {
+            log.warn("transaction_event_ignored reason=null_payload count={}", nullPayloads);
+        }
+        if (!validEvents.isEmpty()) {
+            log.info("transaction_event_batch_received size={}", validEvents.size());
+
+            backpressureController.begin(validEvents.size());
+            try {
+                fraudProcessingService.processBatchAndPublish(validEvents);
+            } finally {
+                backpressureController.end(validEvents.size());
+            }
+        }
+
+        for (int index = 0; index < events.size(); index++) {
+            snapshotService.markApplied(partitions.get(index), offsets.get(index));
+        }
+    }
+}
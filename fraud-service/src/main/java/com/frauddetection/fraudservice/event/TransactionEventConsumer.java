@@ -1,26 +1,51 @@
 package com.frauddetection.fraudservice.event;
 
+import com.frauddetection.fraudservice.service.FeatureStateSnapshotService;
 import com.frauddetection.fraudservice.service.FraudProcessingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "app.kafka.consumer-mode", havingValue = "record", matchIfMissing = true)
 public class TransactionEventConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionEventConsumer.class);
 
     private final FraudProcessingService fraudProcessingService;
+    private final ConsumerBackpressureController backpressureController;
+    private final FeatureStateSnapshotService snapshotService;
 
-    public TransactionEventConsumer(FraudProcessingService fraudProcessingService) {
+    public TransactionEventConsumer(
+            FraudProcessingService fraudProcessingService,
+            ConsumerBackpressureController backpressureController,
+            FeatureStateSnapshotService snapshotService
+    ) {
         this.fraudProcessingService = fraudProcessingService;
+        this.backpressureController = backpressureController;
+        this.snapshotService = snapshotService;
     }
 
-    @KafkaListener(topics = "${app.kafka.transactions-topic}")
-    public void consume(TransactionCreatedEvent event) {
+    @KafkaListener(
+            id = ConsumerBackpressureController.LISTENER_ID,
+            idIsGroup = false,
+            topics = "${app.kafka.transactions-topic}"
+    )
+    public void consume(
+            TransactionCreatedEvent event,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset
+    ) {
         if (event == null) {
             log.warn("transaction_event_ignored reason=null_payload");
+            snapshotService.markApplied(partition, offset);
+            return;
+        }
+        if (snapshotService.absorbReplay(partition, offset, event)) {
             return;
         }
 
@@ -33,6 +58,12 @@ public class TransactionEventConsumer {
                 event.location()
         );
 
-        fraudProcessingService.processAndPublish(event);
+        backpressureController.begin(1);
+        try {
+            fraudProcessingService.processAndPublish(event);
+        } finally {
+            backpressureController.end(1);
+        }
+        snapshotService.markApplied(partition, offset);
     }
 }
@@ -0,0 +1,116 @@
+package com.frauddetection.fraudservice.event;
+
+import com.frauddetection.fraudservice.service.FeatureStateSnapshotService;
+import com.frauddetection.fraudservice.service.FraudProcessingService;
+import java.time.Duration;
+import java.util.Collection;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.kafka.consumer-mode", havingValue = "parallel")
+public class TransactionParallelEventConsumer implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionParallelEventConsumer.class);
+    private static final Duration REVOCATION_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final FraudProcessingService fraudProcessingService;
+    private final KeyOrderedRecordDispatcher dispatcher;
+    private final ConsumerBackpressureController backpressureController;
+    private final FeatureStateSnapshotService snapshotService;
+
+    public TransactionParallelEventConsumer(
+            FraudProcessingService fraudProcessingService,
+            KeyOrderedRecordDispatcher dispatcher,
+            ConsumerBackpressureController backpressureController,
+            FeatureStateSnapshotService snapshotService
+    ) {
+        this.fraudProcessingService = fraudProcessingService;
+        this.dispatcher = dispatcher;
+        this.backpressureController = backpressureController;
+        this.snapshotService = snapshotService;
+    }
+
+    @KafkaListener(
+            id = ConsumerBackpressureController.LISTENER_ID,
+            idIsGroup = false,
+            topics = "${app.kafka.transactions-topic}"
+    )
+    public void consume(ConsumerRecord<String, TransactionCreatedEvent> record, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        TransactionCreatedEvent event = record.value();
+        if (event == null) {
+            log.warn("transaction_event_ignored reason=null_payload partition={} offset={}", record.partition(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+        if (snapshotService.absorbReplay(record.partition(), record.offset(), event)) {
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        String orderingKey = event.userId() == null ? event.transactionId() : event.userId();
+        snapshotService.markDispatched(record.partition(), record.offset());
+        backpressureController.begin(1);
+        boolean dispatched = false;
+        try {
+            dispatcher.dispatch(orderingKey, () -> process(record, event, acknowledgment));
+            dispatched = true;
+        } finally {
+            if (!dispatched) {
+                backpressureController.end(1);
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Let in-flight records finish so their acknowledgments are committed before ownership moves.
+        try {
+            dispatcher.awaitIdle(REVOCATION_DRAIN_TIMEOUT);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(
+            ConsumerRecord<String, TransactionCreatedEvent> record,
+            TransactionCreatedEvent event,
+            Acknowledgment acknowledgment
+    ) {
+        try {
+            log.info(
+                    "transaction_event_received transactionId={} userId={} amount={} merchantId={} location={}",
+                    event.transactionId(),
+                    event.userId(),
+                    event.amount(),
+                    event.merchantId(),
+                    event.location()
+            );
+
+            fraudProcessingService.processAndPublish(event);
+        } catch (RuntimeException exception) {
+            log.error(
+                    "kafka_record_rejected topic={} partition={} offset={} key={} reason={}",
+                    record.topic(),
+                    record.partition(),
+                    record.offset(),
+                    record.key(),
+                    exception.getMessage(),
+                    exception
+            );
+        } finally {
+            snapshotService.markApplied(record.partition(), record.offset());
+            acknowledgment.acknowledge();
+            backpressureController.end(1);
+        }
+    }
+}
@@ -24,7 +24,7 @@ public class FraudDecisionMapper {
         fraudDecision.setRiskScore(scale(riskScore));
         fraudDecision.setDecision(decision);
         fraudDecision.setRuleScore(scale(ruleScore));
-        fraudDecision.setMlScore(scale(mlScore));
+        fraudDecision.setMlScore(mlScore == null ? null : scale(mlScore));
         fraudDecision.setAmount(transaction.amount());
         fraudDecision.setCurrency(transaction.currency());
         fraudDecision.setMerchantId(transaction.merchantId());
@@ -45,10 +45,32 @@ public class FraudDecisionMapper {
                 decision.getCurrency(),
                 decision.getMerchantId(),
                 decision.getLocation(),
-                decision.getCreatedAt()
+                decision.getCreatedAt(),
+                decision.getRuleSetVersion(),
+                decision.isMlSkipped()
         );
     }
 
+    public FraudDecision toEntity(FraudDecisionEvent event) {
+        FraudDecision decision = new FraudDecision(
+                event.id(),
+                event.transactionId(),
+                event.userId(),
+                event.riskScore(),
+                event.decision(),
+                event.ruleScore(),
+                event.mlScore(),
+                event.amount(),
+                event.currency(),
+                event.merchantId(),
+                event.location(),
+                event.createdAt()
+        );
+        decision.setRuleSetVersion(event.ruleSetVersion());
+        decision.setMlSkipped(event.mlSkipped());
+        return decision;
+    }
+
     private BigDecimal scale(BigDecimal value) {
         if (value == null) {
             return BigDecimal.ZERO.setScale(4);
@@ -35,9 +35,13 @@ public class FraudDecision {
     @Column(nullable = false, precision = 5, scale = 4)
     private BigDecimal ruleScore;
 
-    @Column(nullable = false, precision = 5, scale = 4)
+    // Null when the tiered gate skipped the model; see mlSkipped.
+    @Column(precision = 5, scale = 4)
     private BigDecimal mlScore;
 
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean mlSkipped;
+
     @Column(precision = 19, scale = 2)
     private BigDecimal amount;
 
@@ -50,6 +54,9 @@ public class FraudDecision {
     @Column(length = 150)
     private String location;
 
+    @Column(length = 64)
+    private String ruleSetVersion;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -140,6 +147,14 @@ public class FraudDecision {
         this.mlScore = mlScore;
     }
 
+    public boolean isMlSkipped() {
+        return mlSkipped;
+    }
+
+    public void setMlSkipped(boolean mlSkipped) {
+        this.mlSkipped = mlSkipped;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
@@ -172,6 +187,14 @@ public class FraudDecision {
         this.location = location;
     }
 
+    public String getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    public void setRuleSetVersion(String ruleSetVersion) {
+        this.ruleSetVersion = ruleSetVersion;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -182,13 +205,17 @@ public class FraudDecision {
 
     @PrePersist
     void onCreate() {
+        assignDefaults();
+    }
+
+    public void assignDefaults() {
         if (id == null) {
             id = UUID.randomUUID();
         }
         if (createdAt == null) {
             createdAt = Instant.now();
         }
-        if (mlScore == null) {
+        if (mlScore == null && !mlSkipped) {
             mlScore = BigDecimal.ZERO.setScale(4);
         }
     }
@@ -0,0 +1,87 @@
+package com.frauddetection.fraudservice.repository;
+
+import com.frauddetection.fraudservice.model.FraudDecision;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserts decisions with multi-row {@code insert ... on conflict do nothing returning transaction_id} statements.
+ * A duplicate is skipped by the database instead of raising an error that would abort the surrounding transaction,
+ * and the returned ids tell which rows were new; JDBC batch row counts cannot, because {@code reWriteBatchedInserts}
+ * reports them as unknown.
+ */
+@Repository
+public class DecisionBatchInserter {
+
+    // 14 bind parameters per row stays well below the driver's limit per statement.
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_PREFIX = """
+            insert into fraud_decisions (id, transaction_id, user_id, risk_score, decision, rule_score, ml_score,
+                                         amount, currency, merchant_id, location, created_at, rule_set_version,
+                                         ml_skipped)
+            values\s""";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SUFFIX = " on conflict (transaction_id) do nothing returning transaction_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DecisionBatchInserter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts every decision whose transaction has none yet and returns the transaction ids that were inserted.
+     * Decisions must already carry their id and creation time (see {@link FraudDecision#assignDefaults()}).
+     */
+    public Set<String> insertIfAbsent(List<FraudDecision> decisions) {
+        Set<String> inserted = new HashSet<>();
+        for (int from = 0; from < decisions.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<FraudDecision> chunk = decisions.subList(from, Math.min(decisions.size(), from + MAX_ROWS_PER_STATEMENT));
+            inserted.addAll(jdbcTemplate.query(
+                    sql(chunk.size()),
+                    statement -> bind(statement, chunk),
+                    (resultSet, rowNumber) -> resultSet.getString(1)
+            ));
+        }
+        return inserted;
+    }
+
+    static String sql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW.length() + 2) + INSERT_SUFFIX.length());
+        sql.append(INSERT_PREFIX);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(INSERT_SUFFIX).toString();
+    }
+
+    private static void bind(PreparedStatement statement, List<FraudDecision> decisions) throws SQLException {
+        int parameter = 1;
+        for (FraudDecision decision : decisions) {
+            statement.setObject(parameter++, decision.getId());
+            statement.setString(parameter++, decision.getTransactionId());
+            statement.setString(parameter++, decision.getUserId());
+            statement.setBigDecimal(parameter++, decision.getRiskScore());
+            statement.setString(parameter++, decision.getDecision().name());
+            statement.setBigDecimal(parameter++, decision.getRuleScore());
+            statement.setBigDecimal(parameter++, decision.getMlScore());
+            statement.setBigDecimal(parameter++, decision.getAmount());
+            statement.setString(parameter++, decision.getCurrency());
+            statement.setString(parameter++, decision.getMerchantId());
+            statement.setString(parameter++, decision.getLocation());
+            statement.setTimestamp(parameter++, Timestamp.from(decision.getCreatedAt()));
+            statement.setString(parameter++, decision.getRuleSetVersion());
+            statement.setBoolean(parameter++, decision.isMlSkipped());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.frauddetection.fraudservice.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Circular, memory-mapped journal of decisions that are not yet in {@code fraud_decisions}.
+ * Layout: a fixed header (magic, version, write position, flushed position, mapped size) followed by
+ * a ring of length-prefixed entries. Positions only grow; an entry may wrap around the end of the ring,
+ * and the space up to the flushed position is reused by later appends, so a writer that keeps up with
+ * a steady stream never fills the file. Entries between the flushed and write positions are replayed on open.
+ */
+public class DecisionJournal implements Closeable {
+
+    private static final int MAGIC = 0x46444a31;
+    private static final int VERSION = 2;
+    // Version 1 journals were linear and never wrapped, which version 2 reads the same way.
+    private static final int LINEAR_VERSION = 1;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final int FLUSHED_POSITION_OFFSET = 16;
+    private static final int MAPPED_BYTES_OFFSET = 24;
+    static final int HEADER_BYTES = 32;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int ringBytes;
+    private final boolean forceOnAppend;
+
+    private long writePosition;
+    private long flushedPosition;
+
+    public DecisionJournal(Path path, int capacityBytes, boolean forceOnAppend) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        this.channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        int version = header.getInt(4);
+        boolean valid = header.getInt(0) == MAGIC && (version == VERSION || version == LINEAR_VERSION);
+        // Positions wrap at the ring size, so a journal with pending entries keeps the size it was written with.
+        int mappedBytes = valid && header.getInt(MAPPED_BYTES_OFFSET) > 0
+                ? header.getInt(MAPPED_BYTES_OFFSET)
+                : Math.max(HEADER_BYTES * 2, capacityBytes);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedBytes);
+        this.ringBytes = mappedBytes - HEADER_BYTES;
+        this.forceOnAppend = forceOnAppend;
+
+        if (valid) {
+            this.writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+            this.flushedPosition = buffer.getLong(FLUSHED_POSITION_OFFSET);
+        } else {
+            reset();
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(MAPPED_BYTES_OFFSET, mappedBytes);
+    }
+
+    /**
+     * Appends one entry and returns the journal position just past it, or {@code -1} if the
+     * ring has no room left until pending entries are flushed.
+     */
+    public synchronized long append(byte[] payload) {
+        long required = Integer.BYTES + (long) payload.length;
+        if (writePosition - flushedPosition + required > ringBytes) {
+            return -1;
+        }
+
+        write(writePosition, ByteBuffer.allocate(Integer.BYTES).putInt(0, payload.length).array());
+        write(writePosition + Integer.BYTES, payload);
+        writePosition += required;
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+
+        if (forceOnAppend) {
+            buffer.force();
+        }
+        return writePosition;
+    }
+
+    public synchronized List<JournalEntry> pendingEntries() {
+        List<JournalEntry> entries = new ArrayList<>();
+        byte[] lengthBytes = new byte[Integer.BYTES];
+        long position = flushedPosition;
+        while (position < writePosition) {
+            read(position, lengthBytes);
+            byte[] payload = new byte[ByteBuffer.wrap(lengthBytes).getInt()];
+            read(position + Integer.BYTES, payload);
+            position += Integer.BYTES + payload.length;
+            entries.add(new JournalEntry(payload, position));
+        }
+        return entries;
+    }
+
+    /**
+     * Marks every entry up to {@code position} as durably stored, which frees its space for later
+     * appends. Once the journal has fully caught up it rewinds to the start of the ring.
+     */
+    public synchronized void checkpoint(long position) {
+        if (position <= flushedPosition) {
+            return;
+        }
+        flushedPosition = Math.min(position, writePosition);
+        if (flushedPosition == writePosition) {
+            reset();
+        } else {
+            buffer.putLong(FLUSHED_POSITION_OFFSET, flushedPosition);
+        }
+    }
+
+    public synchronized long pendingBytes() {
+        return writePosition - flushedPosition;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void write(long position, byte[] bytes) {
+        int offset = offset(position);
+        int head = Math.min(bytes.length, HEADER_BYTES + ringBytes - offset);
+        buffer.put(offset, bytes, 0, head);
+        buffer.put(HEADER_BYTES, bytes, head, bytes.length - head);
+    }
+
+    private void read(long position, byte[] bytes) {
+        int offset = offset(position);
+        int head = Math.min(bytes.length, HEADER_BYTES + ringBytes - offset);
+        buffer.get(offset, bytes, 0, head);
+        buffer.get(HEADER_BYTES, bytes, head, bytes.length - head);
+    }
+
+    private int offset(long position) {
+        return HEADER_BYTES + (int) ((position - HEADER_BYTES) % ringBytes);
+    }
+
+    private void reset() {
+        writePosition = HEADER_BYTES;
+        flushedPosition = HEADER_BYTES;
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+        buffer.putLong(FLUSHED_POSITION_OFFSET, flushedPosition);
+    }
+
+    public record JournalEntry(byte[] payload, long endPosition) {
+    }
+}
@@ -1,12 +1,41 @@
 package com.frauddetection.fraudservice.repository;
 
 import com.frauddetection.fraudservice.model.FraudDecision;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface FraudDecisionRepository extends JpaRepository<FraudDecision, UUID>, JpaSpecificationExecutor<FraudDecision> {
 
     Optional<FraudDecision> findByTransactionId(String transactionId);
+
+    @Query("select d.transactionId from FraudDecision d where d.transactionId in :transactionIds")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    @Transactional
+    @Modifying
+    @Query(
+            value = """
+                    insert into fraud_decisions (
+                        id, transaction_id, user_id, risk_score, decision, rule_score, ml_score,
+                        amount, currency, merchant_id, location, created_at, rule_set_version, ml_skipped
+                    ) values (
+                        :#{#decision.id}, :#{#decision.transactionId}, :#{#decision.userId},
+                        :#{#decision.riskScore}, :#{#decision.decision.name()}, :#{#decision.ruleScore},
+                        :#{#decision.mlScore}, :#{#decision.amount}, :#{#decision.currency},
+                        :#{#decision.merchantId}, :#{#decision.location}, :#{#decision.createdAt},
+                        :#{#decision.ruleSetVersion}, :#{#decision.mlSkipped}
+                    )
+                    on conflict (transaction_id) do nothing
+                    """,
+            nativeQuery = true
+    )
+    int insertIfAbsent(@Param("decision") FraudDecision decision);
 }
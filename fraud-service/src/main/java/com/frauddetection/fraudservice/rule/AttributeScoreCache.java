@@ -0,0 +1,54 @@
+package com.frauddetection.fraudservice.rule;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Bounded memo of rule scores that depend only on one string attribute of the event and on a configuration object,
+ * such as a merchant id scored against the keyword automaton. Merchants repeat far more often than they change,
+ * so the rule stage and the ML feature stage mostly hit the entry the first evaluation of an event left behind.
+ *
+ * <p>Like the {@link LocationResolver} cache it is direct-mapped: a slot holds an immutable entry, a colliding key
+ * replaces it, and lookups take no lock. Entries remember the configuration they were computed with and only hit
+ * for that same instance, so swapping in a new configuration invalidates them without a sweep.
+ */
+public final class AttributeScoreCache {
+
+    private final Entry[] slots;
+    private final int mask;
+
+    public AttributeScoreCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(16, Math.min(size, 1 << 20)));
+        this.slots = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Score of {@code attribute} under {@code configuration}, computing it with {@code scorer} on a miss.
+     */
+    public <C> double score(String attribute, C configuration, ToDoubleBiFunction<C, String> scorer) {
+        int hash = attribute.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        Entry cached = slots[slot];
+        if (cached != null && cached.configuration() == configuration && cached.attribute().equals(attribute)) {
+            return cached.score();
+        }
+        double score = scorer.applyAsDouble(configuration, attribute);
+        slots[slot] = new Entry(attribute, configuration, score);
+        return score;
+    }
+
+    /**
+     * Drops every entry, so that a replaced configuration is not kept reachable by stale entries.
+     */
+    public void clear() {
+        Arrays.fill(slots, null);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    private record Entry(String attribute, Object configuration, double score) {
+    }
+}
@@ -0,0 +1,246 @@
+package com.frauddetection.fraudservice.rule;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Immutable Aho-Corasick automaton over a keyword catalog with a risk weight per keyword.
+ *
+ * <p>A scan reads the text once, folding each character to lower case as it goes, and reports the highest weight
+ * of any keyword occurring in it, so its cost depends on the text length and not on the catalog size. Transitions
+ * are stored as sorted edge arrays per state (with a direct table for ASCII at the root), and each state carries
+ * the best weight reachable through its failure links, so a scan allocates nothing.
+ */
+public final class KeywordAutomaton {
+
+    public static final KeywordAutomaton EMPTY = compile(Map.of());
+
+    private static final int ROOT = 0;
+    private static final int ASCII = 128;
+
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] rootTable;
+    private final int[] failure;
+    private final double[] bestWeight;
+    private final int[] bestKeyword;
+    private final String[] keywords;
+
+    private KeywordAutomaton(
+            int[] edgeStart,
+            char[] edgeChars,
+            int[] edgeTargets,
+            int[] rootTable,
+            int[] failure,
+            double[] bestWeight,
+            int[] bestKeyword,
+            String[] keywords
+    ) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.rootTable = rootTable;
+        this.failure = failure;
+        this.bestWeight = bestWeight;
+        this.bestKeyword = bestKeyword;
+        this.keywords = keywords;
+    }
+
+    /**
+     * Builds an automaton from keywords (matched case-insensitively) to weights; blank keywords are ignored and
+     * a duplicate keeps its highest weight.
+     */
+    public static KeywordAutomaton compile(Map<String, Double> weightedKeywords) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Double> ownWeight = new ArrayList<>();
+        List<Integer> ownKeyword = new ArrayList<>();
+        List<String> keywordList = new ArrayList<>();
+        children.add(new TreeMap<>());
+        ownWeight.add(0.0);
+        ownKeyword.add(-1);
+
+        for (Map.Entry<String, Double> entry : weightedKeywords.entrySet()) {
+            String keyword = entry.getKey() == null ? "" : entry.getKey().trim();
+            double weight = entry.getValue() == null ? 0.0 : entry.getValue();
+            if (keyword.isEmpty() || !(weight > 0.0)) {
+                continue;
+            }
+            int state = ROOT;
+            for (int index = 0; index < keyword.length(); index++) {
+                char character = fold(keyword.charAt(index));
+                Integer next = children.get(state).get(character);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(character, next);
+                    children.add(new TreeMap<>());
+                    ownWeight.add(0.0);
+                    ownKeyword.add(-1);
+                }
+                state = next;
+            }
+            if (weight > ownWeight.get(state)) {
+                if (ownKeyword.get(state) < 0) {
+                    keywordList.add(keyword.toLowerCase(Locale.ROOT));
+                    ownKeyword.set(state, keywordList.size() - 1);
+                }
+                ownWeight.set(state, weight);
+            }
+        }
+
+        int stateCount = children.size();
+        int[] edgeStart = new int[stateCount + 1];
+        for (int state = 0; state < stateCount; state++) {
+            edgeStart[state + 1] = edgeStart[state] + children.get(state).size();
+        }
+        char[] edgeChars = new char[edgeStart[stateCount]];
+        int[] edgeTargets = new int[edgeStart[stateCount]];
+        for (int state = 0; state < stateCount; state++) {
+            int edge = edgeStart[state];
+            for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+                edgeChars[edge] = child.getKey();
+                edgeTargets[edge] = child.getValue();
+                edge++;
+            }
+        }
+        int[] rootTable = new int[ASCII];
+        Arrays.fill(rootTable, -1);
+        children.get(ROOT).forEach((character, target) -> {
+            if (character < ASCII) {
+                rootTable[character] = target;
+            }
+        });
+
+        // Breadth-first, so a state's failure target is always finished before the state itself.
+        int[] failure = new int[stateCount];
+        double[] bestWeight = new double[stateCount];
+        int[] bestKeyword = new int[stateCount];
+        bestKeyword[ROOT] = -1;
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int target : children.get(ROOT).values()) {
+            failure[target] = ROOT;
+            bestWeight[target] = ownWeight.get(target);
+            bestKeyword[target] = ownKeyword.get(target);
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+                int target = child.getValue();
+                int fallback = failure[state];
+                int next;
+                while ((next = step(children, fallback, child.getKey())) < 0 && fallback != ROOT) {
+                    fallback = failure[fallback];
+                }
+                failure[target] = next < 0 ? ROOT : next;
+                if (ownWeight.get(target) >= bestWeight[failure[target]]) {
+                    bestWeight[target] = ownWeight.get(target);
+                    bestKeyword[target] = ownKeyword.get(target);
+                } else {
+                    bestWeight[target] = bestWeight[failure[target]];
+                    bestKeyword[target] = bestKeyword[failure[target]];
+                }
+                queue.add(target);
+            }
+        }
+
+        return new KeywordAutomaton(
+                edgeStart,
+                edgeChars,
+                edgeTargets,
+                rootTable,
+                failure,
+                bestWeight,
+                bestKeyword,
+                keywordList.toArray(String[]::new)
+        );
+    }
+
+    public int keywordCount() {
+        return keywords.length;
+    }
+
+    /**
+     * Highest weight of any catalog keyword occurring in {@code text}, or 0 when none does.
+     */
+    public double maxWeight(CharSequence text) {
+        if (text == null) {
+            return 0.0;
+        }
+        double best = 0.0;
+        int state = ROOT;
+        for (int index = 0; index < text.length(); index++) {
+            state = next(state, fold(text.charAt(index)));
+            best = Math.max(best, bestWeight[state]);
+        }
+        return best;
+    }
+
+    /**
+     * The keyword behind {@link #maxWeight}, lower-cased, or null when nothing matches.
+     */
+    public String strongestMatch(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        double best = 0.0;
+        int keyword = -1;
+        int state = ROOT;
+        for (int index = 0; index < text.length(); index++) {
+            state = next(state, fold(text.charAt(index)));
+            if (bestWeight[state] > best) {
+                best = bestWeight[state];
+                keyword = bestKeyword[state];
+            }
+        }
+        return keyword < 0 ? null : keywords[keyword];
+    }
+
+    private int next(int state, char character) {
+        while (true) {
+            int target = transition(state, character);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    private int transition(int state, char character) {
+        if (state == ROOT && character < ASCII) {
+            return rootTable[character];
+        }
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char candidate = edgeChars[middle];
+            if (candidate < character) {
+                low = middle + 1;
+            } else if (candidate > character) {
+                high = middle - 1;
+            } else {
+                return edgeTargets[middle];
+            }
+        }
+        return -1;
+    }
+
+    private static int step(List<TreeMap<Character, Integer>> children, int state, char character) {
+        Integer target = children.get(state).get(character);
+        return target == null ? -1 : target;
+    }
+
+    private static char fold(char character) {
+        return Character.toLowerCase(character);
+    }
+}
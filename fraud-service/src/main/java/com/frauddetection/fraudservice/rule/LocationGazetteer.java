@@ -0,0 +1,313 @@
+package com.frauddetection.fraudservice.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable trie from place names (cities, regions, countries and their codes) to ISO country codes.
+ *
+ * <p>{@link #resolve} reads a free-text location such as {@code "Phnom Penh, KH"} once, splitting it on commas and
+ * walking the trie for every part while it folds case, drops dots and collapses whitespace, so it allocates
+ * nothing. A known city decides the country (which disambiguates {@code "Los Angeles, CA"}); otherwise the last
+ * part naming a region or country does.
+ *
+ * <p>Two-letter region codes such as {@code "ID"} or {@code "CA"} are mostly ISO country codes as well, so they are
+ * kept apart from the other names: a part after the first reads as a region code when the code belongs to the home
+ * country given to {@link #withHomeCountry} or names no country at all. {@code "Boise, ID"} then resolves to the
+ * United States rather than Indonesia, while a bare {@code "ID"} stays Indonesia.
+ */
+public final class LocationGazetteer {
+
+    public enum Kind {
+        CITY,
+        REGION,
+        COUNTRY,
+        REGION_CODE
+    }
+
+    private static final int ROOT = 0;
+    private static final int ASCII = 128;
+    private static final int NONE = -1;
+
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] rootTable;
+    private final int[] terminalCountry;
+    private final byte[] terminalKind;
+    private final int[] regionCodeCountry;
+    private final String[] countries;
+    private final int homeCountry;
+
+    private LocationGazetteer(
+            int[] edgeStart,
+            char[] edgeChars,
+            int[] edgeTargets,
+            int[] rootTable,
+            int[] terminalCountry,
+            byte[] terminalKind,
+            int[] regionCodeCountry,
+            String[] countries,
+            int homeCountry
+    ) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.rootTable = rootTable;
+        this.terminalCountry = terminalCountry;
+        this.terminalKind = terminalKind;
+        this.regionCodeCountry = regionCodeCountry;
+        this.countries = countries;
+        this.homeCountry = homeCountry;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int countryCount() {
+        return countries.length;
+    }
+
+    /**
+     * The same gazetteer reading the region codes of {@code countryCode} as regions; it shares the trie with this one.
+     */
+    public LocationGazetteer withHomeCountry(String countryCode) {
+        String country = countryCode == null ? "" : countryCode.trim().toUpperCase(Locale.ROOT);
+        int home = Arrays.asList(countries).indexOf(country);
+        return new LocationGazetteer(
+                edgeStart,
+                edgeChars,
+                edgeTargets,
+                rootTable,
+                terminalCountry,
+                terminalKind,
+                regionCodeCountry,
+                countries,
+                home < 0 ? NONE : home
+        );
+    }
+
+    /**
+     * The upper-case ISO country code for {@code location}, or null when no part of it is known.
+     */
+    public String resolve(CharSequence location) {
+        if (location == null) {
+            return null;
+        }
+
+        int cityCountry = NONE;
+        int lastCountry = NONE;
+        int state = ROOT;
+        int part = 0;
+        boolean started = false;
+        boolean pendingSpace = false;
+        int length = location.length();
+        for (int index = 0; index <= length; index++) {
+            char character = index == length ? ',' : Character.toLowerCase(location.charAt(index));
+            if (character == ',') {
+                if (started && state != NONE && part > 0 && isRegionCode(state)) {
+                    lastCountry = regionCodeCountry[state];
+                } else if (started && state != NONE && terminalCountry[state] != NONE) {
+                    if (terminalKind[state] == Kind.CITY.ordinal()) {
+                        cityCountry = cityCountry == NONE ? terminalCountry[state] : cityCountry;
+                    } else {
+                        lastCountry = terminalCountry[state];
+                    }
+                }
+                state = ROOT;
+                part++;
+                started = false;
+                pendingSpace = false;
+            } else if (state == NONE || character == '.') {
+                continue;
+            } else if (Character.isWhitespace(character)) {
+                pendingSpace = started;
+            } else {
+                if (pendingSpace) {
+                    state = transition(state, ' ');
+                    pendingSpace = false;
+                    if (state == NONE) {
+                        continue;
+                    }
+                }
+                state = transition(state, character);
+                started = true;
+            }
+        }
+
+        int country = cityCountry != NONE ? cityCountry : lastCountry;
+        return country == NONE ? null : countries[country];
+    }
+
+    private boolean isRegionCode(int state) {
+        int country = regionCodeCountry[state];
+        return country != NONE && (country == homeCountry || terminalCountry[state] == NONE);
+    }
+
+    private int transition(int state, char character) {
+        if (state == ROOT && character < ASCII) {
+            return rootTable[character];
+        }
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char candidate = edgeChars[middle];
+            if (candidate < character) {
+                low = middle + 1;
+            } else if (candidate > character) {
+                high = middle - 1;
+            } else {
+                return edgeTargets[middle];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Same folding as {@link #resolve}, applied to names when they are added.
+     */
+    static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean pendingSpace = false;
+        for (int index = 0; index < name.length(); index++) {
+            char character = Character.toLowerCase(name.charAt(index));
+            if (character == '.') {
+                continue;
+            }
+            if (Character.isWhitespace(character)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(character);
+        }
+        return normalized.toString();
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+        private final Map<String, String> regionCodes = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a place; a later entry for the same name replaces an earlier one. A {@link Kind#REGION_CODE} is kept
+         * next to any other entry of the same name instead of replacing it.
+         */
+        public Builder add(String name, String countryCode, Kind kind) {
+            String key = name == null ? "" : normalize(name);
+            String country = countryCode == null ? "" : countryCode.trim().toUpperCase(Locale.ROOT);
+            if (key.isEmpty() || key.indexOf(',') >= 0 || country.isEmpty() || kind == null) {
+                throw new IllegalArgumentException("invalid gazetteer entry: " + name + " -> " + countryCode);
+            }
+            if (kind == Kind.REGION_CODE) {
+                regionCodes.put(key, country);
+            } else {
+                entries.put(key, new Entry(country, kind));
+            }
+            return this;
+        }
+
+        public LocationGazetteer build() {
+            List<TreeMap<Character, Integer>> children = new ArrayList<>();
+            List<Integer> countryOf = new ArrayList<>();
+            List<Kind> kindOf = new ArrayList<>();
+            Map<String, Integer> countryIndex = new LinkedHashMap<>();
+            children.add(new TreeMap<>());
+            countryOf.add(NONE);
+            kindOf.add(null);
+
+            List<Integer> regionCodeOf = new ArrayList<>();
+            regionCodeOf.add(NONE);
+
+            entries.forEach((name, entry) -> {
+                int state = insert(name, children, countryOf, kindOf, regionCodeOf);
+                countryOf.set(state, countryIndex.computeIfAbsent(entry.country(), country -> countryIndex.size()));
+                kindOf.set(state, entry.kind());
+            });
+            regionCodes.forEach((name, regionCountry) -> {
+                int state = insert(name, children, countryOf, kindOf, regionCodeOf);
+                regionCodeOf.set(state, countryIndex.computeIfAbsent(regionCountry, country -> countryIndex.size()));
+            });
+
+            int stateCount = children.size();
+            int[] edgeStart = new int[stateCount + 1];
+            for (int state = 0; state < stateCount; state++) {
+                edgeStart[state + 1] = edgeStart[state] + children.get(state).size();
+            }
+            char[] edgeChars = new char[edgeStart[stateCount]];
+            int[] edgeTargets = new int[edgeStart[stateCount]];
+            int[] terminalCountry = new int[stateCount];
+            byte[] terminalKind = new byte[stateCount];
+            int[] regionCodeCountry = new int[stateCount];
+            for (int state = 0; state < stateCount; state++) {
+                int edge = edgeStart[state];
+                for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+                    edgeChars[edge] = child.getKey();
+                    edgeTargets[edge] = child.getValue();
+                    edge++;
+                }
+                terminalCountry[state] = countryOf.get(state);
+                terminalKind[state] = kindOf.get(state) == null ? -1 : (byte) kindOf.get(state).ordinal();
+                regionCodeCountry[state] = regionCodeOf.get(state);
+            }
+            int[] rootTable = new int[ASCII];
+            Arrays.fill(rootTable, NONE);
+            children.get(ROOT).forEach((character, target) -> {
+                if (character < ASCII) {
+                    rootTable[character] = target;
+                }
+            });
+
+            return new LocationGazetteer(
+                    edgeStart,
+                    edgeChars,
+                    edgeTargets,
+                    rootTable,
+                    terminalCountry,
+                    terminalKind,
+                    regionCodeCountry,
+                    countryIndex.keySet().toArray(String[]::new),
+                    NONE
+            );
+        }
+
+        private static int insert(
+                String name,
+                List<TreeMap<Character, Integer>> children,
+                List<Integer> countryOf,
+                List<Kind> kindOf,
+                List<Integer> regionCodeOf
+        ) {
+            int state = ROOT;
+            for (int index = 0; index < name.length(); index++) {
+                Integer next = children.get(state).get(name.charAt(index));
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(name.charAt(index), next);
+                    children.add(new TreeMap<>());
+                    countryOf.add(NONE);
+                    kindOf.add(null);
+                    regionCodeOf.add(NONE);
+                }
+                state = next;
+            }
+            return state;
+        }
+
+        private record Entry(String country, Kind kind) {
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.frauddetection.fraudservice.rule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves free-text transaction locations to ISO country codes and scores them with the country risk table.
+ *
+ * <p>The built-in {@link LocationGazetteer} holds every JDK country (English name, alpha-2 and alpha-3 code) plus
+ * the aliases, regions, region codes and cities in {@code gazetteer/locations.csv}; {@code gazetteer-path} adds or
+ * overrides entries. Region codes of the home country win over the country codes they collide with. Locations repeat heavily in a stream, so results go through a direct-mapped cache: a slot holds an
+ * immutable entry and a collision simply replaces it, so lookups take no lock.
+ */
+@Component
+@EnableConfigurationProperties(LocationRiskProperties.class)
+public class LocationResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationResolver.class);
+
+    private static final String BUILT_IN_RESOURCE = "gazetteer/locations.csv";
+
+    private final LocationGazetteer gazetteer;
+    private final String homeCountry;
+    private final double foreignRisk;
+    private final double unknownRisk;
+    private final Map<String, Double> countryRisk;
+    private final Resolution[] cache;
+    private final int cacheMask;
+
+    @Autowired
+    public LocationResolver(LocationRiskProperties properties) {
+        this(gazetteer(properties.getGazetteerPath()), properties);
+    }
+
+    LocationResolver(LocationGazetteer gazetteer, LocationRiskProperties properties) {
+        this.homeCountry = properties.getHomeCountry() == null
+                ? ""
+                : properties.getHomeCountry().trim().toUpperCase(Locale.ROOT);
+        this.gazetteer = gazetteer.withHomeCountry(homeCountry);
+        this.foreignRisk = properties.getForeignRisk();
+        this.unknownRisk = properties.getUnknownRisk();
+        Map<String, Double> risks = new HashMap<>();
+        if (properties.getCountryRisk() != null) {
+            properties.getCountryRisk().forEach((country, risk) -> risks.put(country.trim().toUpperCase(Locale.ROOT), risk));
+        }
+        this.countryRisk = Map.copyOf(risks);
+        int cacheSize = Integer.highestOneBit(Math.max(16, properties.getCacheSize()));
+        this.cache = new Resolution[cacheSize];
+        this.cacheMask = cacheSize - 1;
+    }
+
+    /**
+     * The ISO country code for {@code location}, or null when it cannot be resolved.
+     */
+    public String country(String location) {
+        return lookup(location).country();
+    }
+
+    /**
+     * Risk of {@code location} in [0, 1]; blank locations score 0.
+     */
+    public double risk(String location) {
+        return lookup(location).risk();
+    }
+
+    private Resolution lookup(String location) {
+        if (location == null || location.isBlank()) {
+            return Resolution.BLANK;
+        }
+        int hash = location.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & cacheMask;
+        Resolution cached = cache[slot];
+        if (cached != null && cached.location().equals(location)) {
+            return cached;
+        }
+        String country = gazetteer.resolve(location);
+        Resolution resolution = new Resolution(location, country, riskOf(country));
+        cache[slot] = resolution;
+        return resolution;
+    }
+
+    private double riskOf(String country) {
+        if (country == null) {
+            return unknownRisk;
+        }
+        Double configured = countryRisk.get(country);
+        if (configured != null) {
+            return configured;
+        }
+        return country.equals(homeCountry) ? 0.0 : foreignRisk;
+    }
+
+    public static LocationGazetteer builtInGazetteer() {
+        return BuiltIn.GAZETTEER;
+    }
+
+    private static LocationGazetteer gazetteer(String path) {
+        if (path == null || path.isBlank()) {
+            return builtInGazetteer();
+        }
+        Path file = Path.of(path.trim());
+        try {
+            LocationGazetteer.Builder builder = builtIn();
+            addEntries(builder, Files.readAllLines(file, StandardCharsets.UTF_8));
+            LocationGazetteer gazetteer = builder.build();
+            log.info("location_gazetteer_loaded path={} countries={}", file, gazetteer.countryCount());
+            return gazetteer;
+        } catch (IOException | IllegalArgumentException exception) {
+            log.warn("location_gazetteer_load_failed path={} reason={}", file, exception.getMessage());
+            return builtInGazetteer();
+        }
+    }
+
+    private static LocationGazetteer.Builder builtIn() {
+        LocationGazetteer.Builder builder = LocationGazetteer.builder();
+        for (String code : Locale.getISOCountries()) {
+            Locale country = new Locale("", code);
+            builder.add(code, code, LocationGazetteer.Kind.COUNTRY);
+            builder.add(country.getDisplayCountry(Locale.ENGLISH), code, LocationGazetteer.Kind.COUNTRY);
+            try {
+                builder.add(country.getISO3Country(), code, LocationGazetteer.Kind.COUNTRY);
+            } catch (MissingResourceException ignored) {
+                // No alpha-3 code for this country; the name and alpha-2 code still resolve.
+            }
+        }
+        try (InputStream input = new ClassPathResource(BUILT_IN_RESOURCE).getInputStream()) {
+            addEntries(builder, List.of(new String(input.readAllBytes(), StandardCharsets.UTF_8).split("\n")));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("unable to read " + BUILT_IN_RESOURCE, exception);
+        }
+        return builder;
+    }
+
+    static void addEntries(LocationGazetteer.Builder builder, List<String> lines) {
+        for (int index = 0; index < lines.size(); index++) {
+            String line = lines.get(index);
+            int comment = line.indexOf('#');
+            String entry = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            List<String> fields = new ArrayList<>(List.of(entry.split(",")));
+            if (fields.size() < 2 || fields.size() > 3) {
+                throw new IllegalArgumentException("invalid entry on line " + (index + 1) + ": " + entry);
+            }
+            LocationGazetteer.Kind kind = LocationGazetteer.Kind.CITY;
+            if (fields.size() == 3) {
+                try {
+                    kind = LocationGazetteer.Kind.valueOf(fields.get(2).trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException exception) {
+                    throw new IllegalArgumentException("invalid kind on line " + (index + 1) + ": " + entry);
+                }
+            }
+            builder.add(fields.get(0), fields.get(1), kind);
+        }
+    }
+
+    private static final class BuiltIn {
+
+        private static final LocationGazetteer GAZETTEER = builtIn().build();
+    }
+
+    private record Resolution(String location, String country, double risk) {
+
+        private static final Resolution BLANK = new Resolution("", null, 0.0);
+    }
+}
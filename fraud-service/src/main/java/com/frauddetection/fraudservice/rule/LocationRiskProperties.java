@@ -0,0 +1,82 @@
+package com.frauddetection.fraudservice.rule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.rules.location")
+public class LocationRiskProperties {
+
+    private String homeCountry = "US";
+    private double foreignRisk = 0.65;
+    private double unknownRisk = 0.0;
+    private Map<String, Double> countryRisk = new LinkedHashMap<>(Map.of(
+            "RU", 1.0,
+            "NG", 1.0,
+            "RO", 1.0,
+            "KH", 1.0,
+            "ID", 1.0
+    ));
+    private String gazetteerPath = "";
+    private int cacheSize = 4096;
+
+    public String getHomeCountry() {
+        return homeCountry;
+    }
+
+    public void setHomeCountry(String homeCountry) {
+        this.homeCountry = homeCountry;
+    }
+
+    /**
+     * Risk of a resolved country other than the home country that has no entry in {@link #getCountryRisk()}.
+     */
+    public double getForeignRisk() {
+        return foreignRisk;
+    }
+
+    public void setForeignRisk(double foreignRisk) {
+        this.foreignRisk = foreignRisk;
+    }
+
+    /**
+     * Risk of a location that the gazetteer cannot resolve to a country.
+     */
+    public double getUnknownRisk() {
+        return unknownRisk;
+    }
+
+    public void setUnknownRisk(double unknownRisk) {
+        this.unknownRisk = unknownRisk;
+    }
+
+    /**
+     * Per-country risk keyed by ISO alpha-2 code; takes precedence over the home and foreign defaults.
+     */
+    public Map<String, Double> getCountryRisk() {
+        return countryRisk;
+    }
+
+    public void setCountryRisk(Map<String, Double> countryRisk) {
+        this.countryRisk = countryRisk;
+    }
+
+    /**
+     * Optional file of extra {@code name,country[,kind]} entries, loaded over the built-in gazetteer at startup.
+     */
+    public String getGazetteerPath() {
+        return gazetteerPath;
+    }
+
+    public void setGazetteerPath(String gazetteerPath) {
+        this.gazetteerPath = gazetteerPath;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+}
@@ -0,0 +1,167 @@
+package com.frauddetection.fraudservice.rule;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Risky merchant keywords and MCC patterns, compiled into a {@link KeywordAutomaton}.
+ *
+ * <p>Without a catalog file the built-in keywords apply, each with weight 1.0. A catalog file holds one
+ * {@code keyword[,weight]} entry per line ({@code #} starts a comment). It is re-read when its modification time
+ * changes; a new automaton is compiled off the hot path and swapped in with one volatile write, and a file that
+ * fails to parse leaves the current catalog in place. Merchant scores are memoized per automaton in an
+ * {@link AttributeScoreCache}, which a reload clears.
+ */
+@Component
+public class MerchantKeywordCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(MerchantKeywordCatalog.class);
+
+    static final int DEFAULT_CACHE_SIZE = 4096;
+
+    static final List<String> DEFAULT_KEYWORDS = List.of(
+            "casino",
+            "gambling",
+            "bet",
+            "crypto",
+            "giftcard",
+            "money-transfer",
+            "wire"
+    );
+
+    private final Path path;
+    private final long reloadIntervalMillis;
+    private final AttributeScoreCache cache;
+
+    private volatile KeywordAutomaton automaton = defaults();
+    private volatile long loadedModifiedAt = Long.MIN_VALUE;
+    private ScheduledExecutorService scheduler;
+
+    public MerchantKeywordCatalog(String path, long reloadIntervalMillis) {
+        this(path, reloadIntervalMillis, DEFAULT_CACHE_SIZE);
+    }
+
+    @Autowired
+    public MerchantKeywordCatalog(
+            @Value("${app.rules.merchant-keywords.path:}") String path,
+            @Value("${app.rules.merchant-keywords.reload-interval-ms:30000}") long reloadIntervalMillis,
+            @Value("${app.rules.merchant-keywords.cache-size:4096}") int cacheSize
+    ) {
+        this.path = path == null || path.isBlank() ? null : Path.of(path.trim());
+        this.reloadIntervalMillis = Math.max(100L, reloadIntervalMillis);
+        this.cache = new AttributeScoreCache(cacheSize);
+    }
+
+    public static KeywordAutomaton defaults() {
+        Map<String, Double> keywords = new HashMap<>();
+        DEFAULT_KEYWORDS.forEach(keyword -> keywords.put(keyword, 1.0));
+        return KeywordAutomaton.compile(keywords);
+    }
+
+    public KeywordAutomaton automaton() {
+        return automaton;
+    }
+
+    /**
+     * Highest weight of any keyword in {@code merchantId}, memoized for the current automaton.
+     */
+    public double score(String merchantId) {
+        return cache.score(merchantId, automaton(), KeywordAutomaton::maxWeight);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (path == null) {
+            return;
+        }
+        reload();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fraud-merchant-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadIfModified, reloadIntervalMillis, reloadIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Re-reads the catalog file and returns whether the new catalog was installed.
+     */
+    public boolean reload() {
+        if (path == null) {
+            return false;
+        }
+        try {
+            long modifiedAt = Files.getLastModifiedTime(path).toMillis();
+            KeywordAutomaton compiled = KeywordAutomaton.compile(parse(Files.readAllLines(path, StandardCharsets.UTF_8)));
+            automaton = compiled;
+            cache.clear();
+            loadedModifiedAt = modifiedAt;
+            log.info("merchant_keywords_loaded path={} keywords={}", path, compiled.keywordCount());
+            return true;
+        } catch (IOException | UncheckedIOException | IllegalArgumentException exception) {
+            log.warn("merchant_keywords_reload_failed path={} reason={}", path, exception.getMessage());
+            return false;
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (Files.getLastModifiedTime(path).toMillis() != loadedModifiedAt) {
+                reload();
+            }
+        } catch (IOException exception) {
+            log.warn("merchant_keywords_reload_failed path={} reason={}", path, exception.getMessage());
+        }
+    }
+
+    static Map<String, Double> parse(List<String> lines) {
+        Map<String, Double> keywords = new HashMap<>();
+        for (int index = 0; index < lines.size(); index++) {
+            String line = lines.get(index);
+            int comment = line.indexOf('#');
+            String entry = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            int separator = entry.lastIndexOf(',');
+            String keyword = separator < 0 ? entry : entry.substring(0, separator).trim();
+            double weight = 1.0;
+            if (separator >= 0) {
+                try {
+                    weight = Double.parseDouble(entry.substring(separator + 1).trim());
+                } catch (NumberFormatException exception) {
+                    throw new IllegalArgumentException("invalid weight on line " + (index + 1) + ": " + entry);
+                }
+            }
+            if (keyword.isEmpty() || !(weight >= 0.0 && weight <= 1.0)) {
+                throw new IllegalArgumentException("invalid entry on line " + (index + 1) + ": " + entry);
+            }
+            keywords.merge(keyword, weight, Math::max);
+        }
+        return keywords;
+    }
+}
@@ -0,0 +1,53 @@
+package com.frauddetection.fraudservice.rule;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.Rule;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.service.NoveltyService;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scores a known user showing up with a device, location or merchant they have not used before.
+ *
+ * <p>Carries no weight while novelty features are disabled, so it does not dilute the other rules.
+ */
+@Component
+public class NoveltyRule implements Rule {
+
+    private final double weight;
+
+    public NoveltyRule(@Value("${app.features.novelty.enabled:false}") boolean enabled) {
+        this.weight = enabled ? 0.15 : 0.0;
+    }
+
+    @Override
+    public String name() {
+        return "first_seen_attributes";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public Set<String> requiredFeatures() {
+        return NoveltyService.FEATURES;
+    }
+
+    @Override
+    public double evaluate(TransactionCreatedEvent transaction, FeatureContext featureContext) {
+        // Everything is new for a user without history, which says nothing about this transaction.
+        if (featureContext.feature(NoveltyService.KNOWN_USER) == 0.0) {
+            return 0.0;
+        }
+
+        double score = 0.0;
+        score += 0.45 * featureContext.feature(NoveltyService.NEW_DEVICE);
+        score += 0.35 * featureContext.feature(NoveltyService.NEW_LOCATION);
+        score += 0.20 * featureContext.feature(NoveltyService.NEW_MERCHANT);
+        return Math.min(1.0, score);
+    }
+}
@@ -0,0 +1,134 @@
+package com.frauddetection.fraudservice.rule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frauddetection.fraudservice.engine.Rule;
+import com.frauddetection.fraudservice.engine.RuleCompiler;
+import com.frauddetection.fraudservice.engine.RuleEngine;
+import com.frauddetection.fraudservice.engine.RuleSet;
+import com.frauddetection.fraudservice.engine.RuleSetDefinition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads rule definitions from a JSON file, compiles them and installs them in the {@link RuleEngine}.
+ *
+ * <p>Defined rules replace rule beans of the same name (so thresholds and weights of the built-in rules can be
+ * tuned without a redeploy) and any other rules are added. The file is re-read when its modification time
+ * changes; compilation happens off the hot path, and a file that fails to parse or compile leaves the current
+ * rule set in place. The rule set version is the file's {@code version}, or a content hash when it has none.
+ */
+@Component
+public class RuleDefinitionCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleDefinitionCatalog.class);
+
+    private static final int HASH_VERSION_LENGTH = 12;
+    // Matches FraudDecision.ruleSetVersion.
+    private static final int MAX_VERSION_LENGTH = 64;
+
+    private final RuleEngine ruleEngine;
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final long reloadIntervalMillis;
+
+    private volatile long loadedModifiedAt = Long.MIN_VALUE;
+    private ScheduledExecutorService scheduler;
+
+    public RuleDefinitionCatalog(
+            RuleEngine ruleEngine,
+            ObjectMapper objectMapper,
+            @Value("${app.rules.definitions.path:}") String path,
+            @Value("${app.rules.definitions.reload-interval-ms:30000}") long reloadIntervalMillis
+    ) {
+        this.ruleEngine = ruleEngine;
+        this.objectMapper = objectMapper;
+        this.path = path == null || path.isBlank() ? null : Path.of(path.trim());
+        this.reloadIntervalMillis = Math.max(100L, reloadIntervalMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (path == null) {
+            return;
+        }
+        reload();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fraud-rule-definitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadIfModified, reloadIntervalMillis, reloadIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Re-reads the definition file and returns whether its rule set was installed.
+     */
+    public boolean reload() {
+        if (path == null) {
+            return false;
+        }
+        try {
+            long modifiedAt = Files.getLastModifiedTime(path).toMillis();
+            byte[] content = Files.readAllBytes(path);
+            RuleSetDefinition definition = objectMapper.readValue(content, RuleSetDefinition.class);
+            List<Rule> rules = RuleCompiler.compile(definition);
+            RuleSet installed = ruleEngine.install(version(definition, content), rules);
+            loadedModifiedAt = modifiedAt;
+            log.info("rule_set_installed path={} version={} definedRules={} rules={}",
+                    path, installed.version(), rules.size(), installed.size());
+            return true;
+        } catch (IOException | RuntimeException exception) {
+            // Anything thrown while reading, compiling or defining the rules keeps the current rule set.
+            log.warn("rule_set_reload_failed path={} reason={}", path, exception.toString());
+            return false;
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (Files.getLastModifiedTime(path).toMillis() != loadedModifiedAt) {
+                reload();
+            }
+        } catch (IOException | RuntimeException exception) {
+            // An exception escaping here would cancel the scheduled reloads for good.
+            log.warn("rule_set_reload_failed path={} reason={}", path, exception.toString());
+        }
+    }
+
+    static String version(RuleSetDefinition definition, byte[] content) {
+        if (definition.version() != null && !definition.version().isBlank()) {
+            String version = definition.version().trim();
+            if (version.length() > MAX_VERSION_LENGTH) {
+                throw new IllegalArgumentException("version longer than " + MAX_VERSION_LENGTH + " characters");
+            }
+            return version;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "sha256:" + HexFormat.of().formatHex(digest).substring(0, HASH_VERSION_LENGTH);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+}
@@ -3,22 +3,22 @@ package com.frauddetection.fraudservice.rule;
 import com.frauddetection.fraudservice.engine.FeatureContext;
 import com.frauddetection.fraudservice.engine.Rule;
 import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
-import java.util.Locale;
-import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class SuspiciousMerchantRule implements Rule {
 
-    private static final Set<String> SUSPICIOUS_KEYWORDS = Set.of(
-            "casino",
-            "gambling",
-            "bet",
-            "crypto",
-            "giftcard",
-            "money-transfer",
-            "wire"
-    );
+    private final MerchantKeywordCatalog catalog;
+
+    public SuspiciousMerchantRule() {
+        this(new MerchantKeywordCatalog("", 0));
+    }
+
+    @Autowired
+    public SuspiciousMerchantRule(MerchantKeywordCatalog catalog) {
+        this.catalog = catalog;
+    }
 
     @Override
     public String name() {
@@ -36,13 +36,7 @@ public class SuspiciousMerchantRule implements Rule {
             return 0.0;
         }
 
-        String merchantId = transaction.merchantId().trim().toLowerCase(Locale.ROOT);
-        for (String keyword : SUSPICIOUS_KEYWORDS) {
-            if (merchantId.contains(keyword)) {
-                return 1.0;
-            }
-        }
-
-        return 0.0;
+        // One case-folding pass over the id, however large the catalog, and none for a merchant seen before.
+        return catalog.score(transaction.merchantId());
     }
 }
@@ -0,0 +1,28 @@
+package com.frauddetection.fraudservice.service;
+
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.util.function.Function;
+
+public enum AggregateDimension {
+    USER_ID("user", TransactionCreatedEvent::userId),
+    DEVICE_ID("device", TransactionCreatedEvent::deviceId),
+    MERCHANT_ID("merchant", TransactionCreatedEvent::merchantId),
+    LOCATION("location", TransactionCreatedEvent::location);
+
+    private final String keyPrefix;
+    private final Function<TransactionCreatedEvent, String> extractor;
+
+    AggregateDimension(String keyPrefix, Function<TransactionCreatedEvent, String> extractor) {
+        this.keyPrefix = keyPrefix;
+        this.extractor = extractor;
+    }
+
+    public String keyPrefix() {
+        return keyPrefix;
+    }
+
+    public String valueOf(TransactionCreatedEvent transaction) {
+        String value = extractor.apply(transaction);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,16 @@
+package com.frauddetection.fraudservice.service;
+
+import java.util.Locale;
+
+public enum AggregateFunction {
+    COUNT,
+    SUM,
+    MIN,
+    MAX,
+    AVG,
+    DISTINCT;
+
+    public String featureName(String aggregateName) {
+        return aggregateName + "." + name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,90 @@
+package com.frauddetection.fraudservice.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ConcurrentStageExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentStageExecutor.class);
+
+    private final boolean enabled;
+    private final long stageTimeoutNanos;
+    private final ExecutorService executor;
+
+    public ConcurrentStageExecutor(
+            @Value("${app.processing.stage-mode:sequential}") String stageMode,
+            @Value("${app.processing.stage-pool-size:32}") int poolSize,
+            @Value("${app.processing.stage-timeout-ms:500}") long stageTimeoutMillis
+    ) {
+        this.enabled = "parallel".equalsIgnoreCase(stageMode);
+        this.stageTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, stageTimeoutMillis));
+        this.executor = enabled
+                ? Executors.newFixedThreadPool(Math.max(1, poolSize), new StageThreadFactory())
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long deadlineFromNow() {
+        return System.nanoTime() + stageTimeoutNanos;
+    }
+
+    public <T> CompletableFuture<T> fork(Supplier<T> stage) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(stage.get());
+        }
+        return CompletableFuture.supplyAsync(stage, executor);
+    }
+
+    public <T> T join(String stageName, CompletableFuture<T> stage, long deadlineNanos, Supplier<T> fallback) {
+        long remainingNanos = Math.max(0L, deadlineNanos - System.nanoTime());
+        try {
+            return stage.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            stage.cancel(false);
+            log.warn("processing_stage_timed_out stage={} timeoutMs={}", stageName, TimeUnit.NANOSECONDS.toMillis(stageTimeoutNanos));
+            return fallback.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            log.warn("processing_stage_interrupted stage={}", stageName);
+            return fallback.get();
+        } catch (ExecutionException exception) {
+            log.warn("processing_stage_failed stage={} reason={}", stageName, exception.getCause().getMessage());
+            return fallback.get();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class StageThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "fraud-stage-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
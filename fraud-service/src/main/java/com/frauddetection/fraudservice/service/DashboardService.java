@@ -148,6 +148,7 @@ public class DashboardService {
                 decision.getDecision(),
                 decision.getRuleScore(),
                 decision.getMlScore(),
+                decision.isMlSkipped(),
                 decision.getCreatedAt()
         );
     }
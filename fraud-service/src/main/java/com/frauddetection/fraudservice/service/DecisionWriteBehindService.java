@@ -0,0 +1,256 @@
+package com.frauddetection.fraudservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frauddetection.fraudservice.event.FraudDecisionEvent;
+import com.frauddetection.fraudservice.event.FraudDecisionEventPublisher;
+import com.frauddetection.fraudservice.mapper.FraudDecisionMapper;
+import com.frauddetection.fraudservice.model.FraudDecision;
+import com.frauddetection.fraudservice.repository.DecisionBatchInserter;
+import com.frauddetection.fraudservice.repository.DecisionJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Journals decisions and inserts them into {@code fraud_decisions} from a background writer. A decision's
+ * {@code onInserted} callback runs on the writer thread once its row was actually inserted, and is skipped
+ * when the insert found a decision for the transaction already, so a redelivery is never published twice.
+ * Decisions replayed from the journal on start are published to Kafka the same way.
+ */
+@Service
+public class DecisionWriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(DecisionWriteBehindService.class);
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5_000L;
+
+    private final DecisionBatchInserter decisionBatchInserter;
+    private final ObjectMapper objectMapper;
+    private final FraudDecisionMapper mapper;
+    private final FraudDecisionEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Path journalPath;
+    private final int journalCapacityBytes;
+    private final boolean forceOnAppend;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long retryBackoffMillis;
+    private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+    private final Set<String> pendingTransactionIds = ConcurrentHashMap.newKeySet();
+    private final Counter flushedCounter;
+    private final Counter flushFailureCounter;
+    private final Counter synchronousFallbackCounter;
+
+    private DecisionJournal journal;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public DecisionWriteBehindService(
+            DecisionBatchInserter decisionBatchInserter,
+            ObjectMapper objectMapper,
+            FraudDecisionMapper mapper,
+            FraudDecisionEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${app.persistence.write-behind.enabled:false}") boolean enabled,
+            @Value("${app.persistence.write-behind.journal-path:./data/decision-journal.bin}") String journalPath,
+            @Value("${app.persistence.write-behind.journal-capacity-mb:64}") int journalCapacityMb,
+            @Value("${app.persistence.write-behind.force-on-append:false}") boolean forceOnAppend,
+            @Value("${app.persistence.write-behind.batch-size:500}") int batchSize,
+            @Value("${app.persistence.write-behind.flush-interval-ms:50}") long flushIntervalMillis,
+            @Value("${app.persistence.write-behind.retry-backoff-ms:200}") long retryBackoffMillis
+    ) {
+        this.decisionBatchInserter = decisionBatchInserter;
+        this.objectMapper = objectMapper;
+        this.mapper = mapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.journalPath = Path.of(journalPath);
+        this.journalCapacityBytes = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, journalCapacityMb) * 1024L * 1024L);
+        this.forceOnAppend = forceOnAppend;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1L, flushIntervalMillis);
+        this.retryBackoffMillis = Math.max(1L, retryBackoffMillis);
+        this.flushedCounter = meterRegistry.counter("fraud.persistence.write_behind.flushed.total");
+        this.flushFailureCounter = meterRegistry.counter("fraud.persistence.write_behind.flush.failures.total");
+        this.synchronousFallbackCounter = meterRegistry.counter("fraud.persistence.write_behind.sync_fallback.total");
+        meterRegistry.gauge("fraud.persistence.write_behind.pending", pendingWrites, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        journal = new DecisionJournal(journalPath, journalCapacityBytes, forceOnAppend);
+        List<DecisionJournal.JournalEntry> unflushedEntries = journal.pendingEntries();
+        for (DecisionJournal.JournalEntry entry : unflushedEntries) {
+            FraudDecision decision = mapper.toEntity(objectMapper.readValue(entry.payload(), FraudDecisionEvent.class));
+            pendingTransactionIds.add(decision.getTransactionId());
+            pendingWrites.add(new PendingWrite(decision, entry.endPosition(), () -> eventPublisher.publish(mapper.toEvent(decision))));
+        }
+        if (!unflushedEntries.isEmpty()) {
+            log.info("fraud_decision_journal_replayed count={} path={}", unflushedEntries.size(), journalPath);
+        }
+
+        running = true;
+        writerThread = new Thread(this::drainLoop, "fraud-decision-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True while a decision for the transaction is journaled but not yet visible in
+     * {@code fraud_decisions}, so duplicate checks do not miss in-flight writes.
+     */
+    public boolean isPending(String transactionId) {
+        return enabled && pendingTransactionIds.contains(transactionId);
+    }
+
+    /**
+     * Journals {@code decision} for the background writer and runs {@code onInserted} once its row is inserted.
+     * A decision for a transaction that is already pending is dropped.
+     */
+    public void enqueue(FraudDecision decision, Runnable onInserted) {
+        decision.assignDefaults();
+        if (!pendingTransactionIds.add(decision.getTransactionId())) {
+            log.info("fraud_decision_duplicate transactionId={} reason=pending", decision.getTransactionId());
+            return;
+        }
+        byte[] payload = serialize(decision);
+
+        synchronized (this) {
+            long endPosition = journal.append(payload);
+            if (endPosition >= 0) {
+                pendingWrites.add(new PendingWrite(decision, endPosition, onInserted));
+                return;
+            }
+        }
+
+        // The journal is full because the database has been unreachable for a while; write through
+        // so the consumer slows down to database speed instead of dropping decisions.
+        synchronousFallbackCounter.increment();
+        try {
+            if (decisionBatchInserter.insertIfAbsent(List.of(decision)).contains(decision.getTransactionId())) {
+                onInserted.run();
+            }
+        } finally {
+            pendingTransactionIds.remove(decision.getTransactionId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    private void drainLoop() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !pendingWrites.isEmpty()) {
+            try {
+                PendingWrite first = pendingWrites.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingWrites.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException exception) {
+                pendingWrites.drainTo(batch, batchSize);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+            }
+
+            if (!flushWithRetry(batch)) {
+                // Shutting down with the database unreachable; the journal still holds these rows.
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private boolean flushWithRetry(List<PendingWrite> batch) {
+        long backoffMillis = retryBackoffMillis;
+        while (true) {
+            try {
+                Set<String> inserted = decisionBatchInserter.insertIfAbsent(
+                        batch.stream().map(PendingWrite::decision).toList()
+                );
+                flushedCounter.increment(batch.size());
+                for (PendingWrite pendingWrite : batch) {
+                    pendingTransactionIds.remove(pendingWrite.decision().getTransactionId());
+                }
+                synchronized (this) {
+                    journal.checkpoint(batch.get(batch.size() - 1).journalEndPosition());
+                }
+                batch.forEach(pendingWrite -> notifyInserted(pendingWrite, inserted));
+                return true;
+            } catch (DataAccessException exception) {
+                flushFailureCounter.increment();
+                log.warn("fraud_decision_flush_failed size={} reason={}", batch.size(), exception.getMessage());
+                if (!running) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    if (!running) {
+                        return false;
+                    }
+                }
+                backoffMillis = Math.min(MAX_RETRY_BACKOFF_MILLIS, backoffMillis * 2);
+            }
+        }
+    }
+
+    private void notifyInserted(PendingWrite pendingWrite, Set<String> inserted) {
+        String transactionId = pendingWrite.decision().getTransactionId();
+        if (!inserted.contains(transactionId)) {
+            log.info("fraud_decision_duplicate transactionId={} reason=insert_conflict", transactionId);
+            return;
+        }
+        try {
+            pendingWrite.onInserted().run();
+        } catch (RuntimeException exception) {
+            log.warn("fraud_decision_publish_failed transactionId={} reason={}", transactionId, exception.getMessage());
+        }
+    }
+
+    private byte[] serialize(FraudDecision decision) {
+        try {
+            return objectMapper.writeValueAsBytes(mapper.toEvent(decision));
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private record PendingWrite(FraudDecision decision, long journalEndPosition, Runnable onInserted) {
+    }
+}
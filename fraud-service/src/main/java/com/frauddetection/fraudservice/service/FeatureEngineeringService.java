@@ -1,31 +1,139 @@
 package com.frauddetection.fraudservice.service;
 
 import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.FeatureVector;
 import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class FeatureEngineeringService {
 
     private final VelocityTrackingService velocityTrackingService;
+    private final LocalVelocityService localVelocityService;
+    private final WindowedAggregateService windowedAggregateService;
+    private final NoveltyService noveltyService;
+    private final ConcurrentStageExecutor stageExecutor;
+    private final boolean localVelocity;
+    private final boolean lazy;
 
-    public FeatureEngineeringService(VelocityTrackingService velocityTrackingService) {
+    public FeatureEngineeringService(
+            VelocityTrackingService velocityTrackingService,
+            LocalVelocityService localVelocityService,
+            WindowedAggregateService windowedAggregateService,
+            NoveltyService noveltyService,
+            ConcurrentStageExecutor stageExecutor,
+            @Value("${app.velocity.mode:redis}") String velocityMode,
+            @Value("${app.features.resolution:eager}") String resolution
+    ) {
         this.velocityTrackingService = velocityTrackingService;
+        this.localVelocityService = localVelocityService;
+        this.windowedAggregateService = windowedAggregateService;
+        this.noveltyService = noveltyService;
+        this.stageExecutor = stageExecutor;
+        this.localVelocity = VelocityStoreMode.from(velocityMode) != VelocityStoreMode.REDIS;
+        this.lazy = "lazy".equalsIgnoreCase(resolution);
+    }
+
+    /**
+     * Whether single events resolve their optional features through {@link #resolveLazily} instead of
+     * {@link #buildFeatureContext}.
+     */
+    public boolean isLazy() {
+        return lazy;
     }
 
     public FeatureContext buildFeatureContext(TransactionCreatedEvent transaction) {
-        Instant eventTime = transaction.createdAt() == null ? Instant.now() : transaction.createdAt();
-        VelocityStats velocityStats = velocityTrackingService.trackAndMeasure(
-                transaction.userId(),
-                transaction.transactionId(),
-                eventTime
-        );
+        return buildFeatureContext(transaction, trackVelocity(transaction));
+    }
+
+    /**
+     * Counts the event in its user's velocity windows. A redelivered transaction is counted once, so this may run
+     * before deduplication has answered.
+     */
+    public VelocityStats trackVelocity(TransactionCreatedEvent transaction) {
+        Instant eventTime = resolveEventTime(transaction);
+        return localVelocity
+                ? localVelocityService.trackAndMeasure(transaction.userId(), transaction.transactionId(), eventTime)
+                : velocityTrackingService.trackAndMeasure(transaction.userId(), transaction.transactionId(), eventTime);
+    }
+
+    /**
+     * Records the event in the optional feature sources and combines their features with {@code velocityStats}.
+     */
+    public FeatureContext buildFeatureContext(TransactionCreatedEvent transaction, VelocityStats velocityStats) {
+        FeatureVector features = windowedAggregateService.isEnabled()
+                ? windowedAggregateService.aggregate(transaction)
+                : FeatureVector.EMPTY;
+        if (noveltyService.isEnabled()) {
+            features = features.merge(noveltyService.check(transaction));
+        }
+
+        return toFeatureContext(velocityStats, features);
+    }
+
+    /**
+     * Measures velocity and resolves the optional features named in {@code ruleFeatureNames}; the other optional
+     * features are left to {@link LazyFeatures}.
+     */
+    public LazyFeatures resolveLazily(TransactionCreatedEvent transaction, Set<String> ruleFeatureNames) {
+        VelocityStats velocityStats = trackVelocity(transaction);
+        List<LazyFeatures.Source> sources = new ArrayList<>(2);
+        if (windowedAggregateService.isEnabled()) {
+            sources.add(new LazyFeatures.Source(
+                    "feature_aggregates",
+                    windowedAggregateService::provides,
+                    () -> windowedAggregateService.aggregate(transaction),
+                    () -> windowedAggregateService.record(transaction)
+            ));
+        }
+        if (noveltyService.isEnabled()) {
+            sources.add(new LazyFeatures.Source(
+                    "novelty",
+                    noveltyService::provides,
+                    () -> noveltyService.check(transaction),
+                    () -> noveltyService.record(transaction)
+            ));
+        }
+        return new LazyFeatures(velocityStats, sources, stageExecutor, ruleFeatureNames);
+    }
+
+    public List<FeatureContext> buildFeatureContexts(List<TransactionCreatedEvent> transactions) {
+        List<VelocityObservation> observations = transactions.stream()
+                .map(transaction -> new VelocityObservation(
+                        transaction.userId(),
+                        transaction.transactionId(),
+                        resolveEventTime(transaction)
+                ))
+                .toList();
+
+        List<VelocityStats> velocityStats = localVelocity
+                ? localVelocityService.trackAndMeasureAll(observations)
+                : velocityTrackingService.trackAndMeasureAll(observations);
+        List<FeatureVector> features = windowedAggregateService.aggregateAll(transactions);
+        List<FeatureVector> novelty = noveltyService.checkAll(transactions);
+
+        List<FeatureContext> featureContexts = new ArrayList<>(transactions.size());
+        for (int index = 0; index < transactions.size(); index++) {
+            featureContexts.add(toFeatureContext(velocityStats.get(index), features.get(index).merge(novelty.get(index))));
+        }
+        return featureContexts;
+    }
+
+    private Instant resolveEventTime(TransactionCreatedEvent transaction) {
+        return transaction.createdAt() == null ? Instant.now() : transaction.createdAt();
+    }
 
+    private FeatureContext toFeatureContext(VelocityStats velocityStats, FeatureVector features) {
         return new FeatureContext(
                 velocityStats.transactionsPerMinute(),
                 velocityStats.transactionsPerFiveMinutes(),
-                velocityStats.secondsSinceLastTransaction()
+                velocityStats.secondsSinceLastTransaction(),
+                features
         );
     }
 }
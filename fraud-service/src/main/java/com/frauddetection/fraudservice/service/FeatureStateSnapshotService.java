@@ -0,0 +1,385 @@
+package com.frauddetection.fraudservice.service;
+
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically snapshots in-process feature state (local velocity windows and the recent-transaction Bloom filter)
+ * into a memory-mapped file, and restores it on startup.
+ *
+ * <p>The snapshot records, per partition, the offset below which every record's features were applied. With
+ * parallel workers records finish out of order, so, as with the asynchronous acknowledgments, a record counts only
+ * once every earlier dispatched record of its partition has finished. On the
+ * first assignment after a restart each partition is rewound to that offset, and records below the committed
+ * offset are only re-applied to the feature state (they were scored before the restart), so the state is current
+ * by the time the consumer reaches new records. Velocity segments are rewritten only when they changed.
+ */
+@Component
+public class FeatureStateSnapshotService implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FeatureStateSnapshotService.class);
+
+    static final int MAX_PARTITIONS = 1024;
+
+    private static final long MAGIC = 0x4652415544465331L;
+    private static final int VERSION = 2;
+    private static final int STATE_WRITING = 1;
+    private static final int STATE_COMPLETE = 2;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int STATE_OFFSET = 12;
+    private static final int SNAPSHOT_AT_OFFSET = 16;
+    private static final int BLOOM_WORDS_OFFSET = 24;
+    private static final int SEGMENTS_OFFSET = 28;
+    private static final int SEGMENT_CAPACITY_OFFSET = 32;
+    private static final int BLOOM_ROTATED_AT_OFFSET = 40;
+    private static final int HEADER_SIZE = 64;
+
+    private final LocalVelocityService localVelocityService;
+    private final RecentTransactionFilter recentTransactionFilter;
+    private final boolean enabled;
+    private final Path path;
+    private final long intervalMillis;
+    private final String transactionsTopic;
+    private final Timer snapshotTimer;
+
+    // Applied progress per partition, and the committed offset below which records are replay-only.
+    private final PartitionProgress[] progress = new PartitionProgress[MAX_PARTITIONS];
+    private final AtomicLongArray replayUntil = new AtomicLongArray(MAX_PARTITIONS);
+
+    private MappedByteBuffer mapped;
+    private ScheduledExecutorService scheduler;
+    private volatile long[] restoredOffsets;
+    private boolean fullSnapshotWritten;
+
+    public FeatureStateSnapshotService(
+            LocalVelocityService localVelocityService,
+            RecentTransactionFilter recentTransactionFilter,
+            MeterRegistry meterRegistry,
+            @Value("${app.snapshot.enabled:false}") boolean enabled,
+            @Value("${app.snapshot.path:./data/feature-state.bin}") String path,
+            @Value("${app.snapshot.interval-ms:10000}") long intervalMillis,
+            @Value("${app.kafka.transactions-topic}") String transactionsTopic
+    ) {
+        this.localVelocityService = localVelocityService;
+        this.recentTransactionFilter = recentTransactionFilter;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.intervalMillis = Math.max(100L, intervalMillis);
+        this.transactionsTopic = transactionsTopic;
+        this.snapshotTimer = Timer.builder("fraud.snapshot.write.duration").register(meterRegistry);
+        for (int partition = 0; partition < MAX_PARTITIONS; partition++) {
+            progress[partition] = new PartitionProgress();
+            replayUntil.set(partition, -1L);
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        long fileSize = layoutSize();
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("feature snapshot would exceed 2 GiB: " + fileSize + " bytes");
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean existing = channel.size() == fileSize;
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            if (existing) {
+                restore();
+            }
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fraud-feature-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        snapshotQuietly();
+    }
+
+    /**
+     * Re-applies a record the previous process already scored and returns true; returns false for records that
+     * still need normal processing.
+     */
+    public boolean absorbReplay(int partition, long offset, TransactionCreatedEvent event) {
+        if (partition < 0 || partition >= MAX_PARTITIONS || offset >= replayUntil.get(partition)) {
+            return false;
+        }
+        if (event != null) {
+            localVelocityService.replay(
+                    event.userId(),
+                    event.transactionId(),
+                    event.createdAt() == null ? Instant.now() : event.createdAt()
+            );
+            if (event.transactionId() != null) {
+                recentTransactionFilter.put(event.transactionId());
+            }
+        }
+        markApplied(partition, offset);
+        return true;
+    }
+
+    /**
+     * Registers a record handed to a worker; it holds back the applied offset of its partition until
+     * {@link #markApplied} is called for it. Must be called in offset order, from the polling thread.
+     */
+    public void markDispatched(int partition, long offset) {
+        if (!enabled || partition < 0 || partition >= MAX_PARTITIONS) {
+            return;
+        }
+        progress[partition].dispatched(offset);
+    }
+
+    public void markApplied(int partition, long offset) {
+        if (!enabled || partition < 0 || partition >= MAX_PARTITIONS) {
+            return;
+        }
+        progress[partition].applied(offset);
+    }
+
+    long appliedOffset(int partition) {
+        return progress[partition].appliedOffset();
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Records still running for a revoked partition will be redelivered to its next owner.
+        for (TopicPartition partition : partitions) {
+            if (transactionsTopic.equals(partition.topic()) && partition.partition() < MAX_PARTITIONS) {
+                progress[partition.partition()].abandonUnfinished();
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        long[] offsets = restoredOffsets;
+        if (offsets == null) {
+            return;
+        }
+        restoredOffsets = null;
+
+        Set<TopicPartition> assigned = new HashSet<>();
+        for (TopicPartition partition : partitions) {
+            if (transactionsTopic.equals(partition.topic()) && partition.partition() < MAX_PARTITIONS) {
+                assigned.add(partition);
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> committed = assigned.isEmpty() ? Map.of() : consumer.committed(assigned);
+
+        Map<Integer, Long> rewound = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            long snapshotOffset = offsets[partition.partition()];
+            OffsetAndMetadata committedOffset = committed.get(partition);
+            if (snapshotOffset >= 0 && committedOffset != null && snapshotOffset < committedOffset.offset()) {
+                replayUntil.set(partition.partition(), committedOffset.offset());
+                consumer.seek(partition, snapshotOffset);
+                rewound.put(partition.partition(), committedOffset.offset() - snapshotOffset);
+            }
+        }
+
+        // Users of partitions that moved elsewhere while this instance was down are no longer ours.
+        dropUnassignedUsers(consumer, assigned);
+        log.info("feature_snapshot_replay partitions={} recordsToReplay={}", rewound.keySet(), rewound);
+    }
+
+    void snapshot() {
+        if (mapped == null) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+
+        // Offsets are read before the state so replay covers everything the copy might have missed.
+        long[] offsets = new long[MAX_PARTITIONS];
+        for (int partition = 0; partition < MAX_PARTITIONS; partition++) {
+            offsets[partition] = progress[partition].appliedOffset();
+        }
+
+        mapped.putInt(STATE_OFFSET, STATE_WRITING);
+        mapped.putLong(BLOOM_ROTATED_AT_OFFSET, recentTransactionFilter.writeSnapshot(bloomRegion()));
+
+        LocalVelocityStore store = localVelocityService.store();
+        int segmentsWritten = 0;
+        if (store != null) {
+            segmentsWritten = store.writeSnapshot(velocityRegion(), !fullSnapshotWritten);
+            fullSnapshotWritten = true;
+        }
+
+        LongBuffer offsetRegion = mapped.slice(HEADER_SIZE, MAX_PARTITIONS * Long.BYTES).asLongBuffer();
+        offsetRegion.put(offsets);
+        mapped.putLong(SNAPSHOT_AT_OFFSET, System.currentTimeMillis());
+        mapped.putLong(MAGIC_OFFSET, MAGIC);
+        mapped.putInt(VERSION_OFFSET, VERSION);
+        mapped.putInt(BLOOM_WORDS_OFFSET, recentTransactionFilter.wordCount());
+        mapped.putInt(SEGMENTS_OFFSET, store == null ? 0 : store.segmentCount());
+        mapped.putInt(SEGMENT_CAPACITY_OFFSET, store == null ? 0 : store.segmentCapacity());
+        mapped.force();
+        mapped.putInt(STATE_OFFSET, STATE_COMPLETE);
+        mapped.force();
+
+        snapshotTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        log.debug("feature_snapshot_written velocitySegments={}", segmentsWritten);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException exception) {
+            log.warn("feature_snapshot_failed reason={}", exception.getMessage(), exception);
+        }
+    }
+
+    private void restore() {
+        LocalVelocityStore store = localVelocityService.store();
+        boolean valid = mapped.getLong(MAGIC_OFFSET) == MAGIC
+                && mapped.getInt(VERSION_OFFSET) == VERSION
+                && mapped.getInt(STATE_OFFSET) == STATE_COMPLETE
+                && mapped.getInt(BLOOM_WORDS_OFFSET) == recentTransactionFilter.wordCount()
+                && mapped.getInt(SEGMENTS_OFFSET) == (store == null ? 0 : store.segmentCount())
+                && mapped.getInt(SEGMENT_CAPACITY_OFFSET) == (store == null ? 0 : store.segmentCapacity());
+        if (!valid) {
+            log.warn("feature_snapshot_ignored path={} reason=incomplete_or_incompatible", path);
+            return;
+        }
+
+        recentTransactionFilter.readSnapshot(bloomRegion(), mapped.getLong(BLOOM_ROTATED_AT_OFFSET));
+        if (store != null) {
+            store.readSnapshot(velocityRegion());
+        }
+
+        long[] offsets = new long[MAX_PARTITIONS];
+        mapped.slice(HEADER_SIZE, MAX_PARTITIONS * Long.BYTES).asLongBuffer().get(offsets);
+        for (int partition = 0; partition < MAX_PARTITIONS; partition++) {
+            progress[partition].restore(offsets[partition]);
+        }
+        restoredOffsets = offsets;
+        fullSnapshotWritten = true;
+        log.info("feature_snapshot_restored path={} takenAt={} velocityUsers={}",
+                path, Instant.ofEpochMilli(mapped.getLong(SNAPSHOT_AT_OFFSET)), store == null ? 0 : store.size());
+    }
+
+    private void dropUnassignedUsers(Consumer<?, ?> consumer, Set<TopicPartition> assigned) {
+        LocalVelocityStore store = localVelocityService.store();
+        List<PartitionInfo> partitionInfos = consumer.partitionsFor(transactionsTopic);
+        if (store == null || partitionInfos == null) {
+            return;
+        }
+        Set<Integer> unassigned = new HashSet<>();
+        for (PartitionInfo partitionInfo : partitionInfos) {
+            if (!assigned.contains(new TopicPartition(transactionsTopic, partitionInfo.partition()))) {
+                unassigned.add(partitionInfo.partition());
+            }
+        }
+        store.evictPartitions(unassigned, partitionInfos.size());
+    }
+
+    /**
+     * The lowest offset of a partition that is not known to be applied: the first unfinished dispatched record, or
+     * the offset after the highest finished one when nothing is outstanding. It never moves backwards, so records
+     * redelivered below it after a rebalance do not rewind the snapshot.
+     */
+    private static final class PartitionProgress {
+
+        private final TreeSet<Long> unfinished = new TreeSet<>();
+        private long frontier = -1L;
+        private long applied = -1L;
+
+        synchronized void dispatched(long offset) {
+            unfinished.add(offset);
+        }
+
+        synchronized void applied(long offset) {
+            unfinished.remove(offset);
+            frontier = Math.max(frontier, offset + 1);
+            applied = Math.max(applied, unfinished.isEmpty() ? frontier : Math.min(unfinished.first(), frontier));
+        }
+
+        synchronized void abandonUnfinished() {
+            unfinished.clear();
+        }
+
+        synchronized void restore(long offset) {
+            unfinished.clear();
+            frontier = offset;
+            applied = offset;
+        }
+
+        synchronized long appliedOffset() {
+            return applied;
+        }
+    }
+
+    private LongBuffer bloomRegion() {
+        return mapped.slice(bloomOffset(), 2 * recentTransactionFilter.wordCount() * Long.BYTES).asLongBuffer();
+    }
+
+    private ByteBuffer velocityRegion() {
+        return mapped.slice(velocityOffset(), mapped.capacity() - velocityOffset());
+    }
+
+    private int bloomOffset() {
+        return HEADER_SIZE + MAX_PARTITIONS * Long.BYTES;
+    }
+
+    private int velocityOffset() {
+        return bloomOffset() + 2 * recentTransactionFilter.wordCount() * Long.BYTES;
+    }
+
+    private long layoutSize() {
+        LocalVelocityStore store = localVelocityService.store();
+        long velocityBytes = store == null ? 0L : (long) store.segmentCount() * store.segmentSnapshotBytes();
+        return HEADER_SIZE + (long) MAX_PARTITIONS * Long.BYTES
+                + 2L * recentTransactionFilter.wordCount() * Long.BYTES
+                + velocityBytes;
+    }
+}
@@ -3,32 +3,48 @@ package com.frauddetection.fraudservice.service;
 import com.frauddetection.fraudservice.engine.FeatureContext;
 import com.frauddetection.fraudservice.engine.RuleEngine;
 import com.frauddetection.fraudservice.engine.RuleEvaluationResult;
+import com.frauddetection.fraudservice.engine.ScoreUnits;
 import com.frauddetection.fraudservice.event.FraudDecisionEvent;
 import com.frauddetection.fraudservice.event.FraudDecisionEventPublisher;
 import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
 import com.frauddetection.fraudservice.mapper.FraudDecisionMapper;
 import com.frauddetection.fraudservice.model.DecisionType;
 import com.frauddetection.fraudservice.model.FraudDecision;
+import com.frauddetection.fraudservice.repository.DecisionBatchInserter;
 import com.frauddetection.fraudservice.repository.FraudDecisionRepository;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class FraudProcessingService {
 
     private static final Logger log = LoggerFactory.getLogger(FraudProcessingService.class);
     private static final String PROCESSING_LATENCY_METRIC = "fraud.processing.latency";
+    private static final String BATCH_LATENCY_METRIC = "fraud.processing.batch.latency";
 
     private final FraudDecisionRepository fraudDecisionRepository;
+    private final DecisionBatchInserter decisionBatchInserter;
     private final FeatureEngineeringService featureEngineeringService;
     private final MlFeatureEngineeringService mlFeatureEngineeringService;
     private final MlInferenceClient mlInferenceClient;
@@ -39,11 +55,20 @@ public class FraudProcessingService {
     private final FraudDecisionMapper mapper;
     private final FraudDecisionEventPublisher eventPublisher;
     private final DashboardStreamService dashboardStreamService;
-    private final MeterRegistry meterRegistry;
+    private final ConcurrentStageExecutor stageExecutor;
+    private final RecentTransactionFilter recentTransactionFilter;
+    private final DecisionWriteBehindService decisionWriteBehindService;
+    private final PrimitiveScoringService primitiveScoringService;
+    private final StageLatencyRecorder stageLatencyRecorder;
+    private final TieredMlGate tieredMlGate;
+    private final TransactionTemplate transactionTemplate;
     private final Timer processingLatencyTimer;
+    private final Timer batchLatencyTimer;
+    private final Map<DecisionType, Counter> decisionCounters = new EnumMap<>(DecisionType.class);
 
     public FraudProcessingService(
             FraudDecisionRepository fraudDecisionRepository,
+            DecisionBatchInserter decisionBatchInserter,
             FeatureEngineeringService featureEngineeringService,
             MlFeatureEngineeringService mlFeatureEngineeringService,
             MlInferenceClient mlInferenceClient,
@@ -54,9 +79,17 @@ public class FraudProcessingService {
             FraudDecisionMapper mapper,
             FraudDecisionEventPublisher eventPublisher,
             DashboardStreamService dashboardStreamService,
+            ConcurrentStageExecutor stageExecutor,
+            RecentTransactionFilter recentTransactionFilter,
+            DecisionWriteBehindService decisionWriteBehindService,
+            PrimitiveScoringService primitiveScoringService,
+            StageLatencyRecorder stageLatencyRecorder,
+            TieredMlGate tieredMlGate,
+            PlatformTransactionManager transactionManager,
             MeterRegistry meterRegistry
     ) {
         this.fraudDecisionRepository = fraudDecisionRepository;
+        this.decisionBatchInserter = decisionBatchInserter;
         this.featureEngineeringService = featureEngineeringService;
         this.mlFeatureEngineeringService = mlFeatureEngineeringService;
         this.mlInferenceClient = mlInferenceClient;
@@ -67,72 +100,517 @@ public class FraudProcessingService {
         this.mapper = mapper;
         this.eventPublisher = eventPublisher;
         this.dashboardStreamService = dashboardStreamService;
-        this.meterRegistry = meterRegistry;
+        this.stageExecutor = stageExecutor;
+        this.recentTransactionFilter = recentTransactionFilter;
+        this.decisionWriteBehindService = decisionWriteBehindService;
+        this.primitiveScoringService = primitiveScoringService;
+        this.stageLatencyRecorder = stageLatencyRecorder;
+        this.tieredMlGate = tieredMlGate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.processingLatencyTimer = meterRegistry.timer(PROCESSING_LATENCY_METRIC);
+        this.batchLatencyTimer = meterRegistry.timer(BATCH_LATENCY_METRIC);
+        for (DecisionType decisionType : DecisionType.values()) {
+            decisionCounters.put(decisionType, meterRegistry.counter("fraud.decisions.total", "decision", decisionType.name()));
+        }
     }
 
-    @Transactional
+    /**
+     * Scores one event and records its decision in a database transaction. With lazy feature resolution, the sources
+     * the decision did not read are settled once that transaction has completed, so their I/O does not hold it open.
+     */
     public void processAndPublish(TransactionCreatedEvent transactionEvent) {
         long processingStartNanos = System.nanoTime();
+        StageTrace trace = stageLatencyRecorder.start(transactionEvent.transactionId());
+        AtomicReference<LazyFeatures> lazyFeatures = new AtomicReference<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> decideAndPublish(transactionEvent, trace, lazyFeatures));
+        } finally {
+            if (lazyFeatures.get() != null) {
+                // Sources the decision did not need still have to record the event before the next one is read.
+                lazyFeatures.get().settle();
+            }
+            processingLatencyTimer.record(System.nanoTime() - processingStartNanos, TimeUnit.NANOSECONDS);
+            stageLatencyRecorder.complete(trace);
+        }
+    }
+
+    private void decideAndPublish(
+            TransactionCreatedEvent transactionEvent,
+            StageTrace trace,
+            AtomicReference<LazyFeatures> lazyFeatures
+    ) {
+        FeatureContext featureContext;
+        if (featureEngineeringService.isLazy()) {
+            lazyFeatures.set(resolveFeaturesLazily(transactionEvent, trace));
+            featureContext = lazyFeatures.get() == null ? null : lazyFeatures.get().ruleFeatures();
+        } else {
+            featureContext = stageExecutor.isEnabled()
+                    ? resolveFeaturesConcurrently(transactionEvent, trace)
+                    : resolveFeaturesSequentially(transactionEvent, trace);
+        }
+        if (featureContext == null) {
+            log.info("fraud_decision_already_exists transactionId={}", transactionEvent.transactionId());
+            return;
+        }
+
+        LazyFeatures resolving = lazyFeatures.get();
+        Supplier<FeatureContext> mlFeatures = resolving == null ? () -> featureContext : resolving::allFeatures;
+        ScoredTransaction scoredTransaction = completeScoring(beginScoring(transactionEvent, featureContext, mlFeatures, trace));
+
+        long persistStartNanos = System.nanoTime();
+        FraudDecision savedDecision = saveDecision(scoredTransaction);
+        trace.stop(PipelineStage.PERSIST, persistStartNanos);
+        if (savedDecision != null) {
+            publishDecision(scoredTransaction, savedDecision);
+        }
+    }
+
+    public void processBatchAndPublish(List<TransactionCreatedEvent> transactionEvents) {
+        long processingStartNanos = System.nanoTime();
+        Map<String, StageTrace> traces = new LinkedHashMap<>();
+        for (TransactionCreatedEvent transactionEvent : transactionEvents) {
+            traces.computeIfAbsent(transactionEvent.transactionId(), stageLatencyRecorder::start);
+        }
         try {
-            if (fraudDecisionRepository.findByTransactionId(transactionEvent.transactionId()).isPresent()) {
-                log.info("fraud_decision_already_exists transactionId={}", transactionEvent.transactionId());
+            // Batch-wide stages are sampled once per batch by the stage timers, like the batch timer, and show in
+            // full in the breakdown of every event in the batch.
+            long stageStartNanos = System.nanoTime();
+            List<TransactionCreatedEvent> pendingEvents = filterUndecided(transactionEvents);
+            stageStartNanos = stageLatencyRecorder.stopBatch(traces.values(), PipelineStage.DEDUP, stageStartNanos);
+            if (pendingEvents.isEmpty()) {
                 return;
             }
 
-            FeatureContext featureContext = featureEngineeringService.buildFeatureContext(transactionEvent);
-            RuleEvaluationResult ruleEvaluation = ruleEngine.evaluate(transactionEvent, featureContext);
-            BigDecimal ruleScore = BigDecimal.valueOf(ruleEvaluation.normalizedScore()).setScale(4, RoundingMode.HALF_UP);
+            List<StageTrace> pendingTraces = new ArrayList<>(pendingEvents.size());
+            for (TransactionCreatedEvent pendingEvent : pendingEvents) {
+                pendingTraces.add(traces.get(pendingEvent.transactionId()));
+            }
 
-            MlPredictionRequest mlPredictionRequest = mlFeatureEngineeringService.buildRequest(transactionEvent, featureContext);
-            BigDecimal mlScore = resolveMlScore(mlPredictionRequest, ruleScore);
-            modelQualityMonitoringService.recordMlScore(mlScore);
+            List<FeatureContext> featureContexts = featureEngineeringService.buildFeatureContexts(pendingEvents);
+            stageLatencyRecorder.stopBatch(pendingTraces, PipelineStage.VELOCITY, stageStartNanos);
 
-            BigDecimal riskScore = riskAggregationService.aggregate(ruleScore, mlScore);
-            DecisionType decision = decisionEngine.decide(riskScore);
+            List<PendingScore> pendingScores = new ArrayList<>(pendingEvents.size());
+            for (int index = 0; index < pendingEvents.size(); index++) {
+                FeatureContext featureContext = featureContexts.get(index);
+                pendingScores.add(beginScoring(pendingEvents.get(index), featureContext, () -> featureContext, pendingTraces.get(index)));
+            }
 
-            try {
-                FraudDecision decisionEntity = mapper.toEntity(
-                        transactionEvent,
-                        riskScore,
-                        decision,
-                        ruleScore,
-                        mlScore
-                );
+            List<ScoredTransaction> scoredTransactions = new ArrayList<>(pendingScores.size());
+            List<FraudDecision> entities = new ArrayList<>(pendingScores.size());
+            for (PendingScore pendingScore : pendingScores) {
+                ScoredTransaction scoredTransaction = completeScoring(pendingScore);
+                scoredTransactions.add(scoredTransaction);
+                entities.add(toEntity(scoredTransaction));
+            }
 
-                FraudDecision savedDecision = fraudDecisionRepository.save(decisionEntity);
-                FraudDecisionEvent decisionEvent = mapper.toEvent(savedDecision);
-                eventPublisher.publish(decisionEvent);
-                dashboardStreamService.publish(savedDecision);
-                meterRegistry.counter("fraud.decisions.total", "decision", decision.name()).increment();
-
-                log.info(
-                        "fraud_decision_created transactionId={} userId={} decision={} riskScore={} ruleScore={} "
-                                + "mlScore={} mlInput={} ruleDetails={}",
-                        transactionEvent.transactionId(),
-                        transactionEvent.userId(),
-                        decision,
-                        riskScore,
-                        ruleScore,
-                        mlScore,
-                        mlPredictionRequest,
-                        ruleEvaluation.individualRuleScores()
-                );
-            } catch (DataIntegrityViolationException exception) {
-                log.warn(
-                        "fraud_decision_duplicate transactionId={} reason={}",
-                        transactionEvent.transactionId(),
-                        exception.getMessage()
-                );
+            stageStartNanos = System.nanoTime();
+            Map<String, FraudDecision> savedDecisions = saveBatch(scoredTransactions, entities);
+            stageStartNanos = stageLatencyRecorder.stopBatch(pendingTraces, PipelineStage.PERSIST, stageStartNanos);
+
+            List<FraudDecisionEvent> decisionEvents = new ArrayList<>(savedDecisions.size());
+            List<StageTrace> publishedTraces = new ArrayList<>(savedDecisions.size());
+            for (FraudDecision savedDecision : savedDecisions.values()) {
+                decisionEvents.add(mapper.toEvent(savedDecision));
+                publishedTraces.add(traces.get(savedDecision.getTransactionId()));
+            }
+            eventPublisher.publishAll(decisionEvents);
+            stageLatencyRecorder.stopBatch(publishedTraces, PipelineStage.KAFKA_PUBLISH, stageStartNanos);
+
+            for (ScoredTransaction scoredTransaction : scoredTransactions) {
+                FraudDecision savedDecision = savedDecisions.get(scoredTransaction.transaction().transactionId());
+                if (savedDecision != null) {
+                    announceDecision(scoredTransaction, savedDecision);
+                }
             }
         } finally {
-            processingLatencyTimer.record(System.nanoTime() - processingStartNanos, TimeUnit.NANOSECONDS);
+            // One sample per batch: repeating the batch duration for every event would swamp the per-event timer.
+            batchLatencyTimer.record(System.nanoTime() - processingStartNanos, TimeUnit.NANOSECONDS);
+            traces.values().forEach(stageLatencyRecorder::complete);
+        }
+    }
+
+    private FeatureContext resolveFeaturesSequentially(TransactionCreatedEvent transactionEvent, StageTrace trace) {
+        long stageStartNanos = System.nanoTime();
+        boolean alreadyDecided = isAlreadyDecided(transactionEvent.transactionId());
+        stageStartNanos = trace.stop(PipelineStage.DEDUP, stageStartNanos);
+        if (alreadyDecided) {
+            return null;
+        }
+
+        FeatureContext featureContext = featureEngineeringService.buildFeatureContext(transactionEvent);
+        trace.stop(PipelineStage.VELOCITY, stageStartNanos);
+        return featureContext;
+    }
+
+    /**
+     * Dedups and starts resolving features without waiting for the optional ones the rules do not read; returns
+     * null for an event that was already decided.
+     */
+    private LazyFeatures resolveFeaturesLazily(TransactionCreatedEvent transactionEvent, StageTrace trace) {
+        long stageStartNanos = System.nanoTime();
+        boolean alreadyDecided = isAlreadyDecided(transactionEvent.transactionId());
+        stageStartNanos = trace.stop(PipelineStage.DEDUP, stageStartNanos);
+        if (alreadyDecided) {
+            return null;
+        }
+
+        LazyFeatures lazyFeatures = featureEngineeringService.resolveLazily(
+                transactionEvent,
+                ruleEngine.ruleSet().requiredFeatures()
+        );
+        trace.stop(PipelineStage.VELOCITY, stageStartNanos);
+        return lazyFeatures;
+    }
+
+    private FeatureContext resolveFeaturesConcurrently(TransactionCreatedEvent transactionEvent, StageTrace trace) {
+        // A journaled decision is not in the table yet, so neither the filter nor the lookup below would see it.
+        if (decisionWriteBehindService.isPending(transactionEvent.transactionId())) {
+            return null;
+        }
+        if (recentTransactionFilter.isEnabled() && !recentTransactionFilter.mightContain(transactionEvent.transactionId())) {
+            return timed(trace, PipelineStage.VELOCITY, () -> featureEngineeringService.buildFeatureContext(transactionEvent));
+        }
+
+        // A redelivered transaction is counted in the velocity windows only once, so that write can run before
+        // dedup has answered. The other feature sources count every call and wait for dedup.
+        long deadlineNanos = stageExecutor.deadlineFromNow();
+        CompletableFuture<Boolean> alreadyDecided = stageExecutor.fork(() -> timed(
+                trace,
+                PipelineStage.DEDUP,
+                () -> fraudDecisionRepository.findByTransactionId(transactionEvent.transactionId()).isPresent()
+        ));
+        CompletableFuture<VelocityStats> velocityStats = stageExecutor.fork(() -> timed(
+                trace,
+                PipelineStage.VELOCITY,
+                () -> featureEngineeringService.trackVelocity(transactionEvent)
+        ));
+
+        if (stageExecutor.join("dedup", alreadyDecided, deadlineNanos, () -> false)) {
+            return null;
+        }
+        VelocityStats stats = stageExecutor.join(
+                "velocity",
+                velocityStats,
+                deadlineNanos,
+                () -> new VelocityStats(0, 0, Long.MAX_VALUE)
+        );
+        return timed(
+                trace,
+                PipelineStage.FEATURES,
+                () -> featureEngineeringService.buildFeatureContext(transactionEvent, stats)
+        );
+    }
+
+    private <T> T timed(StageTrace trace, PipelineStage stage, Supplier<T> work) {
+        long stageStartNanos = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            trace.stop(stage, stageStartNanos);
+        }
+    }
+
+    private boolean isAlreadyDecided(String transactionId) {
+        if (decisionWriteBehindService.isPending(transactionId)) {
+            return true;
+        }
+        if (recentTransactionFilter.isEnabled() && !recentTransactionFilter.mightContain(transactionId)) {
+            return false;
+        }
+        return fraudDecisionRepository.findByTransactionId(transactionId).isPresent();
+    }
+
+    private List<TransactionCreatedEvent> filterUndecided(List<TransactionCreatedEvent> transactionEvents) {
+        Map<String, TransactionCreatedEvent> uniqueEvents = new LinkedHashMap<>();
+        for (TransactionCreatedEvent transactionEvent : transactionEvents) {
+            if (uniqueEvents.putIfAbsent(transactionEvent.transactionId(), transactionEvent) != null) {
+                log.info("fraud_decision_duplicate_in_batch transactionId={}", transactionEvent.transactionId());
+            }
+        }
+        uniqueEvents.keySet().removeIf(transactionId -> {
+            boolean pending = decisionWriteBehindService.isPending(transactionId);
+            if (pending) {
+                log.info("fraud_decision_already_exists transactionId={}", transactionId);
+            }
+            return pending;
+        });
+
+        List<String> candidateIds = recentTransactionFilter.isEnabled()
+                ? uniqueEvents.keySet().stream().filter(recentTransactionFilter::mightContain).toList()
+                : List.copyOf(uniqueEvents.keySet());
+        if (candidateIds.isEmpty()) {
+            return new ArrayList<>(uniqueEvents.values());
+        }
+
+        Set<String> existingTransactionIds = new HashSet<>(fraudDecisionRepository.findExistingTransactionIds(candidateIds));
+        for (String transactionId : existingTransactionIds) {
+            log.info("fraud_decision_already_exists transactionId={}", transactionId);
+            uniqueEvents.remove(transactionId);
         }
+
+        return new ArrayList<>(uniqueEvents.values());
+    }
+
+    /**
+     * Persists the batch and returns the decisions that were inserted. With write-behind nothing is inserted yet, so
+     * the writer publishes each decision once its row is in and the returned map is empty.
+     */
+    private Map<String, FraudDecision> saveBatch(List<ScoredTransaction> scoredTransactions, List<FraudDecision> entities) {
+        Map<String, FraudDecision> savedDecisions = new LinkedHashMap<>();
+        if (decisionWriteBehindService.isEnabled()) {
+            for (int index = 0; index < entities.size(); index++) {
+                enqueueDecision(scoredTransactions.get(index), entities.get(index));
+            }
+            return savedDecisions;
+        }
+
+        // The ids were assigned up front, so the rows are inserted as they are and a duplicate is skipped by the
+        // database rather than failing the batch.
+        entities.forEach(FraudDecision::assignDefaults);
+        Set<String> inserted = decisionBatchInserter.insertIfAbsent(entities);
+        for (FraudDecision decision : entities) {
+            if (inserted.contains(decision.getTransactionId())) {
+                savedDecisions.put(decision.getTransactionId(), decision);
+            } else {
+                log.info("fraud_decision_duplicate transactionId={} reason=insert_conflict", decision.getTransactionId());
+            }
+            rememberDecided(decision.getTransactionId());
+        }
+        return savedDecisions;
+    }
+
+    private FraudDecision saveDecision(ScoredTransaction scoredTransaction) {
+        FraudDecision decisionEntity = toEntity(scoredTransaction);
+        if (decisionWriteBehindService.isEnabled()) {
+            enqueueDecision(scoredTransaction, decisionEntity);
+            return null;
+        }
+
+        if (!recentTransactionFilter.isEnabled()) {
+            try {
+                return fraudDecisionRepository.save(decisionEntity);
+            } catch (DataIntegrityViolationException exception) {
+                logDuplicate(scoredTransaction.transaction(), exception);
+                return null;
+            }
+        }
+
+        decisionEntity.assignDefaults();
+        int inserted = fraudDecisionRepository.insertIfAbsent(decisionEntity);
+        rememberDecided(decisionEntity.getTransactionId());
+        if (inserted == 0) {
+            log.info("fraud_decision_duplicate transactionId={} reason=insert_conflict", decisionEntity.getTransactionId());
+            return null;
+        }
+        return decisionEntity;
+    }
+
+    /**
+     * Hands the decision to the write-behind journal. It is published from the writer thread once the drain has
+     * inserted it, so a redelivery whose row already exists is never published a second time.
+     */
+    private void enqueueDecision(ScoredTransaction scoredTransaction, FraudDecision decisionEntity) {
+        decisionWriteBehindService.enqueue(decisionEntity, () -> publishDecision(scoredTransaction, decisionEntity));
+        rememberDecided(decisionEntity.getTransactionId());
+    }
+
+    private void rememberDecided(String transactionId) {
+        if (recentTransactionFilter.isEnabled()) {
+            recentTransactionFilter.put(transactionId);
+        }
+    }
+
+    /**
+     * Scores the rules with {@code featureContext} and starts ML inference. {@code mlFeatures} supplies the features
+     * for the ML request, which with lazy resolution is only awaited when the model is actually called.
+     */
+    private PendingScore beginScoring(
+            TransactionCreatedEvent transactionEvent,
+            FeatureContext featureContext,
+            Supplier<FeatureContext> mlFeatures,
+            StageTrace trace
+    ) {
+        if (primitiveScoringService.isEnabled()) {
+            return beginPrimitiveScoring(transactionEvent, featureContext, mlFeatures, trace);
+        }
+
+        long stageStartNanos = System.nanoTime();
+        RuleEvaluationResult ruleEvaluation = ruleEngine.evaluate(transactionEvent, featureContext);
+        BigDecimal ruleScore = BigDecimal.valueOf(ruleEvaluation.normalizedScore()).setScale(4, RoundingMode.HALF_UP);
+        stageStartNanos = trace.stop(PipelineStage.RULES, stageStartNanos);
+
+        BigDecimal conclusiveMlScore = tieredMlGate.conclusiveMlScore(ruleScore);
+        boolean shadow = conclusiveMlScore != null && tieredMlGate.shouldShadow();
+        MlPredictionRequest mlPredictionRequest = mlFeatureEngineeringService.buildRequest(
+                transactionEvent,
+                conclusiveMlScore == null || shadow ? mlFeatures.get() : featureContext
+        );
+        CompletableFuture<MlPrediction> mlPrediction = conclusiveMlScore == null
+                ? mlInferenceClient.predict(mlPredictionRequest, ruleScore)
+                : skipMlInference(mlPredictionRequest, ruleScore, conclusiveMlScore, shadow);
+
+        return new PendingScore(
+                transactionEvent,
+                ruleEvaluation,
+                ruleScore,
+                mlPredictionRequest,
+                mlPrediction,
+                conclusiveMlScore != null,
+                trace,
+                stageStartNanos
+        );
+    }
+
+    private PendingScore beginPrimitiveScoring(
+            TransactionCreatedEvent transactionEvent,
+            FeatureContext featureContext,
+            Supplier<FeatureContext> mlFeatures,
+            StageTrace trace
+    ) {
+        long stageStartNanos = System.nanoTime();
+        long ruleScoreUnits = primitiveScoringService.scoreRules(transactionEvent, featureContext);
+        BigDecimal ruleScore = ScoreUnits.toBigDecimal(ruleScoreUnits);
+
+        // The per-thread rule scores are overwritten by the next event, so the per-rule breakdown
+        // is captured now, and only when it will actually be logged.
+        RuleEvaluationResult ruleEvaluation = log.isInfoEnabled()
+                ? primitiveScoringService.describeRules(ruleScoreUnits)
+                : new RuleEvaluationResult(
+                        ScoreUnits.toDouble(ruleScoreUnits),
+                        Map.of(),
+                        primitiveScoringService.ruleSetVersion()
+                );
+        stageStartNanos = trace.stop(PipelineStage.RULES, stageStartNanos);
+
+        BigDecimal conclusiveMlScore = tieredMlGate.conclusiveMlScore(ruleScore);
+        boolean shadow = conclusiveMlScore != null && tieredMlGate.shouldShadow();
+        MlPredictionRequest mlPredictionRequest = primitiveScoringService.buildMlRequest(
+                transactionEvent,
+                conclusiveMlScore == null || shadow ? mlFeatures.get() : featureContext
+        );
+        CompletableFuture<MlPrediction> mlPrediction = conclusiveMlScore == null
+                ? mlInferenceClient.predict(mlPredictionRequest, ruleScore)
+                : skipMlInference(mlPredictionRequest, ruleScore, conclusiveMlScore, shadow);
+
+        return new PendingScore(
+                transactionEvent,
+                ruleEvaluation,
+                ruleScore,
+                mlPredictionRequest,
+                mlPrediction,
+                conclusiveMlScore != null,
+                trace,
+                stageStartNanos
+        );
+    }
+
+    private CompletableFuture<MlPrediction> skipMlInference(
+            MlPredictionRequest mlPredictionRequest,
+            BigDecimal ruleScore,
+            BigDecimal conclusiveMlScore,
+            boolean shadow
+    ) {
+        if (shadow) {
+            mlInferenceClient.predict(mlPredictionRequest, ruleScore).thenAccept(actual -> {
+                if (!actual.fallback()) {
+                    tieredMlGate.recordShadow(ruleScore, conclusiveMlScore, actual.score());
+                }
+            });
+        }
+        return CompletableFuture.completedFuture(new MlPrediction(conclusiveMlScore, false));
+    }
+
+    private ScoredTransaction completeScoring(PendingScore pendingScore) {
+        MlPrediction mlPrediction = resolveMlPrediction(pendingScore.mlPrediction(), pendingScore.ruleScore());
+        BigDecimal mlScore = mlPrediction.score();
+        pendingScore.trace().stop(PipelineStage.ML_INFERENCE, pendingScore.mlStartNanos());
+        // Skipped and fallback scores are stand-ins for the model, so they must not feed the model's own statistics.
+        if (!pendingScore.mlSkipped() && !mlPrediction.fallback()) {
+            modelQualityMonitoringService.recordMlScore(mlScore);
+            tieredMlGate.observe(pendingScore.ruleScore(), mlScore);
+        }
+
+        BigDecimal riskScore;
+        DecisionType decision;
+        if (primitiveScoringService.isEnabled()) {
+            long riskScoreUnits = primitiveScoringService.aggregate(
+                    ScoreUnits.toUnits(pendingScore.ruleScore()),
+                    ScoreUnits.toUnits(mlScore)
+            );
+            riskScore = ScoreUnits.toBigDecimal(riskScoreUnits);
+            decision = primitiveScoringService.decide(riskScoreUnits);
+        } else {
+            riskScore = riskAggregationService.aggregate(pendingScore.ruleScore(), mlScore);
+            decision = decisionEngine.decide(riskScore);
+        }
+
+        return new ScoredTransaction(
+                pendingScore.transaction(),
+                pendingScore.ruleEvaluation(),
+                pendingScore.ruleScore(),
+                pendingScore.mlPredictionRequest(),
+                mlScore,
+                pendingScore.mlSkipped(),
+                riskScore,
+                decision,
+                pendingScore.trace()
+        );
+    }
+
+    private FraudDecision toEntity(ScoredTransaction scoredTransaction) {
+        FraudDecision decision = mapper.toEntity(
+                scoredTransaction.transaction(),
+                scoredTransaction.riskScore(),
+                scoredTransaction.decision(),
+                scoredTransaction.ruleScore(),
+                scoredTransaction.mlSkipped() ? null : scoredTransaction.mlScore()
+        );
+        decision.setMlSkipped(scoredTransaction.mlSkipped());
+        decision.setRuleSetVersion(scoredTransaction.ruleEvaluation().ruleSetVersion());
+        return decision;
+    }
+
+    private void publishDecision(ScoredTransaction scoredTransaction, FraudDecision savedDecision) {
+        FraudDecisionEvent decisionEvent = mapper.toEvent(savedDecision);
+        long stageStartNanos = System.nanoTime();
+        eventPublisher.publish(decisionEvent);
+        scoredTransaction.trace().stop(PipelineStage.KAFKA_PUBLISH, stageStartNanos);
+        announceDecision(scoredTransaction, savedDecision);
+    }
+
+    private void announceDecision(ScoredTransaction scoredTransaction, FraudDecision savedDecision) {
+        long stageStartNanos = System.nanoTime();
+        dashboardStreamService.publish(savedDecision);
+        scoredTransaction.trace().stop(PipelineStage.SSE_FANOUT, stageStartNanos);
+        decisionCounters.get(scoredTransaction.decision()).increment();
+
+        log.info(
+                "fraud_decision_created transactionId={} userId={} decision={} riskScore={} ruleScore={} "
+                        + "mlScore={} mlSkipped={} mlInput={} ruleSet={} ruleDetails={}",
+                scoredTransaction.transaction().transactionId(),
+                scoredTransaction.transaction().userId(),
+                scoredTransaction.decision(),
+                scoredTransaction.riskScore(),
+                scoredTransaction.ruleScore(),
+                scoredTransaction.mlScore(),
+                scoredTransaction.mlSkipped(),
+                scoredTransaction.mlPredictionRequest(),
+                scoredTransaction.ruleEvaluation().ruleSetVersion(),
+                scoredTransaction.ruleEvaluation().individualRuleScores()
+        );
     }
 
-    private BigDecimal resolveMlScore(MlPredictionRequest request, BigDecimal fallbackScore) {
+    private void logDuplicate(TransactionCreatedEvent transactionEvent, DataIntegrityViolationException exception) {
+        log.warn(
+                "fraud_decision_duplicate transactionId={} reason={}",
+                transactionEvent.transactionId(),
+                exception.getMessage()
+        );
+    }
+
+    private MlPrediction resolveMlPrediction(CompletableFuture<MlPrediction> mlPrediction, BigDecimal fallbackScore) {
         try {
-            return mlInferenceClient.predictScore(request, fallbackScore).get();
+            return mlPrediction.get();
         } catch (InterruptedException exception) {
             Thread.currentThread().interrupt();
             log.warn(
@@ -140,14 +618,39 @@ public class FraudProcessingService {
                     fallbackScore,
                     exception.getMessage()
             );
-            return fallbackScore;
+            return new MlPrediction(fallbackScore, true);
         } catch (ExecutionException exception) {
             log.warn(
                     "ml_inference_execution_failed fallbackScore={} reason={}",
                     fallbackScore,
                     exception.getMessage()
             );
-            return fallbackScore;
+            return new MlPrediction(fallbackScore, true);
         }
     }
+
+    private record PendingScore(
+            TransactionCreatedEvent transaction,
+            RuleEvaluationResult ruleEvaluation,
+            BigDecimal ruleScore,
+            MlPredictionRequest mlPredictionRequest,
+            CompletableFuture<MlPrediction> mlPrediction,
+            boolean mlSkipped,
+            StageTrace trace,
+            long mlStartNanos
+    ) {
+    }
+
+    private record ScoredTransaction(
+            TransactionCreatedEvent transaction,
+            RuleEvaluationResult ruleEvaluation,
+            BigDecimal ruleScore,
+            MlPredictionRequest mlPredictionRequest,
+            BigDecimal mlScore,
+            boolean mlSkipped,
+            BigDecimal riskScore,
+            DecisionType decision,
+            StageTrace trace
+    ) {
+    }
 }
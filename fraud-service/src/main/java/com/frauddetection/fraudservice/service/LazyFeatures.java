@@ -0,0 +1,142 @@
+package com.frauddetection.fraudservice.service;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.FeatureVector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Features of one event, resolved source by source when first needed. The velocity counters are measured up front
+ * because every rule set reads them. Each optional source, such as the windowed aggregates or the first-seen
+ * attributes, records the event and reads its features back in one call, and runs at most once per event.
+ * {@link #ruleFeatures()} only waits for the sources the rules declared, so an event whose rules read none of them
+ * is scored without waiting on their I/O; {@link #allFeatures()} waits for the rest when the ML service needs them.
+ *
+ * <p>A source starts only when one of its features is first needed. In the parallel stage mode the sources needed
+ * together run concurrently, and each join gets the full stage timeout from the moment it starts waiting; otherwise
+ * they run one after the other on the calling thread. A source nobody read is never looked up: {@link #settle()} only
+ * records the event with it, in one write without a read-back, so that later events still see the event in their
+ * windows and first-seen sets.
+ *
+ * <p>An instance belongs to one event and is used from that event's processing thread only.
+ */
+public final class LazyFeatures {
+
+    private final VelocityStats velocityStats;
+    private final List<Source> sources;
+    private final ConcurrentStageExecutor stageExecutor;
+    private final FeatureContext ruleFeatures;
+
+    LazyFeatures(
+            VelocityStats velocityStats,
+            List<Source> sources,
+            ConcurrentStageExecutor stageExecutor,
+            Set<String> ruleFeatureNames
+    ) {
+        this.velocityStats = velocityStats;
+        this.sources = List.copyOf(sources);
+        this.stageExecutor = stageExecutor;
+        this.ruleFeatures = resolve(ruleFeatureNames);
+    }
+
+    /**
+     * Velocity counters plus every feature the rules declared.
+     */
+    public FeatureContext ruleFeatures() {
+        return ruleFeatures;
+    }
+
+    /**
+     * Velocity counters plus the features of every source, as the eager path would have built them.
+     */
+    public FeatureContext allFeatures() {
+        return resolve(null);
+    }
+
+    /**
+     * Records the event with every source that was never looked up, without reading its features back. Called once
+     * the event's features are no longer needed.
+     */
+    public void settle() {
+        for (Source source : sources) {
+            if (source.pending == null) {
+                source.record.run();
+                // The event is recorded now; a lookup would count it a second time.
+                source.pending = CompletableFuture.completedFuture(FeatureVector.EMPTY);
+            }
+        }
+    }
+
+    // A null set stands for every source.
+    private FeatureContext resolve(Set<String> featureNames) {
+        List<Source> needed = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            if (featureNames == null || source.providesAny(featureNames)) {
+                start(source);
+                needed.add(source);
+            }
+        }
+
+        FeatureVector features = FeatureVector.EMPTY;
+        for (Source source : needed) {
+            features = features.merge(await(source));
+        }
+        return new FeatureContext(
+                velocityStats.transactionsPerMinute(),
+                velocityStats.transactionsPerFiveMinutes(),
+                velocityStats.secondsSinceLastTransaction(),
+                features
+        );
+    }
+
+    private void start(Source source) {
+        if (source.pending == null) {
+            source.pending = stageExecutor.fork(source.lookup);
+        }
+    }
+
+    private FeatureVector await(Source source) {
+        if (source.features == null) {
+            source.features = stageExecutor.join(
+                    source.name,
+                    source.pending,
+                    stageExecutor.deadlineFromNow(),
+                    () -> FeatureVector.EMPTY
+            );
+        }
+        return source.features;
+    }
+
+    static final class Source {
+
+        private final String name;
+        private final Predicate<String> provides;
+        private final Supplier<FeatureVector> lookup;
+        private final Runnable record;
+        private CompletableFuture<FeatureVector> pending;
+        private FeatureVector features;
+
+        /**
+         * {@code lookup} records the event and reads the source's features back; {@code record} only records it.
+         */
+        Source(String name, Predicate<String> provides, Supplier<FeatureVector> lookup, Runnable record) {
+            this.name = name;
+            this.provides = provides;
+            this.lookup = lookup;
+            this.record = record;
+        }
+
+        private boolean providesAny(Set<String> featureNames) {
+            for (String featureName : featureNames) {
+                if (provides.test(featureName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.frauddetection.fraudservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves velocity from {@link LocalVelocityStore} for the users whose partitions this instance owns.
+ *
+ * <p>In hybrid mode Redis is kept as an asynchronous backup: every event is replayed to it off the hot path, and a
+ * user seen here for the first time (after a restart or a rebalance) is warmed from it. On revocation the backup
+ * queue is drained before the revoked users are dropped, so the next owner reads a complete window.
+ */
+@Component
+public class LocalVelocityService implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalVelocityService.class);
+    private static final long BACKUP_DRAIN_TIMEOUT_MILLIS = 10_000;
+
+    private final VelocityTrackingService velocityTrackingService;
+    private final VelocityStoreMode mode;
+    private final String transactionsTopic;
+    private final LocalVelocityStore store;
+    private final ThreadPoolExecutor backupExecutor;
+    private final Counter seedCounter;
+    private final Counter backupDroppedCounter;
+
+    public LocalVelocityService(
+            VelocityTrackingService velocityTrackingService,
+            MeterRegistry meterRegistry,
+            @Value("${app.velocity.mode:redis}") String mode,
+            @Value("${app.velocity.local.max-users:100000}") int maxUsers,
+            @Value("${app.velocity.local.segments:16}") int segments,
+            @Value("${app.velocity.local.backup-queue-capacity:10000}") int backupQueueCapacity,
+            @Value("${app.velocity.allowed-lateness-ms:300000}") long allowedLatenessMillis,
+            @Value("${app.kafka.transactions-topic}") String transactionsTopic
+    ) {
+        this.velocityTrackingService = velocityTrackingService;
+        this.mode = VelocityStoreMode.from(mode);
+        this.transactionsTopic = transactionsTopic;
+        this.store = this.mode == VelocityStoreMode.REDIS ? null : new LocalVelocityStore(maxUsers, segments, allowedLatenessMillis);
+        this.backupExecutor = this.mode == VelocityStoreMode.HYBRID ? newBackupExecutor(backupQueueCapacity) : null;
+        this.seedCounter = meterRegistry.counter("fraud.velocity.local.seeds.total");
+        this.backupDroppedCounter = meterRegistry.counter("fraud.velocity.backup.dropped.total");
+
+        if (store != null) {
+            Gauge.builder("fraud.velocity.local.users", store, LocalVelocityStore::size).register(meterRegistry);
+            FunctionCounter.builder("fraud.velocity.local.evictions.total", store, LocalVelocityStore::evictions)
+                    .register(meterRegistry);
+            FunctionCounter.builder("fraud.velocity.late.dropped.total", store, LocalVelocityStore::lateDrops)
+                    .tag("store", "local")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Re-applies an event that was already scored before a restart; it was backed up to Redis the first time.
+     */
+    public void replay(String userId, String transactionId, Instant timestamp) {
+        if (store != null) {
+            store.record(userId, transactionId, timestamp.toEpochMilli());
+        }
+    }
+
+    LocalVelocityStore store() {
+        return store;
+    }
+
+    public VelocityStats trackAndMeasure(String userId, String transactionId, Instant timestamp) {
+        if (mode == VelocityStoreMode.HYBRID && !store.contains(userId)) {
+            seed(List.of(userId), timestamp.toEpochMilli());
+        }
+
+        VelocityStats stats = store.record(userId, transactionId, timestamp.toEpochMilli());
+        backup(() -> velocityTrackingService.trackAndMeasure(userId, transactionId, timestamp));
+        return stats;
+    }
+
+    public List<VelocityStats> trackAndMeasureAll(List<VelocityObservation> observations) {
+        if (observations.isEmpty()) {
+            return List.of();
+        }
+
+        if (mode == VelocityStoreMode.HYBRID) {
+            Set<String> unknownUsers = new LinkedHashSet<>();
+            for (VelocityObservation observation : observations) {
+                if (!store.contains(observation.userId())) {
+                    unknownUsers.add(observation.userId());
+                }
+            }
+            seed(List.copyOf(unknownUsers), observations.get(0).timestamp().toEpochMilli());
+        }
+
+        List<VelocityStats> stats = new ArrayList<>(observations.size());
+        for (VelocityObservation observation : observations) {
+            stats.add(store.record(
+                    observation.userId(),
+                    observation.transactionId(),
+                    observation.timestamp().toEpochMilli()
+            ));
+        }
+        backup(() -> velocityTrackingService.trackAndMeasureAll(observations));
+        return stats;
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        handOff(consumer, partitions, true);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Another member may already own these users, so the backup has nothing to wait for.
+        handOff(consumer, partitions, false);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (backupExecutor == null) {
+            return;
+        }
+        backupExecutor.shutdown();
+        if (!backupExecutor.awaitTermination(BACKUP_DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            log.warn("velocity_backup_shutdown_incomplete pending={}", backupExecutor.getQueue().size());
+        }
+    }
+
+    private void handOff(Consumer<?, ?> consumer, Collection<TopicPartition> partitions, boolean drainBackup) {
+        if (store == null) {
+            return;
+        }
+
+        Set<Integer> revoked = partitions.stream()
+                .filter(partition -> transactionsTopic.equals(partition.topic()))
+                .map(TopicPartition::partition)
+                .collect(Collectors.toSet());
+        if (revoked.isEmpty()) {
+            return;
+        }
+
+        if (drainBackup) {
+            drainBackup();
+        }
+        List<PartitionInfo> partitionInfos = consumer.partitionsFor(transactionsTopic);
+        int removed = store.evictPartitions(revoked, partitionInfos == null ? 0 : partitionInfos.size());
+        log.info("velocity_local_handoff partitions={} usersRemoved={}", revoked, removed);
+    }
+
+    private void seed(List<String> userIds, long nowMillis) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        List<VelocityHistory> histories = velocityTrackingService.loadHistories(userIds, nowMillis);
+        for (int index = 0; index < userIds.size(); index++) {
+            VelocityHistory history = histories.get(index);
+            if (!history.isEmpty()) {
+                store.seed(userIds.get(index), history.buckets(), history.counts(), history.lastSeenMillis());
+                seedCounter.increment();
+            }
+        }
+    }
+
+    private void backup(Runnable write) {
+        if (backupExecutor != null) {
+            backupExecutor.execute(write);
+        }
+    }
+
+    private void drainBackup() {
+        if (backupExecutor == null) {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + BACKUP_DRAIN_TIMEOUT_MILLIS;
+        try {
+            while (!backupExecutor.getQueue().isEmpty() || backupExecutor.getActiveCount() > 0) {
+                if (System.currentTimeMillis() >= deadline) {
+                    log.warn("velocity_backup_drain_timeout pending={}", backupExecutor.getQueue().size());
+                    return;
+                }
+                Thread.sleep(5);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ThreadPoolExecutor newBackupExecutor(int queueCapacity) {
+        return new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fraud-velocity-backup");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Redis is only the backup here, so a saturated queue sheds writes rather than stalling consumers.
+                (runnable, executor) -> backupDroppedCounter.increment()
+        );
+    }
+}
@@ -0,0 +1,470 @@
+package com.frauddetection.fraudservice.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * In-process velocity windows for the users owned by this consumer.
+ *
+ * <p>Users are keyed by a 64-bit hash of their id in per-segment open-addressing tables, and each user keeps a
+ * circular array of {@link VelocityBuckets} counters in one flat {@code int[]}. All storage is allocated up front,
+ * so memory is bounded by {@code maxUsers}; when a segment is full the least recently seen of a small sample of
+ * users is evicted. Counts are exact however many events a user sends.
+ *
+ * <p>Windows follow event time. Each user's latest event time is its watermark: events up to the allowed lateness
+ * behind it are counted in their own bucket, older ones are dropped and counted in {@link #lateDrops()}, and late
+ * events never move the watermark or last-seen time backwards.
+ *
+ * <p>Each user also remembers fingerprints of its last {@value #RECENT_TRANSACTIONS} counted transactions, so a
+ * redelivered transaction is measured but not counted again. A redelivery older than that is counted twice.
+ */
+public class LocalVelocityStore {
+
+    private static final long EMPTY = 0L;
+    private static final int EVICTION_SAMPLE = 8;
+    static final int RECENT_TRANSACTIONS = 16;
+    private static final int ENTRY_SNAPSHOT_BYTES = 3 * Long.BYTES + 2 * Integer.BYTES
+            + VelocityBuckets.WINDOW_BUCKETS * Integer.BYTES + RECENT_TRANSACTIONS * Long.BYTES;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long allowedLatenessMillis;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder lateDrops = new LongAdder();
+
+    public LocalVelocityStore(int maxUsers, int segmentCount) {
+        this(maxUsers, segmentCount, VelocityBuckets.WINDOW_MILLIS);
+    }
+
+    public LocalVelocityStore(int maxUsers, int segmentCount, long allowedLatenessMillis) {
+        this.allowedLatenessMillis = VelocityBuckets.clampLateness(allowedLatenessMillis);
+        int segmentsPow2 = Integer.highestOneBit(Math.max(1, segmentCount));
+        int usersPerSegment = Math.max(EVICTION_SAMPLE, (Math.max(1, maxUsers) + segmentsPow2 - 1) / segmentsPow2);
+
+        this.segmentMask = segmentsPow2 - 1;
+        this.segments = new Segment[segmentsPow2];
+        for (int index = 0; index < segmentsPow2; index++) {
+            segments[index] = new Segment(usersPerSegment);
+        }
+    }
+
+    public VelocityStats record(String userId, long eventTimeMillis) {
+        return record(userId, null, eventTimeMillis);
+    }
+
+    /**
+     * Counts and measures one event; a {@code transactionId} already counted for the user is only measured.
+     */
+    public VelocityStats record(String userId, String transactionId, long eventTimeMillis) {
+        long key = keyOf(userId);
+        long fingerprint = transactionId == null ? EMPTY : keyOf(transactionId);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            int entry = segment.find(key);
+            long previousMillis = Long.MIN_VALUE;
+            if (entry < 0) {
+                entry = segment.insert(key, partitionHash(userId));
+            } else {
+                previousMillis = segment.lastSeen[entry];
+            }
+            long bucket = VelocityBuckets.bucketOf(eventTimeMillis);
+            if (segment.hasCounted(entry, fingerprint)) {
+                return segment.measure(entry, bucket, eventTimeMillis, previousMillis);
+            }
+            if (previousMillis != Long.MIN_VALUE && eventTimeMillis < previousMillis - allowedLatenessMillis) {
+                lateDrops.increment();
+            } else {
+                segment.increment(entry, bucket, 1);
+                segment.lastSeen[entry] = Math.max(previousMillis, eventTimeMillis);
+                segment.markCounted(entry, fingerprint);
+            }
+            return segment.measure(entry, bucket, eventTimeMillis, previousMillis);
+        }
+    }
+
+    public boolean contains(String userId) {
+        long key = keyOf(userId);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.find(key) >= 0;
+        }
+    }
+
+    /**
+     * Loads history recovered from elsewhere for a user this store has not seen yet; known users are left untouched.
+     */
+    public void seed(String userId, long[] buckets, int[] counts, long lastSeenMillis) {
+        long key = keyOf(userId);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            if (segment.find(key) >= 0) {
+                return;
+            }
+            int entry = segment.insert(key, partitionHash(userId));
+            for (int index = 0; index < buckets.length; index++) {
+                segment.increment(entry, buckets[index], counts[index]);
+            }
+            segment.lastSeen[entry] = lastSeenMillis;
+        }
+    }
+
+    /**
+     * Drops every user whose id the default Kafka partitioner maps to one of the given partitions.
+     */
+    public int evictPartitions(Set<Integer> partitions, int partitionCount) {
+        if (partitions.isEmpty() || partitionCount <= 0) {
+            return 0;
+        }
+
+        int removed = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (int entry = segment.size - 1; entry >= 0; entry--) {
+                    if (partitions.contains(segment.partitionHashes[entry] % partitionCount)) {
+                        segment.remove(entry);
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long lateDrops() {
+        return lateDrops.sum();
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    public int segmentCapacity() {
+        return segments[0].capacity;
+    }
+
+    /**
+     * Bytes one segment occupies in a snapshot: a size header, then each column at a capacity-sized offset.
+     */
+    public int segmentSnapshotBytes() {
+        return 2 * Integer.BYTES + segmentCapacity() * ENTRY_SNAPSHOT_BYTES;
+    }
+
+    /**
+     * Copies the segments changed since the previous snapshot (all of them when {@code full}) into {@code target},
+     * each at its fixed offset, and returns how many were written.
+     */
+    public int writeSnapshot(ByteBuffer target, boolean full) {
+        int written = 0;
+        for (int index = 0; index < segments.length; index++) {
+            Segment segment = segments[index];
+            synchronized (segment) {
+                if (segment.dirty || full) {
+                    segment.writeTo(target.slice(index * segmentSnapshotBytes(), segmentSnapshotBytes()));
+                    segment.dirty = false;
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Replaces the contents of every segment with a snapshot written by {@link #writeSnapshot} with the same geometry.
+     */
+    public void readSnapshot(ByteBuffer source) {
+        for (int index = 0; index < segments.length; index++) {
+            Segment segment = segments[index];
+            synchronized (segment) {
+                segment.readFrom(source.slice(index * segmentSnapshotBytes(), segmentSnapshotBytes()));
+            }
+        }
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (key >>> 48) & segmentMask];
+    }
+
+    // Matches the partitioner's choice for records keyed by userId.
+    private static int partitionHash(String userId) {
+        return Utils.toPositive(Utils.murmur2(String.valueOf(userId).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static long keyOf(String userId) {
+        String value = String.valueOf(userId);
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < value.length(); index++) {
+            hash ^= value.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private final class Segment {
+
+        private final long[] slotKeys;
+        private final int[] slotEntries;
+        private final int slotMask;
+
+        private final long[] entryKeys;
+        private final int[] partitionHashes;
+        private final long[] lastSeen;
+        private final long[] latestBuckets;
+        private final int[] bucketCounts;
+        private final long[] recentTransactions;
+        private final int[] recentCursors;
+        private final int capacity;
+
+        private int size;
+        private int evictionCursor;
+        private boolean dirty;
+
+        private Segment(int capacity) {
+            int slots = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.slotKeys = new long[slots];
+            this.slotEntries = new int[slots];
+            this.slotMask = slots - 1;
+            this.capacity = capacity;
+            this.entryKeys = new long[capacity];
+            this.partitionHashes = new int[capacity];
+            this.lastSeen = new long[capacity];
+            this.latestBuckets = new long[capacity];
+            this.bucketCounts = new int[capacity * VelocityBuckets.WINDOW_BUCKETS];
+            this.recentTransactions = new long[capacity * RECENT_TRANSACTIONS];
+            this.recentCursors = new int[capacity];
+        }
+
+        private int find(long key) {
+            for (int slot = (int) key & slotMask; slotKeys[slot] != EMPTY; slot = (slot + 1) & slotMask) {
+                if (slotKeys[slot] == key) {
+                    return slotEntries[slot];
+                }
+            }
+            return -1;
+        }
+
+        private int insert(long key, int partitionHash) {
+            if (size == capacity) {
+                evictOne();
+            }
+
+            int entry = size++;
+            entryKeys[entry] = key;
+            partitionHashes[entry] = partitionHash;
+            lastSeen[entry] = Long.MIN_VALUE;
+            latestBuckets[entry] = Long.MIN_VALUE;
+            Arrays.fill(bucketCounts, base(entry), base(entry) + VelocityBuckets.WINDOW_BUCKETS, 0);
+            Arrays.fill(recentTransactions, recentBase(entry), recentBase(entry) + RECENT_TRANSACTIONS, EMPTY);
+            recentCursors[entry] = 0;
+            place(key, entry);
+            dirty = true;
+            return entry;
+        }
+
+        private void place(long key, int entry) {
+            int slot = (int) key & slotMask;
+            while (slotKeys[slot] != EMPTY) {
+                slot = (slot + 1) & slotMask;
+            }
+            slotKeys[slot] = key;
+            slotEntries[slot] = entry;
+        }
+
+        // Columns are laid out at capacity-sized offsets so each segment has a fixed region in the snapshot.
+        private void writeTo(ByteBuffer region) {
+            region.putInt(0, size);
+            region.putInt(Integer.BYTES, evictionCursor);
+            int offset = 2 * Integer.BYTES;
+            region.slice(offset, size * Long.BYTES).asLongBuffer().put(entryKeys, 0, size);
+            offset += capacity * Long.BYTES;
+            region.slice(offset, size * Long.BYTES).asLongBuffer().put(lastSeen, 0, size);
+            offset += capacity * Long.BYTES;
+            region.slice(offset, size * Long.BYTES).asLongBuffer().put(latestBuckets, 0, size);
+            offset += capacity * Long.BYTES;
+            region.slice(offset, size * Integer.BYTES).asIntBuffer().put(partitionHashes, 0, size);
+            offset += capacity * Integer.BYTES;
+            region.slice(offset, size * Integer.BYTES).asIntBuffer().put(recentCursors, 0, size);
+            offset += capacity * Integer.BYTES;
+            int countsLength = size * VelocityBuckets.WINDOW_BUCKETS;
+            region.slice(offset, countsLength * Integer.BYTES).asIntBuffer().put(bucketCounts, 0, countsLength);
+            offset += capacity * VelocityBuckets.WINDOW_BUCKETS * Integer.BYTES;
+            int recentLength = size * RECENT_TRANSACTIONS;
+            region.slice(offset, recentLength * Long.BYTES).asLongBuffer().put(recentTransactions, 0, recentLength);
+        }
+
+        private void readFrom(ByteBuffer region) {
+            size = Math.max(0, Math.min(capacity, region.getInt(0)));
+            evictionCursor = Math.max(0, region.getInt(Integer.BYTES));
+            int offset = 2 * Integer.BYTES;
+            region.slice(offset, size * Long.BYTES).asLongBuffer().get(entryKeys, 0, size);
+            offset += capacity * Long.BYTES;
+            region.slice(offset, size * Long.BYTES).asLongBuffer().get(lastSeen, 0, size);
+            offset += capacity * Long.BYTES;
+            region.slice(offset, size * Long.BYTES).asLongBuffer().get(latestBuckets, 0, size);
+            offset += capacity * Long.BYTES;
+            region.slice(offset, size * Integer.BYTES).asIntBuffer().get(partitionHashes, 0, size);
+            offset += capacity * Integer.BYTES;
+            region.slice(offset, size * Integer.BYTES).asIntBuffer().get(recentCursors, 0, size);
+            offset += capacity * Integer.BYTES;
+            int countsLength = size * VelocityBuckets.WINDOW_BUCKETS;
+            region.slice(offset, countsLength * Integer.BYTES).asIntBuffer().get(bucketCounts, 0, countsLength);
+            offset += capacity * VelocityBuckets.WINDOW_BUCKETS * Integer.BYTES;
+            int recentLength = size * RECENT_TRANSACTIONS;
+            region.slice(offset, recentLength * Long.BYTES).asLongBuffer().get(recentTransactions, 0, recentLength);
+
+            Arrays.fill(slotKeys, EMPTY);
+            for (int entry = 0; entry < size; entry++) {
+                place(entryKeys[entry], entry);
+            }
+            dirty = false;
+        }
+
+        // Slots hold bucket % WINDOW_BUCKETS; moving forward clears the slots of buckets that fell out of the window.
+        private void increment(int entry, long bucket, int count) {
+            dirty = true;
+            long latest = latestBuckets[entry];
+            if (latest == Long.MIN_VALUE || bucket - latest >= VelocityBuckets.WINDOW_BUCKETS) {
+                Arrays.fill(bucketCounts, base(entry), base(entry) + VelocityBuckets.WINDOW_BUCKETS, 0);
+                latestBuckets[entry] = bucket;
+            } else if (bucket > latest) {
+                for (long cleared = latest + 1; cleared <= bucket; cleared++) {
+                    bucketCounts[slot(entry, cleared)] = 0;
+                }
+                latestBuckets[entry] = bucket;
+            } else if (bucket <= latest - VelocityBuckets.WINDOW_BUCKETS) {
+                return;
+            }
+            bucketCounts[slot(entry, bucket)] += count;
+        }
+
+        private boolean hasCounted(int entry, long fingerprint) {
+            if (fingerprint == EMPTY) {
+                return false;
+            }
+            for (int index = recentBase(entry); index < recentBase(entry) + RECENT_TRANSACTIONS; index++) {
+                if (recentTransactions[index] == fingerprint) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Overwrites the oldest remembered fingerprint.
+        private void markCounted(int entry, long fingerprint) {
+            if (fingerprint == EMPTY) {
+                return;
+            }
+            recentTransactions[recentBase(entry) + recentCursors[entry]] = fingerprint;
+            recentCursors[entry] = (recentCursors[entry] + 1) % RECENT_TRANSACTIONS;
+        }
+
+        private VelocityStats measure(int entry, long bucket, long nowMillis, long previousMillis) {
+            // Only buckets still held in the slots and not newer than this event count towards it.
+            long latest = latestBuckets[entry];
+            long oldest = Math.max(bucket, latest) - VelocityBuckets.WINDOW_BUCKETS + 1;
+            int perMinute = 0;
+            int perFiveMinutes = 0;
+            for (long current = Math.min(bucket, latest); current >= oldest; current--) {
+                int count = bucketCounts[slot(entry, current)];
+                perFiveMinutes += count;
+                if (current > bucket - VelocityBuckets.MINUTE_BUCKETS) {
+                    perMinute += count;
+                }
+            }
+
+            long secondsSinceLast = previousMillis == Long.MIN_VALUE
+                    ? Long.MAX_VALUE
+                    : Math.max(0L, (nowMillis - previousMillis) / 1000);
+            return new VelocityStats(perMinute, perFiveMinutes, secondsSinceLast);
+        }
+
+        private int base(int entry) {
+            return entry * VelocityBuckets.WINDOW_BUCKETS;
+        }
+
+        private int recentBase(int entry) {
+            return entry * RECENT_TRANSACTIONS;
+        }
+
+        private int slot(int entry, long bucket) {
+            return base(entry) + (int) Math.floorMod(bucket, (long) VelocityBuckets.WINDOW_BUCKETS);
+        }
+
+        // Approximate LRU: the stalest of a few consecutive entries goes, which keeps eviction O(1).
+        private void evictOne() {
+            int victim = evictionCursor % size;
+            for (int offset = 1; offset < EVICTION_SAMPLE; offset++) {
+                int candidate = (evictionCursor + offset) % size;
+                if (lastSeen[candidate] < lastSeen[victim]) {
+                    victim = candidate;
+                }
+            }
+            evictionCursor = (evictionCursor + EVICTION_SAMPLE) % capacity;
+            remove(victim);
+            evictions.increment();
+        }
+
+        private void remove(int entry) {
+            dirty = true;
+            removeSlot(slotOf(entryKeys[entry]));
+
+            // Keep entries dense by moving the last one into the hole.
+            int last = --size;
+            if (entry != last) {
+                entryKeys[entry] = entryKeys[last];
+                partitionHashes[entry] = partitionHashes[last];
+                lastSeen[entry] = lastSeen[last];
+                latestBuckets[entry] = latestBuckets[last];
+                System.arraycopy(bucketCounts, base(last), bucketCounts, base(entry), VelocityBuckets.WINDOW_BUCKETS);
+                System.arraycopy(
+                        recentTransactions, recentBase(last), recentTransactions, recentBase(entry), RECENT_TRANSACTIONS);
+                recentCursors[entry] = recentCursors[last];
+                slotEntries[slotOf(entryKeys[entry])] = entry;
+            }
+        }
+
+        private int slotOf(long key) {
+            int slot = (int) key & slotMask;
+            while (slotKeys[slot] != key) {
+                slot = (slot + 1) & slotMask;
+            }
+            return slot;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        private void removeSlot(int slot) {
+            int hole = slot;
+            for (int next = (hole + 1) & slotMask; slotKeys[next] != EMPTY; next = (next + 1) & slotMask) {
+                int home = (int) slotKeys[next] & slotMask;
+                if (((next - home) & slotMask) >= ((next - hole) & slotMask)) {
+                    slotKeys[hole] = slotKeys[next];
+                    slotEntries[hole] = slotEntries[next];
+                    hole = next;
+                }
+            }
+            slotKeys[hole] = EMPTY;
+        }
+    }
+}
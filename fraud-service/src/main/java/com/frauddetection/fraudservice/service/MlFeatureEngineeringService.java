@@ -27,6 +27,28 @@ public class MlFeatureEngineeringService {
                 ? new FeatureContext(0, 0, Long.MAX_VALUE)
                 : featureContext;
 
+        return buildRequest(
+                transaction,
+                safeFeatureContext,
+                foreignLocationRule.evaluate(transaction, safeFeatureContext),
+                suspiciousMerchantRule.evaluate(transaction, safeFeatureContext)
+        );
+    }
+
+    /**
+     * Builds the request from location and merchant scores the rule engine already computed for
+     * this event, instead of evaluating those rules a second time.
+     */
+    public MlPredictionRequest buildRequest(
+            TransactionCreatedEvent transaction,
+            FeatureContext featureContext,
+            double locationScore,
+            double merchantScore
+    ) {
+        FeatureContext safeFeatureContext = featureContext == null
+                ? new FeatureContext(0, 0, Long.MAX_VALUE)
+                : featureContext;
+
         int transactionFrequency = Math.max(
                 0,
                 Math.max(
@@ -36,10 +58,16 @@ public class MlFeatureEngineeringService {
         );
 
         BigDecimal amount = sanitizeAmount(transaction.amount());
-        BigDecimal locationRisk = toScore(foreignLocationRule.evaluate(transaction, safeFeatureContext));
-        BigDecimal merchantRisk = toScore(suspiciousMerchantRule.evaluate(transaction, safeFeatureContext));
+        BigDecimal locationRisk = toScore(locationScore);
+        BigDecimal merchantRisk = toScore(merchantScore);
 
-        return new MlPredictionRequest(amount, transactionFrequency, locationRisk, merchantRisk);
+        return new MlPredictionRequest(
+                amount,
+                transactionFrequency,
+                locationRisk,
+                merchantRisk,
+                safeFeatureContext.features().values()
+        );
     }
 
     private BigDecimal sanitizeAmount(BigDecimal amount) {
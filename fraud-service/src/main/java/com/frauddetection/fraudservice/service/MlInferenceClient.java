@@ -30,8 +30,9 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class MlInferenceClient {
 
+    public static final String INFERENCE_LATENCY_METRIC = "fraud.ml.inference.latency";
+
     private static final Logger log = LoggerFactory.getLogger(MlInferenceClient.class);
-    private static final String INFERENCE_LATENCY_METRIC = "fraud.ml.inference.latency";
     private static final String RESILIENCE_NAME = "mlInference";
 
     private final MeterRegistry meterRegistry;
@@ -101,7 +102,19 @@ public class MlInferenceClient {
         this.retry = retryRegistry.retry(RESILIENCE_NAME);
     }
 
+    public boolean isCircuitOpen() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
     public CompletableFuture<BigDecimal> predictScore(MlPredictionRequest request, BigDecimal fallbackScore) {
+        return predict(request, fallbackScore).thenApply(MlPrediction::score);
+    }
+
+    /**
+     * Like {@link #predictScore}, but tells a score the model returned apart from the fallback score.
+     */
+    public CompletableFuture<MlPrediction> predict(MlPredictionRequest request, BigDecimal fallbackScore) {
         BigDecimal safeFallbackScore = clamp(fallbackScore).setScale(4, RoundingMode.HALF_UP);
         long startNanos = System.nanoTime();
 
@@ -111,7 +124,7 @@ public class MlInferenceClient {
         );
 
         return CompletableFuture.supplyAsync(resilientCall::get)
-                .thenApply(score -> clamp(score).setScale(4, RoundingMode.HALF_UP))
+                .thenApply(score -> new MlPrediction(clamp(score).setScale(4, RoundingMode.HALF_UP), false))
                 .exceptionally(exception -> {
                     Throwable cause = unwrap(exception);
                     String reason = cause == null ? "unknown" : cause.getMessage();
@@ -136,20 +149,21 @@ public class MlInferenceClient {
                             predictUrl,
                             circuitBreaker.getState()
                     );
-                    return safeFallbackScore;
+                    return new MlPrediction(safeFallbackScore, true);
                 })
-                .thenApply(score -> {
+                .thenApply(prediction -> {
                     long latencyNanos = System.nanoTime() - startNanos;
                     meterRegistry.timer(INFERENCE_LATENCY_METRIC).record(latencyNanos, TimeUnit.NANOSECONDS);
 
                     log.info(
-                            "ml_inference_completed uri={} latencyMs={} mlScore={}",
+                            "ml_inference_completed uri={} latencyMs={} mlScore={} fallback={}",
                             predictUrl,
                             BigDecimal.valueOf(latencyNanos / 1_000_000.0).setScale(3, RoundingMode.HALF_UP),
-                            score
+                            prediction.score(),
+                            prediction.fallback()
                     );
 
-                    return score;
+                    return prediction;
                 });
     }
 
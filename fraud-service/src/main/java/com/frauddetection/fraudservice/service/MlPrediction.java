@@ -0,0 +1,13 @@
+package com.frauddetection.fraudservice.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Score returned for an ML inference call. {@code fallback} is set when the model did not answer and
+ * {@code score} is the fallback score the caller supplied.
+ */
+public record MlPrediction(
+        BigDecimal score,
+        boolean fallback
+) {
+}
@@ -1,14 +1,29 @@
 package com.frauddetection.fraudservice.service;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 import java.math.BigDecimal;
+import java.util.Map;
 
+/**
+ * Request body for the ML service; {@code features} carries the configured windowed aggregates by feature name and
+ * is omitted when none are configured.
+ */
 @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public record MlPredictionRequest(
         BigDecimal amount,
         int transactionFrequency,
         BigDecimal locationRisk,
-        BigDecimal merchantRisk
+        BigDecimal merchantRisk,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) Map<String, Double> features
 ) {
+
+    public MlPredictionRequest {
+        features = features == null ? Map.of() : features;
+    }
+
+    public MlPredictionRequest(BigDecimal amount, int transactionFrequency, BigDecimal locationRisk, BigDecimal merchantRisk) {
+        this(amount, transactionFrequency, locationRisk, merchantRisk, Map.of());
+    }
 }
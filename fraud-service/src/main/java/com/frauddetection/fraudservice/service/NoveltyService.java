@@ -0,0 +1,253 @@
+package com.frauddetection.fraudservice.service;
+
+import com.frauddetection.fraudservice.engine.FeatureVector;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remembers which devices, merchants and locations each user has transacted with, for first-seen features.
+ *
+ * <p>Each user has one small Bloom filter in Redis ({@code filter-bits} bits, 128 bytes by default) holding all
+ * three attributes, in two generations of half the retention each: lookups check both, inserts go to the current
+ * one, and the previous one expires. An attribute is therefore remembered for between one and two generations
+ * after its last use. Checking and recording an event is one script call, and a batch is one pipeline.
+ */
+@Service
+public class NoveltyService {
+
+    public static final String KNOWN_USER = "novelty.known_user";
+    public static final String NEW_DEVICE = "novelty.device.new";
+    public static final String NEW_MERCHANT = "novelty.merchant.new";
+    public static final String NEW_LOCATION = "novelty.location.new";
+    public static final Set<String> FEATURES = Set.of(KNOWN_USER, NEW_DEVICE, NEW_MERCHANT, NEW_LOCATION);
+
+    private static final Logger log = LoggerFactory.getLogger(NoveltyService.class);
+
+    private static final RedisScript<List> NOVELTY_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/novelty-check.lua"), List.class);
+    private static final int KEY_COUNT = 2;
+
+    private static final List<Attribute> ATTRIBUTES = List.of(
+            new Attribute("d:", AggregateDimension.DEVICE_ID, NEW_DEVICE),
+            new Attribute("m:", AggregateDimension.MERCHANT_ID, NEW_MERCHANT),
+            new Attribute("l:", AggregateDimension.LOCATION, NEW_LOCATION)
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int filterBits;
+    private final int hashCount;
+    private final long generationMillis;
+    private final Clock clock;
+
+    @Autowired
+    public NoveltyService(
+            StringRedisTemplate redisTemplate,
+            @Value("${app.features.novelty.enabled:false}") boolean enabled,
+            @Value("${app.features.novelty.filter-bits:1024}") int filterBits,
+            @Value("${app.features.novelty.hash-count:7}") int hashCount,
+            @Value("${app.features.novelty.retention-days:90}") int retentionDays
+    ) {
+        this(redisTemplate, enabled, filterBits, hashCount, Duration.ofDays(retentionDays), Clock.systemUTC());
+    }
+
+    NoveltyService(
+            StringRedisTemplate redisTemplate,
+            boolean enabled,
+            int filterBits,
+            int hashCount,
+            Duration retention,
+            Clock clock
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.filterBits = Math.max(64, filterBits);
+        this.hashCount = Math.max(1, hashCount);
+        this.generationMillis = Math.max(1L, retention.toMillis() / 2);
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean provides(String featureName) {
+        return FEATURES.contains(featureName);
+    }
+
+    public FeatureVector check(TransactionCreatedEvent transaction) {
+        return checkAll(List.of(transaction)).get(0);
+    }
+
+    /**
+     * Adds the event's attributes to the user's filter without checking them, for an event whose first-seen features
+     * nobody reads.
+     */
+    public void record(TransactionCreatedEvent transaction) {
+        if (!enabled) {
+            return;
+        }
+
+        NoveltyCall call = plan(0, transaction, currentGeneration(), true);
+        if (call == null) {
+            return;
+        }
+        try {
+            pipelineWithReload(List.of(call));
+        } catch (DataAccessException exception) {
+            log.warn("novelty_features_unavailable batchSize=1 reason={}", exception.getMessage());
+        }
+    }
+
+    public List<FeatureVector> checkAll(List<TransactionCreatedEvent> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return Collections.nCopies(transactions.size(), FeatureVector.EMPTY);
+        }
+
+        long generation = currentGeneration();
+        List<NoveltyCall> calls = new ArrayList<>(transactions.size());
+        for (int index = 0; index < transactions.size(); index++) {
+            NoveltyCall call = plan(index, transactions.get(index), generation, false);
+            if (call != null) {
+                calls.add(call);
+            }
+        }
+        if (calls.isEmpty()) {
+            return Collections.nCopies(transactions.size(), FeatureVector.EMPTY);
+        }
+
+        try {
+            List<Object> results = pipelineWithReload(calls);
+
+            List<FeatureVector> features = new ArrayList<>(Collections.nCopies(transactions.size(), FeatureVector.EMPTY));
+            for (int index = 0; index < calls.size(); index++) {
+                NoveltyCall call = calls.get(index);
+                features.set(call.eventIndex(), call.toFeatures((List<?>) results.get(index)));
+            }
+            return features;
+        } catch (DataAccessException exception) {
+            log.warn("novelty_features_unavailable batchSize={} reason={}", transactions.size(), exception.getMessage());
+            return Collections.nCopies(transactions.size(), FeatureVector.EMPTY);
+        }
+    }
+
+    private long currentGeneration() {
+        return Math.floorDiv(clock.millis(), generationMillis);
+    }
+
+    private NoveltyCall plan(int eventIndex, TransactionCreatedEvent transaction, long generation, boolean recordOnly) {
+        if (transaction.userId() == null || transaction.userId().isBlank()) {
+            return null;
+        }
+
+        List<Attribute> present = new ArrayList<>(ATTRIBUTES.size());
+        List<String> positions = new ArrayList<>(ATTRIBUTES.size() * hashCount);
+        for (Attribute attribute : ATTRIBUTES) {
+            String value = attribute.dimension().valueOf(transaction);
+            if (value != null) {
+                present.add(attribute);
+                addPositions(attribute.prefix() + value, positions);
+            }
+        }
+        if (present.isEmpty()) {
+            return null;
+        }
+
+        // The user id is the hash tag, so both generations map to one cluster slot.
+        String keyPrefix = "novelty:{" + transaction.userId() + "}:";
+        String[] keysAndArgs = new String[KEY_COUNT + 3 + positions.size()];
+        keysAndArgs[0] = keyPrefix + generation;
+        keysAndArgs[1] = keyPrefix + (generation - 1);
+        keysAndArgs[2] = Long.toString(Duration.ofMillis(generationMillis * 2).toSeconds());
+        keysAndArgs[3] = Integer.toString(hashCount);
+        keysAndArgs[4] = recordOnly ? "1" : "0";
+        for (int index = 0; index < positions.size(); index++) {
+            keysAndArgs[KEY_COUNT + 3 + index] = positions.get(index);
+        }
+        return new NoveltyCall(eventIndex, List.copyOf(present), keysAndArgs);
+    }
+
+    private void addPositions(String value, List<String> positions) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int index = 1; index <= hashCount; index++) {
+            positions.add(Integer.toString(Math.floorMod(h1 + index * h2, filterBits)));
+        }
+    }
+
+    private List<Object> pipelineWithReload(List<NoveltyCall> calls) {
+        try {
+            return pipeline(calls);
+        } catch (DataAccessException exception) {
+            if (!RedisScriptSupport.isMissingScript(exception)) {
+                throw exception;
+            }
+            RedisScriptSupport.load(redisTemplate, NOVELTY_SCRIPT);
+            return pipeline(calls);
+        }
+    }
+
+    private List<Object> pipeline(List<NoveltyCall> calls) {
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (NoveltyCall call : calls) {
+                stringConnection.evalSha(NOVELTY_SCRIPT.getSha1(), ReturnType.MULTI, KEY_COUNT, call.keysAndArgs());
+            }
+            return null;
+        });
+    }
+
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < value.length(); index++) {
+            hash ^= value.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Attribute(String prefix, AggregateDimension dimension, String featureName) {
+    }
+
+    private record NoveltyCall(int eventIndex, List<Attribute> attributes, String[] keysAndArgs) {
+
+        FeatureVector toFeatures(List<?> result) {
+            if (result == null || result.size() < attributes.size() + 1) {
+                return FeatureVector.EMPTY;
+            }
+            FeatureVector.Builder builder = FeatureVector.builder().put(KNOWN_USER, flag(result.get(0)));
+            for (int index = 0; index < attributes.size(); index++) {
+                // The script reports "seen before"; features report "new".
+                builder.put(attributes.get(index).featureName(), 1.0 - flag(result.get(index + 1)));
+            }
+            return builder.build();
+        }
+
+        private static double flag(Object value) {
+            return value instanceof Long number && number == 1L ? 1.0 : 0.0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.frauddetection.fraudservice.service;
+
+public enum PipelineStage {
+    DEDUP("dedup"),
+    VELOCITY("velocity"),
+    FEATURES("features"),
+    RULES("rules"),
+    ML_INFERENCE("ml_inference"),
+    PERSIST("persist"),
+    KAFKA_PUBLISH("kafka_publish"),
+    SSE_FANOUT("sse_fanout");
+
+    private final String metricName;
+
+    PipelineStage(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+}
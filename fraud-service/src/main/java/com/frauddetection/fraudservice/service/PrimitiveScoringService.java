@@ -0,0 +1,119 @@
+package com.frauddetection.fraudservice.service;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.RuleEngine;
+import com.frauddetection.fraudservice.engine.RuleEvaluationResult;
+import com.frauddetection.fraudservice.engine.RuleScores;
+import com.frauddetection.fraudservice.engine.RuleSet;
+import com.frauddetection.fraudservice.engine.ScoreUnits;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.model.DecisionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fixed-point counterpart of {@link RuleEngine#evaluate}, {@link RiskAggregationService} and
+ * {@link DecisionEngine}. Scores stay in {@code long} ten-thousandths and rule scores land in
+ * per-thread {@link RuleScores} indexed by rule ordinal; {@code BigDecimal} is only created by callers at the
+ * persistence and ML request boundaries. Each thread remembers the {@link RuleSet} it last scored
+ * with, so a rule set installed in between does not change the ordinals or version it reports.
+ */
+@Service
+public class PrimitiveScoringService {
+
+    // Mirrors RiskAggregationService (0.40 / 0.60) and DecisionEngine (0.4000 / 0.7000).
+    private static final long RULE_WEIGHT_PERCENT = 40L;
+    private static final long ML_WEIGHT_PERCENT = 60L;
+    private static final long REVIEW_THRESHOLD_UNITS = 4_000L;
+    private static final long BLOCK_THRESHOLD_UNITS = 7_000L;
+
+    private final RuleEngine ruleEngine;
+    private final MlFeatureEngineeringService mlFeatureEngineeringService;
+    private final boolean enabled;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public PrimitiveScoringService(
+            RuleEngine ruleEngine,
+            MlFeatureEngineeringService mlFeatureEngineeringService,
+            @Value("${app.processing.scoring-mode:decimal}") String scoringMode
+    ) {
+        this.ruleEngine = ruleEngine;
+        this.mlFeatureEngineeringService = mlFeatureEngineeringService;
+        this.enabled = "primitive".equalsIgnoreCase(scoringMode);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Evaluates the rules into this thread's scores and returns the rounded rule score. The scores
+     * stay valid until the next call on the same thread.
+     */
+    public long scoreRules(TransactionCreatedEvent transaction, FeatureContext featureContext) {
+        Scratch current = scratch.get();
+        RuleSet ruleSet = current.use(ruleEngine.ruleSet());
+        return ScoreUnits.toUnits(ruleSet.evaluateInto(transaction, featureContext, current.ruleScores));
+    }
+
+    public MlPredictionRequest buildMlRequest(TransactionCreatedEvent transaction, FeatureContext featureContext) {
+        Scratch current = scratch.get();
+        if (current.ruleSet == null || current.locationRuleOrdinal < 0 || current.merchantRuleOrdinal < 0) {
+            return mlFeatureEngineeringService.buildRequest(transaction, featureContext);
+        }
+        return mlFeatureEngineeringService.buildRequest(
+                transaction,
+                featureContext,
+                current.ruleScores.get(current.locationRuleOrdinal),
+                current.ruleScores.get(current.merchantRuleOrdinal)
+        );
+    }
+
+    public RuleEvaluationResult describeRules(long ruleScoreUnits) {
+        Scratch current = scratch.get();
+        RuleSet ruleSet = current.ruleSet == null ? ruleEngine.ruleSet() : current.ruleSet;
+        return ruleSet.describe(ScoreUnits.toDouble(ruleScoreUnits), current.ruleScores);
+    }
+
+    /**
+     * Version of the rule set behind this thread's last {@link #scoreRules} call.
+     */
+    public String ruleSetVersion() {
+        RuleSet ruleSet = scratch.get().ruleSet;
+        return ruleSet == null ? ruleEngine.ruleSet().version() : ruleSet.version();
+    }
+
+    public long aggregate(long ruleScoreUnits, long mlScoreUnits) {
+        // Both terms are exact at scale 6; adding 50 before dividing by 100 is HALF_UP back to scale 4.
+        long weighted = ScoreUnits.clamp(ruleScoreUnits) * RULE_WEIGHT_PERCENT
+                + ScoreUnits.clamp(mlScoreUnits) * ML_WEIGHT_PERCENT;
+        return (weighted + 50L) / 100L;
+    }
+
+    public DecisionType decide(long riskScoreUnits) {
+        if (riskScoreUnits >= BLOCK_THRESHOLD_UNITS) {
+            return DecisionType.BLOCKED;
+        }
+        if (riskScoreUnits >= REVIEW_THRESHOLD_UNITS) {
+            return DecisionType.REVIEW;
+        }
+        return DecisionType.APPROVED;
+    }
+
+    private static final class Scratch {
+
+        private RuleSet ruleSet;
+        private final RuleScores ruleScores = new RuleScores();
+        private int locationRuleOrdinal = -1;
+        private int merchantRuleOrdinal = -1;
+
+        RuleSet use(RuleSet current) {
+            if (current != ruleSet) {
+                ruleSet = current;
+                locationRuleOrdinal = current.ordinalOf("foreign_location");
+                merchantRuleOrdinal = current.ordinalOf("suspicious_merchant");
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.frauddetection.fraudservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.LongBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bloom filter of recently decided transaction ids that lets dedup skip the database lookup for ids it has never seen.
+ * A miss is only trustworthy while the filter holds every recent decision, which it does not after a restart without
+ * a feature state snapshot or once a generation has rotated out. A redelivery missed that way runs the windowed
+ * aggregate and first-seen updates again before its insert conflicts, so the filter is off by default.
+ */
+@Component
+public class RecentTransactionFilter {
+
+    private final boolean enabled;
+    private final int bitCount;
+    private final int hashCount;
+    private final long rotationMillis;
+    private final Clock clock;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    private volatile Generations generations;
+
+    @Autowired
+    public RecentTransactionFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.dedup.bloom.enabled:false}") boolean enabled,
+            @Value("${app.dedup.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${app.dedup.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${app.dedup.bloom.rotation-minutes:60}") long rotationMinutes
+    ) {
+        this(meterRegistry, enabled, expectedInsertions, falsePositiveRate, Duration.ofMinutes(rotationMinutes), Clock.systemUTC());
+    }
+
+    RecentTransactionFilter(
+            MeterRegistry meterRegistry,
+            boolean enabled,
+            long expectedInsertions,
+            double falsePositiveRate,
+            Duration rotationInterval,
+            Clock clock
+    ) {
+        long safeInsertions = Math.max(1L, expectedInsertions);
+        double safeRate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long optimalBits = (long) Math.ceil(-safeInsertions * Math.log(safeRate) / (Math.log(2) * Math.log(2)));
+
+        this.enabled = enabled;
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64L, optimalBits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / safeInsertions * Math.log(2)));
+        this.rotationMillis = Math.max(1L, rotationInterval.toMillis());
+        this.clock = clock;
+        this.hitCounter = meterRegistry.counter("fraud.dedup.bloom.lookups.total", "result", "hit");
+        this.missCounter = meterRegistry.counter("fraud.dedup.bloom.lookups.total", "result", "miss");
+        this.generations = new Generations(newBits(), newBits(), clock.millis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean mightContain(String transactionId) {
+        Generations current = currentGenerations();
+        long hash = hash64(transactionId);
+        boolean hit = contains(current.active(), hash) || contains(current.previous(), hash);
+        (hit ? hitCounter : missCounter).increment();
+        return hit;
+    }
+
+    public void put(String transactionId) {
+        long hash = hash64(transactionId);
+        AtomicLongArray bits = currentGenerations().active();
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int index = 1; index <= hashCount; index++) {
+            int bit = Math.floorMod(h1 + index * h2, bitCount);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public int wordCount() {
+        return (bitCount + 63) >>> 6;
+    }
+
+    /**
+     * Copies both generations into {@code target} (active words, then previous words) and returns the rotation time.
+     */
+    public long writeSnapshot(LongBuffer target) {
+        Generations current = generations;
+        copyWords(current.active(), target);
+        copyWords(current.previous(), target);
+        return current.rotatedAtMillis();
+    }
+
+    public void readSnapshot(LongBuffer source, long rotatedAtMillis) {
+        AtomicLongArray active = newBits();
+        AtomicLongArray previous = newBits();
+        for (int word = 0; word < active.length(); word++) {
+            active.set(word, source.get());
+        }
+        for (int word = 0; word < previous.length(); word++) {
+            previous.set(word, source.get());
+        }
+        generations = new Generations(active, previous, rotatedAtMillis);
+    }
+
+    private static void copyWords(AtomicLongArray bits, LongBuffer target) {
+        for (int word = 0; word < bits.length(); word++) {
+            target.put(bits.get(word));
+        }
+    }
+
+    private boolean contains(AtomicLongArray bits, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int index = 1; index <= hashCount; index++) {
+            int bit = Math.floorMod(h1 + index * h2, bitCount);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Generations currentGenerations() {
+        Generations current = generations;
+        long now = clock.millis();
+        if (now - current.rotatedAtMillis() < rotationMillis) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = generations;
+            if (now - current.rotatedAtMillis() >= rotationMillis) {
+                // Ids stay visible for between one and two rotation intervals.
+                current = new Generations(newBits(), current.active(), now);
+                generations = current;
+            }
+            return current;
+        }
+    }
+
+    private AtomicLongArray newBits() {
+        return new AtomicLongArray((bitCount + 63) >>> 6);
+    }
+
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < value.length(); index++) {
+            hash ^= value.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Generations(AtomicLongArray active, AtomicLongArray previous, long rotatedAtMillis) {
+    }
+}
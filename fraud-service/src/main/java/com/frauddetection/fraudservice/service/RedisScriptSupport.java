@@ -0,0 +1,39 @@
+package com.frauddetection.fraudservice.service;
+
+import java.nio.charset.StandardCharsets;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Helpers for scripts sent as pipelined EVALSHA, which cannot fall back to EVAL per command.
+ */
+final class RedisScriptSupport {
+
+    private RedisScriptSupport() {
+    }
+
+    static boolean isMissingScript(DataAccessException exception) {
+        Throwable cause = exception;
+        while (cause != null) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    static void load(StringRedisTemplate redisTemplate, RedisScript<?> script) {
+        redisTemplate.execute((RedisCallback<String>) connection ->
+                connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String asString(Object value) {
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.frauddetection.fraudservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StageLatencyRecorder {
+
+    static final String STAGE_LATENCY_METRIC = "fraud.processing.stage.latency";
+
+    private final Timer[] stageTimers;
+    private final AtomicReferenceArray<StageTrace> recentTraces;
+    private final AtomicLong sequence = new AtomicLong();
+    private final int mask;
+
+    public StageLatencyRecorder(
+            MeterRegistry meterRegistry,
+            @Value("${app.tracing.recent-events:1024}") int recentEvents
+    ) {
+        PipelineStage[] stages = PipelineStage.values();
+        this.stageTimers = new Timer[stages.length];
+        for (PipelineStage stage : stages) {
+            stageTimers[stage.ordinal()] = Timer.builder(STAGE_LATENCY_METRIC)
+                    .description("Time spent in one fraud pipeline stage per event, or per batch for batch-wide stages")
+                    .tag("stage", stage.metricName())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(50_000))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(meterRegistry);
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(2, recentEvents) - 1) << 1;
+        this.recentTraces = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public StageTrace start(String transactionId) {
+        return new StageTrace(transactionId, stageTimers);
+    }
+
+    /**
+     * Records a stage that ran once for a whole batch as a single timer sample and adds its full duration to the
+     * breakdown of every event in {@code traces}. Returns now, like {@link StageTrace#stop}.
+     */
+    public long stopBatch(Collection<StageTrace> traces, PipelineStage stage, long stageStartNanos) {
+        long now = System.nanoTime();
+        long elapsedNanos = now - stageStartNanos;
+        stageTimers[stage.ordinal()].record(elapsedNanos, TimeUnit.NANOSECONDS);
+        for (StageTrace trace : traces) {
+            trace.attribute(stage, elapsedNanos);
+        }
+        return now;
+    }
+
+    public void complete(StageTrace trace) {
+        trace.complete();
+        recentTraces.set((int) (sequence.getAndIncrement() & mask), trace);
+    }
+
+    /**
+     * Stage breakdown of the slowest events still held in the ring, slowest first.
+     */
+    public List<StageTraceSnapshot> slowest(int limit) {
+        List<StageTrace> traces = new ArrayList<>(recentTraces.length());
+        for (int index = 0; index < recentTraces.length(); index++) {
+            StageTrace trace = recentTraces.get(index);
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+
+        return traces.stream()
+                .sorted(Comparator.comparingLong(StageTrace::totalNanos).reversed())
+                .limit(Math.max(0, limit))
+                .map(StageLatencyRecorder::toSnapshot)
+                .toList();
+    }
+
+    private static StageTraceSnapshot toSnapshot(StageTrace trace) {
+        Map<String, Double> stageMillis = new LinkedHashMap<>();
+        for (PipelineStage stage : PipelineStage.values()) {
+            long nanos = trace.stageNanos(stage);
+            if (nanos > 0) {
+                stageMillis.put(stage.metricName(), toMillis(nanos));
+            }
+        }
+        return new StageTraceSnapshot(trace.transactionId(), trace.startedAt(), toMillis(trace.totalNanos()), stageMillis);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public record StageTraceSnapshot(
+            String transactionId,
+            Instant startedAt,
+            double totalMillis,
+            Map<String, Double> stageMillis
+    ) {
+    }
+}
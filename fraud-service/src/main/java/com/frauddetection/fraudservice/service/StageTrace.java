@@ -0,0 +1,69 @@
+package com.frauddetection.fraudservice.service;
+
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stage timings for one event. Each stage slot is written by a single thread, and the writes are
+ * published to the consumer thread by the future joins that order the stages.
+ */
+public final class StageTrace {
+
+    private final String transactionId;
+    private final Instant startedAt;
+    private final long startedNanos;
+    private final long[] stageNanos = new long[PipelineStage.values().length];
+    private final Timer[] stageTimers;
+
+    private volatile long totalNanos = -1L;
+
+    StageTrace(String transactionId, Timer[] stageTimers) {
+        this.transactionId = transactionId;
+        this.startedAt = Instant.now();
+        this.startedNanos = System.nanoTime();
+        this.stageTimers = stageTimers;
+    }
+
+    /**
+     * Records the time since {@code stageStartNanos} against the stage and returns now, so
+     * consecutive stages can be chained from a single clock read.
+     */
+    public long stop(PipelineStage stage, long stageStartNanos) {
+        long now = System.nanoTime();
+        record(stage, now - stageStartNanos);
+        return now;
+    }
+
+    public void record(PipelineStage stage, long elapsedNanos) {
+        attribute(stage, elapsedNanos);
+        stageTimers[stage.ordinal()].record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Adds to this event's breakdown without sampling the stage timer, for a stage that ran once for a whole batch.
+     */
+    void attribute(PipelineStage stage, long elapsedNanos) {
+        stageNanos[stage.ordinal()] += elapsedNanos;
+    }
+
+    void complete() {
+        totalNanos = System.nanoTime() - startedNanos;
+    }
+
+    public String transactionId() {
+        return transactionId;
+    }
+
+    public Instant startedAt() {
+        return startedAt;
+    }
+
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    public long stageNanos(PipelineStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+}
@@ -0,0 +1,25 @@
+package com.frauddetection.fraudservice.service;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "stagetraces")
+public class StageTraceEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final StageLatencyRecorder stageLatencyRecorder;
+
+    public StageTraceEndpoint(StageLatencyRecorder stageLatencyRecorder) {
+        this.stageLatencyRecorder = stageLatencyRecorder;
+    }
+
+    @ReadOperation
+    public List<StageLatencyRecorder.StageTraceSnapshot> slowest(@Nullable Integer limit) {
+        return stageLatencyRecorder.slowest(limit == null ? DEFAULT_LIMIT : limit);
+    }
+}
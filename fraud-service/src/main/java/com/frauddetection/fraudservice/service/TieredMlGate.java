@@ -0,0 +1,183 @@
+package com.frauddetection.fraudservice.service;
+
+import com.frauddetection.fraudservice.model.DecisionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides per event whether the ML call can change the decision at all. Because the ML score is
+ * weighted 0.6, its full [0, 1] range always spans more than one decision band, so the gate bounds
+ * it by the range of ML scores recently observed for events with a similar rule score (plus a
+ * safety margin) and skips inference only when both ends of that range land in the same band.
+ */
+@Component
+public class TieredMlGate {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredMlGate.class);
+    private static final int RULE_SCORE_BUCKETS = 20;
+
+    private final RiskAggregationService riskAggregationService;
+    private final DecisionEngine decisionEngine;
+    private final boolean enabled;
+    private final int minSamples;
+    private final double margin;
+    private final double shadowRate;
+    private final ScoreWindow[] windows = new ScoreWindow[RULE_SCORE_BUCKETS];
+    private final Counter skippedCounter;
+    private final Counter calledCounter;
+    private final Counter shadowAgreeCounter;
+    private final Counter shadowDisagreeCounter;
+
+    public TieredMlGate(
+            RiskAggregationService riskAggregationService,
+            DecisionEngine decisionEngine,
+            MeterRegistry meterRegistry,
+            @Value("${app.ml.tiered.enabled:false}") boolean enabled,
+            @Value("${app.ml.tiered.window-size:512}") int windowSize,
+            @Value("${app.ml.tiered.min-samples:200}") int minSamples,
+            @Value("${app.ml.tiered.margin:0.05}") double margin,
+            @Value("${app.ml.tiered.shadow-rate:0.02}") double shadowRate
+    ) {
+        this.riskAggregationService = riskAggregationService;
+        this.decisionEngine = decisionEngine;
+        this.enabled = enabled;
+        this.minSamples = Math.max(1, Math.min(minSamples, windowSize));
+        this.margin = Math.max(0.0, margin);
+        this.shadowRate = Math.max(0.0, Math.min(1.0, shadowRate));
+        for (int bucket = 0; bucket < RULE_SCORE_BUCKETS; bucket++) {
+            windows[bucket] = new ScoreWindow(Math.max(1, windowSize));
+        }
+        this.skippedCounter = meterRegistry.counter("fraud.ml.tiered.evaluations.total", "path", "skipped");
+        this.calledCounter = meterRegistry.counter("fraud.ml.tiered.evaluations.total", "path", "called");
+        this.shadowAgreeCounter = meterRegistry.counter("fraud.ml.tiered.shadow.total", "result", "agree");
+        this.shadowDisagreeCounter = meterRegistry.counter("fraud.ml.tiered.shadow.total", "result", "disagree");
+    }
+
+    /**
+     * Returns the ML score to use without calling the model when the decision is already settled
+     * by the rule score, or {@code null} when inference is needed.
+     */
+    public BigDecimal conclusiveMlScore(BigDecimal ruleScore) {
+        if (!enabled) {
+            return null;
+        }
+
+        Envelope envelope = windows[bucketOf(ruleScore)].envelope(minSamples);
+        if (envelope == null) {
+            calledCounter.increment();
+            return null;
+        }
+
+        DecisionType lowDecision = decide(ruleScore, envelope.min() - margin);
+        DecisionType highDecision = decide(ruleScore, envelope.max() + margin);
+        if (lowDecision != highDecision) {
+            calledCounter.increment();
+            return null;
+        }
+
+        skippedCounter.increment();
+        return toScore(envelope.mean());
+    }
+
+    /**
+     * Adds a score the model actually returned to the envelope. Fallback and skipped scores must not
+     * be passed in, or the envelope would narrow around scores the model never produced.
+     */
+    public void observe(BigDecimal ruleScore, BigDecimal mlScore) {
+        if (enabled && mlScore != null) {
+            windows[bucketOf(ruleScore)].add(clamp(mlScore.doubleValue()));
+        }
+    }
+
+    public boolean shouldShadow() {
+        return shadowRate > 0.0 && ThreadLocalRandom.current().nextDouble() < shadowRate;
+    }
+
+    /**
+     * Compares a skipped decision with the one the real ML score would have produced. The real
+     * score also feeds the envelope, so a drifting model widens it and stops further skips.
+     */
+    public void recordShadow(BigDecimal ruleScore, BigDecimal skippedMlScore, BigDecimal actualMlScore) {
+        observe(ruleScore, actualMlScore);
+
+        DecisionType skippedDecision = decide(ruleScore, skippedMlScore.doubleValue());
+        DecisionType actualDecision = decide(ruleScore, actualMlScore.doubleValue());
+        if (skippedDecision == actualDecision) {
+            shadowAgreeCounter.increment();
+            return;
+        }
+
+        shadowDisagreeCounter.increment();
+        log.warn(
+                "ml_tiered_shadow_disagreement ruleScore={} skippedMlScore={} actualMlScore={} skippedDecision={} actualDecision={}",
+                ruleScore,
+                skippedMlScore,
+                actualMlScore,
+                skippedDecision,
+                actualDecision
+        );
+    }
+
+    private DecisionType decide(BigDecimal ruleScore, double mlScore) {
+        return decisionEngine.decide(riskAggregationService.aggregate(ruleScore, toScore(mlScore)));
+    }
+
+    private int bucketOf(BigDecimal ruleScore) {
+        double score = ruleScore == null ? 0.0 : clamp(ruleScore.doubleValue());
+        return Math.min(RULE_SCORE_BUCKETS - 1, (int) (score * RULE_SCORE_BUCKETS));
+    }
+
+    private static BigDecimal toScore(double value) {
+        return BigDecimal.valueOf(clamp(value)).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private static double clamp(double value) {
+        if (Double.isNaN(value)) {
+            return 0.0;
+        }
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+
+    private record Envelope(double min, double max, double mean) {
+    }
+
+    private static final class ScoreWindow {
+
+        private final double[] scores;
+        private int size;
+        private int next;
+
+        private ScoreWindow(int capacity) {
+            this.scores = new double[capacity];
+        }
+
+        synchronized void add(double score) {
+            scores[next] = score;
+            next = (next + 1) % scores.length;
+            size = Math.min(size + 1, scores.length);
+        }
+
+        synchronized Envelope envelope(int minSamples) {
+            if (size < minSamples) {
+                return null;
+            }
+
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            double sum = 0.0;
+            for (int index = 0; index < size; index++) {
+                min = Math.min(min, scores[index]);
+                max = Math.max(max, scores[index]);
+                sum += scores[index];
+            }
+            return new Envelope(min, max, sum / size);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.frauddetection.fraudservice.service;
+
+/**
+ * Bucket layout shared by the Redis velocity script and {@link LocalVelocityStore}: events are counted per
+ * 5-second bucket, and the one- and five-minute windows are the 12 and 60 buckets ending at the event's bucket.
+ */
+final class VelocityBuckets {
+
+    static final long BUCKET_MILLIS = 5_000;
+    static final int MINUTE_BUCKETS = 12;
+    static final int WINDOW_BUCKETS = 60;
+    static final long WINDOW_MILLIS = BUCKET_MILLIS * WINDOW_BUCKETS;
+
+    private VelocityBuckets() {
+    }
+
+    static long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, BUCKET_MILLIS);
+    }
+
+    /**
+     * Lateness beyond the five-minute window can never change a current count, so that is also the upper bound.
+     */
+    static long clampLateness(long allowedLatenessMillis) {
+        return Math.max(0L, Math.min(WINDOW_MILLIS, allowedLatenessMillis));
+    }
+}
@@ -0,0 +1,207 @@
+package com.frauddetection.fraudservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps Redis-mode velocity counting through a Redis outage.
+ *
+ * <p>While Redis is healthy every event is also recorded in a bounded {@link LocalVelocityStore}, so the store is
+ * already warm when Redis fails. Once a call fails, velocity is answered from the store and the events are queued;
+ * Redis is probed at most once per probe interval, and after a successful probe the queued events are replayed so
+ * the Redis windows catch up. Exposed as the {@code velocityStore} health component with a {@code DEGRADED} status.
+ */
+@Component("velocityStore")
+public class VelocityFallback implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Velocity served from the in-memory fallback");
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityFallback.class);
+
+    private final LocalVelocityStore store;
+    private final BlockingQueue<VelocityObservation> pending;
+    private final long probeIntervalMillis;
+    private final Clock clock;
+    private final AtomicLong nextProbeAtMillis = new AtomicLong();
+    private final Counter degradedEventCounter;
+    private final Counter degradedTransitionCounter;
+    private final Counter recoveredTransitionCounter;
+    private final Counter droppedCounter;
+    private final Counter reconciledCounter;
+
+    private volatile boolean degraded;
+    private volatile Instant degradedSince;
+
+    @Autowired
+    public VelocityFallback(
+            MeterRegistry meterRegistry,
+            @Value("${app.velocity.mode:redis}") String mode,
+            @Value("${app.velocity.fallback.enabled:true}") boolean enabled,
+            @Value("${app.velocity.fallback.max-users:50000}") int maxUsers,
+            @Value("${app.velocity.fallback.reconcile-capacity:200000}") int reconcileCapacity,
+            @Value("${app.velocity.fallback.probe-interval-ms:1000}") long probeIntervalMillis,
+            @Value("${app.velocity.allowed-lateness-ms:300000}") long allowedLatenessMillis
+    ) {
+        // Local and hybrid modes already serve velocity from memory, so only Redis mode needs a fallback.
+        this(
+                meterRegistry,
+                enabled && VelocityStoreMode.from(mode) == VelocityStoreMode.REDIS,
+                maxUsers,
+                reconcileCapacity,
+                Duration.ofMillis(probeIntervalMillis),
+                Duration.ofMillis(allowedLatenessMillis),
+                Clock.systemUTC()
+        );
+    }
+
+    VelocityFallback(
+            MeterRegistry meterRegistry,
+            boolean enabled,
+            int maxUsers,
+            int reconcileCapacity,
+            Duration probeInterval,
+            Duration allowedLateness,
+            Clock clock
+    ) {
+        this.store = enabled ? new LocalVelocityStore(maxUsers, 16, allowedLateness.toMillis()) : null;
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, reconcileCapacity));
+        this.probeIntervalMillis = Math.max(1L, probeInterval.toMillis());
+        this.clock = clock;
+        this.degradedEventCounter = meterRegistry.counter("fraud.velocity.fallback.events.total");
+        this.degradedTransitionCounter = meterRegistry.counter("fraud.velocity.fallback.transitions.total", "state", "degraded");
+        this.recoveredTransitionCounter = meterRegistry.counter("fraud.velocity.fallback.transitions.total", "state", "recovered");
+        this.droppedCounter = meterRegistry.counter("fraud.velocity.fallback.reconcile.dropped.total");
+        this.reconciledCounter = meterRegistry.counter("fraud.velocity.fallback.reconciled.total");
+        Gauge.builder("fraud.velocity.degraded", this, fallback -> fallback.isDegraded() ? 1.0 : 0.0)
+                .register(meterRegistry);
+        Gauge.builder("fraud.velocity.fallback.pending", pending, BlockingQueue::size).register(meterRegistry);
+        if (store != null) {
+            FunctionCounter.builder("fraud.velocity.late.dropped.total", store, LocalVelocityStore::lateDrops)
+                    .tag("store", "fallback")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * True when Redis should be skipped for this call: degraded, and another caller already owns the current probe.
+     */
+    public boolean shouldBypassRedis() {
+        if (!degraded) {
+            return false;
+        }
+        long now = clock.millis();
+        long nextProbe = nextProbeAtMillis.get();
+        return now < nextProbe || !nextProbeAtMillis.compareAndSet(nextProbe, now + probeIntervalMillis);
+    }
+
+    public void shadow(VelocityObservation observation) {
+        store.record(observation.userId(), observation.transactionId(), observation.timestamp().toEpochMilli());
+    }
+
+    public VelocityStats recordDegraded(VelocityObservation observation) {
+        degradedEventCounter.increment();
+        enqueue(observation);
+        return store.record(observation.userId(), observation.transactionId(), observation.timestamp().toEpochMilli());
+    }
+
+    /**
+     * Puts back events whose replay failed; they were already counted in the store.
+     */
+    public void requeue(List<VelocityObservation> observations) {
+        observations.forEach(this::enqueue);
+    }
+
+    public synchronized void markDegraded(String reason) {
+        if (degraded) {
+            return;
+        }
+        degraded = true;
+        degradedSince = clock.instant();
+        nextProbeAtMillis.set(clock.millis() + probeIntervalMillis);
+        degradedTransitionCounter.increment();
+        log.warn("velocity_degraded reason={}", reason);
+    }
+
+    /**
+     * Returns true if this call ended a degraded period, in which case the caller should start reconciliation.
+     */
+    public synchronized boolean markRecovered() {
+        if (!degraded) {
+            return false;
+        }
+        degraded = false;
+        recoveredTransitionCounter.increment();
+        log.info("velocity_recovered degradedForMs={} pending={}",
+                clock.millis() - degradedSince.toEpochMilli(), pending.size());
+        degradedSince = null;
+        return true;
+    }
+
+    public List<VelocityObservation> drainPending(int maxElements) {
+        List<VelocityObservation> batch = new ArrayList<>(Math.min(maxElements, pending.size()));
+        pending.drainTo(batch, maxElements);
+        return batch;
+    }
+
+    public void reconciled(int count) {
+        reconciledCounter.increment(count);
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    private void enqueue(VelocityObservation observation) {
+        while (!pending.offer(observation)) {
+            // Oldest events matter least: they are the first to leave the velocity windows anyway.
+            if (pending.poll() != null) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (store == null) {
+            return Health.up().withDetail("fallback", "disabled").build();
+        }
+        Instant since = degradedSince;
+        if (degraded && since != null) {
+            return Health.status(DEGRADED)
+                    .withDetail("since", since.toString())
+                    .withDetail("pendingReconciliation", pending.size())
+                    .withDetail("trackedUsers", store.size())
+                    .build();
+        }
+        return Health.up()
+                .withDetail("pendingReconciliation", pending.size())
+                .withDetail("trackedUsers", store.size())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.frauddetection.fraudservice.service;
+
+public record VelocityHistory(
+        long[] buckets,
+        int[] counts,
+        long lastSeenMillis
+) {
+
+    public static VelocityHistory empty() {
+        return new VelocityHistory(new long[0], new int[0], Long.MIN_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return buckets.length == 0 && lastSeenMillis == Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,10 @@
+package com.frauddetection.fraudservice.service;
+
+import java.time.Instant;
+
+public record VelocityObservation(
+        String userId,
+        String transactionId,
+        Instant timestamp
+) {
+}
@@ -0,0 +1,19 @@
+package com.frauddetection.fraudservice.service;
+
+public enum VelocityStoreMode {
+    REDIS,
+    LOCAL,
+    HYBRID;
+
+    public static VelocityStoreMode from(String value) {
+        if (value == null) {
+            return REDIS;
+        }
+        for (VelocityStoreMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        return REDIS;
+    }
+}
@@ -1,13 +1,26 @@
 package com.frauddetection.fraudservice.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -15,55 +28,254 @@ public class VelocityTrackingService {
 
     private static final Logger log = LoggerFactory.getLogger(VelocityTrackingService.class);
 
-    private static final Duration ONE_MINUTE_WINDOW = Duration.ofMinutes(1);
-    private static final Duration FIVE_MINUTE_WINDOW = Duration.ofMinutes(5);
     private static final Duration KEY_TTL = Duration.ofMinutes(10);
 
+    private static final RedisScript<List> TRACK_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/velocity-track.lua"), List.class);
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
     private final StringRedisTemplate redisTemplate;
+    private final VelocityFallback fallback;
+    private final ExecutorService reconcileExecutor;
+    private final long allowedLatenessMillis;
+    private final Counter lateDropCounter;
 
-    public VelocityTrackingService(StringRedisTemplate redisTemplate) {
+    public VelocityTrackingService(
+            StringRedisTemplate redisTemplate,
+            VelocityFallback fallback,
+            MeterRegistry meterRegistry,
+            @Value("${app.velocity.allowed-lateness-ms:300000}") long allowedLatenessMillis
+    ) {
         this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.allowedLatenessMillis = VelocityBuckets.clampLateness(allowedLatenessMillis);
+        this.lateDropCounter = meterRegistry.counter("fraud.velocity.late.dropped.total", "store", "redis");
+        this.reconcileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fraud-velocity-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public VelocityStats trackAndMeasure(String userId, String transactionId, Instant timestamp) {
-        String velocityKey = "velocity:user:" + userId;
-        String lastSeenKey = "velocity:last-seen:" + userId;
+        VelocityObservation observation = new VelocityObservation(userId, transactionId, timestamp);
+        if (fallback.isEnabled() && fallback.shouldBypassRedis()) {
+            return fallback.recordDegraded(observation);
+        }
 
         long eventTimeMillis = timestamp.toEpochMilli();
-        String member = transactionId + ":" + eventTimeMillis;
+        try {
+            List<?> result = redisTemplate.execute(
+                    TRACK_SCRIPT,
+                    List.of(keys(userId)),
+                    scriptArgs(eventTimeMillis, transactionId)
+            );
+            onRedisSuccess(List.of(observation));
+            return toStats(eventTimeMillis, result);
+        } catch (DataAccessException exception) {
+            if (fallback.isEnabled()) {
+                fallback.markDegraded(exception.getMessage());
+                return fallback.recordDegraded(observation);
+            }
+            log.warn("velocity_tracking_unavailable userId={} reason={}", userId, exception.getMessage());
+            return new VelocityStats(0, 0, Long.MAX_VALUE);
+        }
+    }
+
+    public List<VelocityStats> trackAndMeasureAll(List<VelocityObservation> observations) {
+        if (observations.isEmpty()) {
+            return List.of();
+        }
+        if (fallback.isEnabled() && fallback.shouldBypassRedis()) {
+            return observations.stream().map(fallback::recordDegraded).toList();
+        }
 
         try {
-            ZSetOperations<String, String> zSetOperations = redisTemplate.opsForZSet();
-            ValueOperations<String, String> valueOperations = redisTemplate.opsForValue();
+            List<Object> results = pipelineScriptWithReload(observations);
+            onRedisSuccess(observations);
 
-            String previousTimestamp = valueOperations.get(lastSeenKey);
+            List<VelocityStats> stats = new ArrayList<>(observations.size());
+            for (int index = 0; index < observations.size(); index++) {
+                stats.add(toStats(observations.get(index).timestamp().toEpochMilli(), (List<?>) results.get(index)));
+            }
+            return stats;
+        } catch (DataAccessException exception) {
+            if (fallback.isEnabled()) {
+                fallback.markDegraded(exception.getMessage());
+                return observations.stream().map(fallback::recordDegraded).toList();
+            }
+            log.warn("velocity_tracking_unavailable batchSize={} reason={}", observations.size(), exception.getMessage());
+            return Collections.nCopies(observations.size(), new VelocityStats(0, 0, Long.MAX_VALUE));
+        }
+    }
 
-            zSetOperations.add(velocityKey, member, eventTimeMillis);
-            zSetOperations.removeRangeByScore(velocityKey, 0, eventTimeMillis - FIVE_MINUTE_WINDOW.toMillis());
+    @PreDestroy
+    public void shutdown() {
+        reconcileExecutor.shutdownNow();
+    }
 
-            Long perMinuteCount = zSetOperations.count(
-                    velocityKey,
-                    eventTimeMillis - ONE_MINUTE_WINDOW.toMillis(),
-                    eventTimeMillis
-            );
-            Long perFiveMinuteCount = zSetOperations.count(
-                    velocityKey,
-                    eventTimeMillis - FIVE_MINUTE_WINDOW.toMillis(),
-                    eventTimeMillis
-            );
+    private void onRedisSuccess(List<VelocityObservation> observations) {
+        if (!fallback.isEnabled()) {
+            return;
+        }
+        // Keep the fallback warm so an outage starts from current windows rather than from empty ones.
+        observations.forEach(fallback::shadow);
+        if (fallback.markRecovered()) {
+            reconcileExecutor.execute(this::reconcile);
+        }
+    }
 
-            redisTemplate.expire(velocityKey, KEY_TTL);
-            valueOperations.set(lastSeenKey, Long.toString(eventTimeMillis), KEY_TTL);
+    // Replays events counted only in memory during the outage; bucket counters make the late writes order-insensitive.
+    private void reconcile() {
+        while (!fallback.isDegraded() && fallback.hasPending()) {
+            List<VelocityObservation> batch = fallback.drainPending(RECONCILE_BATCH_SIZE);
+            try {
+                pipelineScriptWithReload(batch);
+                fallback.reconciled(batch.size());
+            } catch (DataAccessException exception) {
+                fallback.markDegraded(exception.getMessage());
+                fallback.requeue(batch);
+                return;
+            }
+        }
+    }
 
-            return new VelocityStats(
-                    safeInt(perMinuteCount),
-                    safeInt(perFiveMinuteCount),
-                    secondsSinceLast(eventTimeMillis, previousTimestamp)
-            );
+    private List<Object> pipelineScriptWithReload(List<VelocityObservation> observations) {
+        try {
+            return pipelineScript(observations);
         } catch (DataAccessException exception) {
-            log.warn("velocity_tracking_unavailable userId={} reason={}", userId, exception.getMessage());
+            if (!RedisScriptSupport.isMissingScript(exception)) {
+                throw exception;
+            }
+            RedisScriptSupport.load(redisTemplate, TRACK_SCRIPT);
+            return pipelineScript(observations);
+        }
+    }
+
+    /**
+     * Reads the bucket counters and last-seen time for each user, used to warm the local store.
+     */
+    public List<VelocityHistory> loadHistories(List<String> userIds, long nowMillis) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String userId : userIds) {
+                    stringConnection.hGetAll(velocityKey(userId));
+                    stringConnection.get(lastSeenKey(userId));
+                }
+                return null;
+            });
+
+            List<VelocityHistory> histories = new ArrayList<>(userIds.size());
+            for (int index = 0; index < userIds.size(); index++) {
+                histories.add(toHistory(results.get(index * 2), results.get(index * 2 + 1), nowMillis));
+            }
+            return histories;
+        } catch (DataAccessException exception) {
+            log.warn("velocity_history_unavailable users={} reason={}", userIds.size(), exception.getMessage());
+            return Collections.nCopies(userIds.size(), VelocityHistory.empty());
+        }
+    }
+
+    private List<Object> pipelineScript(List<VelocityObservation> observations) {
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (VelocityObservation observation : observations) {
+                String[] keys = keys(observation.userId());
+                stringConnection.evalSha(TRACK_SCRIPT.getSha1(), ReturnType.MULTI, keys.length, keysAndArgs(keys, observation));
+            }
+            return null;
+        });
+    }
+
+    private String[] keysAndArgs(String[] keys, VelocityObservation observation) {
+        String[] args = scriptArgs(observation.timestamp().toEpochMilli(), observation.transactionId());
+        String[] keysAndArgs = new String[keys.length + args.length];
+        System.arraycopy(keys, 0, keysAndArgs, 0, keys.length);
+        System.arraycopy(args, 0, keysAndArgs, keys.length, args.length);
+        return keysAndArgs;
+    }
+
+    private String[] keys(String userId) {
+        return new String[] {velocityKey(userId), lastSeenKey(userId)};
+    }
+
+    // The transaction id goes into the user's ring of recent ids so a redelivery counts once, in the same bounded
+    // hash as the counters; events without an id cannot be guarded.
+    private String[] scriptArgs(long eventTimeMillis, String transactionId) {
+        return new String[] {
+                Long.toString(eventTimeMillis),
+                Long.toString(VelocityBuckets.BUCKET_MILLIS),
+                Integer.toString(VelocityBuckets.MINUTE_BUCKETS),
+                Integer.toString(VelocityBuckets.WINDOW_BUCKETS),
+                Long.toString(KEY_TTL.toSeconds()),
+                Long.toString(allowedLatenessMillis),
+                transactionId == null ? "" : transactionId,
+                Integer.toString(LocalVelocityStore.RECENT_TRANSACTIONS)
+        };
+    }
+
+    private VelocityStats toStats(long eventTimeMillis, List<?> result) {
+        if (result == null || result.size() < 2) {
             return new VelocityStats(0, 0, Long.MAX_VALUE);
         }
+        if (result.size() > 3 && Long.valueOf(1L).equals(result.get(3))) {
+            lateDropCounter.increment();
+        }
+        return new VelocityStats(
+                safeInt((Long) result.get(0)),
+                safeInt((Long) result.get(1)),
+                secondsSinceLast(eventTimeMillis, result.size() > 2 ? RedisScriptSupport.asString(result.get(2)) : null)
+        );
+    }
+
+    private VelocityHistory toHistory(Object counters, Object lastSeen, long nowMillis) {
+        long oldestBucket = VelocityBuckets.bucketOf(nowMillis) - VelocityBuckets.WINDOW_BUCKETS;
+        List<long[]> buckets = new ArrayList<>();
+        if (counters instanceof Map<?, ?> fields) {
+            fields.forEach((field, value) -> {
+                try {
+                    long bucket = Long.parseLong(RedisScriptSupport.asString(field));
+                    long count = Long.parseLong(RedisScriptSupport.asString(value));
+                    if (bucket > oldestBucket && count > 0) {
+                        buckets.add(new long[] {bucket, count});
+                    }
+                } catch (NumberFormatException ignored) {
+                    // One of the seen: fields holding recent transaction ids, not a bucket.
+                }
+            });
+        }
+
+        long[] bucketIds = new long[buckets.size()];
+        int[] counts = new int[buckets.size()];
+        for (int index = 0; index < buckets.size(); index++) {
+            bucketIds[index] = buckets.get(index)[0];
+            counts[index] = (int) Math.min(Integer.MAX_VALUE, buckets.get(index)[1]);
+        }
+
+        long lastSeenMillis = Long.MIN_VALUE;
+        String lastSeenValue = RedisScriptSupport.asString(lastSeen);
+        if (lastSeenValue != null) {
+            try {
+                lastSeenMillis = Long.parseLong(lastSeenValue);
+            } catch (NumberFormatException ignored) {
+                // Treated as unseen, like secondsSinceLast does.
+            }
+        }
+        return new VelocityHistory(bucketIds, counts, lastSeenMillis);
+    }
+
+    // The {userId} hash tag keeps both keys in one cluster slot, which the script requires.
+    private String velocityKey(String userId) {
+        return "velocity:buckets:{" + userId + "}";
+    }
+
+    private String lastSeenKey(String userId) {
+        return "velocity:last-seen:{" + userId + "}";
     }
 
     private int safeInt(Long value) {
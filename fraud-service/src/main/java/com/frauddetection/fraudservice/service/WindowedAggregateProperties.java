@@ -0,0 +1,81 @@
+package com.frauddetection.fraudservice.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.features.aggregates")
+public class WindowedAggregateProperties {
+
+    private boolean enabled = false;
+    private List<Definition> definitions = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Definition> getDefinitions() {
+        return definitions;
+    }
+
+    public void setDefinitions(List<Definition> definitions) {
+        this.definitions = definitions;
+    }
+
+    public static class Definition {
+
+        private String name;
+        private AggregateDimension dimension = AggregateDimension.USER_ID;
+        private AggregateDimension distinct;
+        private Duration window = Duration.ofHours(1);
+        private List<AggregateFunction> functions = new ArrayList<>(List.of(AggregateFunction.COUNT));
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public AggregateDimension getDimension() {
+            return dimension;
+        }
+
+        public void setDimension(AggregateDimension dimension) {
+            this.dimension = dimension;
+        }
+
+        /**
+         * Attribute whose distinct values are counted per dimension value; only the {@code distinct} function applies.
+         */
+        public AggregateDimension getDistinct() {
+            return distinct;
+        }
+
+        public void setDistinct(AggregateDimension distinct) {
+            this.distinct = distinct;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public List<AggregateFunction> getFunctions() {
+            return functions;
+        }
+
+        public void setFunctions(List<AggregateFunction> functions) {
+            this.functions = functions;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.frauddetection.fraudservice.service;
+
+import com.frauddetection.fraudservice.engine.FeatureVector;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the windowed aggregates declared under {@code app.features.aggregates.definitions}.
+ *
+ * <p>Each definition names a dimension (userId, deviceId, merchantId or location), a window and the functions to
+ * expose. Every definition keeps one Redis hash per dimension value holding count, amount sum, min and max for 30
+ * buckets spanning the window. All definitions for all events in a call are updated and read back in one pipeline,
+ * so adding a feature costs no extra round trip. Merchant, device and location aggregates span every partition,
+ * which is why they live in Redis rather than in {@link LocalVelocityStore}.
+ *
+ * <p>A definition with a {@code distinct} attribute instead counts the distinct values of that attribute, e.g.
+ * merchants per user. It keeps one HyperLogLog per twelfth of the window and estimates the union of the 12 ending at
+ * the event (about 0.8% standard error), so each dimension value costs at most 12 sparse sketches however many
+ * distinct values it sees.
+ */
+@Service
+@EnableConfigurationProperties(WindowedAggregateProperties.class)
+public class WindowedAggregateService {
+
+    private static final Logger log = LoggerFactory.getLogger(WindowedAggregateService.class);
+
+    static final int WINDOW_BUCKETS = 30;
+    static final int DISTINCT_BUCKETS = 12;
+
+    private static final RedisScript<List> AGGREGATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/feature-aggregate.lua"), List.class);
+    private static final RedisScript<List> DISTINCT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/feature-distinct.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final List<CompiledAggregate> aggregates;
+    private final Set<String> featureNames;
+
+    public WindowedAggregateService(StringRedisTemplate redisTemplate, WindowedAggregateProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.aggregates = compile(properties.getDefinitions());
+        this.enabled = properties.isEnabled() && !aggregates.isEmpty();
+        Set<String> names = new HashSet<>();
+        for (CompiledAggregate aggregate : aggregates) {
+            aggregate.functions().forEach(function -> names.add(function.featureName(aggregate.name())));
+        }
+        this.featureNames = Set.copyOf(names);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean provides(String featureName) {
+        return featureNames.contains(featureName);
+    }
+
+    public FeatureVector aggregate(TransactionCreatedEvent transaction) {
+        return aggregateAll(List.of(transaction)).get(0);
+    }
+
+    /**
+     * Adds the event to every definition without reading the aggregates back, for an event whose aggregate features
+     * nobody reads.
+     */
+    public void record(TransactionCreatedEvent transaction) {
+        if (!enabled) {
+            return;
+        }
+
+        List<AggregateCall> calls = plan(List.of(transaction), true);
+        if (calls.isEmpty()) {
+            return;
+        }
+        try {
+            pipelineWithReload(calls);
+        } catch (DataAccessException exception) {
+            log.warn("feature_aggregates_unavailable batchSize=1 reason={}", exception.getMessage());
+        }
+    }
+
+    public List<FeatureVector> aggregateAll(List<TransactionCreatedEvent> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return Collections.nCopies(transactions.size(), FeatureVector.EMPTY);
+        }
+
+        List<AggregateCall> calls = plan(transactions, false);
+        if (calls.isEmpty()) {
+            return Collections.nCopies(transactions.size(), FeatureVector.EMPTY);
+        }
+
+        try {
+            List<Object> results = pipelineWithReload(calls);
+
+            List<FeatureVector.Builder> builders = new ArrayList<>(transactions.size());
+            for (int index = 0; index < transactions.size(); index++) {
+                builders.add(FeatureVector.builder());
+            }
+            for (int index = 0; index < calls.size(); index++) {
+                AggregateCall call = calls.get(index);
+                call.aggregate().appendTo(builders.get(call.eventIndex()), (List<?>) results.get(index));
+            }
+            return builders.stream().map(FeatureVector.Builder::build).toList();
+        } catch (DataAccessException exception) {
+            log.warn("feature_aggregates_unavailable batchSize={} reason={}", transactions.size(), exception.getMessage());
+            return Collections.nCopies(transactions.size(), FeatureVector.EMPTY);
+        }
+    }
+
+    private List<Object> pipelineWithReload(List<AggregateCall> calls) {
+        try {
+            return pipeline(calls);
+        } catch (DataAccessException exception) {
+            if (!RedisScriptSupport.isMissingScript(exception)) {
+                throw exception;
+            }
+            RedisScriptSupport.load(redisTemplate, AGGREGATE_SCRIPT);
+            RedisScriptSupport.load(redisTemplate, DISTINCT_SCRIPT);
+            return pipeline(calls);
+        }
+    }
+
+    private List<AggregateCall> plan(List<TransactionCreatedEvent> transactions, boolean recordOnly) {
+        List<AggregateCall> calls = new ArrayList<>(transactions.size() * aggregates.size());
+        for (int index = 0; index < transactions.size(); index++) {
+            TransactionCreatedEvent transaction = transactions.get(index);
+            long eventTimeMillis = (transaction.createdAt() == null ? Instant.now() : transaction.createdAt()).toEpochMilli();
+            String amount = transaction.amount() == null ? "" : transaction.amount().toPlainString();
+
+            for (CompiledAggregate aggregate : aggregates) {
+                String dimensionValue = aggregate.dimension().valueOf(transaction);
+                if (dimensionValue == null) {
+                    continue;
+                }
+                if (aggregate.distinct() == null) {
+                    calls.add(new AggregateCall(
+                            index,
+                            aggregate,
+                            aggregate.keysAndArgs(dimensionValue, eventTimeMillis, amount, recordOnly)
+                    ));
+                } else {
+                    String distinctValue = aggregate.distinct().valueOf(transaction);
+                    if (distinctValue != null) {
+                        calls.add(new AggregateCall(
+                                index,
+                                aggregate,
+                                aggregate.distinctKeysAndArgs(dimensionValue, eventTimeMillis, distinctValue, recordOnly)
+                        ));
+                    }
+                }
+            }
+        }
+        return calls;
+    }
+
+    private List<Object> pipeline(List<AggregateCall> calls) {
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (AggregateCall call : calls) {
+                if (call.aggregate().distinct() == null) {
+                    stringConnection.evalSha(AGGREGATE_SCRIPT.getSha1(), ReturnType.MULTI, 1, call.keysAndArgs());
+                } else {
+                    stringConnection.evalSha(
+                            DISTINCT_SCRIPT.getSha1(), ReturnType.MULTI, DISTINCT_BUCKETS, call.keysAndArgs());
+                }
+            }
+            return null;
+        });
+    }
+
+    private static List<CompiledAggregate> compile(List<WindowedAggregateProperties.Definition> definitions) {
+        List<CompiledAggregate> compiled = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (WindowedAggregateProperties.Definition definition : definitions) {
+            String name = definition.getName() == null ? "" : definition.getName().trim();
+            Duration window = definition.getWindow();
+            AggregateDimension distinct = definition.getDistinct();
+            int buckets = distinct == null ? WINDOW_BUCKETS : DISTINCT_BUCKETS;
+            if (name.isEmpty() || definition.getDimension() == null || window == null
+                    || window.toMillis() < buckets || definition.getFunctions().isEmpty()) {
+                throw new IllegalStateException("invalid feature aggregate definition: " + name);
+            }
+            // Distinct definitions only hold sketches, and value definitions have no sketch to count.
+            boolean countsDistinct = definition.getFunctions().contains(AggregateFunction.DISTINCT);
+            boolean onlyDistinct = definition.getFunctions().stream().allMatch(AggregateFunction.DISTINCT::equals);
+            if (distinct == null ? countsDistinct : !onlyDistinct) {
+                throw new IllegalStateException("invalid functions for feature aggregate definition: " + name);
+            }
+            if (!names.add(name)) {
+                throw new IllegalStateException("duplicate feature aggregate definition: " + name);
+            }
+            compiled.add(new CompiledAggregate(
+                    name,
+                    definition.getDimension(),
+                    distinct,
+                    window.toMillis() / buckets,
+                    window.plus(Duration.ofMillis(window.toMillis() / buckets)).toSeconds() + 1,
+                    List.copyOf(definition.getFunctions())
+            ));
+        }
+        return List.copyOf(compiled);
+    }
+
+    private record AggregateCall(int eventIndex, CompiledAggregate aggregate, String[] keysAndArgs) {
+    }
+
+    private record CompiledAggregate(
+            String name,
+            AggregateDimension dimension,
+            AggregateDimension distinct,
+            long bucketMillis,
+            long ttlSeconds,
+            List<AggregateFunction> functions
+    ) {
+
+        // The whole dimension value is the hash tag, so each key maps to a single cluster slot.
+        String[] keysAndArgs(String dimensionValue, long eventTimeMillis, String amount, boolean recordOnly) {
+            return new String[] {
+                    key(dimensionValue),
+                    Long.toString(eventTimeMillis),
+                    amount,
+                    Long.toString(bucketMillis),
+                    Integer.toString(WINDOW_BUCKETS),
+                    Long.toString(ttlSeconds),
+                    recordOnly ? "1" : "0"
+            };
+        }
+
+        // One sketch key per bucket, oldest first, ending with the event's own bucket.
+        String[] distinctKeysAndArgs(
+                String dimensionValue,
+                long eventTimeMillis,
+                String distinctValue,
+                boolean recordOnly
+        ) {
+            String key = key(dimensionValue);
+            long bucket = Math.floorDiv(eventTimeMillis, bucketMillis);
+            String[] keysAndArgs = new String[DISTINCT_BUCKETS + 3];
+            for (int index = 0; index < DISTINCT_BUCKETS; index++) {
+                keysAndArgs[index] = key + ":" + (bucket - DISTINCT_BUCKETS + 1 + index);
+            }
+            keysAndArgs[DISTINCT_BUCKETS] = distinctValue;
+            keysAndArgs[DISTINCT_BUCKETS + 1] = Long.toString(ttlSeconds);
+            keysAndArgs[DISTINCT_BUCKETS + 2] = recordOnly ? "1" : "0";
+            return keysAndArgs;
+        }
+
+        private String key(String dimensionValue) {
+            return "features:{" + dimension.keyPrefix() + ":" + dimensionValue + "}:" + name;
+        }
+
+        void appendTo(FeatureVector.Builder builder, List<?> result) {
+            if (distinct != null) {
+                Double estimate = result == null || result.isEmpty() ? null : parse(result.get(0));
+                if (estimate != null) {
+                    builder.put(AggregateFunction.DISTINCT.featureName(name), estimate);
+                }
+                return;
+            }
+            if (result == null || result.size() < 4) {
+                return;
+            }
+            Double count = parse(result.get(0));
+            Double sum = parse(result.get(1));
+            Double min = parse(result.get(2));
+            Double max = parse(result.get(3));
+
+            for (AggregateFunction function : functions) {
+                Double value = switch (function) {
+                    case COUNT -> count;
+                    case SUM -> sum;
+                    case MIN -> min;
+                    case MAX -> max;
+                    case AVG -> count == null || sum == null || count == 0.0 ? null : sum / count;
+                    case DISTINCT -> null;
+                };
+                if (value != null) {
+                    builder.put(function.featureName(name), value);
+                }
+            }
+        }
+
+        private static Double parse(Object value) {
+            String text = RedisScriptSupport.asString(value);
+            if (text == null) {
+                return null;
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException exception) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+-- Adds one event to a windowed aggregate and reads the aggregate back in a single round trip.
+-- KEYS[1] aggregate hash for one dimension value and window
+-- ARGV[1] event time millis, ARGV[2] amount ('' when the event has none), ARGV[3] bucket width millis,
+-- ARGV[4] buckets per window, ARGV[5] key TTL seconds, ARGV[6] '1' to only record the event
+-- Fields per bucket: <bucket>:c count, <bucket>:s amount sum, <bucket>:n amount min, <bucket>:x amount max
+-- Returns {count, sum, min or nil, max or nil} over the buckets ending at the event's bucket, or {} when only recording
+local now = tonumber(ARGV[1])
+local bucketWidth = tonumber(ARGV[3])
+local windowBuckets = tonumber(ARGV[4])
+local bucket = math.floor(now / bucketWidth)
+local prefix = string.format('%d', bucket)
+
+redis.call('HINCRBY', KEYS[1], prefix .. ':c', 1)
+if ARGV[2] ~= '' then
+    local amount = tonumber(ARGV[2])
+    redis.call('HINCRBYFLOAT', KEYS[1], prefix .. ':s', ARGV[2])
+    local bucketMin = redis.call('HGET', KEYS[1], prefix .. ':n')
+    if not bucketMin or amount < tonumber(bucketMin) then
+        redis.call('HSET', KEYS[1], prefix .. ':n', ARGV[2])
+    end
+    local bucketMax = redis.call('HGET', KEYS[1], prefix .. ':x')
+    if not bucketMax or amount > tonumber(bucketMax) then
+        redis.call('HSET', KEYS[1], prefix .. ':x', ARGV[2])
+    end
+end
+
+-- Recording alone skips the read-back; it still prunes once the hash holds more fields than a full window.
+if ARGV[6] == '1' and redis.call('HLEN', KEYS[1]) <= 4 * windowBuckets then
+    redis.call('EXPIRE', KEYS[1], ARGV[5])
+    return {}
+end
+
+local count = 0
+local sum = 0
+local minimum = nil
+local maximum = nil
+local expired = {}
+local fields = redis.call('HGETALL', KEYS[1])
+for index = 1, #fields, 2 do
+    local field = fields[index]
+    local separator = string.find(field, ':', 1, true)
+    local fieldBucket = tonumber(string.sub(field, 1, separator - 1))
+    local kind = string.sub(field, separator + 1)
+    if fieldBucket <= bucket - windowBuckets then
+        expired[#expired + 1] = field
+    elseif fieldBucket <= bucket then
+        local value = tonumber(fields[index + 1])
+        if kind == 'c' then
+            count = count + value
+        elseif kind == 's' then
+            sum = sum + value
+        elseif kind == 'n' and (minimum == nil or value < minimum) then
+            minimum = value
+        elseif kind == 'x' and (maximum == nil or value > maximum) then
+            maximum = value
+        end
+    end
+end
+if #expired > 0 then
+    redis.call('HDEL', KEYS[1], unpack(expired))
+end
+redis.call('EXPIRE', KEYS[1], ARGV[5])
+
+-- Numbers are returned as strings because Redis truncates Lua numbers to integers.
+return {tostring(count), tostring(sum), minimum and tostring(minimum) or false, maximum and tostring(maximum) or false}
@@ -0,0 +1,14 @@
+-- Adds one value to a windowed distinct count and reads the estimate back in a single round trip.
+-- KEYS[1..n] HyperLogLog per bucket, oldest first; KEYS[n] is the event's bucket (all keys share one hash tag)
+-- ARGV[1] value to count, ARGV[2] key TTL seconds, ARGV[3] '1' to only record the value
+-- Returns {estimated distinct values across the n buckets}, or {} when only recording
+local current = KEYS[#KEYS]
+
+redis.call('PFADD', current, ARGV[1])
+redis.call('EXPIRE', current, ARGV[2])
+if ARGV[3] == '1' then
+    return {}
+end
+
+-- PFCOUNT over several keys merges them on the fly without storing the union.
+return {tostring(redis.call('PFCOUNT', unpack(KEYS)))}
@@ -0,0 +1,35 @@
+-- Checks which of an event's attributes a user has been seen with before and records them, in one round trip.
+-- KEYS[1] current generation Bloom filter bitmap, KEYS[2] previous generation (same hash tag, so same cluster slot)
+-- ARGV[1] key TTL seconds, ARGV[2] bit positions per attribute, ARGV[3] '1' to only record the attributes,
+-- ARGV[4..] bit positions, attribute by attribute
+-- Returns {1 if the user has any history else 0, then per attribute 1 if seen before else 0}, or {} when only recording
+local hashCount = tonumber(ARGV[2])
+local recordOnly = ARGV[3] == '1'
+local known = not recordOnly and redis.call('EXISTS', KEYS[1], KEYS[2]) > 0
+local result = {}
+if not recordOnly then
+    result[1] = known and 1 or 0
+end
+
+local function contains(key, first)
+    for index = first, first + hashCount - 1 do
+        if redis.call('GETBIT', key, ARGV[index]) == 0 then
+            return false
+        end
+    end
+    return true
+end
+
+for first = 4, #ARGV, hashCount do
+    if not recordOnly then
+        local seen = known and (contains(KEYS[1], first) or contains(KEYS[2], first))
+        result[#result + 1] = seen and 1 or 0
+    end
+    -- Re-adding to the current generation keeps attributes still in use from ageing out with the previous one.
+    for index = first, first + hashCount - 1 do
+        redis.call('SETBIT', KEYS[1], ARGV[index], 1)
+    end
+end
+
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+return result
@@ -0,0 +1,75 @@
+-- Records one transaction in the user's bucketed velocity counters and measures it in a single round trip.
+-- KEYS[1] bucket counter hash, KEYS[2] last-seen timestamp (same hash tag, so same cluster slot)
+-- ARGV[1] event time millis, ARGV[2] bucket width millis, ARGV[3] buckets per minute,
+-- ARGV[4] buckets per five minutes, ARGV[5] key TTL seconds, ARGV[6] allowed lateness millis,
+-- ARGV[7] transaction id or '' when the event has none, ARGV[8] recent transactions kept per user
+-- Returns {count in last minute, count in last five minutes, previous last-seen millis or nil, 1 if dropped as late}
+-- Besides one field per bucket in the window, the hash holds a ring of the user's recent transaction ids in fields
+-- seen:0 .. seen:<ARGV[8] - 1>, overwritten round-robin from seen:next, so it stays the same size however many
+-- events a user sends. A transaction still in the ring was counted before (a redelivery) and is only measured.
+-- Last-seen is the user's watermark: an event more than the allowed lateness behind it is measured but not counted.
+local now = tonumber(ARGV[1])
+local bucket = math.floor(now / tonumber(ARGV[2]))
+local minuteBuckets = tonumber(ARGV[3])
+local windowBuckets = tonumber(ARGV[4])
+local previous = redis.call('GET', KEYS[2])
+
+local duplicate = false
+if ARGV[7] ~= '' then
+    local ringSize = tonumber(ARGV[8])
+    local slots = {}
+    for slot = 1, ringSize do
+        slots[slot] = 'seen:' .. (slot - 1)
+    end
+    slots[ringSize + 1] = 'seen:next'
+    local seen = redis.call('HMGET', KEYS[1], unpack(slots))
+    for slot = 1, ringSize do
+        if seen[slot] == ARGV[7] then
+            duplicate = true
+            break
+        end
+    end
+    if not duplicate then
+        local cursor = (tonumber(seen[ringSize + 1]) or 0) % ringSize
+        local nextCursor = string.format('%d', (cursor + 1) % ringSize)
+        redis.call('HSET', KEYS[1], 'seen:' .. cursor, ARGV[7], 'seen:next', nextCursor)
+    end
+end
+
+local late = not duplicate and previous and now < tonumber(previous) - tonumber(ARGV[6])
+
+if not late and not duplicate then
+    redis.call('HINCRBY', KEYS[1], string.format('%d', bucket), 1)
+end
+
+local perMinute = 0
+local perFiveMinutes = 0
+local expired = {}
+local fields = redis.call('HGETALL', KEYS[1])
+for index = 1, #fields, 2 do
+    -- The seen: fields are not buckets and read as nil.
+    local fieldBucket = tonumber(fields[index])
+    if fieldBucket and fieldBucket <= bucket - windowBuckets then
+        expired[#expired + 1] = fields[index]
+    elseif fieldBucket and fieldBucket <= bucket then
+        local count = tonumber(fields[index + 1])
+        perFiveMinutes = perFiveMinutes + count
+        if fieldBucket > bucket - minuteBuckets then
+            perMinute = perMinute + count
+        end
+    end
+end
+if #expired > 0 and not late then
+    redis.call('HDEL', KEYS[1], unpack(expired))
+end
+
+redis.call('EXPIRE', KEYS[1], ARGV[5])
+-- Late or replayed events must not move last-seen backwards.
+if not previous or now > tonumber(previous) then
+    redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[5])
+else
+    redis.call('EXPIRE', KEYS[2], ARGV[5])
+end
+
+-- false becomes a nil reply, so a missing last-seen does not cut the late flag off the reply.
+return {perMinute, perFiveMinutes, previous or false, late and 1 or 0}
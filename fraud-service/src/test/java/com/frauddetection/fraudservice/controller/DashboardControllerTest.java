@@ -58,6 +58,7 @@ class DashboardControllerTest {
                 DecisionType.BLOCKED,
                 new BigDecimal("0.7300"),
                 new BigDecimal("0.8600"),
+                false,
                 Instant.parse("2026-02-24T07:30:00Z")
         );
 
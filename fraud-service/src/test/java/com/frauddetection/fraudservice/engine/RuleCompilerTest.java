@@ -0,0 +1,154 @@
+package com.frauddetection.fraudservice.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+import com.frauddetection.fraudservice.TestFixtures;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.rule.HighAmountRule;
+import com.frauddetection.fraudservice.rule.RapidTransactionRule;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RuleCompilerTest {
+
+    private final TransactionCreatedEvent transaction =
+            TestFixtures.transactionEvent("txn-1", "user-1", BigDecimal.valueOf(7500), "crypto-hub", "Lagos");
+    private final FeatureContext context =
+            new FeatureContext(4, 9, 30, new FeatureVector(Map.of("novelty.device.new", 1.0)));
+
+    @Test
+    void evaluatesArithmeticAndComparisons() {
+        assertThat(numeric("min(1, (amount - 5000) / 5000)")).isEqualTo(0.5);
+        assertThat(numeric("-transactions_per_minute + 2 * 3")).isEqualTo(2.0);
+        assertThat(numeric("max(abs(-2), seconds_since_last_transaction / 10)")).isEqualTo(3.0);
+        assertThat(condition("transactions_per_minute >= 4 and transactions_per_five_minutes < 10")).isTrue();
+        assertThat(condition("transactions_per_minute > 4 || !(amount <= 7500)")).isFalse();
+        assertThat(condition("not false and 2 * 3 == 6")).isTrue();
+    }
+
+    @Test
+    void readsStringsAndFeatures() {
+        assertThat(condition("currency == 'USD' and 'Lagos' == location")).isTrue();
+        assertThat(condition("merchant_id != 'crypto-hub'")).isFalse();
+        assertThat(condition("contains(merchant_id, 'crypto') and starts_with(device_id, 'device-')")).isTrue();
+        assertThat(condition("has_feature('novelty.device.new') and not has_feature('other')")).isTrue();
+        assertThat(numeric("feature('novelty.device.new') + feature('missing', 0.25)")).isEqualTo(1.25);
+    }
+
+    @Test
+    void treatsMissingValuesAsZeroOrUnequal() {
+        TransactionCreatedEvent blank = TestFixtures.transactionEvent("txn-2", "user-1", null, null, null);
+
+        assertThat(numeric("amount", blank)).isZero();
+        assertThat(condition("location == 'Lagos'", blank)).isFalse();
+        assertThat(condition("location != 'Lagos'", blank)).isTrue();
+        assertThat(condition("contains(merchant_id, 'x')", blank)).isFalse();
+    }
+
+    @Test
+    void reportsErrorsWithTheirPosition() {
+        assertThatThrownBy(() -> condition("amount >"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unexpected end");
+        assertThatThrownBy(() -> condition("amount + 1"))
+                .hasMessageContaining("expected a condition");
+        assertThatThrownBy(() -> numeric("balance * 2"))
+                .hasMessageContaining("unknown field 'balance' at position 1");
+        assertThatThrownBy(() -> condition("currency > 'EUR'"))
+                .hasMessageContaining("strings only support");
+        assertThatThrownBy(() -> condition("location == 3"))
+                .hasMessageContaining("cannot compare");
+        assertThatThrownBy(() -> condition("currency == 'USD"))
+                .hasMessageContaining("unterminated string");
+        assertThatThrownBy(() -> RuleExpressionParser.parse(" ", RuleExpression.Type.NUMBER))
+                .hasMessageContaining("empty expression");
+    }
+
+    @Test
+    void compiledDefinitionsMatchTheHandWrittenRules() {
+        Rule highAmount = RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("high_amount", 0.40,
+                List.of(new RuleSetDefinition.Case("amount > 5000", "min(1, (amount - 5000) / 5000)")), null));
+        Rule rapid = RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("rapid_transactions", 0.20, List.of(
+                new RuleSetDefinition.Case("transactions_per_minute >= 6 or transactions_per_five_minutes >= 12", "1"),
+                new RuleSetDefinition.Case("transactions_per_minute >= 4 or transactions_per_five_minutes >= 8", "0.80"),
+                new RuleSetDefinition.Case("transactions_per_minute >= 3 or transactions_per_five_minutes >= 6", "0.55"),
+                new RuleSetDefinition.Case("seconds_since_last_transaction <= 5", "0.45")
+        ), "0"));
+        HighAmountRule handWrittenHighAmount = new HighAmountRule();
+        RapidTransactionRule handWrittenRapid = new RapidTransactionRule();
+
+        Random random = new Random(5);
+        for (int index = 0; index < 1_000; index++) {
+            TransactionCreatedEvent event = TestFixtures.transactionEvent(
+                    "txn-" + index, "user-1", BigDecimal.valueOf(random.nextInt(1_500_000), 2), "merchant-1", "Austin, US");
+            FeatureContext features = new FeatureContext(random.nextInt(10), random.nextInt(16), random.nextInt(20));
+
+            // The hand-written rule rounds the ratio to four places; the compiled one keeps the double.
+            assertThat(highAmount.evaluate(event, features))
+                    .isCloseTo(handWrittenHighAmount.evaluate(event, features), offset(0.0001));
+            assertThat(rapid.evaluate(event, features)).isEqualTo(handWrittenRapid.evaluate(event, features));
+        }
+    }
+
+    @Test
+    void takesTheFirstMatchingCaseAndValidatesDefinitions() {
+        Rule tiered = RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("tiered", 0.3, List.of(
+                new RuleSetDefinition.Case("false", "0.1"),
+                new RuleSetDefinition.Case("6 <= transactions_per_minute", "1"),
+                new RuleSetDefinition.Case("transactions_per_minute > 3.5 and seconds_since_last_transaction < 60", "0.5")
+        ), null));
+
+        assertThat(tiered.name()).isEqualTo("tiered");
+        assertThat(tiered.weight()).isEqualTo(0.3);
+        assertThat(tiered.evaluate(transaction, new FeatureContext(6, 6, 600))).isEqualTo(1.0);
+        assertThat(tiered.evaluate(transaction, context)).isEqualTo(0.5);
+        assertThat(tiered.evaluate(transaction, new FeatureContext(3, 3, 30))).isZero();
+        assertThat(numeric("feature('nan') / feature('nan')")).isNaN();
+        assertThat(condition("feature('nan') / feature('nan') >= 0 or feature('nan') / feature('nan') < 0")).isFalse();
+
+        assertThatThrownBy(() -> RuleCompiler.compile(new RuleSetDefinition("v1", List.of(
+                new RuleSetDefinition.RuleDefinition("a", 0.1, List.of(), null),
+                new RuleSetDefinition.RuleDefinition("a", 0.1, List.of(), null)))))
+                .hasMessage("duplicate rule a");
+        assertThatThrownBy(() -> RuleCompiler.compile(new RuleSetDefinition("v1", List.of(
+                new RuleSetDefinition.RuleDefinition("b", -1, List.of(), null)))))
+                .hasMessage("rule b: weight must be a non-negative number");
+    }
+
+    @Test
+    void declaresTheFeaturesItsExpressionsRead() {
+        Rule rule = RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("features", 1.0, List.of(
+                new RuleSetDefinition.Case("has_feature('user.count') and not amount > feature('user.max', 1)", "1"),
+                new RuleSetDefinition.Case("transactions_per_minute > 3", "min(1, abs(feature('merchant.avg')))")
+        ), "feature('user.min') / 2"));
+        RuleSet ruleSet = new RuleSet("v1", List.of(rule, new HighAmountRule()));
+
+        assertThat(rule.requiredFeatures()).containsExactlyInAnyOrder("user.count", "user.max", "merchant.avg", "user.min");
+        assertThat(ruleSet.requiredFeatures()).isEqualTo(rule.requiredFeatures());
+        assertThat(RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("plain", 1.0, List.of(), "amount"))
+                .requiredFeatures()).isEmpty();
+    }
+
+    private double numeric(String expression) {
+        return numeric(expression, transaction);
+    }
+
+    private double numeric(String expression, TransactionCreatedEvent event) {
+        return RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("numeric", 1.0, List.of(), expression))
+                .evaluate(event, context);
+    }
+
+    private boolean condition(String expression) {
+        return condition(expression, transaction);
+    }
+
+    private boolean condition(String expression, TransactionCreatedEvent event) {
+        return RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("condition", 1.0,
+                List.of(new RuleSetDefinition.Case(expression, "1")), "0")).evaluate(event, context) == 1.0;
+    }
+}
@@ -36,5 +36,32 @@ class RuleEngineTest {
         assertThat(result.normalizedScore()).isBetween(0.0, 1.0);
         assertThat(result.individualRuleScores()).hasSize(4);
         assertThat(result.normalizedScore()).isGreaterThan(0.7);
+        assertThat(result.ruleSetVersion()).isEqualTo(RuleSet.BUILT_IN_VERSION);
+    }
+
+    @Test
+    void installsDefinedRulesOverBuiltInRulesByName() {
+        RuleEngine engine = new RuleEngine(List.of(new HighAmountRule(), new RapidTransactionRule()));
+        RuleSet builtIn = engine.ruleSet();
+
+        RuleSet installed = engine.install("v2", RuleCompiler.compile(new RuleSetDefinition("v2", List.of(
+                new RuleSetDefinition.RuleDefinition("flagged_currency", 0.5,
+                        List.of(new RuleSetDefinition.Case("currency == 'USD'", "1")), null),
+                new RuleSetDefinition.RuleDefinition("high_amount", 0.4,
+                        List.of(new RuleSetDefinition.Case("amount > 100", "1")), null)
+        ))));
+
+        RuleEvaluationResult result = engine.evaluate(
+                TestFixtures.transactionEvent("txn-2", "user-1", BigDecimal.valueOf(200), "merchant-1", "Austin, US"),
+                new FeatureContext(1, 1, 600)
+        );
+
+        assertThat(engine.ruleSet()).isSameAs(installed);
+        assertThat(installed.rules()).extracting(Rule::name)
+                .containsExactly("high_amount", "rapid_transactions", "flagged_currency");
+        assertThat(result.ruleSetVersion()).isEqualTo("v2");
+        assertThat(result.individualRuleScores()).containsEntry("high_amount", 1.0).containsEntry("flagged_currency", 1.0);
+        assertThat(builtIn.version()).isEqualTo(RuleSet.BUILT_IN_VERSION);
+        assertThat(builtIn.size()).isEqualTo(2);
     }
 }
@@ -0,0 +1,157 @@
+package com.frauddetection.fraudservice.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.model.TransactionStatus;
+import com.frauddetection.fraudservice.rule.HighAmountRule;
+import com.frauddetection.fraudservice.rule.RapidTransactionRule;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RuleSetTest {
+
+    private static final String[] MERCHANTS = {"crypto-hub", "crypto", "casino-9", "grocer-1", "", null};
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", null};
+
+    @Test
+    void derivesGuardsFromRuleCases() {
+        assertThat(guard("currency == 'EUR' and amount > 10")).satisfies(guard -> {
+            assertThat(guard.field()).isEqualTo("currency");
+            assertThat(guard.values()).containsExactly("EUR");
+        });
+        assertThat(guard("starts_with(merchant_id, 'crypto') or merchant_id == 'casino-9'")).satisfies(guard -> {
+            assertThat(guard.field()).isEqualTo("merchant_id");
+            assertThat(guard.values()).containsExactly("casino-9");
+            assertThat(guard.prefixes()).containsExactly("crypto");
+        });
+        assertThat(guard("amount >= 100 and 500 > amount").ranges())
+                .containsExactly(new RuleGuard.Range(100, true, 500, false));
+        assertThat(guard("currency == 'EUR' or amount > 10").always()).isTrue();
+        assertThat(guard("currency != 'EUR'").always()).isTrue();
+        assertThat(RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("fallback", 1.0,
+                List.of(new RuleSetDefinition.Case("currency == 'EUR'", "1")), "0.2")).guard().always()).isTrue();
+    }
+
+    @Test
+    void indexedEvaluationMatchesEvaluatingEveryRule() {
+        Random random = new Random(3);
+        List<Rule> rules = new ArrayList<>(List.of(new HighAmountRule(), new RapidTransactionRule()));
+        List<String> conditions = List.of(
+                "currency == 'EUR'",
+                "currency == 'GBP' and transactions_per_minute >= 3",
+                "starts_with(merchant_id, 'crypto') and amount > 50",
+                "starts_with(merchant_id, 'cr') or merchant_id == 'casino-9'",
+                "merchant_id == 'crypto'",
+                "starts_with(merchant_id, '')",
+                "amount > 1000",
+                "amount >= 100 and amount <= 200 or amount == 0",
+                "amount < 10",
+                "contains(merchant_id, 'o')"
+        );
+        for (int index = 0; index < 60; index++) {
+            String condition = conditions.get(index % conditions.size());
+            rules.add(RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("rule_" + index,
+                    random.nextInt(5) / 10.0, List.of(new RuleSetDefinition.Case(condition, "0.1 + " + random.nextDouble())),
+                    null)));
+        }
+        RuleSet indexed = new RuleSet("v1", rules);
+        RuleSet scanned = new RuleSet("v1", rules.stream().<Rule>map(Unguarded::new).toList());
+        RuleScores indexedScores = new RuleScores();
+        RuleScores scannedScores = new RuleScores();
+
+        assertThat(indexed.guardedRuleCount()).isEqualTo(54);
+        assertThat(scanned.guardedRuleCount()).isZero();
+        for (int index = 0; index < 2_000; index++) {
+            TransactionCreatedEvent event = event(
+                    random.nextInt(4) == 0 ? null : BigDecimal.valueOf(random.nextInt(150_000), 2),
+                    MERCHANTS[random.nextInt(MERCHANTS.length)],
+                    CURRENCIES[random.nextInt(CURRENCIES.length)]);
+            FeatureContext context = new FeatureContext(random.nextInt(6), random.nextInt(12), random.nextInt(60));
+
+            double indexedScore = indexed.evaluateInto(event, context, indexedScores);
+            double scannedScore = scanned.evaluateInto(event, context, scannedScores);
+
+            assertThat(indexedScore).isEqualTo(scannedScore);
+            assertThat(indexed.describe(indexedScore, indexedScores).individualRuleScores())
+                    .isEqualTo(scanned.describe(scannedScore, scannedScores).individualRuleScores());
+        }
+    }
+
+    @Test
+    void evaluatesOnlyRulesWhoseGuardTheEventMeets() {
+        AtomicInteger evaluations = new AtomicInteger();
+        List<Rule> rules = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            RuleGuard guard = RuleGuard.text("currency", Set.of("C" + index), Set.of());
+            rules.add(new CountingRule("currency_" + index, guard, evaluations));
+        }
+        rules.add(new CountingRule("amount", RuleGuard.amount(List.of(
+                new RuleGuard.Range(0, true, 100, false))), evaluations));
+        RuleSet ruleSet = new RuleSet("v1", rules);
+        RuleScores scores = new RuleScores();
+
+        double score = ruleSet.evaluateInto(event(BigDecimal.valueOf(50), "m", "C7"), new FeatureContext(0, 0, 0), scores);
+
+        assertThat(evaluations).hasValue(2);
+        assertThat(score).isEqualTo(2.0 / 101.0);
+        assertThat(scores.get(7)).isEqualTo(1.0);
+        assertThat(scores.get(100)).isEqualTo(1.0);
+
+        ruleSet.evaluateInto(event(BigDecimal.valueOf(500), "m", "C8"), new FeatureContext(0, 0, 0), scores);
+
+        assertThat(evaluations).hasValue(3);
+        assertThat(scores.get(7)).isZero();
+        assertThat(scores.get(8)).isEqualTo(1.0);
+        assertThat(scores.get(100)).isZero();
+    }
+
+    private static RuleGuard guard(String condition) {
+        return RuleCompiler.compile(new RuleSetDefinition.RuleDefinition("guarded", 1.0,
+                List.of(new RuleSetDefinition.Case(condition, "1")), null)).guard();
+    }
+
+    private static TransactionCreatedEvent event(BigDecimal amount, String merchantId, String currency) {
+        return new TransactionCreatedEvent(UUID.randomUUID(), "txn-1", "user-1", amount, currency, merchantId,
+                "Austin, US", "device-1", TransactionStatus.RECEIVED, Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    private record Unguarded(Rule rule) implements Rule {
+
+        @Override
+        public String name() {
+            return rule.name();
+        }
+
+        @Override
+        public double weight() {
+            return rule.weight();
+        }
+
+        @Override
+        public double evaluate(TransactionCreatedEvent transaction, FeatureContext featureContext) {
+            return rule.evaluate(transaction, featureContext);
+        }
+    }
+
+    private record CountingRule(String name, RuleGuard guard, AtomicInteger evaluations) implements Rule {
+
+        @Override
+        public double weight() {
+            return 1.0;
+        }
+
+        @Override
+        public double evaluate(TransactionCreatedEvent transaction, FeatureContext featureContext) {
+            evaluations.incrementAndGet();
+            return 1.0;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.frauddetection.fraudservice.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frauddetection.fraudservice.service.MlInferenceClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+class ConsumerBackpressureControllerTest {
+
+    private final KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final MlInferenceClient mlInferenceClient = mock(MlInferenceClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConsumerBackpressureController controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(listenerRegistry.getListenerContainer(ConsumerBackpressureController.LISTENER_ID)).thenReturn(container);
+        controller = new ConsumerBackpressureController(
+                listenerRegistry,
+                mlInferenceClient,
+                mock(ObjectProvider.class),
+                meterRegistry,
+                true,
+                200,
+                10,
+                100,
+                0.9,
+                true,
+                0.5
+        );
+    }
+
+    @Test
+    void pausesOnInFlightDepthAndResumesOnlyBelowTheResumeThreshold() {
+        controller.begin(10);
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isTrue();
+        verify(container).pause();
+
+        controller.end(3);
+        controller.evaluate();
+        verify(container, never()).resume();
+
+        controller.end(3);
+        controller.evaluate();
+        verify(container).resume();
+        assertThat(controller.isPaused()).isFalse();
+        assertThat(meterRegistry.get("fraud.kafka.consumer.pauses.total").tag("reason", "in_flight").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void pausesWhenRecentMlLatencyExceedsTheThreshold() {
+        meterRegistry.timer(MlInferenceClient.INFERENCE_LATENCY_METRIC).record(Duration.ofMillis(250));
+
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isTrue();
+        assertThat(meterRegistry.get("fraud.kafka.consumer.paused").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void pausesWhileTheMlCircuitIsOpenWhenConfigured() {
+        when(mlInferenceClient.isCircuitOpen()).thenReturn(true);
+        controller.evaluate();
+        controller.evaluate();
+
+        verify(container, times(1)).pause();
+
+        when(mlInferenceClient.isCircuitOpen()).thenReturn(false);
+        controller.evaluate();
+
+        verify(container).resume();
+    }
+
+    @Test
+    void derivesAReachableInFlightLimitFromTheShippedDefaults() {
+        // Defaults from application.yml: max-in-flight 0, concurrency 1, parallel max-in-flight 256, max-poll-records 500.
+        ConsumerBackpressureController parallel = defaultsController("parallel");
+        ConsumerBackpressureController batch = defaultsController("batch");
+        ConsumerBackpressureController record = defaultsController("record");
+
+        assertThat(parallel.maxInFlight()).isEqualTo(204).isLessThan(256);
+        assertThat(batch.maxInFlight()).isEqualTo(400).isLessThan(500);
+        assertThat(record.maxInFlight()).isEqualTo(Integer.MAX_VALUE);
+
+        parallel.begin(256);
+        parallel.evaluate();
+
+        assertThat(parallel.isPaused()).isTrue();
+        assertThat(meterRegistry.get("fraud.kafka.consumer.pauses.total").tag("reason", "in_flight").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void staysRunningWhenTheListenerIsNotRegistered() {
+        when(listenerRegistry.getListenerContainer(ConsumerBackpressureController.LISTENER_ID)).thenReturn(null);
+        controller.begin(50);
+
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConsumerBackpressureController defaultsController(String consumerMode) {
+        return new ConsumerBackpressureController(
+                listenerRegistry,
+                mlInferenceClient,
+                mock(ObjectProvider.class),
+                meterRegistry,
+                true,
+                200,
+                0,
+                400,
+                0.9,
+                false,
+                0.7,
+                consumerMode,
+                1,
+                256,
+                500
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package com.frauddetection.fraudservice.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeyOrderedRecordDispatcherTest {
+
+    private final KeyOrderedRecordDispatcher dispatcher = new KeyOrderedRecordDispatcher(8, 64);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void preservesOrderPerKey() throws InterruptedException {
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+
+        for (int sequence = 0; sequence < 200; sequence++) {
+            String userId = "user-" + (sequence % 5);
+            int value = sequence;
+            dispatcher.dispatch(userId, () -> processed
+                    .computeIfAbsent(userId, ignored -> new CopyOnWriteArrayList<>())
+                    .add(value));
+        }
+
+        assertThat(dispatcher.awaitIdle(Duration.ofSeconds(5))).isTrue();
+        assertThat(processed).hasSize(5);
+        processed.values().forEach(values -> assertThat(values).isSorted().hasSize(40));
+    }
+
+    @Test
+    void runsDifferentKeysConcurrently() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondKeyDone = new CountDownLatch(1);
+        String firstKey = keyForLane(0);
+        String secondKey = keyForLane(1);
+
+        dispatcher.dispatch(firstKey, () -> awaitQuietly(release));
+        dispatcher.dispatch(secondKey, secondKeyDone::countDown);
+
+        assertThat(secondKeyDone.await(2, TimeUnit.SECONDS)).isTrue();
+        await().atMost(Duration.ofSeconds(2)).until(() -> dispatcher.inFlight() == 1);
+
+        release.countDown();
+        assertThat(dispatcher.awaitIdle(Duration.ofSeconds(2))).isTrue();
+        assertThat(dispatcher.inFlight()).isZero();
+    }
+
+    private String keyForLane(int lane) {
+        for (int candidate = 0; ; candidate++) {
+            String key = "user-" + candidate;
+            if (Math.floorMod(key.hashCode(), 8) == lane) {
+                return key;
+            }
+        }
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
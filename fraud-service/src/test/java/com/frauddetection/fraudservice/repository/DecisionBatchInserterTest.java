@@ -0,0 +1,67 @@
+package com.frauddetection.fraudservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.frauddetection.fraudservice.model.DecisionType;
+import com.frauddetection.fraudservice.model.FraudDecision;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+class DecisionBatchInserterTest {
+
+    @Test
+    void insertsInBoundedMultiRowStatementsAndReturnsTheInsertedIds() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<Integer> statementRows = new ArrayList<>();
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> {
+                    String sql = invocation.getArgument(0);
+                    statementRows.add(sql.split("\\(\\?").length - 1);
+                    // Pretend the first row of every statement already existed.
+                    return statementRows.size() == 1 ? List.of("txn-1") : List.of("txn-1001");
+                });
+        List<FraudDecision> decisions = IntStream.range(0, DecisionBatchInserter.MAX_ROWS_PER_STATEMENT + 2)
+                .mapToObj(index -> decision("txn-" + index))
+                .toList();
+
+        assertThat(new DecisionBatchInserter(jdbcTemplate).insertIfAbsent(decisions))
+                .containsExactlyInAnyOrder("txn-1", "txn-1001");
+        assertThat(statementRows).containsExactly(DecisionBatchInserter.MAX_ROWS_PER_STATEMENT, 2);
+    }
+
+    @Test
+    void skipsConflictsInsteadOfFailingTheStatement() {
+        assertThat(DecisionBatchInserter.sql(2))
+                .contains("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")
+                .endsWith("on conflict (transaction_id) do nothing returning transaction_id");
+    }
+
+    private static FraudDecision decision(String transactionId) {
+        FraudDecision decision = new FraudDecision(
+                null,
+                transactionId,
+                "user-1",
+                new BigDecimal("0.1000"),
+                DecisionType.APPROVED,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.2000"),
+                BigDecimal.valueOf(40),
+                "USD",
+                "merchant-1",
+                "Austin, US",
+                null
+        );
+        decision.assignDefaults();
+        return decision;
+    }
+}
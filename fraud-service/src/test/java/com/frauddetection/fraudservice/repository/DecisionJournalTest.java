@@ -0,0 +1,89 @@
+package com.frauddetection.fraudservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DecisionJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void replaysEntriesThatWereNotCheckpointedBeforeReopen() throws Exception {
+        Path path = tempDir.resolve("journal.bin");
+        long firstEnd;
+        try (DecisionJournal journal = new DecisionJournal(path, 4096, false)) {
+            firstEnd = journal.append(bytes("first"));
+            journal.append(bytes("second"));
+            journal.append(bytes("third"));
+            journal.checkpoint(firstEnd);
+        }
+
+        try (DecisionJournal reopened = new DecisionJournal(path, 4096, false)) {
+            List<DecisionJournal.JournalEntry> entries = reopened.pendingEntries();
+
+            assertThat(entries).extracting(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+                    .containsExactly("second", "third");
+            assertThat(entries.get(0).endPosition()).isGreaterThan(firstEnd);
+        }
+    }
+
+    @Test
+    void rewindsOnceEverythingIsFlushed() throws Exception {
+        try (DecisionJournal journal = new DecisionJournal(tempDir.resolve("journal.bin"), 4096, false)) {
+            journal.append(bytes("first"));
+            long end = journal.append(bytes("second"));
+
+            journal.checkpoint(end);
+
+            assertThat(journal.pendingBytes()).isZero();
+            assertThat(journal.pendingEntries()).isEmpty();
+            assertThat(journal.append(bytes("third"))).isEqualTo(DecisionJournal.HEADER_BYTES + Integer.BYTES + 5L);
+        }
+    }
+
+    @Test
+    void rejectsAppendsWhenFull() throws Exception {
+        try (DecisionJournal journal = new DecisionJournal(tempDir.resolve("journal.bin"), 64, false)) {
+            assertThat(journal.append(new byte[20])).isPositive();
+            assertThat(journal.append(new byte[20])).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void reusesFlushedSpaceWhileTheWriterLagsBehindContinuousAppends() throws Exception {
+        Path path = tempDir.resolve("journal.bin");
+        List<Long> unflushedEnds = new ArrayList<>();
+        try (DecisionJournal journal = new DecisionJournal(path, 256, false)) {
+            // Roughly 60 times the ring size goes through, and the writer never fully catches up.
+            for (int index = 0; index < 1_000; index++) {
+                long end = journal.append(bytes("decision-" + index));
+                assertThat(end).as("append %d", index).isPositive();
+                unflushedEnds.add(end);
+                if (unflushedEnds.size() > 3) {
+                    journal.checkpoint(unflushedEnds.remove(0));
+                }
+                assertThat(journal.pendingBytes()).isPositive();
+            }
+
+            assertThat(journal.pendingEntries()).extracting(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+                    .containsExactly("decision-997", "decision-998", "decision-999");
+        }
+
+        try (DecisionJournal reopened = new DecisionJournal(path, 4096, false)) {
+            assertThat(reopened.pendingEntries()).extracting(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+                    .containsExactly("decision-997", "decision-998", "decision-999");
+            assertThat(reopened.pendingEntries().get(2).endPosition()).isEqualTo(unflushedEnds.get(2));
+        }
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
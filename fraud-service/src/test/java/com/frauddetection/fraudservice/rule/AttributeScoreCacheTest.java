@@ -0,0 +1,52 @@
+package com.frauddetection.fraudservice.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class AttributeScoreCacheTest {
+
+    @Test
+    void memoizesScoresPerAttributeAndConfiguration() {
+        AttributeScoreCache cache = new AttributeScoreCache(64);
+        AtomicInteger computations = new AtomicInteger();
+        String configuration = "v1";
+
+        assertThat(cache.score("casino-royal", configuration, (config, merchant) -> {
+            computations.incrementAndGet();
+            return 0.9;
+        })).isEqualTo(0.9);
+        assertThat(cache.score(new String("casino-royal"), configuration, (config, merchant) -> {
+            computations.incrementAndGet();
+            return 0.1;
+        })).isEqualTo(0.9);
+        assertThat(computations).hasValue(1);
+
+        // A new configuration instance misses even for an equal value.
+        assertThat(cache.score("casino-royal", new String("v1"), (config, merchant) -> {
+            computations.incrementAndGet();
+            return 0.4;
+        })).isEqualTo(0.4);
+        assertThat(computations).hasValue(2);
+
+        cache.clear();
+        assertThat(cache.score("casino-royal", configuration, (config, merchant) -> 0.2)).isEqualTo(0.2);
+    }
+
+    @Test
+    void staysBoundedWhenKeysCollide() {
+        AttributeScoreCache cache = new AttributeScoreCache(10);
+        AtomicInteger computations = new AtomicInteger();
+        for (int index = 0; index < 1_000; index++) {
+            cache.score("merchant-" + index, this, (config, merchant) -> computations.incrementAndGet());
+        }
+
+        assertThat(cache.capacity()).isEqualTo(16);
+        assertThat(computations).hasValue(1_000);
+        // "Aa" and "BB" share a hash code, so they take turns in one slot.
+        assertThat(cache.score("Aa", this, (config, merchant) -> 1.0)).isEqualTo(1.0);
+        assertThat(cache.score("BB", this, (config, merchant) -> 2.0)).isEqualTo(2.0);
+        assertThat(cache.score("Aa", this, (config, merchant) -> 3.0)).isEqualTo(3.0);
+    }
+}
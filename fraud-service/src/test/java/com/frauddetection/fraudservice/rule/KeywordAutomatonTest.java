@@ -0,0 +1,52 @@
+package com.frauddetection.fraudservice.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class KeywordAutomatonTest {
+
+    @Test
+    void findsOverlappingKeywordsThroughFailureLinks() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(Map.of(
+                "he", 0.2,
+                "she", 0.4,
+                "hers", 0.9,
+                "his", 0.3
+        ));
+
+        assertThat(automaton.maxWeight("ushers")).isEqualTo(0.9);
+        assertThat(automaton.strongestMatch("ushers")).isEqualTo("hers");
+        assertThat(automaton.maxWeight("xshex")).isEqualTo(0.4);
+        assertThat(automaton.maxWeight("ahisb")).isEqualTo(0.3);
+        assertThat(automaton.maxWeight("nothing-here")).isEqualTo(0.2);
+        assertThat(automaton.maxWeight("abc")).isZero();
+        assertThat(automaton.strongestMatch("abc")).isNull();
+    }
+
+    @Test
+    void matchesCaseInsensitivelyIncludingNonAscii() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(Map.of("Crypto", 1.0, "ÇASINO", 0.7));
+
+        assertThat(automaton.maxWeight("BEST-CRYPTO-exchange")).isEqualTo(1.0);
+        assertThat(automaton.maxWeight("grand-çasino-ltd")).isEqualTo(0.7);
+        assertThat(automaton.maxWeight(null)).isZero();
+    }
+
+    @Test
+    void scansLargeCatalogsInOnePass() {
+        Map<String, Double> keywords = new HashMap<>();
+        for (int index = 0; index < 20_000; index++) {
+            keywords.put("risk" + index + "x", 0.5);
+        }
+        keywords.put("mcc7995", 1.0);
+        KeywordAutomaton automaton = KeywordAutomaton.compile(keywords);
+
+        assertThat(automaton.keywordCount()).isEqualTo(20_001);
+        assertThat(automaton.maxWeight("merchant-risk1234x-01")).isEqualTo(0.5);
+        assertThat(automaton.maxWeight("merchant-risk1234-01")).isZero();
+        assertThat(automaton.maxWeight("shop-MCC7995-risk7x")).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.frauddetection.fraudservice.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class LocationGazetteerTest {
+
+    private final LocationGazetteer gazetteer = LocationGazetteer.builder()
+            .add("US", "US", LocationGazetteer.Kind.COUNTRY)
+            .add("CA", "CA", LocationGazetteer.Kind.COUNTRY)
+            .add("Canada", "ca", LocationGazetteer.Kind.COUNTRY)
+            .add("Texas", "US", LocationGazetteer.Kind.REGION)
+            .add("Los Angeles", "US", LocationGazetteer.Kind.CITY)
+            .add("Toronto", "CA", LocationGazetteer.Kind.CITY)
+            .add("St. Louis", "US", LocationGazetteer.Kind.CITY)
+            .add("CA", "US", LocationGazetteer.Kind.REGION_CODE)
+            .add("ON", "CA", LocationGazetteer.Kind.REGION_CODE)
+            .build();
+
+    @Test
+    void letsAKnownCityDecideTheCountry() {
+        assertThat(gazetteer.resolve("Los Angeles, CA")).isEqualTo("US");
+        assertThat(gazetteer.resolve("Toronto, US")).isEqualTo("CA");
+        assertThat(gazetteer.resolve("Toronto")).isEqualTo("CA");
+    }
+
+    @Test
+    void fallsBackToTheLastRegionOrCountry() {
+        assertThat(gazetteer.resolve("Springfield, Texas")).isEqualTo("US");
+        assertThat(gazetteer.resolve("Somewhere, Texas, Canada")).isEqualTo("CA");
+    }
+
+    @Test
+    void readsATrailingRegionCodeOfTheHomeCountryAsThatRegion() {
+        LocationGazetteer unitedStates = gazetteer.withHomeCountry("us");
+
+        assertThat(unitedStates.resolve("Springfield, CA")).isEqualTo("US");
+        assertThat(unitedStates.resolve("CA")).isEqualTo("CA");
+        assertThat(unitedStates.resolve("Toronto, CA")).isEqualTo("CA");
+        assertThat(gazetteer.resolve("Springfield, CA")).isEqualTo("CA");
+        assertThat(gazetteer.resolve("Kingston, ON")).isEqualTo("CA");
+        assertThat(gazetteer.resolve("ON")).isNull();
+    }
+
+    @Test
+    void foldsCaseDotsAndWhitespace() {
+        assertThat(gazetteer.resolve("  LOS   angeles ,ca")).isEqualTo("US");
+        assertThat(gazetteer.resolve("st louis")).isEqualTo("US");
+        assertThat(gazetteer.resolve("U.S.")).isEqualTo("US");
+    }
+
+    @Test
+    void returnsNullWhenNothingMatches() {
+        assertThat(gazetteer.resolve("Atlantis")).isNull();
+        assertThat(gazetteer.resolve("Los Angelesx")).isNull();
+        assertThat(gazetteer.resolve("Los")).isNull();
+        assertThat(gazetteer.resolve("")).isNull();
+        assertThat(gazetteer.resolve(null)).isNull();
+        assertThat(gazetteer.countryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsInvalidEntries() {
+        assertThatThrownBy(() -> LocationGazetteer.builder().add("a, b", "US", LocationGazetteer.Kind.CITY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LocationGazetteer.builder().add("Paris", " ", LocationGazetteer.Kind.CITY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.frauddetection.fraudservice.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocationResolverTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocationResolver resolver =
+            new LocationResolver(LocationResolver.builtInGazetteer(), new LocationRiskProperties());
+
+    @Test
+    void resolvesCountriesFromTheBuiltInGazetteer() {
+        assertThat(resolver.country("Phnom Penh, KH")).isEqualTo("KH");
+        assertThat(resolver.country("Sao Paulo")).isEqualTo("BR");
+        assertThat(resolver.country("Springfield, Illinois")).isEqualTo("US");
+        assertThat(resolver.country("Somewhere, Germany")).isEqualTo("DE");
+        assertThat(resolver.country("Somewhere, DEU")).isEqualTo("DE");
+        assertThat(resolver.country("New York, USA")).isEqualTo("US");
+        assertThat(resolver.country("Boise, ID")).isEqualTo("US");
+        assertThat(resolver.country("Springfield, CA")).isEqualTo("US");
+        assertThat(resolver.country("Jakarta, ID")).isEqualTo("ID");
+        assertThat(resolver.country("ID")).isEqualTo("ID");
+        assertThat(resolver.country("Unknown place")).isNull();
+    }
+
+    @Test
+    void scoresCountriesWithTheRiskTable() {
+        assertThat(resolver.risk("Lagos")).isEqualTo(1.0);
+        assertThat(resolver.risk("Bucharest, Romania")).isEqualTo(1.0);
+        assertThat(resolver.risk("Paris, FR")).isEqualTo(0.65);
+        assertThat(resolver.risk("Austin, TX")).isZero();
+        assertThat(resolver.risk("Unknown place")).isZero();
+        assertThat(resolver.risk(" ")).isZero();
+        assertThat(resolver.risk(null)).isZero();
+    }
+
+    @Test
+    void appliesConfiguredRisks() {
+        LocationRiskProperties properties = new LocationRiskProperties();
+        properties.setHomeCountry("gb");
+        properties.setUnknownRisk(0.3);
+        properties.setCountryRisk(Map.of("fr", 0.9));
+        LocationResolver configured = new LocationResolver(LocationResolver.builtInGazetteer(), properties);
+
+        assertThat(configured.risk("London, UK")).isZero();
+        assertThat(configured.risk("Paris")).isEqualTo(0.9);
+        assertThat(configured.risk("Moscow")).isEqualTo(0.65);
+        assertThat(configured.risk("Unknown place")).isEqualTo(0.3);
+    }
+
+    @Test
+    void returnsTheSameResultFromTheCache() {
+        LocationRiskProperties properties = new LocationRiskProperties();
+        properties.setCacheSize(16);
+        LocationResolver small = new LocationResolver(LocationResolver.builtInGazetteer(), properties);
+
+        for (int round = 0; round < 3; round++) {
+            for (String city : List.of("Moscow", "Toronto", "Austin", "Tokyo", "Lima", "Jakarta")) {
+                assertThat(small.country(city)).isEqualTo(resolver.country(city));
+            }
+        }
+    }
+
+    @Test
+    void loadsExtraEntriesOverTheBuiltInGazetteer() throws Exception {
+        Path file = directory.resolve("gazetteer.csv");
+        Files.write(file, List.of("# extra entries", "Gotham,US", "Paris,US,city", "Ruritania,RU,country"));
+        LocationRiskProperties properties = new LocationRiskProperties();
+        properties.setGazetteerPath(file.toString());
+        LocationResolver extended = new LocationResolver(properties);
+
+        assertThat(extended.country("Gotham")).isEqualTo("US");
+        assertThat(extended.country("Paris")).isEqualTo("US");
+        assertThat(extended.country("Somewhere, Ruritania")).isEqualTo("RU");
+        assertThat(extended.country("Tokyo")).isEqualTo("JP");
+    }
+
+    @Test
+    void keepsTheBuiltInGazetteerWhenTheFileIsInvalid() throws Exception {
+        Path file = directory.resolve("gazetteer.csv");
+        Files.write(file, List.of("Gotham,US,village"));
+        LocationRiskProperties properties = new LocationRiskProperties();
+        properties.setGazetteerPath(file.toString());
+
+        assertThat(new LocationResolver(properties).country("Gotham")).isNull();
+        assertThatThrownBy(() -> LocationResolver.addEntries(LocationGazetteer.builder(), List.of("Gotham")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 1");
+    }
+}
@@ -0,0 +1,43 @@
+package com.frauddetection.fraudservice.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MerchantKeywordCatalogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void usesBuiltInKeywordsWithoutACatalogFile() {
+        MerchantKeywordCatalog catalog = new MerchantKeywordCatalog("", 1_000);
+
+        assertThat(catalog.automaton().maxWeight("online-casino-7")).isEqualTo(1.0);
+        assertThat(catalog.reload()).isFalse();
+    }
+
+    @Test
+    void reloadsFileAndKeepsCurrentCatalogWhenTheFileIsInvalid() throws IOException {
+        Path file = directory.resolve("merchant-keywords.csv");
+        Files.writeString(file, "# keyword,weight\npawn,0.6\nmcc:7995, 1.0\n\nescrow\n");
+        MerchantKeywordCatalog catalog = new MerchantKeywordCatalog(file.toString(), 1_000);
+
+        assertThat(catalog.score("online-casino-7")).isEqualTo(1.0);
+        assertThat(catalog.reload()).isTrue();
+        assertThat(catalog.score("online-casino-7")).isZero();
+        assertThat(catalog.score("city-pawn-shop")).isEqualTo(0.6);
+        assertThat(catalog.automaton().maxWeight("city-pawn-shop")).isEqualTo(0.6);
+        assertThat(catalog.automaton().maxWeight("acme|MCC:7995")).isEqualTo(1.0);
+        assertThat(catalog.automaton().maxWeight("fast-escrow")).isEqualTo(1.0);
+        assertThat(catalog.automaton().maxWeight("online-casino-7")).isZero();
+
+        Files.writeString(file, "pawn,high\n");
+        assertThat(catalog.reload()).isFalse();
+        assertThat(catalog.automaton().maxWeight("city-pawn-shop")).isEqualTo(0.6);
+    }
+}
@@ -0,0 +1,50 @@
+package com.frauddetection.fraudservice.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.frauddetection.fraudservice.TestFixtures;
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.FeatureVector;
+import com.frauddetection.fraudservice.service.NoveltyService;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class NoveltyRuleTest {
+
+    private final NoveltyRule rule = new NoveltyRule(true);
+
+    @Test
+    void scoresNewDeviceAndLocationForKnownUser() {
+        double score = rule.evaluate(
+                TestFixtures.transactionEvent("txn-1", "user-1", BigDecimal.TEN, "merchant-1", "Austin, US"),
+                context(1.0, 1.0, 0.0, 1.0)
+        );
+
+        assertThat(score).isEqualTo(0.8);
+    }
+
+    @Test
+    void ignoresUsersWithoutHistory() {
+        double score = rule.evaluate(
+                TestFixtures.transactionEvent("txn-2", "user-1", BigDecimal.TEN, "merchant-1", "Austin, US"),
+                context(0.0, 1.0, 1.0, 1.0)
+        );
+
+        assertThat(score).isZero();
+    }
+
+    @Test
+    void carriesNoWeightWhenDisabled() {
+        assertThat(new NoveltyRule(false).weight()).isZero();
+        assertThat(rule.weight()).isEqualTo(0.15);
+    }
+
+    private FeatureContext context(double knownUser, double newDevice, double newMerchant, double newLocation) {
+        return new FeatureContext(1, 1, 600, FeatureVector.builder()
+                .put(NoveltyService.KNOWN_USER, knownUser)
+                .put(NoveltyService.NEW_DEVICE, newDevice)
+                .put(NoveltyService.NEW_MERCHANT, newMerchant)
+                .put(NoveltyService.NEW_LOCATION, newLocation)
+                .build());
+    }
+}
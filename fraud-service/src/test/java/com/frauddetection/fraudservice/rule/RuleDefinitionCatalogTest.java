@@ -0,0 +1,93 @@
+package com.frauddetection.fraudservice.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frauddetection.fraudservice.TestFixtures;
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.RuleEngine;
+import com.frauddetection.fraudservice.engine.RuleEvaluationResult;
+import com.frauddetection.fraudservice.engine.RuleSet;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RuleDefinitionCatalogTest {
+
+    @TempDir
+    Path directory;
+
+    private final RuleEngine ruleEngine = new RuleEngine(List.of(new HighAmountRule(), new RapidTransactionRule()));
+
+    @Test
+    void installsTheDefinedRuleSetWithItsVersion() throws Exception {
+        Path file = directory.resolve("rules.json");
+        Files.writeString(file, """
+                {"version": "2026-10-17.1", "rules": [
+                  {"name": "high_amount", "weight": 0.4,
+                   "cases": [{"when": "amount > 1000", "score": "min(1, (amount - 1000) / 1000)"}]}
+                ]}
+                """);
+        RuleDefinitionCatalog catalog = new RuleDefinitionCatalog(ruleEngine, new ObjectMapper(), file.toString(), 1000);
+
+        assertThat(catalog.reload()).isTrue();
+        RuleEvaluationResult result = ruleEngine.evaluate(
+                TestFixtures.transactionEvent("txn-1", "user-1", BigDecimal.valueOf(1500), "merchant-1", "Austin, US"),
+                new FeatureContext(1, 1, 600)
+        );
+
+        assertThat(result.ruleSetVersion()).isEqualTo("2026-10-17.1");
+        assertThat(result.individualRuleScores()).containsEntry("high_amount", 0.5).containsEntry("rapid_transactions", 0.0);
+    }
+
+    @Test
+    void versionsUnversionedFilesByContentHash() throws Exception {
+        Path file = directory.resolve("rules.json");
+        Files.writeString(file, """
+                {"rules": [{"name": "eur", "weight": 0.1, "cases": [{"when": "currency == 'EUR'", "score": 1}]}]}
+                """);
+        RuleDefinitionCatalog catalog = new RuleDefinitionCatalog(ruleEngine, new ObjectMapper(), file.toString(), 1000);
+
+        assertThat(catalog.reload()).isTrue();
+
+        assertThat(ruleEngine.ruleSet().version()).matches("sha256:[0-9a-f]{12}");
+        assertThat(ruleEngine.ruleCount()).isEqualTo(3);
+    }
+
+    @Test
+    void keepsTheCurrentRuleSetWhenTheFileDoesNotCompile() throws Exception {
+        Path file = directory.resolve("rules.json");
+        Files.writeString(file, """
+                {"version": "broken", "rules": [{"name": "high_amount", "weight": 0.4,
+                  "cases": [{"when": "amount >", "score": "1"}]}]}
+                """);
+        RuleDefinitionCatalog catalog = new RuleDefinitionCatalog(ruleEngine, new ObjectMapper(), file.toString(), 1000);
+        RuleSet before = ruleEngine.ruleSet();
+
+        assertThat(catalog.reload()).isFalse();
+        Files.writeString(file, "{not json");
+        assertThat(catalog.reload()).isFalse();
+
+        assertThat(ruleEngine.ruleSet()).isSameAs(before);
+        assertThat(new RuleDefinitionCatalog(ruleEngine, new ObjectMapper(), "", 1000).reload()).isFalse();
+    }
+
+    @Test
+    void reportsAFailedReloadInsteadOfThrowingWhenInstallingFails() throws Exception {
+        Path file = directory.resolve("rules.json");
+        Files.writeString(file, """
+                {"rules": [{"name": "eur", "weight": 0.1, "cases": [{"when": "currency == 'EUR'", "score": 1}]}]}
+                """);
+        RuleEngine failing = mock(RuleEngine.class);
+        when(failing.install(any(), anyList())).thenThrow(new IllegalStateException("rule set rejected"));
+
+        assertThat(new RuleDefinitionCatalog(failing, new ObjectMapper(), file.toString(), 1000).reload()).isFalse();
+    }
+}
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.frauddetection.fraudservice.TestFixtures;
 import com.frauddetection.fraudservice.engine.FeatureContext;
 import java.math.BigDecimal;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 class SuspiciousMerchantRuleTest {
@@ -30,4 +31,21 @@ class SuspiciousMerchantRuleTest {
 
         assertThat(score).isZero();
     }
+
+    @Test
+    void returnsTheHighestCatalogWeightAmongMatches() {
+        MerchantKeywordCatalog catalog = new MerchantKeywordCatalog("", 1_000) {
+            @Override
+            public KeywordAutomaton automaton() {
+                return KeywordAutomaton.compile(Map.of("pawn", 0.4, "gold", 0.7));
+            }
+        };
+
+        double score = new SuspiciousMerchantRule(catalog).evaluate(
+                TestFixtures.transactionEvent("txn-3", "user-1", BigDecimal.TEN, "Gold-And-Pawn-3", "Austin, US"),
+                new FeatureContext(1, 1, 120)
+        );
+
+        assertThat(score).isEqualTo(0.7);
+    }
 }
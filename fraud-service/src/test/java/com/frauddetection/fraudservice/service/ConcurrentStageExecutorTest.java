@@ -0,0 +1,74 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentStageExecutorTest {
+
+    private final ConcurrentStageExecutor stageExecutor = new ConcurrentStageExecutor("parallel", 4, 300);
+
+    @AfterEach
+    void tearDown() {
+        stageExecutor.shutdown();
+    }
+
+    @Test
+    void runsIndependentStagesConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        long deadlineNanos = stageExecutor.deadlineFromNow();
+
+        CompletableFuture<String> first = stageExecutor.fork(() -> awaitPeer(bothStarted, "dedup"));
+        CompletableFuture<String> second = stageExecutor.fork(() -> awaitPeer(bothStarted, "velocity"));
+
+        assertThat(stageExecutor.join("dedup", first, deadlineNanos, () -> "fallback")).isEqualTo("dedup");
+        assertThat(stageExecutor.join("velocity", second, deadlineNanos, () -> "fallback")).isEqualTo("velocity");
+    }
+
+    @Test
+    void returnsFallbackWhenStageMissesDeadline() {
+        long deadlineNanos = stageExecutor.deadlineFromNow();
+        CompletableFuture<String> slowStage = stageExecutor.fork(() -> {
+            sleep(2_000);
+            return "late";
+        });
+
+        long startNanos = System.nanoTime();
+        String result = stageExecutor.join("velocity", slowStage, deadlineNanos, () -> "fallback");
+
+        assertThat(result).isEqualTo("fallback");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)).isLessThan(1_500);
+    }
+
+    @Test
+    void returnsFallbackWhenStageFails() {
+        CompletableFuture<String> failingStage = stageExecutor.fork(() -> {
+            throw new IllegalStateException("redis down");
+        });
+
+        assertThat(stageExecutor.join("velocity", failingStage, stageExecutor.deadlineFromNow(), () -> "fallback"))
+                .isEqualTo("fallback");
+    }
+
+    private String awaitPeer(CountDownLatch bothStarted, String value) {
+        bothStarted.countDown();
+        try {
+            bothStarted.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return bothStarted.getCount() == 0 ? value : "sequential";
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
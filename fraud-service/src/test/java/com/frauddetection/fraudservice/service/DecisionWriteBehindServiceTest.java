@@ -0,0 +1,230 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frauddetection.fraudservice.event.FraudDecisionEvent;
+import com.frauddetection.fraudservice.event.FraudDecisionEventPublisher;
+import com.frauddetection.fraudservice.mapper.FraudDecisionMapper;
+import com.frauddetection.fraudservice.model.DecisionType;
+import com.frauddetection.fraudservice.model.FraudDecision;
+import com.frauddetection.fraudservice.repository.DecisionBatchInserter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+class DecisionWriteBehindServiceTest {
+
+    private static final String WRITER_THREAD = "fraud-decision-writer";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FraudDecisionEventPublisher eventPublisher = mock(FraudDecisionEventPublisher.class);
+    private final List<DecisionWriteBehindService> running = new ArrayList<>();
+    private final List<List<String>> flushedBatches = new CopyOnWriteArrayList<>();
+    private final List<String> writeThroughThreads = new CopyOnWriteArrayList<>();
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (DecisionWriteBehindService service : running) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void replaysUnflushedDecisionsOnStartAndFlushesThemInBatches() throws Exception {
+        DecisionBatchInserter unreachable = inserter(invocation -> {
+            throw new TransientDataAccessResourceException("database down");
+        });
+        DecisionWriteBehindService crashed = start(unreachable, 2);
+        for (String transactionId : List.of("txn-1", "txn-2", "txn-3")) {
+            crashed.enqueue(decision(transactionId), () -> published.add(transactionId));
+        }
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.counter("fraud.persistence.write_behind.flush.failures.total").count() >= 1);
+        stop(crashed);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Answer<Object> record = recordBatch();
+        DecisionWriteBehindService restarted = start(inserter(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return record.answer(invocation);
+        }), 2);
+
+        assertThat(List.of("txn-1", "txn-2", "txn-3")).allMatch(restarted::isPending);
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> !restarted.isPending("txn-3"));
+
+        assertThat(flushedBatches).containsExactly(List.of("txn-1", "txn-2"), List.of("txn-3"));
+        assertThat(restarted.isPending("txn-1")).isFalse();
+        // The decisions were never inserted before the crash, so nothing published them yet; the replay does.
+        assertThat(published).isEmpty();
+        ArgumentCaptor<FraudDecisionEvent> replayed = ArgumentCaptor.forClass(FraudDecisionEvent.class);
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> verify(eventPublisher, times(3)).publish(replayed.capture()));
+        assertThat(replayed.getAllValues())
+                .extracting(FraudDecisionEvent::transactionId)
+                .containsSubsequence("txn-1", "txn-2", "txn-3");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishesOnlyTheDecisionsWhoseInsertSucceeded() throws Exception {
+        Answer<Object> record = recordBatch();
+        CountDownLatch release = new CountDownLatch(1);
+        DecisionWriteBehindService service = start(inserter(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            Set<String> inserted = new HashSet<>((Set<String>) record.answer(invocation));
+            // A redelivery the duplicate checks missed: its row was already in the table.
+            inserted.remove("txn-2");
+            return inserted;
+        }), 10);
+
+        for (String transactionId : List.of("txn-1", "txn-2", "txn-3")) {
+            service.enqueue(decision(transactionId), () -> published.add(Thread.currentThread().getName() + ":" + transactionId));
+        }
+        service.enqueue(decision("txn-1"), () -> published.add("again:txn-1"));
+
+        assertThat(published).isEmpty();
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> !service.isPending("txn-3"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> published.size() == 2);
+        assertThat(published).containsExactly(WRITER_THREAD + ":txn-1", WRITER_THREAD + ":txn-3");
+        assertThat(flushedBatches).flatMap(batch -> batch).containsExactly("txn-1", "txn-2", "txn-3");
+    }
+
+    @Test
+    void retriesFailedFlushUntilTheDatabaseRecovers() throws Exception {
+        Answer<Object> record = recordBatch();
+        CountDownLatch recovered = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        DecisionWriteBehindService service = start(inserter(invocation -> {
+            if (attempts.getAndIncrement() < 2) {
+                throw new TransientDataAccessResourceException("database down");
+            }
+            recovered.await(5, TimeUnit.SECONDS);
+            return record.answer(invocation);
+        }), 10);
+
+        service.enqueue(decision("txn-1"), () -> published.add("txn-1"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> attempts.get() == 3);
+
+        assertThat(service.isPending("txn-1")).isTrue();
+        recovered.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> !service.isPending("txn-1"));
+        assertThat(flushedBatches).containsExactly(List.of("txn-1"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> published.equals(List.of("txn-1")));
+        assertThat(meterRegistry.counter("fraud.persistence.write_behind.flush.failures.total").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.counter("fraud.persistence.write_behind.flushed.total").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void writesThroughOnTheCallingThreadWhenTheJournalIsFull() throws Exception {
+        Answer<Object> record = recordBatch();
+        // The background writer cannot reach the database, so the journal is never checkpointed and fills up.
+        DecisionWriteBehindService service = start(inserter(invocation -> {
+            if (Thread.currentThread().getName().equals(WRITER_THREAD)) {
+                throw new TransientDataAccessResourceException("database down");
+            }
+            writeThroughThreads.add(Thread.currentThread().getName());
+            return record.answer(invocation);
+        }), 10);
+
+        String lastTransactionId = null;
+        for (int index = 0; index < 20_000 && flushedBatches.isEmpty(); index++) {
+            lastTransactionId = "txn-" + index;
+            String transactionId = lastTransactionId;
+            service.enqueue(decision(transactionId), () -> published.add(transactionId));
+        }
+
+        assertThat(flushedBatches).containsExactly(List.of(lastTransactionId));
+        assertThat(published).containsExactly(lastTransactionId);
+        assertThat(writeThroughThreads).containsExactly(Thread.currentThread().getName());
+        assertThat(service.isPending(lastTransactionId)).isFalse();
+        assertThat(service.isPending("txn-0")).isTrue();
+        assertThat(meterRegistry.counter("fraud.persistence.write_behind.sync_fallback.total").count()).isEqualTo(1.0);
+    }
+
+    private DecisionWriteBehindService start(DecisionBatchInserter inserter, int batchSize) throws Exception {
+        DecisionWriteBehindService service = new DecisionWriteBehindService(
+                inserter,
+                objectMapper,
+                new FraudDecisionMapper(),
+                eventPublisher,
+                meterRegistry,
+                true,
+                tempDir.resolve("decision-journal.bin").toString(),
+                1,
+                false,
+                batchSize,
+                5,
+                1
+        );
+        service.start();
+        running.add(service);
+        return service;
+    }
+
+    private void stop(DecisionWriteBehindService service) throws Exception {
+        running.remove(service);
+        service.shutdown();
+    }
+
+    private static DecisionBatchInserter inserter(Answer<Object> answer) {
+        DecisionBatchInserter inserter = mock(DecisionBatchInserter.class);
+        when(inserter.insertIfAbsent(anyList())).thenAnswer(answer);
+        return inserter;
+    }
+
+    private Answer<Object> recordBatch() {
+        return invocation -> {
+            List<FraudDecision> decisions = invocation.getArgument(0);
+            List<String> transactionIds = decisions.stream().map(FraudDecision::getTransactionId).toList();
+            flushedBatches.add(transactionIds);
+            return Set.copyOf(transactionIds);
+        };
+    }
+
+    private static FraudDecision decision(String transactionId) {
+        return new FraudDecision(
+                null,
+                transactionId,
+                "user-1",
+                new BigDecimal("0.1000"),
+                DecisionType.APPROVED,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.2000"),
+                BigDecimal.valueOf(40),
+                "USD",
+                "merchant-1",
+                "Austin, US",
+                null
+        );
+    }
+}
@@ -0,0 +1,70 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class FeatureStateSnapshotServiceTest {
+
+    private final FeatureStateSnapshotService snapshotService = new FeatureStateSnapshotService(
+            mock(LocalVelocityService.class),
+            mock(RecentTransactionFilter.class),
+            new SimpleMeterRegistry(),
+            true,
+            "unused",
+            10_000,
+            "transactions"
+    );
+
+    @Test
+    void advancesTheAppliedOffsetOnlyPastContiguouslyFinishedRecords() {
+        snapshotService.markDispatched(0, 100);
+        snapshotService.markDispatched(0, 101);
+        snapshotService.markDispatched(0, 102);
+
+        snapshotService.markApplied(0, 102);
+        assertThat(snapshotService.appliedOffset(0)).isEqualTo(100);
+
+        snapshotService.markApplied(0, 100);
+        assertThat(snapshotService.appliedOffset(0)).isEqualTo(101);
+
+        snapshotService.markApplied(0, 101);
+        assertThat(snapshotService.appliedOffset(0)).isEqualTo(103);
+        assertThat(snapshotService.appliedOffset(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void recordsAppliedInlineAdvanceTheOffsetBehindNoUnfinishedRecord() {
+        snapshotService.markApplied(0, 7);
+        snapshotService.markDispatched(0, 8);
+        snapshotService.markApplied(0, 9);
+
+        assertThat(snapshotService.appliedOffset(0)).isEqualTo(8);
+
+        snapshotService.markApplied(0, 8);
+        assertThat(snapshotService.appliedOffset(0)).isEqualTo(10);
+    }
+
+    @Test
+    void forgetsUnfinishedRecordsOfRevokedPartitions() {
+        snapshotService.markDispatched(0, 5);
+        snapshotService.markDispatched(0, 6);
+        snapshotService.markApplied(0, 6);
+
+        snapshotService.onPartitionsRevokedAfterCommit(
+                mock(Consumer.class), List.of(new TopicPartition("transactions", 0)));
+        snapshotService.markApplied(0, 5);
+
+        assertThat(snapshotService.appliedOffset(0)).isEqualTo(7);
+
+        // A redelivery after the rebalance does not move the offset backwards.
+        snapshotService.markDispatched(0, 5);
+        snapshotService.markApplied(0, 5);
+        assertThat(snapshotService.appliedOffset(0)).isEqualTo(7);
+    }
+}
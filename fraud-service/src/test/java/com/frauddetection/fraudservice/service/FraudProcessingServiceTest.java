@@ -1,7 +1,11 @@
 package com.frauddetection.fraudservice.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -9,30 +13,41 @@ import static org.mockito.Mockito.when;
 
 import com.frauddetection.fraudservice.TestFixtures;
 import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.FeatureVector;
 import com.frauddetection.fraudservice.engine.RuleEngine;
 import com.frauddetection.fraudservice.engine.RuleEvaluationResult;
+import com.frauddetection.fraudservice.engine.RuleSet;
 import com.frauddetection.fraudservice.event.FraudDecisionEvent;
 import com.frauddetection.fraudservice.event.FraudDecisionEventPublisher;
 import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
 import com.frauddetection.fraudservice.mapper.FraudDecisionMapper;
 import com.frauddetection.fraudservice.model.DecisionType;
 import com.frauddetection.fraudservice.model.FraudDecision;
+import com.frauddetection.fraudservice.repository.DecisionBatchInserter;
 import com.frauddetection.fraudservice.repository.FraudDecisionRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class FraudProcessingServiceTest {
@@ -40,6 +55,9 @@ class FraudProcessingServiceTest {
     @Mock
     private FraudDecisionRepository fraudDecisionRepository;
 
+    @Mock
+    private DecisionBatchInserter decisionBatchInserter;
+
     @Mock
     private FeatureEngineeringService featureEngineeringService;
 
@@ -70,24 +88,49 @@ class FraudProcessingServiceTest {
     @Mock
     private DashboardStreamService dashboardStreamService;
 
+    @Mock
+    private ConcurrentStageExecutor stageExecutor;
+
+    @Mock
+    private RecentTransactionFilter recentTransactionFilter;
+
+    @Mock
+    private DecisionWriteBehindService decisionWriteBehindService;
+
+    @Mock
+    private PrimitiveScoringService primitiveScoringService;
+
+    @Mock
+    private TieredMlGate tieredMlGate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Mock
     private MeterRegistry meterRegistry;
 
     @Mock
     private Timer processingTimer;
 
+    @Mock
+    private Timer batchTimer;
+
     @Mock
     private Counter decisionCounter;
 
+    private final SimpleMeterRegistry stageMeterRegistry = new SimpleMeterRegistry();
+
     private FraudProcessingService fraudProcessingService;
 
     @BeforeEach
     void setUp() {
         when(meterRegistry.timer("fraud.processing.latency")).thenReturn(processingTimer);
+        when(meterRegistry.timer("fraud.processing.batch.latency")).thenReturn(batchTimer);
         lenient().when(meterRegistry.counter(eq("fraud.decisions.total"), any(String[].class)))
                 .thenReturn(decisionCounter);
         fraudProcessingService = new FraudProcessingService(
                 fraudDecisionRepository,
+                decisionBatchInserter,
                 featureEngineeringService,
                 mlFeatureEngineeringService,
                 mlInferenceClient,
@@ -98,6 +141,13 @@ class FraudProcessingServiceTest {
                 mapper,
                 eventPublisher,
                 dashboardStreamService,
+                stageExecutor,
+                recentTransactionFilter,
+                decisionWriteBehindService,
+                primitiveScoringService,
+                new StageLatencyRecorder(stageMeterRegistry, 64),
+                tieredMlGate,
+                transactionManager,
                 meterRegistry
         );
     }
@@ -155,8 +205,8 @@ class FraudProcessingServiceTest {
                 .thenReturn(new RuleEvaluationResult(0.82, Map.of("high_amount", 1.0)));
         when(mlFeatureEngineeringService.buildRequest(transaction, new FeatureContext(5, 9, 2)))
                 .thenReturn(mlPredictionRequest);
-        when(mlInferenceClient.predictScore(mlPredictionRequest, new BigDecimal("0.8200")))
-                .thenReturn(CompletableFuture.completedFuture(new BigDecimal("0.9100")));
+        when(mlInferenceClient.predict(mlPredictionRequest, new BigDecimal("0.8200")))
+                .thenReturn(CompletableFuture.completedFuture(new MlPrediction(new BigDecimal("0.9100"), false)));
         when(riskAggregationService.aggregate(new BigDecimal("0.8200"), new BigDecimal("0.9100")))
                 .thenReturn(new BigDecimal("0.8740"));
         when(decisionEngine.decide(new BigDecimal("0.8740"))).thenReturn(DecisionType.BLOCKED);
@@ -189,13 +239,34 @@ class FraudProcessingServiceTest {
 
         verify(featureEngineeringService, never()).buildFeatureContext(any());
         verify(mlFeatureEngineeringService, never()).buildRequest(any(), any());
-        verify(mlInferenceClient, never()).predictScore(any(), any());
+        verify(mlInferenceClient, never()).predict(any(), any());
         verify(modelQualityMonitoringService, never()).recordMlScore(any());
         verify(fraudDecisionRepository, never()).save(any());
         verify(eventPublisher, never()).publish(any());
         verify(dashboardStreamService, never()).publish(any());
     }
 
+    @Test
+    void skipsTransactionWithPendingWriteBehindDecisionInParallelStageMode() {
+        TransactionCreatedEvent transaction = TestFixtures.transactionEvent(
+                "txn-2",
+                "user-2",
+                BigDecimal.valueOf(100),
+                "merchant-1",
+                "Austin, US"
+        );
+
+        when(stageExecutor.isEnabled()).thenReturn(true);
+        when(decisionWriteBehindService.isPending("txn-2")).thenReturn(true);
+
+        fraudProcessingService.processAndPublish(transaction);
+
+        verify(stageExecutor, never()).fork(any());
+        verify(fraudDecisionRepository, never()).findByTransactionId(any());
+        verify(featureEngineeringService, never()).buildFeatureContext(any());
+        verify(eventPublisher, never()).publish(any());
+    }
+
     @Test
     void fallsBackToRuleScoreWhenMlInferenceFails() {
         TransactionCreatedEvent transaction = TestFixtures.transactionEvent(
@@ -234,7 +305,7 @@ class FraudProcessingServiceTest {
                 .thenReturn(new RuleEvaluationResult(0.55, Map.of("rapid_transactions", 0.8)));
         when(mlFeatureEngineeringService.buildRequest(transaction, new FeatureContext(4, 4, 10)))
                 .thenReturn(mlPredictionRequest);
-        when(mlInferenceClient.predictScore(mlPredictionRequest, new BigDecimal("0.5500")))
+        when(mlInferenceClient.predict(mlPredictionRequest, new BigDecimal("0.5500")))
                 .thenReturn(CompletableFuture.failedFuture(new CompletionException(new RuntimeException("timeout"))));
         when(riskAggregationService.aggregate(new BigDecimal("0.5500"), new BigDecimal("0.5500")))
                 .thenReturn(new BigDecimal("0.5500"));
@@ -261,7 +332,346 @@ class FraudProcessingServiceTest {
         fraudProcessingService.processAndPublish(transaction);
 
         verify(riskAggregationService).aggregate(new BigDecimal("0.5500"), new BigDecimal("0.5500"));
-        verify(modelQualityMonitoringService).recordMlScore(new BigDecimal("0.5500"));
+        verify(modelQualityMonitoringService, never()).recordMlScore(any());
+        verify(tieredMlGate, never()).observe(any(), any());
+        verify(fraudDecisionRepository).save(savedDecision);
+    }
+
+    @Test
+    void recordsSkippedMlInferenceWithoutAScore() {
+        TransactionCreatedEvent transaction = TestFixtures.transactionEvent(
+                "txn-4",
+                "user-4",
+                BigDecimal.valueOf(25),
+                "merchant-1",
+                "Austin, US"
+        );
+
+        MlPredictionRequest mlPredictionRequest = new MlPredictionRequest(
+                new BigDecimal("25.0000"),
+                1,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.0000")
+        );
+
+        FraudDecision savedDecision = new FraudDecision(
+                UUID.randomUUID(),
+                "txn-4",
+                "user-4",
+                new BigDecimal("0.0600"),
+                DecisionType.APPROVED,
+                new BigDecimal("0.0000"),
+                null,
+                BigDecimal.valueOf(25),
+                "USD",
+                "merchant-1",
+                "Austin, US",
+                Instant.now()
+        );
+
+        when(fraudDecisionRepository.findByTransactionId("txn-4")).thenReturn(Optional.empty());
+        when(featureEngineeringService.buildFeatureContext(transaction)).thenReturn(new FeatureContext(1, 1, 600));
+        when(ruleEngine.evaluate(transaction, new FeatureContext(1, 1, 600)))
+                .thenReturn(new RuleEvaluationResult(0.0, Map.of()));
+        when(tieredMlGate.conclusiveMlScore(new BigDecimal("0.0000"))).thenReturn(new BigDecimal("0.1000"));
+        when(mlFeatureEngineeringService.buildRequest(transaction, new FeatureContext(1, 1, 600)))
+                .thenReturn(mlPredictionRequest);
+        when(riskAggregationService.aggregate(new BigDecimal("0.0000"), new BigDecimal("0.1000")))
+                .thenReturn(new BigDecimal("0.0600"));
+        when(decisionEngine.decide(new BigDecimal("0.0600"))).thenReturn(DecisionType.APPROVED);
+        when(mapper.toEntity(any(), any(), any(), any(), isNull())).thenReturn(savedDecision);
+        when(fraudDecisionRepository.save(savedDecision)).thenReturn(savedDecision);
+
+        fraudProcessingService.processAndPublish(transaction);
+
+        assertThat(savedDecision.isMlSkipped()).isTrue();
+        verify(mlInferenceClient, never()).predict(any(), any());
+        verify(modelQualityMonitoringService, never()).recordMlScore(any());
+        verify(tieredMlGate, never()).observe(any(), any());
         verify(fraudDecisionRepository).save(savedDecision);
     }
+
+    @Test
+    void settlesUnreadFeatureSourcesAfterTheTransactionCommits() {
+        TransactionCreatedEvent transaction = TestFixtures.transactionEvent(
+                "txn-5",
+                "user-5",
+                BigDecimal.valueOf(25),
+                "merchant-1",
+                "Austin, US"
+        );
+        List<String> steps = new ArrayList<>();
+        LazyFeatures lazyFeatures = new LazyFeatures(
+                new VelocityStats(1, 1, 600),
+                List.of(new LazyFeatures.Source("feature_aggregates", "user.count"::equals, () -> {
+                    steps.add("feature_aggregates_lookup");
+                    return FeatureVector.EMPTY;
+                }, () -> steps.add("feature_aggregates_record"))),
+                new ConcurrentStageExecutor("sequential", 1, 300),
+                Set.of()
+        );
+        FraudDecision savedDecision = new FraudDecision(
+                UUID.randomUUID(),
+                "txn-5",
+                "user-5",
+                new BigDecimal("0.0600"),
+                DecisionType.APPROVED,
+                new BigDecimal("0.0000"),
+                null,
+                BigDecimal.valueOf(25),
+                "USD",
+                "merchant-1",
+                "Austin, US",
+                Instant.now()
+        );
+
+        when(featureEngineeringService.isLazy()).thenReturn(true);
+        when(fraudDecisionRepository.findByTransactionId("txn-5")).thenReturn(Optional.empty());
+        when(ruleEngine.ruleSet()).thenReturn(new RuleSet(RuleSet.BUILT_IN_VERSION, List.of()));
+        when(featureEngineeringService.resolveLazily(eq(transaction), any())).thenReturn(lazyFeatures);
+        when(ruleEngine.evaluate(transaction, new FeatureContext(1, 1, 600)))
+                .thenReturn(new RuleEvaluationResult(0.0, Map.of()));
+        when(tieredMlGate.conclusiveMlScore(new BigDecimal("0.0000"))).thenReturn(new BigDecimal("0.1000"));
+        when(riskAggregationService.aggregate(new BigDecimal("0.0000"), new BigDecimal("0.1000")))
+                .thenReturn(new BigDecimal("0.0600"));
+        when(decisionEngine.decide(new BigDecimal("0.0600"))).thenReturn(DecisionType.APPROVED);
+        when(mapper.toEntity(any(), any(), any(), any(), isNull())).thenReturn(savedDecision);
+        when(fraudDecisionRepository.save(savedDecision)).thenAnswer(invocation -> {
+            steps.add("save");
+            return savedDecision;
+        });
+        doAnswer(invocation -> steps.add("commit")).when(transactionManager).commit(any());
+
+        fraudProcessingService.processAndPublish(transaction);
+
+        assertThat(steps).containsExactly("save", "commit", "feature_aggregates_record");
+    }
+
+    @Test
+    void processesBatchWithSingleLookupAndBulkWrite() {
+        TransactionCreatedEvent fresh = TestFixtures.transactionEvent(
+                "txn-10",
+                "user-10",
+                BigDecimal.valueOf(120),
+                "merchant-1",
+                "Austin, US"
+        );
+        TransactionCreatedEvent alreadyDecided = TestFixtures.transactionEvent(
+                "txn-11",
+                "user-11",
+                BigDecimal.valueOf(80),
+                "merchant-2",
+                "Austin, US"
+        );
+
+        MlPredictionRequest mlPredictionRequest = new MlPredictionRequest(
+                new BigDecimal("120.0000"),
+                1,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.0000")
+        );
+        FraudDecision entity = new FraudDecision(
+                UUID.randomUUID(),
+                "txn-10",
+                "user-10",
+                new BigDecimal("0.0600"),
+                DecisionType.APPROVED,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.1000"),
+                BigDecimal.valueOf(120),
+                "USD",
+                "merchant-1",
+                "Austin, US",
+                Instant.now()
+        );
+        FraudDecisionEvent decisionEvent = new FraudDecisionEvent(
+                entity.getId(),
+                "txn-10",
+                "user-10",
+                new BigDecimal("0.0600"),
+                DecisionType.APPROVED,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.1000"),
+                BigDecimal.valueOf(120),
+                "USD",
+                "merchant-1",
+                "Austin, US",
+                entity.getCreatedAt()
+        );
+
+        when(fraudDecisionRepository.findExistingTransactionIds(any())).thenReturn(List.of("txn-11"));
+        when(featureEngineeringService.buildFeatureContexts(List.of(fresh)))
+                .thenReturn(List.of(new FeatureContext(1, 1, Long.MAX_VALUE)));
+        when(ruleEngine.evaluate(fresh, new FeatureContext(1, 1, Long.MAX_VALUE)))
+                .thenReturn(new RuleEvaluationResult(0.0, Map.of()));
+        when(mlFeatureEngineeringService.buildRequest(fresh, new FeatureContext(1, 1, Long.MAX_VALUE)))
+                .thenReturn(mlPredictionRequest);
+        when(mlInferenceClient.predict(mlPredictionRequest, new BigDecimal("0.0000")))
+                .thenReturn(CompletableFuture.completedFuture(new MlPrediction(new BigDecimal("0.1000"), false)));
+        when(riskAggregationService.aggregate(new BigDecimal("0.0000"), new BigDecimal("0.1000")))
+                .thenReturn(new BigDecimal("0.0600"));
+        when(decisionEngine.decide(new BigDecimal("0.0600"))).thenReturn(DecisionType.APPROVED);
+        when(mapper.toEntity(any(), any(), any(), any(), any())).thenReturn(entity);
+        when(decisionBatchInserter.insertIfAbsent(List.of(entity))).thenReturn(Set.of("txn-10"));
+        when(mapper.toEvent(entity)).thenReturn(decisionEvent);
+
+        fraudProcessingService.processBatchAndPublish(List.of(fresh, alreadyDecided, fresh));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> lookupCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(fraudDecisionRepository).findExistingTransactionIds(lookupCaptor.capture());
+        assertThat(lookupCaptor.getValue()).containsExactly("txn-10", "txn-11");
+        verify(fraudDecisionRepository, never()).findByTransactionId(any());
+        verify(decisionBatchInserter).insertIfAbsent(List.of(entity));
+        verify(fraudDecisionRepository, never()).saveAll(any());
+        verify(fraudDecisionRepository, never()).save(any());
+        verify(eventPublisher).publishAll(List.of(decisionEvent));
+        verify(dashboardStreamService).publish(entity);
+        verify(featureEngineeringService, never()).buildFeatureContext(any());
+        verify(batchTimer).record(anyLong(), eq(TimeUnit.NANOSECONDS));
+        verify(processingTimer, never()).record(anyLong(), any(TimeUnit.class));
+        // Both events went through the batch dedup, which ran once and is sampled once.
+        assertThat(stageMeterRegistry.get(StageLatencyRecorder.STAGE_LATENCY_METRIC).tag("stage", "dedup").timer().count())
+                .isEqualTo(1);
+        assertThat(stageMeterRegistry.get(StageLatencyRecorder.STAGE_LATENCY_METRIC).tag("stage", "persist").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void doesNotPublishBatchDecisionsTheInsertSkippedAsDuplicates() {
+        TransactionCreatedEvent redelivered = TestFixtures.transactionEvent(
+                "txn-12",
+                "user-12",
+                BigDecimal.valueOf(25),
+                "merchant-1",
+                "Austin, US"
+        );
+        FraudDecision entity = new FraudDecision();
+        entity.setTransactionId("txn-12");
+
+        when(fraudDecisionRepository.findExistingTransactionIds(any())).thenReturn(List.of());
+        when(featureEngineeringService.buildFeatureContexts(List.of(redelivered)))
+                .thenReturn(List.of(new FeatureContext(1, 1, 600)));
+        when(ruleEngine.evaluate(redelivered, new FeatureContext(1, 1, 600)))
+                .thenReturn(new RuleEvaluationResult(0.0, Map.of()));
+        when(tieredMlGate.conclusiveMlScore(new BigDecimal("0.0000"))).thenReturn(new BigDecimal("0.1000"));
+        when(riskAggregationService.aggregate(new BigDecimal("0.0000"), new BigDecimal("0.1000")))
+                .thenReturn(new BigDecimal("0.0600"));
+        when(decisionEngine.decide(new BigDecimal("0.0600"))).thenReturn(DecisionType.APPROVED);
+        when(mapper.toEntity(any(), any(), any(), any(), isNull())).thenReturn(entity);
+        when(decisionBatchInserter.insertIfAbsent(List.of(entity))).thenReturn(Set.of());
+
+        fraudProcessingService.processBatchAndPublish(List.of(redelivered));
+
+        assertThat(entity.getId()).isNotNull();
+        verify(eventPublisher).publishAll(List.of());
+        verify(dashboardStreamService, never()).publish(any());
+        verify(fraudDecisionRepository, never()).save(any());
+    }
+
+    @Test
+    void skipsDatabaseLookupAndInsertsIdempotentlyOnBloomMiss() {
+        TransactionCreatedEvent transaction = TestFixtures.transactionEvent(
+                "txn-20",
+                "user-20",
+                BigDecimal.valueOf(40),
+                "merchant-1",
+                "Austin, US"
+        );
+        MlPredictionRequest mlPredictionRequest = new MlPredictionRequest(
+                new BigDecimal("40.0000"),
+                1,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.0000")
+        );
+        FraudDecision entity = new FraudDecision();
+        entity.setTransactionId("txn-20");
+
+        when(recentTransactionFilter.isEnabled()).thenReturn(true);
+        when(recentTransactionFilter.mightContain("txn-20")).thenReturn(false);
+        when(featureEngineeringService.buildFeatureContext(transaction)).thenReturn(new FeatureContext(1, 1, 60));
+        when(ruleEngine.evaluate(transaction, new FeatureContext(1, 1, 60)))
+                .thenReturn(new RuleEvaluationResult(0.0, Map.of()));
+        when(mlFeatureEngineeringService.buildRequest(transaction, new FeatureContext(1, 1, 60)))
+                .thenReturn(mlPredictionRequest);
+        when(mlInferenceClient.predict(mlPredictionRequest, new BigDecimal("0.0000")))
+                .thenReturn(CompletableFuture.completedFuture(new MlPrediction(new BigDecimal("0.0500"), false)));
+        when(riskAggregationService.aggregate(new BigDecimal("0.0000"), new BigDecimal("0.0500")))
+                .thenReturn(new BigDecimal("0.0300"));
+        when(decisionEngine.decide(new BigDecimal("0.0300"))).thenReturn(DecisionType.APPROVED);
+        when(mapper.toEntity(any(), any(), any(), any(), any())).thenReturn(entity);
+        when(fraudDecisionRepository.insertIfAbsent(entity)).thenReturn(0);
+
+        fraudProcessingService.processAndPublish(transaction);
+
+        verify(fraudDecisionRepository, never()).findByTransactionId(any());
+        verify(fraudDecisionRepository, never()).save(any());
+        verify(recentTransactionFilter).put("txn-20");
+        verify(eventPublisher, never()).publish(any());
+        verify(dashboardStreamService, never()).publish(any());
+        assertThat(entity.getId()).isNotNull();
+        assertThat(entity.getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    void journalsDecisionAndPublishesItOnlyOnceTheWriterHasInsertedItWhenWriteBehindEnabled() {
+        TransactionCreatedEvent transaction = TestFixtures.transactionEvent(
+                "txn-30",
+                "user-30",
+                BigDecimal.valueOf(40),
+                "merchant-1",
+                "Austin, US"
+        );
+        MlPredictionRequest mlPredictionRequest = new MlPredictionRequest(
+                new BigDecimal("40.0000"),
+                1,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.0000")
+        );
+        FraudDecision entity = new FraudDecision();
+        entity.setTransactionId("txn-30");
+        FraudDecisionEvent decisionEvent = new FraudDecisionEvent(
+                UUID.randomUUID(),
+                "txn-30",
+                "user-30",
+                new BigDecimal("0.0300"),
+                DecisionType.APPROVED,
+                new BigDecimal("0.0000"),
+                new BigDecimal("0.0500"),
+                BigDecimal.valueOf(40),
+                "USD",
+                "merchant-1",
+                "Austin, US",
+                Instant.now()
+        );
+
+        when(decisionWriteBehindService.isEnabled()).thenReturn(true);
+        when(fraudDecisionRepository.findByTransactionId("txn-30")).thenReturn(Optional.empty());
+        when(featureEngineeringService.buildFeatureContext(transaction)).thenReturn(new FeatureContext(1, 1, 60));
+        when(ruleEngine.evaluate(transaction, new FeatureContext(1, 1, 60)))
+                .thenReturn(new RuleEvaluationResult(0.0, Map.of()));
+        when(mlFeatureEngineeringService.buildRequest(transaction, new FeatureContext(1, 1, 60)))
+                .thenReturn(mlPredictionRequest);
+        when(mlInferenceClient.predict(mlPredictionRequest, new BigDecimal("0.0000")))
+                .thenReturn(CompletableFuture.completedFuture(new MlPrediction(new BigDecimal("0.0500"), false)));
+        when(riskAggregationService.aggregate(new BigDecimal("0.0000"), new BigDecimal("0.0500")))
+                .thenReturn(new BigDecimal("0.0300"));
+        when(decisionEngine.decide(new BigDecimal("0.0300"))).thenReturn(DecisionType.APPROVED);
+        when(mapper.toEntity(any(), any(), any(), any(), any())).thenReturn(entity);
+        when(mapper.toEvent(entity)).thenReturn(decisionEvent);
+
+        fraudProcessingService.processAndPublish(transaction);
+
+        ArgumentCaptor<Runnable> onInserted = ArgumentCaptor.forClass(Runnable.class);
+        verify(decisionWriteBehindService).enqueue(eq(entity), onInserted.capture());
+        verify(fraudDecisionRepository, never()).save(any());
+        verify(fraudDecisionRepository, never()).insertIfAbsent(any());
+        verify(eventPublisher, never()).publish(any());
+        verify(dashboardStreamService, never()).publish(any());
+
+        onInserted.getValue().run();
+
+        verify(eventPublisher).publish(decisionEvent);
+        verify(dashboardStreamService).publish(entity);
+    }
 }
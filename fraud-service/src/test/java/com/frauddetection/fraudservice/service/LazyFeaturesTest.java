@@ -0,0 +1,110 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.FeatureVector;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class LazyFeaturesTest {
+
+    private static final VelocityStats VELOCITY = new VelocityStats(3, 7, 42);
+
+    @Test
+    void resolvesOnlyTheSourcesTheRulesDeclareUntilTheRestAreNeeded() {
+        ConcurrentStageExecutor stageExecutor = new ConcurrentStageExecutor("sequential", 1, 300);
+        AtomicInteger aggregateLookups = new AtomicInteger();
+        AtomicInteger noveltyLookups = new AtomicInteger();
+        AtomicInteger records = new AtomicInteger();
+
+        LazyFeatures features = new LazyFeatures(VELOCITY, List.of(
+                source("feature_aggregates", "user.count", 4.0, aggregateLookups, records),
+                source("novelty", "novelty.device.new", 1.0, noveltyLookups, records)
+        ), stageExecutor, Set.of("novelty.device.new"));
+
+        assertThat(features.ruleFeatures()).isEqualTo(new FeatureContext(3, 7, 42,
+                new FeatureVector(Map.of("novelty.device.new", 1.0))));
+        assertThat(aggregateLookups).hasValue(0);
+        assertThat(noveltyLookups).hasValue(1);
+
+        assertThat(features.allFeatures().features().values())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("user.count", 4.0, "novelty.device.new", 1.0));
+        features.settle();
+
+        assertThat(aggregateLookups).hasValue(1);
+        assertThat(noveltyLookups).hasValue(1);
+        assertThat(records).hasValue(0);
+    }
+
+    @Test
+    void settleOnlyRecordsTheEventWithSourcesNobodyRead() {
+        ConcurrentStageExecutor stageExecutor = new ConcurrentStageExecutor("sequential", 1, 300);
+        AtomicInteger aggregateLookups = new AtomicInteger();
+        AtomicInteger aggregateRecords = new AtomicInteger();
+
+        LazyFeatures features = new LazyFeatures(VELOCITY, List.of(
+                source("feature_aggregates", "user.count", 4.0, aggregateLookups, aggregateRecords)
+        ), stageExecutor, Set.of());
+
+        assertThat(features.ruleFeatures()).isEqualTo(new FeatureContext(3, 7, 42));
+        features.settle();
+        features.settle();
+        features.allFeatures();
+
+        assertThat(aggregateLookups).hasValue(0);
+        assertThat(aggregateRecords).hasValue(1);
+    }
+
+    @Test
+    void startsOnlyNeededSourcesInParallelModeAndTimesEachJoinFromWhenItWaits() throws InterruptedException {
+        ConcurrentStageExecutor stageExecutor = new ConcurrentStageExecutor("parallel", 4, 200);
+        AtomicInteger aggregateLookups = new AtomicInteger();
+        try {
+            LazyFeatures features = new LazyFeatures(VELOCITY, List.of(
+                    new LazyFeatures.Source("feature_aggregates", "user.count"::equals, () -> {
+                        aggregateLookups.incrementAndGet();
+                        sleep(50);
+                        return FeatureVector.builder().put("user.count", 4.0).build();
+                    }, () -> { })
+            ), stageExecutor, Set.of("novelty.device.new"));
+
+            assertThat(features.ruleFeatures().features()).isEqualTo(FeatureVector.EMPTY);
+            assertThat(aggregateLookups).hasValue(0);
+
+            // A slow model call outlasts the stage timeout before the ML features are requested.
+            sleep(300);
+            assertThat(features.allFeatures().feature("user.count")).isEqualTo(4.0);
+            assertThat(aggregateLookups).hasValue(1);
+        } finally {
+            stageExecutor.shutdown();
+        }
+    }
+
+    private static LazyFeatures.Source source(
+            String name,
+            String feature,
+            double value,
+            AtomicInteger lookups,
+            AtomicInteger records
+    ) {
+        Supplier<FeatureVector> lookup = () -> {
+            lookups.incrementAndGet();
+            return FeatureVector.builder().put(feature, value).build();
+        };
+        return new LazyFeatures.Source(name, feature::equals, lookup, records::incrementAndGet);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
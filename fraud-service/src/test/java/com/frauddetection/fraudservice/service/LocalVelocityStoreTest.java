@@ -0,0 +1,171 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+class LocalVelocityStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void countsOneAndFiveMinuteWindowsInFiveSecondBuckets() {
+        LocalVelocityStore store = new LocalVelocityStore(1_000, 4);
+
+        assertThat(store.record("user-1", NOW - 300_000)).isEqualTo(new VelocityStats(1, 1, Long.MAX_VALUE));
+        store.record("user-1", NOW - 240_000);
+        store.record("user-1", NOW - 60_000);
+        store.record("user-1", NOW - 55_000);
+        VelocityStats stats = store.record("user-1", NOW);
+
+        // The 5-minute-old bucket has left the window; the minute window is the 12 buckets ending at NOW.
+        assertThat(stats).isEqualTo(new VelocityStats(2, 4, 55));
+        assertThat(store.record("user-2", NOW)).isEqualTo(new VelocityStats(1, 1, Long.MAX_VALUE));
+    }
+
+    @Test
+    void countsBurstsExactlyInFixedSpace() {
+        LocalVelocityStore store = new LocalVelocityStore(1_000, 4);
+
+        VelocityStats stats = null;
+        for (int index = 0; index < 10_000; index++) {
+            stats = store.record("user-1", NOW + index % 1_000);
+        }
+
+        assertThat(stats.transactionsPerMinute()).isEqualTo(10_000);
+        assertThat(stats.transactionsPerFiveMinutes()).isEqualTo(10_000);
+    }
+
+    @Test
+    void countsARedeliveredTransactionOnce() {
+        LocalVelocityStore store = new LocalVelocityStore(1_000, 4);
+
+        assertThat(store.record("user-1", "txn-1", NOW)).isEqualTo(new VelocityStats(1, 1, Long.MAX_VALUE));
+        assertThat(store.record("user-1", "txn-1", NOW)).isEqualTo(new VelocityStats(1, 1, 0));
+        assertThat(store.record("user-1", "txn-2", NOW + 1_000)).isEqualTo(new VelocityStats(2, 2, 1));
+
+        // Only the last RECENT_TRANSACTIONS ids are remembered per user.
+        for (int index = 3; index < 3 + LocalVelocityStore.RECENT_TRANSACTIONS; index++) {
+            store.record("user-1", "txn-" + index, NOW + 1_000);
+        }
+        assertThat(store.record("user-1", "txn-2", NOW + 1_000).transactionsPerMinute())
+                .isEqualTo(3 + LocalVelocityStore.RECENT_TRANSACTIONS);
+        assertThat(store.record("user-1", "txn-1", NOW + 1_000).transactionsPerMinute())
+                .isEqualTo(4 + LocalVelocityStore.RECENT_TRANSACTIONS);
+    }
+
+    @Test
+    void measuresLateEventsAgainstTheirOwnWindow() {
+        LocalVelocityStore store = new LocalVelocityStore(1_000, 4);
+
+        store.record("user-1", NOW);
+        store.record("user-1", NOW - 400_000);
+
+        assertThat(store.record("user-1", NOW - 20_000)).isEqualTo(new VelocityStats(1, 1, 0));
+        assertThat(store.record("user-1", NOW + 1_000)).isEqualTo(new VelocityStats(3, 3, 1));
+        assertThat(store.lateDrops()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsEventsBehindTheAllowedLatenessWithoutMovingTheWatermark() {
+        LocalVelocityStore store = new LocalVelocityStore(1_000, 4, 30_000);
+
+        store.record("user-1", NOW);
+        store.record("user-1", NOW - 25_000);
+        VelocityStats dropped = store.record("user-1", NOW - 40_000);
+
+        assertThat(dropped.transactionsPerMinute()).isZero();
+        assertThat(store.lateDrops()).isEqualTo(1);
+        // The out-of-order event within the lateness still counts; the dropped one leaves no trace.
+        assertThat(store.record("user-1", NOW + 5_000)).isEqualTo(new VelocityStats(3, 3, 5));
+    }
+
+    @Test
+    void staysWithinCapacityAndKeepsRecentUsers() {
+        LocalVelocityStore store = new LocalVelocityStore(64, 1);
+
+        for (int index = 0; index < 1_000; index++) {
+            store.record("user-" + index, NOW + index);
+            store.record("hot-user", NOW + index);
+        }
+
+        assertThat(store.size()).isEqualTo(64);
+        assertThat(store.evictions()).isEqualTo(1_001 - 64);
+        assertThat(store.contains("hot-user")).isTrue();
+        assertThat(store.contains("user-999")).isTrue();
+        assertThat(store.contains("user-0")).isFalse();
+        assertThat(store.record("hot-user", NOW + 1_000).secondsSinceLastTransaction()).isZero();
+    }
+
+    @Test
+    void evictsOnlyUsersOfRevokedPartitions() {
+        LocalVelocityStore store = new LocalVelocityStore(10_000, 8);
+        int partitionCount = 3;
+        Set<String> retained = new HashSet<>();
+
+        for (int index = 0; index < 2_000; index++) {
+            String userId = "user-" + index;
+            store.record(userId, NOW);
+            if (partitionOf(userId, partitionCount) != 1) {
+                retained.add(userId);
+            }
+        }
+
+        int removed = store.evictPartitions(Set.of(1), partitionCount);
+
+        assertThat(removed).isEqualTo(2_000 - retained.size());
+        assertThat(store.size()).isEqualTo(retained.size());
+        for (int index = 0; index < 2_000; index++) {
+            String userId = "user-" + index;
+            assertThat(store.contains(userId)).isEqualTo(retained.contains(userId));
+        }
+        // Surviving entries are still reachable after the table was compacted.
+        assertThat(store.record("user-0", NOW + 1_000).transactionsPerMinute())
+                .isEqualTo(retained.contains("user-0") ? 2 : 1);
+    }
+
+    @Test
+    void seedsUnknownUsersOnly() {
+        LocalVelocityStore store = new LocalVelocityStore(1_000, 4);
+        long bucket = VelocityBuckets.bucketOf(NOW);
+
+        store.seed("user-1", new long[] {bucket - 2, bucket - 24, bucket - 4}, new int[] {1, 1, 1}, NOW - 10_000);
+        store.seed("user-1", new long[] {bucket - 1}, new int[] {5}, NOW - 1);
+
+        assertThat(store.record("user-1", NOW)).isEqualTo(new VelocityStats(3, 4, 10));
+    }
+
+    @Test
+    void restoresSnapshotAndRewritesOnlyChangedSegments() {
+        LocalVelocityStore store = new LocalVelocityStore(1_000, 4);
+        for (int index = 0; index < 200; index++) {
+            store.record("user-" + index, NOW - index * 1_000L);
+        }
+        store.record("user-0", "txn-0", NOW + 1_000);
+        ByteBuffer snapshot = ByteBuffer.allocate(store.segmentCount() * store.segmentSnapshotBytes());
+
+        assertThat(store.writeSnapshot(snapshot, true)).isEqualTo(4);
+        assertThat(store.writeSnapshot(snapshot, false)).isZero();
+        store.record("user-1", NOW + 2_000);
+        assertThat(store.writeSnapshot(snapshot, false)).isEqualTo(1);
+
+        LocalVelocityStore restored = new LocalVelocityStore(1_000, 4);
+        restored.readSnapshot(snapshot);
+
+        assertThat(restored.size()).isEqualTo(200);
+        assertThat(restored.record("user-0", "txn-0", NOW + 1_000).transactionsPerMinute()).isEqualTo(2);
+        assertThat(restored.record("user-0", NOW + 3_000)).isEqualTo(new VelocityStats(3, 3, 2));
+        assertThat(restored.record("user-1", NOW + 3_000)).isEqualTo(new VelocityStats(3, 3, 1));
+        assertThat(restored.record("user-199", NOW + 3_000).transactionsPerFiveMinutes()).isEqualTo(2);
+        assertThat(restored.contains("user-200")).isFalse();
+    }
+
+    private int partitionOf(String userId, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(userId.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+}
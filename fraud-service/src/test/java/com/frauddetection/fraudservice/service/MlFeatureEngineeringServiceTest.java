@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.frauddetection.fraudservice.TestFixtures;
 import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.FeatureVector;
 import com.frauddetection.fraudservice.rule.ForeignLocationRule;
 import com.frauddetection.fraudservice.rule.SuspiciousMerchantRule;
 import java.math.BigDecimal;
@@ -35,6 +36,23 @@ class MlFeatureEngineeringServiceTest {
         assertThat(request.merchantRisk()).isEqualByComparingTo("1.0000");
     }
 
+    @Test
+    void forwardsWindowedFeaturesByName() {
+        FeatureVector features = FeatureVector.builder()
+                .put("user_merchants_1h.distinct", 6.0)
+                .put("merchant_5m.count", 40.0)
+                .build();
+
+        MlPredictionRequest request = mlFeatureEngineeringService.buildRequest(
+                TestFixtures.transactionEvent("txn-3", "user-1", BigDecimal.TEN, "merchant-1", "Austin, US"),
+                new FeatureContext(1, 1, 60, features)
+        );
+
+        assertThat(request.features())
+                .containsEntry("user_merchants_1h.distinct", 6.0)
+                .containsEntry("merchant_5m.count", 40.0);
+    }
+
     @Test
     void defaultsNullOrInvalidValuesToSafeBounds() {
         MlPredictionRequest request = mlFeatureEngineeringService.buildRequest(
@@ -52,5 +70,6 @@ class MlFeatureEngineeringServiceTest {
         assertThat(request.transactionFrequency()).isZero();
         assertThat(request.locationRisk()).isEqualByComparingTo("0.0000");
         assertThat(request.merchantRisk()).isEqualByComparingTo("0.0000");
+        assertThat(request.features()).isEmpty();
     }
 }
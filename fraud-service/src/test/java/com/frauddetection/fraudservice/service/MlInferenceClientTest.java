@@ -90,7 +90,7 @@ class MlInferenceClientTest {
             throws ExecutionException, InterruptedException, TimeoutException {
         statusCode.set(503);
 
-        BigDecimal score = mlInferenceClient.predictScore(
+        MlPrediction prediction = mlInferenceClient.predict(
                         new MlPredictionRequest(
                                 new BigDecimal("9000.0000"),
                                 6,
@@ -101,7 +101,8 @@ class MlInferenceClientTest {
                 )
                 .get(2, TimeUnit.SECONDS);
 
-        assertThat(score).isEqualByComparingTo("0.6100");
+        assertThat(prediction.score()).isEqualByComparingTo("0.6100");
+        assertThat(prediction.fallback()).isTrue();
     }
 
     @Test
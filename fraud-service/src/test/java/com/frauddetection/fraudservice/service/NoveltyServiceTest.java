@@ -0,0 +1,126 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frauddetection.fraudservice.engine.FeatureVector;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.model.TransactionStatus;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class NoveltyServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T00:00:00Z");
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final NoveltyService service = new NoveltyService(
+            redisTemplate, true, 1024, 7, Duration.ofDays(90), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void checksAndRecordsAllAttributesInOneCallPerEvent() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(List.of(1L, 1L, 0L, 1L)));
+
+        FeatureVector features = service.check(transaction("user-1", "device-1", "merchant-1", "Austin, US"));
+
+        assertThat(features.get(NoveltyService.KNOWN_USER)).isEqualTo(1.0);
+        assertThat(features.get(NoveltyService.NEW_DEVICE)).isZero();
+        assertThat(features.get(NoveltyService.NEW_MERCHANT)).isEqualTo(1.0);
+        assertThat(features.get(NoveltyService.NEW_LOCATION)).isZero();
+
+        ArgumentCaptor<RedisCallback> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callback.getValue().doInRedis(connection);
+
+        ArgumentCaptor<String[]> keysAndArgs = ArgumentCaptor.forClass(String[].class);
+        verify(connection).evalSha(anyString(), eq(ReturnType.MULTI), eq(2), keysAndArgs.capture());
+        long generation = NOW.toEpochMilli() / Duration.ofDays(45).toMillis();
+        assertThat(keysAndArgs.getValue())
+                .hasSize(2 + 3 + 3 * 7)
+                .startsWith("novelty:{user-1}:" + generation, "novelty:{user-1}:" + (generation - 1))
+                .contains("7776000", "7", "0");
+        assertThat(List.of(keysAndArgs.getValue()).subList(5, 26))
+                .allSatisfy(position -> assertThat(Integer.parseInt(position)).isBetween(0, 1023));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void recordsAttributesWithoutCheckingThem() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(List.of()));
+
+        service.record(transaction("user-1", "device-1", "merchant-1", "Austin, US"));
+
+        ArgumentCaptor<RedisCallback> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callback.getValue().doInRedis(connection);
+
+        ArgumentCaptor<String[]> keysAndArgs = ArgumentCaptor.forClass(String[].class);
+        verify(connection).evalSha(anyString(), eq(ReturnType.MULTI), eq(2), keysAndArgs.capture());
+        assertThat(keysAndArgs.getValue()).hasSize(2 + 3 + 3 * 7);
+        assertThat(keysAndArgs.getValue()[4]).isEqualTo("1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsOnlyAttributesTheEventCarries() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(List.of(0L, 0L)));
+
+        FeatureVector features = service.check(transaction("user-1", null, "merchant-1", " "));
+
+        assertThat(features.names()).containsExactlyInAnyOrder(NoveltyService.KNOWN_USER, NoveltyService.NEW_MERCHANT);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void returnsNoFeaturesWhenDisabledOrRedisIsDown() {
+        NoveltyService disabled = new NoveltyService(
+                redisTemplate, false, 1024, 7, Duration.ofDays(90), Clock.fixed(NOW, ZoneOffset.UTC));
+        assertThat(disabled.check(transaction("user-1", "device-1", "merchant-1", "US"))).isEqualTo(FeatureVector.EMPTY);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        assertThat(service.checkAll(List.of(
+                transaction("user-1", "device-1", "merchant-1", "US"),
+                transaction("user-2", "device-2", "merchant-2", "US")
+        ))).containsExactly(FeatureVector.EMPTY, FeatureVector.EMPTY);
+    }
+
+    private TransactionCreatedEvent transaction(String userId, String deviceId, String merchantId, String location) {
+        return new TransactionCreatedEvent(
+                UUID.randomUUID(),
+                "txn-" + UUID.randomUUID(),
+                userId,
+                BigDecimal.TEN,
+                "USD",
+                merchantId,
+                location,
+                deviceId,
+                TransactionStatus.RECEIVED,
+                NOW
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.frauddetection.fraudservice.TestFixtures;
+import com.frauddetection.fraudservice.engine.FeatureContext;
+import com.frauddetection.fraudservice.engine.RuleEngine;
+import com.frauddetection.fraudservice.engine.RuleEvaluationResult;
+import com.frauddetection.fraudservice.engine.ScoreUnits;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.rule.ForeignLocationRule;
+import com.frauddetection.fraudservice.rule.HighAmountRule;
+import com.frauddetection.fraudservice.rule.RapidTransactionRule;
+import com.frauddetection.fraudservice.rule.SuspiciousMerchantRule;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveScoringServiceTest {
+
+    private static final List<String> MERCHANTS = List.of("merchant-1", "crypto-exchange-9", "casino-royal", "grocer");
+    private static final List<String> LOCATIONS = List.of("Austin, US", "Moscow, RU", "Paris, FR", "", "Lagos");
+
+    private final ForeignLocationRule foreignLocationRule = new ForeignLocationRule();
+    private final SuspiciousMerchantRule suspiciousMerchantRule = new SuspiciousMerchantRule();
+    private final RuleEngine ruleEngine = new RuleEngine(List.of(
+            new HighAmountRule(),
+            foreignLocationRule,
+            suspiciousMerchantRule,
+            new RapidTransactionRule()
+    ));
+    private final MlFeatureEngineeringService mlFeatureEngineeringService =
+            new MlFeatureEngineeringService(foreignLocationRule, suspiciousMerchantRule);
+    private final RiskAggregationService riskAggregationService = new RiskAggregationService();
+    private final DecisionEngine decisionEngine = new DecisionEngine();
+    private final PrimitiveScoringService primitiveScoringService =
+            new PrimitiveScoringService(ruleEngine, mlFeatureEngineeringService, "primitive");
+
+    @Test
+    void roundsLikeBigDecimalHalfUpIncludingTies() {
+        Random random = new Random(42);
+        for (int index = 0; index < 200_000; index++) {
+            double value = index % 2 == 0 ? random.nextDouble() : (random.nextInt(200_000) + 0.5) / 200_000.0;
+            long expected = BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+
+            assertThat(ScoreUnits.toUnits(value)).as("value %s", value).isEqualTo(expected);
+        }
+        assertThat(ScoreUnits.toUnits(0.00005)).isEqualTo(1L);
+        assertThat(ScoreUnits.toUnits(0.12345)).isEqualTo(1235L);
+    }
+
+    @Test
+    void aggregatesAndDecidesExactlyLikeDecimalServices() {
+        Random random = new Random(7);
+        for (int index = 0; index < 200_000; index++) {
+            long ruleUnits = random.nextInt(10_001);
+            long mlUnits = index % 10 == 0 ? random.nextInt(12_000) - 1_000 : random.nextInt(10_001);
+            BigDecimal expectedRisk = riskAggregationService.aggregate(
+                    ScoreUnits.toBigDecimal(ruleUnits),
+                    ScoreUnits.toBigDecimal(mlUnits)
+            );
+
+            long riskUnits = primitiveScoringService.aggregate(ruleUnits, mlUnits);
+
+            assertThat(ScoreUnits.toBigDecimal(riskUnits)).isEqualTo(expectedRisk);
+            assertThat(primitiveScoringService.decide(riskUnits)).isEqualTo(decisionEngine.decide(expectedRisk));
+        }
+    }
+
+    @Test
+    void matchesRuleEngineAndMlRequestForRandomTransactions() {
+        Random random = new Random(11);
+        for (int index = 0; index < 5_000; index++) {
+            TransactionCreatedEvent transaction = TestFixtures.transactionEvent(
+                    "txn-" + index,
+                    "user-" + random.nextInt(50),
+                    BigDecimal.valueOf(random.nextInt(20_000_00), 2),
+                    MERCHANTS.get(random.nextInt(MERCHANTS.size())),
+                    LOCATIONS.get(random.nextInt(LOCATIONS.size()))
+            );
+            FeatureContext featureContext = new FeatureContext(random.nextInt(15), random.nextInt(20), random.nextInt(120));
+
+            RuleEvaluationResult expected = ruleEngine.evaluate(transaction, featureContext);
+            long ruleUnits = primitiveScoringService.scoreRules(transaction, featureContext);
+
+            assertThat(ScoreUnits.toBigDecimal(ruleUnits))
+                    .isEqualTo(BigDecimal.valueOf(expected.normalizedScore()).setScale(4, RoundingMode.HALF_UP));
+            assertThat(primitiveScoringService.describeRules(ruleUnits)).isEqualTo(expected);
+            assertThat(primitiveScoringService.buildMlRequest(transaction, featureContext))
+                    .isEqualTo(mlFeatureEngineeringService.buildRequest(transaction, featureContext));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class RecentTransactionFilterTest {
+
+    @Test
+    void neverReportsFalseNegativesAndKeepsFalsePositivesNearTarget() {
+        RecentTransactionFilter filter = new RecentTransactionFilter(
+                new SimpleMeterRegistry(),
+                true,
+                10_000,
+                0.01,
+                Duration.ofHours(1),
+                Clock.systemUTC()
+        );
+
+        for (int index = 0; index < 10_000; index++) {
+            filter.put("txn-" + index);
+        }
+
+        for (int index = 0; index < 10_000; index++) {
+            assertThat(filter.mightContain("txn-" + index)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int index = 0; index < 10_000; index++) {
+            if (filter.mightContain("unseen-" + index)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(250);
+    }
+
+    @Test
+    void forgetsIdsAfterTwoRotations() {
+        AtomicLong nowMillis = new AtomicLong(0);
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(nowMillis.get());
+            }
+        };
+        RecentTransactionFilter filter = new RecentTransactionFilter(
+                new SimpleMeterRegistry(),
+                true,
+                1_000,
+                0.01,
+                Duration.ofMinutes(10),
+                clock
+        );
+
+        filter.put("txn-1");
+
+        nowMillis.set(Duration.ofMinutes(11).toMillis());
+        assertThat(filter.mightContain("txn-1")).isTrue();
+
+        nowMillis.set(Duration.ofMinutes(22).toMillis());
+        assertThat(filter.mightContain("txn-1")).isFalse();
+    }
+}
@@ -0,0 +1,76 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class StageLatencyRecorderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StageLatencyRecorder recorder = new StageLatencyRecorder(meterRegistry, 4);
+
+    @Test
+    void preRegistersOneTimerPerStage() {
+        assertThat(meterRegistry.find(StageLatencyRecorder.STAGE_LATENCY_METRIC).timers())
+                .hasSize(PipelineStage.values().length);
+    }
+
+    @Test
+    void recordsStageTimersAndReturnsSlowestBreakdownFirst() {
+        StageTrace fast = recorder.start("txn-fast");
+        fast.record(PipelineStage.RULES, TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.complete(fast);
+
+        StageTrace slow = recorder.start("txn-slow");
+        slow.record(PipelineStage.ML_INFERENCE, TimeUnit.MILLISECONDS.toNanos(40));
+        slow.record(PipelineStage.PERSIST, TimeUnit.MILLISECONDS.toNanos(8));
+        sleepMillis(5);
+        recorder.complete(slow);
+
+        List<StageLatencyRecorder.StageTraceSnapshot> slowest = recorder.slowest(1);
+
+        assertThat(slowest).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.transactionId()).isEqualTo("txn-slow");
+            assertThat(snapshot.stageMillis()).containsOnlyKeys("ml_inference", "persist");
+            assertThat(snapshot.stageMillis().get("ml_inference")).isEqualTo(40.0);
+        });
+        assertThat(meterRegistry.get(StageLatencyRecorder.STAGE_LATENCY_METRIC).tag("stage", "ml_inference").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void samplesABatchStageOnceAndChargesItToEveryEventInTheBatch() {
+        StageTrace first = recorder.start("txn-1");
+        StageTrace second = recorder.start("txn-2");
+
+        long stageStartNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(3);
+        recorder.stopBatch(List.of(first, second), PipelineStage.PERSIST, stageStartNanos);
+
+        assertThat(first.stageNanos(PipelineStage.PERSIST)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(3));
+        assertThat(second.stageNanos(PipelineStage.PERSIST)).isEqualTo(first.stageNanos(PipelineStage.PERSIST));
+        assertThat(meterRegistry.get(StageLatencyRecorder.STAGE_LATENCY_METRIC).tag("stage", "persist").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentEvents() {
+        for (int index = 0; index < 10; index++) {
+            recorder.complete(recorder.start("txn-" + index));
+        }
+
+        assertThat(recorder.slowest(100))
+                .extracting(StageLatencyRecorder.StageTraceSnapshot::transactionId)
+                .containsExactlyInAnyOrder("txn-6", "txn-7", "txn-8", "txn-9");
+    }
+
+    private void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
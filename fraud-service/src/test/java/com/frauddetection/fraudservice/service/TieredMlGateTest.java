@@ -0,0 +1,75 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class TieredMlGateTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TieredMlGate gate = new TieredMlGate(
+            new RiskAggregationService(),
+            new DecisionEngine(),
+            meterRegistry,
+            true,
+            64,
+            10,
+            0.05,
+            0.0
+    );
+
+    @Test
+    void callsMlUntilTheRuleBucketHasEnoughHistory() {
+        BigDecimal ruleScore = new BigDecimal("0.0200");
+        for (int index = 0; index < 9; index++) {
+            gate.observe(ruleScore, new BigDecimal("0.0500"));
+        }
+
+        assertThat(gate.conclusiveMlScore(ruleScore)).isNull();
+        assertThat(counter("path", "called")).isEqualTo(1.0);
+    }
+
+    @Test
+    void skipsMlWhenObservedScoresKeepTheDecisionInOneBand() {
+        BigDecimal ruleScore = new BigDecimal("0.0200");
+        for (int index = 0; index < 10; index++) {
+            gate.observe(ruleScore, new BigDecimal(index % 2 == 0 ? "0.0400" : "0.1200"));
+        }
+
+        BigDecimal estimate = gate.conclusiveMlScore(ruleScore);
+
+        assertThat(estimate).isEqualByComparingTo("0.0800");
+        assertThat(counter("path", "skipped")).isEqualTo(1.0);
+    }
+
+    @Test
+    void callsMlWhenObservedScoresStraddleAThreshold() {
+        BigDecimal ruleScore = new BigDecimal("0.3000");
+        for (int index = 0; index < 10; index++) {
+            gate.observe(ruleScore, new BigDecimal(index % 2 == 0 ? "0.1000" : "0.5000"));
+        }
+
+        assertThat(gate.conclusiveMlScore(ruleScore)).isNull();
+    }
+
+    @Test
+    void countsShadowDisagreementsAndLearnsFromThem() {
+        BigDecimal ruleScore = new BigDecimal("0.0200");
+        for (int index = 0; index < 10; index++) {
+            gate.observe(ruleScore, new BigDecimal("0.0500"));
+        }
+
+        gate.recordShadow(ruleScore, new BigDecimal("0.0500"), new BigDecimal("0.0600"));
+        gate.recordShadow(ruleScore, new BigDecimal("0.0500"), new BigDecimal("0.9000"));
+
+        assertThat(meterRegistry.get("fraud.ml.tiered.shadow.total").tag("result", "agree").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud.ml.tiered.shadow.total").tag("result", "disagree").counter().count()).isEqualTo(1.0);
+        assertThat(gate.conclusiveMlScore(ruleScore)).isNull();
+    }
+
+    private double counter(String tag, String value) {
+        return meterRegistry.get("fraud.ml.tiered.evaluations.total").tag(tag, value).counter().count();
+    }
+}
@@ -0,0 +1,171 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+class VelocityTrackingServiceTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VelocityTrackingService velocityTrackingService = new VelocityTrackingService(
+            redisTemplate,
+            new VelocityFallback(
+                    new SimpleMeterRegistry(), false, 16, 16, Duration.ofSeconds(1), Duration.ofMinutes(5), Clock.systemUTC()),
+            meterRegistry,
+            300_000
+    );
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void tracksBucketCountersWithOneScriptCallOnHashTaggedKeys() {
+        Instant timestamp = Instant.ofEpochMilli(1_700_000_060_000L);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(3L, 7L, "1700000000000"));
+
+        VelocityStats stats = velocityTrackingService.trackAndMeasure("user-1", "txn-1", timestamp);
+
+        ArgumentCaptor<RedisScript> script = ArgumentCaptor.forClass(RedisScript.class);
+        ArgumentCaptor<List> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(script.capture(), keys.capture(), args.capture());
+
+        assertThat(script.getValue().getScriptAsString())
+                .contains("HINCRBY", "HMGET", "seen:next")
+                .doesNotContain("ZADD", "'NX'");
+        assertThat(keys.getValue()).containsExactly("velocity:buckets:{user-1}", "velocity:last-seen:{user-1}");
+        assertThat(args.getValue())
+                .containsExactly("1700000060000", "5000", "12", "60", "600", "300000", "txn-1", "16");
+        assertThat(stats).isEqualTo(new VelocityStats(3, 7, 60));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void keepsTheSameTwoKeysPerUserHoweverManyTransactionsItSends() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 1L, "1700000000000"));
+
+        for (int index = 0; index < 1_000; index++) {
+            Instant timestamp = Instant.ofEpochMilli(1_700_000_000_000L + index);
+            velocityTrackingService.trackAndMeasure("user-1", "txn-" + index, timestamp);
+        }
+
+        // Redelivery dedup lives in a fixed ring inside the bucket hash, so a burst adds no keys per transaction.
+        ArgumentCaptor<List> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(1_000)).execute(any(RedisScript.class), keys.capture(), any(Object[].class));
+        assertThat(keys.getAllValues().stream().flatMap(List::stream).distinct())
+                .containsExactly("velocity:buckets:{user-1}", "velocity:last-seen:{user-1}");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countsEventsTheScriptDroppedBehindTheWatermark() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 0L, "1700000400000", 1L))
+                .thenReturn(List.of(2L, 2L, "1700000400000", 0L));
+
+        velocityTrackingService.trackAndMeasure("user-1", "txn-1", Instant.ofEpochMilli(1_700_000_000_000L));
+        velocityTrackingService.trackAndMeasure("user-1", "txn-2", Instant.ofEpochMilli(1_700_000_390_000L));
+
+        assertThat(meterRegistry.counter("fraud.velocity.late.dropped.total", "store", "redis").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsNoHistoryWhenLastSeenIsMissing() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(Arrays.asList(1L, 1L, null));
+
+        VelocityStats stats = velocityTrackingService.trackAndMeasure("user-1", "txn-1", Instant.now());
+
+        assertThat(stats).isEqualTo(new VelocityStats(1, 1, Long.MAX_VALUE));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fallsBackToEmptyStatsWhenRedisIsDown() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        VelocityStats stats = velocityTrackingService.trackAndMeasure("user-1", "txn-1", Instant.now());
+
+        assertThat(stats).isEqualTo(new VelocityStats(0, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void keepsCountingInMemoryDuringAnOutageAndReplaysOnRecovery() {
+        AtomicLong nowMillis = new AtomicLong(1_700_000_000_000L);
+        VelocityFallback fallback = new VelocityFallback(
+                new SimpleMeterRegistry(), true, 1_000, 1_000, Duration.ofSeconds(1), Duration.ofMinutes(5),
+                fixedClock(nowMillis));
+        VelocityTrackingService service = new VelocityTrackingService(redisTemplate, fallback, meterRegistry, 300_000);
+        Instant eventTime = Instant.ofEpochMilli(1_700_000_000_000L);
+
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 1L))
+                .thenReturn(List.of(2L, 2L, "1700000000000"))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        service.trackAndMeasure("user-1", "txn-1", eventTime);
+        service.trackAndMeasure("user-1", "txn-2", eventTime);
+
+        // Redis fails: the warm in-memory window answers, and later calls skip Redis until the next probe.
+        assertThat(service.trackAndMeasure("user-1", "txn-3", eventTime)).isEqualTo(new VelocityStats(3, 3, 0));
+        assertThat(service.trackAndMeasure("user-1", "txn-4", eventTime)).isEqualTo(new VelocityStats(4, 4, 0));
+        assertThat(fallback.isDegraded()).isTrue();
+        assertThat(fallback.health().getStatus()).isEqualTo(VelocityFallback.DEGRADED);
+        verify(redisTemplate, times(3)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        nowMillis.addAndGet(1_000);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(3L, 3L, "1700000000000"));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(List.of(), List.of()));
+
+        assertThat(service.trackAndMeasure("user-1", "txn-5", eventTime)).isEqualTo(new VelocityStats(3, 3, 0));
+        assertThat(fallback.isDegraded()).isFalse();
+        await().atMost(Duration.ofSeconds(5)).until(() -> !fallback.hasPending());
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        assertThat(fallback.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private Clock fixedClock(AtomicLong nowMillis) {
+        return new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(nowMillis.get());
+            }
+        };
+    }
+}
@@ -0,0 +1,198 @@
+package com.frauddetection.fraudservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frauddetection.fraudservice.engine.FeatureVector;
+import com.frauddetection.fraudservice.event.TransactionCreatedEvent;
+import com.frauddetection.fraudservice.model.TransactionStatus;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class WindowedAggregateServiceTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void updatesEveryDefinitionInOnePipelineAndExposesRequestedFunctions() {
+        WindowedAggregateService service = new WindowedAggregateService(redisTemplate, properties(true,
+                definition("user_amount_1h", AggregateDimension.USER_ID, Duration.ofHours(1),
+                        AggregateFunction.COUNT, AggregateFunction.SUM, AggregateFunction.AVG, AggregateFunction.MAX),
+                definition("merchant_5m", AggregateDimension.MERCHANT_ID, Duration.ofMinutes(5), AggregateFunction.COUNT)
+        ));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(
+                List.of("4", "250.5", "10", "120.25"),
+                Arrays.asList("17", "0", null, null)
+        ));
+
+        FeatureVector features = service.aggregate(transaction("user-1", "merchant-9", "42.50"));
+
+        assertThat(features.get("user_amount_1h.count")).isEqualTo(4.0);
+        assertThat(features.get("user_amount_1h.sum")).isEqualTo(250.5);
+        assertThat(features.get("user_amount_1h.avg")).isEqualTo(250.5 / 4);
+        assertThat(features.get("user_amount_1h.max")).isEqualTo(120.25);
+        assertThat(features.has("user_amount_1h.min")).isFalse();
+        assertThat(features.get("merchant_5m.count")).isEqualTo(17.0);
+
+        ArgumentCaptor<RedisCallback> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callback.getValue().doInRedis(connection);
+
+        ArgumentCaptor<String[]> keysAndArgs = ArgumentCaptor.forClass(String[].class);
+        verify(connection, times(2))
+                .evalSha(anyString(), eq(ReturnType.MULTI), eq(1), keysAndArgs.capture());
+        List<String[]> calls = keysAndArgs.getAllValues();
+        assertThat(calls.get(0)).containsExactly(
+                "features:{user:user-1}:user_amount_1h", "1700000000000", "42.50", "120000", "30", "3721", "0");
+        assertThat(calls.get(1)[0]).isEqualTo("features:{merchant:merchant-9}:merchant_5m");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void recordsAnEventWithoutReadingTheAggregatesBack() {
+        WindowedAggregateService service = new WindowedAggregateService(redisTemplate, properties(true,
+                definition("user_1h", AggregateDimension.USER_ID, Duration.ofHours(1), AggregateFunction.COUNT)));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(List.of()));
+
+        service.record(transaction("user-1", "merchant-9", "42.50"));
+
+        ArgumentCaptor<RedisCallback> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callback.getValue().doInRedis(connection);
+
+        ArgumentCaptor<String[]> keysAndArgs = ArgumentCaptor.forClass(String[].class);
+        verify(connection).evalSha(anyString(), eq(ReturnType.MULTI), eq(1), keysAndArgs.capture());
+        assertThat(keysAndArgs.getValue()).startsWith("features:{user:user-1}:user_1h").endsWith("1");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void estimatesDistinctValuesOverBucketedSketches() {
+        WindowedAggregateProperties.Definition merchants =
+                definition("user_merchants_1h", AggregateDimension.USER_ID, Duration.ofHours(1), AggregateFunction.DISTINCT);
+        merchants.setDistinct(AggregateDimension.MERCHANT_ID);
+        WindowedAggregateService service = new WindowedAggregateService(redisTemplate, properties(true, merchants));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(List.of("7")));
+
+        FeatureVector features = service.aggregate(transaction("user-1", "merchant-9", "42.50"));
+
+        assertThat(features.get("user_merchants_1h.distinct")).isEqualTo(7.0);
+
+        ArgumentCaptor<RedisCallback> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callback.getValue().doInRedis(connection);
+
+        ArgumentCaptor<String[]> keysAndArgs = ArgumentCaptor.forClass(String[].class);
+        verify(connection).evalSha(anyString(), eq(ReturnType.MULTI), eq(12), keysAndArgs.capture());
+        // 5-minute buckets: 1_700_000_000_000 falls in bucket 5_666_666.
+        assertThat(keysAndArgs.getValue()).hasSize(15)
+                .startsWith("features:{user:user-1}:user_merchants_1h:5666655")
+                .endsWith("features:{user:user-1}:user_merchants_1h:5666666", "merchant-9", "3901", "0");
+    }
+
+    @Test
+    void rejectsDistinctFunctionWithoutAnAttribute() {
+        WindowedAggregateProperties properties = properties(true,
+                definition("user_1h", AggregateDimension.USER_ID, Duration.ofHours(1), AggregateFunction.DISTINCT));
+
+        assertThatThrownBy(() -> new WindowedAggregateService(redisTemplate, properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("user_1h");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipsRedisWhenDisabled() {
+        WindowedAggregateService service = new WindowedAggregateService(redisTemplate, properties(false,
+                definition("user_1h", AggregateDimension.USER_ID, Duration.ofHours(1), AggregateFunction.COUNT)));
+
+        assertThat(service.aggregate(transaction("user-1", "merchant-1", "10"))).isEqualTo(FeatureVector.EMPTY);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fallsBackToEmptyFeaturesWhenRedisIsDown() {
+        WindowedAggregateService service = new WindowedAggregateService(redisTemplate, properties(true,
+                definition("user_1h", AggregateDimension.USER_ID, Duration.ofHours(1), AggregateFunction.COUNT)));
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        List<FeatureVector> features = service.aggregateAll(List.of(
+                transaction("user-1", "merchant-1", "10"),
+                transaction("user-2", "merchant-1", "20")
+        ));
+
+        assertThat(features).containsExactly(FeatureVector.EMPTY, FeatureVector.EMPTY);
+    }
+
+    @Test
+    void rejectsDuplicateDefinitionNames() {
+        WindowedAggregateProperties properties = properties(true,
+                definition("user_1h", AggregateDimension.USER_ID, Duration.ofHours(1), AggregateFunction.COUNT),
+                definition("user_1h", AggregateDimension.DEVICE_ID, Duration.ofHours(1), AggregateFunction.COUNT));
+
+        assertThatThrownBy(() -> new WindowedAggregateService(redisTemplate, properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("user_1h");
+    }
+
+    private WindowedAggregateProperties properties(boolean enabled, WindowedAggregateProperties.Definition... definitions) {
+        WindowedAggregateProperties properties = new WindowedAggregateProperties();
+        properties.setEnabled(enabled);
+        properties.setDefinitions(List.of(definitions));
+        return properties;
+    }
+
+    private WindowedAggregateProperties.Definition definition(
+            String name,
+            AggregateDimension dimension,
+            Duration window,
+            AggregateFunction... functions
+    ) {
+        WindowedAggregateProperties.Definition definition = new WindowedAggregateProperties.Definition();
+        definition.setName(name);
+        definition.setDimension(dimension);
+        definition.setWindow(window);
+        definition.setFunctions(List.of(functions));
+        return definition;
+    }
+
+    private TransactionCreatedEvent transaction(String userId, String merchantId, String amount) {
+        return new TransactionCreatedEvent(
+                UUID.randomUUID(),
+                "txn-" + UUID.randomUUID(),
+                userId,
+                new BigDecimal(amount),
+                "USD",
+                merchantId,
+                "US",
+                "device-1",
+                TransactionStatus.RECEIVED,
+                Instant.ofEpochMilli(1_700_000_000_000L)
+        );
+    }
+}
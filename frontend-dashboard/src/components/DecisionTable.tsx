@@ -75,7 +75,7 @@ export const DecisionTable = ({
                   </td>
                   <td>{decision.riskScore}</td>
                   <td>{decision.ruleScore}</td>
-                  <td>{decision.mlScore}</td>
+                  <td>{decision.mlSkipped ? "skipped" : decision.mlScore ?? "-"}</td>
                   <td>{decision.location ?? "-"}</td>
                 </tr>
               ))}
@@ -10,7 +10,8 @@ export interface DashboardDecision {
   riskScore: number;
   decision: DecisionType;
   ruleScore: number;
-  mlScore: number;
+  mlScore: number | null;
+  mlSkipped: boolean;
   createdAt: string;
 }
 
@@ -6,6 +6,7 @@ class PredictionRequest(BaseModel):
     transaction_frequency: int = Field(..., ge=0, le=10_000)
     location_risk: float = Field(..., ge=0, le=1)
     merchant_risk: float = Field(..., ge=0, le=1)
+    features: dict[str, float] = Field(default_factory=dict)
 
 
 class PredictionResponse(BaseModel):
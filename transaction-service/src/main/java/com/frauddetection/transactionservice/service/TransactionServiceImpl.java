@@ -47,7 +47,8 @@ public class TransactionServiceImpl implements TransactionService {
         Transaction savedTransaction = transactionRepository.save(transaction);
 
         TransactionCreatedEvent event = transactionMapper.toEvent(savedTransaction);
-        kafkaTemplate.send(transactionTopic, savedTransaction.getTransactionId(), event)
+        // Keyed by user so each fraud-service consumer owns a user's whole velocity window.
+        kafkaTemplate.send(transactionTopic, savedTransaction.getUserId(), event)
                 .whenComplete((result, ex) -> {
                     if (ex != null) {
                         log.error("transaction_publish_failed transactionId={}", savedTransaction.getTransactionId(), ex);